@@ -0,0 +1,93 @@
+package com.groupe2_ionic.eduka.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URISyntaxException;
+
+/**
+ * Client HTTP sortant partagé par les appels aux fournisseurs SMS et de paiement
+ *
+ * Les connexions sont réutilisées (keep-alive) dans un pool borné au total et par hôte : une rafale d'envois
+ * attend une connexion libre au lieu d'ouvrir une socket par requête et d'épuiser les ports éphémères.
+ * L'attente d'une connexion, l'établissement et la réponse ont chacun un délai maximal.
+ * L'occupation du pool est publiée dans les métriques httpcomponents.httpclient.pool.* (client "sortant").
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager connexionsHttp(HttpClientProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connexions = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getConnexionsMax())
+                .setMaxConnPerRoute(properties.getConnexionsParHoteDefaut())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // Réutilise d'abord la connexion la plus récente : les connexions en trop vieillissent et sont fermées
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getDelaiConnexionMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getDelaiLectureMs()))
+                        .setTimeToLive(TimeValue.ofSeconds(properties.getDureeVieSecondes()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        properties.getConnexionsParHote().forEach((url, max) -> connexions.setMaxPerRoute(route(url), max));
+        new PoolingHttpClientConnectionManagerMetricsBinder(connexions, "sortant").bindTo(meterRegistry);
+        return connexions;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connexionsHttp,
+                                          HttpClientProperties properties) {
+        TimeValue keepAliveMax = TimeValue.ofSeconds(properties.getKeepAliveSecondes());
+        return HttpClients.custom()
+                .setConnectionManager(connexionsHttp)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getAttenteConnexionMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getDelaiLectureMs()))
+                        .build())
+                .setKeepAliveStrategy((reponse, contexte) -> DefaultConnectionKeepAliveStrategy.INSTANCE
+                        .getKeepAliveDuration(reponse, contexte).min(keepAliveMax))
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMax)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Route directe vers l'hôte d'une URL de base, telle que le client la calcule (port par défaut du schéma)
+     */
+    static HttpRoute route(String url) {
+        try {
+            HttpHost hote = HttpHost.create(url);
+            boolean securise = "https".equalsIgnoreCase(hote.getSchemeName());
+            int port = hote.getPort() > 0 ? hote.getPort() : (securise ? 443 : 80);
+            return new HttpRoute(new HttpHost(hote.getSchemeName(), hote.getHostName(), port), null, securise);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("URL d'hôte invalide: " + url, e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.groupe2_ionic.eduka.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration du client HTTP sortant (fournisseurs SMS et de paiement)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+
+    /**
+     * Connexions ouvertes au total, tous hôtes confondus
+     */
+    private int connexionsMax = 200;
+
+    /**
+     * Connexions ouvertes par hôte, sauf réglage propre à l'hôte
+     */
+    private int connexionsParHoteDefaut = 20;
+
+    /**
+     * Connexions par hôte, par URL de base
+     * Dans un fichier .properties le « : » sépare la clé de la valeur et doit être échappé :
+     * http.client.connexions-par-hote[https\://api.twilio.com]=50 (en YAML : "[https://api.twilio.com]": 50)
+     */
+    private Map<String, Integer> connexionsParHote = new HashMap<>();
+
+    /**
+     * Délai d'établissement d'une connexion
+     */
+    private long delaiConnexionMs = 3_000;
+
+    /**
+     * Délai maximal d'attente de la réponse
+     */
+    private long delaiLectureMs = 10_000;
+
+    /**
+     * Attente maximale d'une connexion libre quand le pool de l'hôte est plein
+     */
+    private long attenteConnexionMs = 2_000;
+
+    /**
+     * Durée de conservation d'une connexion inactive (keep-alive), plafonnée à la valeur annoncée par le serveur
+     */
+    private long keepAliveSecondes = 30;
+
+    /**
+     * Durée de vie maximale d'une connexion, pour suivre les changements d'adresse des fournisseurs
+     */
+    private long dureeVieSecondes = 300;
+}
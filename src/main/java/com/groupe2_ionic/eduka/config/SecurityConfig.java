@@ -2,6 +2,7 @@ package com.groupe2_ionic.eduka.config;
 
 import com.groupe2_ionic.eduka.security.CustomUserDetailsService;
 import com.groupe2_ionic.eduka.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -53,6 +54,9 @@ public class SecurityConfig {
 
                 // Configuration des autorisations
                 .authorizeHttpRequests(authz -> authz
+                        // Dispatch asynchrone des flux SSE : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints publics d'authentification
                         .requestMatchers("/api/auth/login", "/api/auth/refresh", "/api/auth/logout").permitAll()
                         .requestMatchers("/api/auth/forgot-password", "/api/auth/reset-password").permitAll()
@@ -67,6 +71,7 @@ public class SecurityConfig {
 
                         // Endpoints de santé et métriques
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Endpoints d'administration (Admin uniquement)
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
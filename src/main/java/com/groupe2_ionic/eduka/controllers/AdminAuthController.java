@@ -1,5 +1,6 @@
 package com.groupe2_ionic.eduka.controllers;
 
+import com.groupe2_ionic.eduka.security.VerifiedTokenCache;
 import com.groupe2_ionic.eduka.services.RefreshTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -26,6 +27,7 @@ import java.util.Map;
 public class AdminAuthController {
 
     private final RefreshTokenService refreshTokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     /**
      * Statistiques des tokens de rafraîchissement
@@ -52,6 +54,17 @@ public class AdminAuthController {
         }
     }
 
+    /**
+     * Statistiques du cache des tokens d'accès vérifiés
+     */
+    @GetMapping("/token-cache-stats")
+    @Operation(summary = "Statistiques du cache des tokens", description = "Récupère la taille, le taux de succès et les évictions du cache des tokens vérifiés")
+    @ApiResponse(responseCode = "200", description = "Statistiques récupérées avec succès")
+    public ResponseEntity<VerifiedTokenCache.CacheStats> getTokenCacheStats() {
+        log.info("Récupération des statistiques du cache des tokens par un admin");
+        return ResponseEntity.ok(verifiedTokenCache.getStats());
+    }
+
     /**
      * Révocation de tous les tokens d'un utilisateur
      */
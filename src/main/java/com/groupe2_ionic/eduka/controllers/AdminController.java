@@ -3,7 +3,11 @@ package com.groupe2_ionic.eduka.controllers;
 import com.groupe2_ionic.eduka.dto.ValidationOrganisationDto;
 import com.groupe2_ionic.eduka.dto.ValidationResponseDto;
 import com.groupe2_ionic.eduka.dto.RapportGlobalDto;
+import com.groupe2_ionic.eduka.dto.TacheRapportDto;
 import com.groupe2_ionic.eduka.services.AdminService;
+import com.groupe2_ionic.eduka.services.rapports.FormatExport;
+import com.groupe2_ionic.eduka.services.rapports.GenerationRapports;
+import com.groupe2_ionic.eduka.services.rapports.TachesRapport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,11 +18,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/admins")
@@ -27,6 +36,7 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final GenerationRapports generationRapports;
 
     @PostMapping("/{adminId}/organisations/{organisationId}/valider")
     @Operation(summary = "Valider ou rejeter l'inscription d'une organisation",
@@ -121,24 +131,96 @@ public class AdminController {
 
     @GetMapping("/export-comptable")
     @Operation(summary = "Exporter les données comptables",
-            description = "Exporte les données comptables au format CSV ou PDF")
-    @ApiResponse(responseCode = "200", description = "Export généré avec succès")
-    public ResponseEntity<byte[]> exporterDonneesComptables(
+            description = "Exporte les paiements, dépenses et transferts de la période au format CSV ou XLSX, " +
+                    "écrits dans la réponse au fil de la lecture. Le CSV est compressé (gzip) si le client l'accepte.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export généré avec succès"),
+            @ApiResponse(responseCode = "400", description = "Format non supporté")
+    })
+    public ResponseEntity<StreamingResponseBody> exporterDonneesComptables(
             @Parameter(description = "Date de début")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
             @Parameter(description = "Date de fin")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
-            @Parameter(description = "Format d'export (CSV ou PDF)")
-            @RequestParam(defaultValue = "CSV") String format) {
+            @Parameter(description = "Format d'export (CSV ou XLSX)")
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        FormatExport formatExport;
+        try {
+            formatExport = FormatExport.depuis(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Le classeur XLSX est déjà une archive compressée
+        boolean gzip = formatExport == FormatExport.CSV && acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody export = sortie -> {
+            if (!gzip) {
+                adminService.exporterDonneesComptables(dateDebut, dateFin, format, sortie);
+                return;
+            }
+            GZIPOutputStream compression = new GZIPOutputStream(sortie, 64 * 1024);
+            adminService.exporterDonneesComptables(dateDebut, dateFin, format, compression);
+            compression.finish();
+        };
+
+        String filename = "export_comptable_" + dateDebut + "_" + dateFin + "." + formatExport.getExtension();
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatExport.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            reponse.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return reponse.body(export);
+    }
+
+    @PostMapping("/rapports/administratif")
+    @Operation(summary = "Générer le rapport administratif PDF",
+            description = "Met la génération en file et retourne la tâche à suivre via /api/v1/taches-rapport/{tacheId}. " +
+                    "Une demande identique en cours retourne la même tâche.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Génération en file ou déjà en cours"),
+            @ApiResponse(responseCode = "429", description = "Trop de rapports en attente")
+    })
+    public ResponseEntity<TacheRapportDto> genererRapportAdministratif(
+            @Parameter(description = "Date de début")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @Parameter(description = "Date de fin")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
 
-        byte[] export = adminService.exporterDonneesComptables(dateDebut, dateFin, format);
+        try {
+            TacheRapportDto tache = generationRapports.soumettreRapportAdministratif(dateDebut, dateFin);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(tache);
+        } catch (TachesRapport.FileSatureeException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
 
-        String contentType = format.equalsIgnoreCase("PDF") ? "application/pdf" : "text/csv";
-        String filename = "export_comptable_" + dateDebut + "_" + dateFin + "." + format.toLowerCase();
+    @PostMapping("/export-comptable/taches")
+    @Operation(summary = "Générer l'export comptable en arrière-plan",
+            description = "Met l'export en file et retourne la tâche à suivre via /api/v1/taches-rapport/{tacheId}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Export en file ou déjà en cours"),
+            @ApiResponse(responseCode = "400", description = "Format non supporté"),
+            @ApiResponse(responseCode = "429", description = "Trop de rapports en attente")
+    })
+    public ResponseEntity<TacheRapportDto> soumettreExportComptable(
+            @Parameter(description = "Date de début")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @Parameter(description = "Date de fin")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @Parameter(description = "Format d'export (CSV ou XLSX)")
+            @RequestParam(defaultValue = "CSV") String format) {
 
-        return ResponseEntity.ok()
-                .header("Content-Type", contentType)
-                .header("Content-Disposition", "attachment; filename=" + filename)
-                .body(export);
+        try {
+            TacheRapportDto tache = generationRapports.soumettreExportComptable(dateDebut, dateFin, format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(tache);
+        } catch (TachesRapport.FileSatureeException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
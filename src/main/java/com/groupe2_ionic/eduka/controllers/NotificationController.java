@@ -1,6 +1,7 @@
 package com.groupe2_ionic.eduka.controllers;
 
 import com.groupe2_ionic.eduka.dto.NotificationResponseDto;
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
 import com.groupe2_ionic.eduka.services.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,8 +10,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -53,6 +56,22 @@ public class NotificationController {
         }
     }
 
+    @GetMapping("/user/{userId}/feed")
+    @Operation(summary = "Récupérer les notifications par curseur",
+            description = "DÉFILEMENT INFINI - Renvoyer curseurSuivant pour la page suivante, coût constant en profondeur")
+    public ResponseEntity<PageCurseurDto<NotificationResponseDto>> getNotificationsFeed(
+            @Parameter(description = "ID de l'utilisateur") @PathVariable int userId,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page (max 100)") @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(notificationService.getFluxNotifications(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @GetMapping("/user/{userId}/unread")
     @Operation(summary = "Récupérer les notifications non lues",
             description = "TEMPS RÉEL - Données sensibles, actualiser à chaque navigation")
@@ -79,6 +98,18 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Flux temps réel des notifications (SSE)",
+            description = "TEMPS RÉEL - Événements 'notification' et 'compteur', remplace l'interrogation du compteur")
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @Parameter(description = "ID de l'utilisateur") @PathVariable int userId) {
+        try {
+            return ResponseEntity.ok(notificationService.abonner(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @PutMapping("/{notificationId}/read")
     @Operation(summary = "Marquer une notification comme lue")
     public ResponseEntity<NotificationResponseDto> markAsRead(
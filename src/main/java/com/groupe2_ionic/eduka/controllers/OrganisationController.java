@@ -2,6 +2,8 @@ package com.groupe2_ionic.eduka.controllers;
 
 import com.groupe2_ionic.eduka.dto.*;
 import com.groupe2_ionic.eduka.services.OrganisationService;
+import com.groupe2_ionic.eduka.services.rapports.GenerationRapports;
+import com.groupe2_ionic.eduka.services.rapports.TachesRapport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +14,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -25,6 +29,7 @@ import java.util.List;
 public class OrganisationController {
 
     private final OrganisationService organisationService;
+    private final GenerationRapports generationRapports;
 
     @Operation(
             summary = "Inscription d'une nouvelle organisation",
@@ -201,6 +206,31 @@ public class OrganisationController {
         return ResponseEntity.ok(rapports);
     }
 
+    @Operation(
+            summary = "Générer le rapport mensuel PDF de l'organisation",
+            description = "Met la génération en file et retourne la tâche à suivre via /api/v1/taches-rapport/{tacheId}. " +
+                    "Une demande identique en cours retourne la même tâche."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Génération en file ou déjà en cours"),
+            @ApiResponse(responseCode = "404", description = "Organisation non trouvée"),
+            @ApiResponse(responseCode = "429", description = "Trop de rapports en attente pour l'organisation")
+    })
+    @PostMapping("/{organisationId}/rapports/mensuel")
+    public ResponseEntity<TacheRapportDto> genererRapportMensuel(
+            @Parameter(description = "ID de l'organisation") @PathVariable int organisationId,
+            @Parameter(description = "Mois du rapport (AAAA-MM)")
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth mois) {
+        try {
+            TacheRapportDto tache = generationRapports.soumettreRapportMensuel(organisationId, mois);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(tache);
+        } catch (TachesRapport.FileSatureeException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @Operation(
             summary = "Créer une demande de transfert résiduel",
             description = "Permet à une organisation de demander le transfert de fonds résiduels " +
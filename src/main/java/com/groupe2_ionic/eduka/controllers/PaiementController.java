@@ -1,10 +1,14 @@
 package com.groupe2_ionic.eduka.controllers;
 
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
 import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
 import com.groupe2_ionic.eduka.dto.PaiementEspeceDto;
 import com.groupe2_ionic.eduka.dto.PaiementHistoriqueDto;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
 import com.groupe2_ionic.eduka.services.PaiementService;
+import com.groupe2_ionic.eduka.services.payment.IngestionRappelsPaiement;
+import com.groupe2_ionic.eduka.services.payment.PasserellePaiement;
 import com.groupe2_ionic.eduka.services.payment.PayPalPaymentService;
 import com.groupe2_ionic.eduka.services.payment.StripePaymentService;
 import com.groupe2_ionic.eduka.services.payment.WavePaymentService;
@@ -17,8 +21,14 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/payments")
@@ -30,6 +40,7 @@ public class PaiementController {
     private final StripePaymentService stripePaymentService;
     private final PayPalPaymentService payPalPaymentService;
     private final WavePaymentService wavePaymentService;
+    private final IngestionRappelsPaiement ingestionRappelsPaiement;
 
     @PostMapping("/initier")
     @Operation(summary = "Initier un paiement",
@@ -37,14 +48,21 @@ public class PaiementController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Paiement initié avec succès"),
             @ApiResponse(responseCode = "400", description = "Données de paiement invalides"),
-            @ApiResponse(responseCode = "404", description = "Parrainage non trouvé")
+            @ApiResponse(responseCode = "404", description = "Parrainage non trouvé"),
+            @ApiResponse(responseCode = "503", description = "Fournisseur de paiement momentanément indisponible")
     })
-    public ResponseEntity<PaiementResponseDto> initierPaiement(@Valid @RequestBody PaiementRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<PaiementResponseDto>> initierPaiement(
+            @Valid @RequestBody PaiementRequestDto requestDto) {
         try {
-            PaiementResponseDto response = paymentService.initierPaiement(requestDto);
-            return ResponseEntity.ok(response);
+            // Le thread de la requête est libéré pendant l'appel au fournisseur
+            return paymentService.initierPaiementAsync(requestDto)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(erreur -> erreur.getCause() instanceof PasserellePaiement.FournisseurIndisponibleException
+                            ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                    .header(HttpHeaders.RETRY_AFTER, "30").build()
+                            : ResponseEntity.badRequest().build());
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
     }
 
@@ -55,8 +73,9 @@ public class PaiementController {
             @RequestHeader("Stripe-Signature") String signature) {
 
         try {
-            stripePaymentService.traiterWebhook(payload, signature);
-            return ResponseEntity.ok("OK");
+            return stripePaymentService.traiterWebhook(payload, signature)
+                    .map(this::accuser)
+                    .orElseGet(() -> ResponseEntity.ok("OK"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur webhook");
         }
@@ -69,7 +88,8 @@ public class PaiementController {
             @Parameter(description = "ID de la commande PayPal") @PathVariable String orderId) {
 
         try {
-            payPalPaymentService.capturerPaiement(orderId);
+            IngestionRappelsPaiement.RappelPaiement capture = payPalPaymentService.capturerPaiement(orderId);
+            paymentService.confirmerPaiement(capture.transactionId(), capture.statut(), capture.codeConfirmation());
             return ResponseEntity.ok("Paiement capturé");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur capture");
@@ -81,11 +101,14 @@ public class PaiementController {
     public ResponseEntity<String> waveCallback(
             @RequestParam String transactionId,
             @RequestParam String status,
-            @RequestParam(required = false) String confirmationCode) {
+            @RequestParam(required = false) String confirmationCode,
+            @Parameter(description = "Identifiant de l'événement Wave, pour écarter les renvois")
+            @RequestParam(required = false) String eventId) {
 
         try {
-            wavePaymentService.traiterCallback(transactionId, status, confirmationCode);
-            return ResponseEntity.ok("OK");
+            StatutPaiement statut = wavePaymentService.convertirStatut(status);
+            return accuser(new IngestionRappelsPaiement.RappelPaiement(
+                    eventId != null ? eventId : transactionId + ":" + statut, transactionId, statut, confirmationCode));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur callback");
         }
@@ -99,10 +122,10 @@ public class PaiementController {
             @RequestParam String codeConfirmation) {
 
         try {
-            paymentService.confirmerPaiement(transactionId,
-                    com.groupe2_ionic.eduka.models.enums.StatutPaiement.REUSSI,
-                    codeConfirmation);
-            return ResponseEntity.ok("Paiement confirmé");
+            ResponseEntity<String> accuse = accuser(new IngestionRappelsPaiement.RappelPaiement(
+                    transactionId + ":" + StatutPaiement.REUSSI, transactionId, StatutPaiement.REUSSI,
+                    codeConfirmation));
+            return accuse.getStatusCode().is2xxSuccessful() ? ResponseEntity.ok("Paiement confirmé") : accuse;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur confirmation");
         }
@@ -127,6 +150,28 @@ public class PaiementController {
         }
     }
 
+    @GetMapping("/historique/{parrainId}/feed")
+    @Operation(summary = "Historique des paiements d'un parrain par curseur",
+            description = "Défilement infini : renvoyer curseurSuivant pour la page suivante (pas de requête COUNT)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
+            @ApiResponse(responseCode = "404", description = "Parrain non trouvé")
+    })
+    public ResponseEntity<PageCurseurDto<PaiementHistoriqueDto>> getFluxHistoriquePaiements(
+            @Parameter(description = "ID du parrain") @PathVariable Integer parrainId,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page (max 100)") @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            return ResponseEntity.ok(paymentService.getFluxHistoriquePaiements(parrainId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/historique/organisation/{organisationId}")
     @Operation(summary = "Historique des paiements d'une organisation",
             description = "Récupère l'historique des paiements enregistrés par une organisation")
@@ -161,6 +206,26 @@ public class PaiementController {
         }
     }
 
+    @GetMapping("/{paiementId}/recu")
+    @Operation(summary = "Télécharger le reçu d'un paiement",
+            description = "Génère le reçu PDF d'un paiement réussi, écrit directement dans la réponse")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reçu généré"),
+            @ApiResponse(responseCode = "404", description = "Paiement non trouvé ou non réussi")
+    })
+    public ResponseEntity<StreamingResponseBody> telechargerRecu(
+            @Parameter(description = "ID du paiement") @PathVariable Integer paiementId) {
+
+        if (!paymentService.recuDisponible(paiementId)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody recu = sortie -> paymentService.ecrireRecuPaiement(paiementId, sortie);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=recu-paiement-" + paiementId + ".pdf")
+                .body(recu);
+    }
+
     @GetMapping("/statistiques/{parrainId}")
     @Operation(summary = "Statistiques de paiement d'un parrain",
             description = "Récupère les statistiques de paiement d'un parrain")
@@ -174,4 +239,31 @@ public class PaiementController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @GetMapping("/statistiques/organisation/{organisationId}")
+    @Operation(summary = "Statistiques des paiements d'une organisation",
+            description = "Récupère les statistiques des paiements enregistrés par une organisation")
+    public ResponseEntity<Object> getStatistiquesPaiementsOrganisation(
+            @Parameter(description = "ID de l'organisation") @PathVariable Integer organisationId) {
+
+        try {
+            Object statistiques = paymentService.getStatistiquesPaiementsOrganisation(organisationId);
+            return ResponseEntity.ok(statistiques);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Accuse réception d'un rappel de fournisseur dès sa mise en file
+     * Un renvoi déjà reçu est accusé sans être appliqué une seconde fois ; une file pleine demande un renvoi ultérieur
+     */
+    private ResponseEntity<String> accuser(IngestionRappelsPaiement.RappelPaiement rappel) {
+        if (ingestionRappelsPaiement.soumettre(rappel) == IngestionRappelsPaiement.Accuse.SATURE) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Réessayer plus tard");
+        }
+        return ResponseEntity.ok("OK");
+    }
 }
@@ -2,6 +2,7 @@ package com.groupe2_ionic.eduka.controllers;
 
 import com.groupe2_ionic.eduka.dto.*;
 import com.groupe2_ionic.eduka.services.ParrainService;
+import com.groupe2_ionic.eduka.services.recherche.RechercheEnfantsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,6 +26,7 @@ import java.util.List;
 public class ParrainController {
 
     private final ParrainService parrainService;
+    private final RechercheEnfantsService rechercheEnfantsService;
 
     @Operation(
             summary = "Inscription d'un nouveau parrain",
@@ -110,6 +112,28 @@ public class ParrainController {
         return ResponseEntity.ok(enfants);
     }
 
+    @Operation(
+            summary = "Rechercher des enfants disponibles",
+            description = "Recherche plein texte (nom, organisation, ville, niveau scolaire, histoire) classée par " +
+                    "pertinence, avec facettes par ville et par niveau scolaire. Au démarrage, tant que l'index " +
+                    "est en construction, seuls les filtres ville et niveau sont appliqués, sans facettes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Résultats de la recherche")
+    })
+    @GetMapping("/enfants-disponibles/recherche")
+    public ResponseEntity<RechercheEnfantsDto> rechercherEnfantsDisponibles(
+            @Parameter(description = "Texte recherché (optionnel, le dernier mot peut être incomplet)")
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Ville de l'organisation (optionnel, valeur de facette)")
+            @RequestParam(required = false) String ville,
+            @Parameter(description = "Niveau scolaire (optionnel, valeur de facette)")
+            @RequestParam(required = false) String niveauScolaire,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(rechercheEnfantsService.rechercher(q, ville, niveauScolaire, page, size));
+    }
+
     @Operation(
             summary = "Obtenir le détail d'un enfant",
             description = "Récupère les informations détaillées d'un enfant pour évaluation " +
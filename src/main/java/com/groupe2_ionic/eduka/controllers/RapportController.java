@@ -1,9 +1,12 @@
 package com.groupe2_ionic.eduka.controllers;
 
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.dto.RapportDto;
 import com.groupe2_ionic.eduka.dto.RapportResponseDto;
 import com.groupe2_ionic.eduka.dto.RapportRecentDto;
 import com.groupe2_ionic.eduka.services.RapportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -72,6 +75,21 @@ public class RapportController {
         return ResponseEntity.ok(rapports);
     }
 
+    @GetMapping("/organisation/{organisationId}/feed")
+    @Operation(summary = "Rapports d'une organisation par curseur",
+            description = "Défilement infini : renvoyer curseurSuivant pour la page suivante (pas de requête COUNT)")
+    public ResponseEntity<PageCurseurDto<RapportResponseDto>> getFluxRapportsParOrganisation(
+            @Parameter(description = "ID de l'organisation") @PathVariable int organisationId,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page (max 100)") @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            return ResponseEntity.ok(rapportService.getFluxRapportsParOrganisation(organisationId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/enfant/{enfantId}")
     public ResponseEntity<Page<RapportResponseDto>> getRapportsParEnfant(
             @PathVariable int enfantId,
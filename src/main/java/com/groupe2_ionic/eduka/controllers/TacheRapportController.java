@@ -0,0 +1,69 @@
+package com.groupe2_ionic.eduka.controllers;
+
+import com.groupe2_ionic.eduka.dto.TacheRapportDto;
+import com.groupe2_ionic.eduka.services.rapports.TachesRapport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/taches-rapport")
+@RequiredArgsConstructor
+@Tag(name = "Tâches de rapport", description = "Suivi et téléchargement des rapports générés en arrière-plan")
+public class TacheRapportController {
+
+    private final TachesRapport tachesRapport;
+
+    @GetMapping("/{tacheId}")
+    @Operation(summary = "État d'une tâche de rapport",
+            description = "Retourne le statut, la progression et, une fois terminé, l'URL du rapport")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "État de la tâche"),
+            @ApiResponse(responseCode = "404", description = "Tâche inconnue ou expirée")
+    })
+    public ResponseEntity<TacheRapportDto> getEtat(
+            @Parameter(description = "ID de la tâche") @PathVariable String tacheId) {
+        return tachesRapport.etat(tacheId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{tacheId}/fichier")
+    @Operation(summary = "Télécharger le rapport d'une tâche terminée")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rapport"),
+            @ApiResponse(responseCode = "404", description = "Tâche inconnue, expirée ou non terminée")
+    })
+    public ResponseEntity<Resource> telecharger(
+            @Parameter(description = "ID de la tâche") @PathVariable String tacheId) {
+        try {
+            Optional<Path> fichier = tachesRapport.fichier(tacheId);
+            if (fichier.isEmpty() || !Files.isRegularFile(fichier.get())) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Resource rapport = new FileSystemResource(fichier.get());
+            return ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(rapport).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + rapport.getFilename())
+                    .body(rapport);
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
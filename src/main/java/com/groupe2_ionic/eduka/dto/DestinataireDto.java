@@ -0,0 +1,15 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coordonnées minimales d'un destinataire de diffusion (sans charger l'entité Utilisateur)
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class DestinataireDto {
+    private int id;
+    private String email;
+    private String telephone;
+}
@@ -0,0 +1,19 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Champs d'un enfant disponible indexés pour la recherche (sans charger l'entité Enfant)
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class EnfantIndexeDto {
+    private int id;
+    private String nom;
+    private String prenom;
+    private String niveauScolaire;
+    private String histoire;
+    private String organisationNom;
+    private String ville;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.Period;
 
 @Data @NoArgsConstructor @AllArgsConstructor
 public class EnfantResponseDto {
@@ -27,4 +28,31 @@ public class EnfantResponseDto {
     private String ecoleNom;
     private int nombreParrainages;
     private int nombreRapports;
+
+    /**
+     * Constructeur utilisé par les projections JPQL (aucune entité chargée)
+     */
+    public EnfantResponseDto(int id, String nom, String prenom, Genre genre, LocalDate dateNaissance,
+                             String niveauScolaire, String histoire, String photoProfil, Boolean statutParrainage,
+                             BigDecimal solde, Boolean consentementPedagogique, String organisationNom,
+                             String tuteurNom, String tuteurPrenom, String ecoleNom,
+                             Long nombreParrainages, Long nombreRapports) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.genre = genre;
+        this.dateNaissance = dateNaissance;
+        this.age = Period.between(dateNaissance, LocalDate.now()).getYears();
+        this.niveauScolaire = niveauScolaire;
+        this.histoire = histoire;
+        this.photoProfil = photoProfil;
+        this.statutParrainage = statutParrainage;
+        this.solde = solde;
+        this.consentementPedagogique = consentementPedagogique;
+        this.organisationNom = organisationNom;
+        this.tuteurNom = tuteurNom != null ? tuteurNom + " " + tuteurPrenom : null;
+        this.ecoleNom = ecoleNom;
+        this.nombreParrainages = nombreParrainages.intValue();
+        this.nombreRapports = nombreRapports.intValue();
+    }
 }
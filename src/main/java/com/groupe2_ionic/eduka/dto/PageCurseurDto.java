@@ -0,0 +1,19 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'un flux paginé par curseur (keyset)
+ * {@code curseurSuivant} est opaque : le client le renvoie tel quel pour obtenir la page suivante
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class PageCurseurDto<T> {
+    private List<T> contenu;
+    private String curseurSuivant;
+    private boolean suivant;
+    private int taille;
+}
@@ -0,0 +1,22 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résultat d'une recherche d'enfants disponibles : page classée par pertinence et facettes
+ * Les facettes d'un critère sont comptées sans appliquer ce critère, pour pouvoir en changer
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class RechercheEnfantsDto {
+    private List<EnfantResponseDto> resultats;
+    private long total;
+    private int page;
+    private int taille;
+    private Map<String, Long> facettesVilles;
+    private Map<String, Long> facettesNiveaux;
+}
@@ -0,0 +1,19 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégats des paiements réussis d'un parrainage, calculés en SQL
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class StatistiquesPaiementDto {
+    private Integer parrainageId;
+    private BigDecimal montantPaye;
+    private Long nombrePaiements;
+    private LocalDate dernierPaiement;
+}
@@ -0,0 +1,25 @@
+package com.groupe2_ionic.eduka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'une génération de rapport en arrière-plan
+ * {@code url} et {@code taille} sont renseignés quand le statut est TERMINEE, {@code message} quand il est ECHEC
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class TacheRapportDto {
+    private String id;
+    private String type;
+    private String statut;
+    private int progression;
+    private String url;
+    private Long taille;
+    private String message;
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateFin;
+    private LocalDateTime dateExpiration;
+}
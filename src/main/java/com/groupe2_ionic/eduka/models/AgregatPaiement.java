@@ -0,0 +1,55 @@
+package com.groupe2_ionic.eduka.models;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.PorteeAgregat;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat des paiements d'un parrain, d'une organisation ou d'un parrainage pour une méthode de paiement
+ * Tenu à jour à chaque changement de statut d'un paiement et reconstruit périodiquement depuis les paiements
+ */
+@Entity @Getter @Setter @NoArgsConstructor
+@Table(name = "agregat_paiement", uniqueConstraints =
+        @UniqueConstraint(name = "uk_agregat_paiement", columnNames = {"portee", "cibleId", "methode"}))
+public class AgregatPaiement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private PorteeAgregat portee;
+
+    // Identifiant du parrain, de l'organisation ou du parrainage
+    @Column(nullable = false)
+    private int cibleId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private MethodePaiement methode;
+
+    // Tous statuts confondus
+    private long nombrePaiements;
+
+    private long nombreReussis;
+
+    @Column(nullable = false)
+    private BigDecimal montantReussi = BigDecimal.ZERO;
+
+    private LocalDate dernierPaiementDate;
+
+    private BigDecimal dernierPaiementMontant;
+
+    public AgregatPaiement(PorteeAgregat portee, int cibleId, MethodePaiement methode) {
+        this.portee = portee;
+        this.cibleId = cibleId;
+        this.methode = methode;
+    }
+}
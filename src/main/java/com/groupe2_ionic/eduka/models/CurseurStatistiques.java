@@ -0,0 +1,25 @@
+package com.groupe2_ionic.eduka.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Dernier identifiant d'une table source déjà cumulé dans les statistiques journalières
+ */
+@Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(name = "curseur_statistiques")
+public class CurseurStatistiques {
+
+    // PAIEMENT, PARRAINAGE, ENFANT, PARRAIN ou DEPENSE
+    @Id
+    @Column(length = 20)
+    private String source;
+
+    private int dernierId;
+}
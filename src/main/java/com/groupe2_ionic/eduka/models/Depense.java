@@ -11,6 +11,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_depense_date", columnList = "dateEnregistrement, id_depense"))
 public class Depense {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -10,6 +10,7 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_document_empreinte", columnList = "empreinte"))
 public class Document {
 
     @Id
@@ -22,6 +23,13 @@ public class Document {
 
     private String url;
 
+    // Empreinte SHA-256 du fichier partagé par tous les documents de même contenu ; le nombre de documents
+    // portant une empreinte est le nombre de références au fichier. Vide pour les fichiers stockés sous un nom unique.
+    @Column(length = 64)
+    private String empreinte;
+
+    private Long taille;
+
     @Column(nullable = false)
     private LocalDate date;
 
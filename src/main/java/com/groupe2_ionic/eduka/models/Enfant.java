@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_enfant_inscription", columnList = "dateInscription"))
 public class Enfant {
 
     @Id
@@ -50,6 +51,9 @@ public class Enfant {
     @Column(nullable = false)
     private Boolean consentementPedagogique = false;
 
+    // Renseignée à l'enregistrement ; vide pour les enfants enregistrés avant son ajout
+    private LocalDate dateInscription;
+
     // Un enfant n'a qu'un seul tuteur.
     @OneToOne
     @JoinColumn(name = "id_tuteur")
@@ -77,6 +81,13 @@ public class Enfant {
     @JoinColumn(name = "id_organisation")
     private Organisation organisation;
 
+    @PrePersist
+    protected void onCreate() {
+        if (dateInscription == null) {
+            dateInscription = LocalDate.now();
+        }
+    }
+
     // Méthode utilitaire pour calculer l’âge
     public int getAge() {
         if (dateNaissance == null) {
@@ -0,0 +1,63 @@
+package com.groupe2_ionic.eduka.models;
+
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.models.enums.StatutEnvoi;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envoi d'une notification en attente (outbox)
+ * Enregistré dans la transaction de l'appelant puis livré en arrière-plan par le NotificationDispatcher
+ */
+@Entity @Getter @Setter @NoArgsConstructor
+@Table(name = "envoi_notification", indexes = {
+        @Index(name = "idx_envoi_notification_file", columnList = "statut, canal, prochaineTentative"),
+        @Index(name = "idx_envoi_notification_jeton", columnList = "jeton")
+})
+public class EnvoiNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private CanalNotification canal;
+
+    // Adresse email ou numéro de téléphone
+    @Column(nullable = false)
+    private String destinataire;
+
+    private String sujet;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String contenu;
+
+    private boolean html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private StatutEnvoi statut = StatutEnvoi.EN_ATTENTE;
+
+    private int tentatives;
+
+    // Date à partir de laquelle l'envoi peut être (re)tenté ; sert aussi de bail pendant la livraison
+    @Column(nullable = false)
+    private LocalDateTime prochaineTentative;
+
+    // Identifiant du lot qui a réservé l'envoi
+    @Column(length = 36)
+    private String jeton;
+
+    @Column(nullable = false)
+    private LocalDateTime dateCreation;
+
+    private LocalDateTime dateEnvoi;
+
+    @Column(length = 500)
+    private String derniereErreur;
+}
@@ -9,6 +9,10 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_notification_destinataire_lu", columnList = "id_destinataire, lu"),
+        @Index(name = "idx_notification_flux", columnList = "id_destinataire, date, id_notification")
+})
 public class Notification {
 
     @Id
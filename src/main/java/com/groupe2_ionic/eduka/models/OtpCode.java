@@ -1,47 +0,0 @@
-package com.groupe2_ionic.eduka.models;
-
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.time.LocalDateTime;
-
-/**
- * Entité pour stocker les codes OTP
- * Utilisée pour l'authentification des tuteurs
- */
-@Entity
-@Table(name = "otp_codes")
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class OtpCode {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false)
-    private String telephone;
-
-    @Column(nullable = false, length = 6)
-    private String code;
-
-    @Column(nullable = false)
-    private LocalDateTime expiryDate;
-
-    @Column(nullable = false)
-    private LocalDateTime createdAt;
-
-    @Column(nullable = false)
-    private Boolean used = false;
-
-    @Column(nullable = false)
-    private Integer attempts = 0;
-
-    @PrePersist
-    protected void onCreate() {
-        createdAt = LocalDateTime.now();
-    }
-}
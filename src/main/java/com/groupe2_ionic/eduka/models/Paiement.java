@@ -12,6 +12,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_paiement_flux_parrain", columnList = "id_parrain, datePaiement, id_paiement"),
+        @Index(name = "idx_paiement_traitement", columnList = "traitementEnAttente"),
+        @Index(name = "idx_paiement_transaction", columnList = "transactionId"),
+        @Index(name = "idx_paiement_date", columnList = "datePaiement, id_paiement")
+})
 public class Paiement {
 
     @Id
@@ -38,6 +44,10 @@ public class Paiement {
     private String messageErreur; // Message d'erreur en cas d'échec
     private String metadonnees; // Métadonnées JSON pour informations supplémentaires
 
+    // Crédit du solde de l'enfant, reçu et notification à faire après la confirmation (voir TraitementPaiements)
+    @Column(nullable = false)
+    private boolean traitementEnAttente;
+
     // Un paiement n'est effectué que par un seul parrain.
     @ManyToOne
     @JoinColumn(name = "id_parrain")
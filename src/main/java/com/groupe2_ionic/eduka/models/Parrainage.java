@@ -13,6 +13,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_parrainage_debut", columnList = "dateDebut"))
 public class Parrainage {
 
     @Id
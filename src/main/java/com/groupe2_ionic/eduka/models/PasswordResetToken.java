@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
  * Permet de gérer la réinitialisation sécurisée des mots de passe
  */
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = {
+        @Index(name = "idx_password_reset_email", columnList = "email, createdAt"),
+        @Index(name = "idx_password_reset_actifs", columnList = "used, expiryDate"),
+        @Index(name = "idx_password_reset_expiration", columnList = "expiryDate")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
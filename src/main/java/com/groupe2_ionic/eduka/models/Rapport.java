@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_rapport_flux_organisation", columnList = "id_organisation, date, id_rapport"))
 public class Rapport {
 
     @Id
@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
  * Permet de gérer la révocation et le renouvellement des tokens
  */
 @Entity @Data @NoArgsConstructor @AllArgsConstructor
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user", columnList = "userId"),
+        @Index(name = "idx_refresh_tokens_actifs", columnList = "revoked, expiryDate"),
+        @Index(name = "idx_refresh_tokens_expiration", columnList = "expiryDate")
+})
 public class RefreshToken {
 
     @Id
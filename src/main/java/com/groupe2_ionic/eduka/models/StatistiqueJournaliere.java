@@ -0,0 +1,69 @@
+package com.groupe2_ionic.eduka.models;
+
+import com.groupe2_ionic.eduka.models.enums.PorteeStatistique;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cumul d'une journée pour toute la plateforme, un pays ou une organisation
+ * Calculé depuis les paiements, parrainages, enfants, parrains et dépenses du jour ; les rapports d'une période
+ * additionnent ces lignes au lieu de parcourir les tables de l'activité
+ */
+@Entity @Getter @Setter @NoArgsConstructor
+@Table(name = "statistique_journaliere", uniqueConstraints =
+        @UniqueConstraint(name = "uk_statistique_journaliere", columnNames = {"portee", "jour", "pays", "organisationId"}))
+public class StatistiqueJournaliere {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private PorteeStatistique portee;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    // Vide hors portée PAYS et ORGANISATION
+    @Column(nullable = false, length = 100)
+    private String pays = "";
+
+    // 0 hors portée ORGANISATION
+    @Column(nullable = false)
+    private int organisationId;
+
+    // Tous statuts confondus
+    private long nombrePaiements;
+
+    private long nombreReussis;
+
+    @Column(nullable = false)
+    private BigDecimal montantReussi = BigDecimal.ZERO;
+
+    // Parrainages commencés ce jour
+    private long nombreParrainages;
+
+    // Enfants inscrits ce jour
+    private long nombreEnfants;
+
+    // Parrains inscrits ce jour (portée GLOBALE seulement : un parrain n'appartient à aucune organisation)
+    private long nombreParrains;
+
+    private long nombreDepenses;
+
+    @Column(nullable = false)
+    private BigDecimal montantDepenses = BigDecimal.ZERO;
+
+    public StatistiqueJournaliere(PorteeStatistique portee, LocalDate jour, String pays, int organisationId) {
+        this.portee = portee;
+        this.jour = jour;
+        this.pays = pays;
+        this.organisationId = organisationId;
+    }
+}
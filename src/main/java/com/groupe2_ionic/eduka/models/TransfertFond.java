@@ -12,6 +12,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_transfert_date", columnList = "dateDemande, id_transfert"))
 public class TransfertFond {
 
     @Id
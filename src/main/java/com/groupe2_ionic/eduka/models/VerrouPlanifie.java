@@ -0,0 +1,30 @@
+package com.groupe2_ionic.eduka.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Verrou d'une tâche planifiée partagé entre les instances : détenu par une seule instance jusqu'à son expiration
+ */
+@Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+@Table(name = "verrou_planifie")
+public class VerrouPlanifie {
+
+    @Id
+    @Column(length = 50)
+    private String nom;
+
+    @Column(nullable = false, length = 64)
+    private String detenteur;
+
+    @Column(nullable = false)
+    private LocalDateTime expiration;
+}
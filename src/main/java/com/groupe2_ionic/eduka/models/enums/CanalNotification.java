@@ -0,0 +1,6 @@
+package com.groupe2_ionic.eduka.models.enums;
+
+public enum CanalNotification {
+    EMAIL,
+    SMS
+}
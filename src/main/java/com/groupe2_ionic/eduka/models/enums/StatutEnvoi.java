@@ -0,0 +1,7 @@
+package com.groupe2_ionic.eduka.models.enums;
+
+public enum StatutEnvoi {
+    EN_ATTENTE,
+    ENVOYE,
+    ECHEC
+}
@@ -0,0 +1,83 @@
+package com.groupe2_ionic.eduka.repository;
+
+import com.groupe2_ionic.eduka.models.AgregatPaiement;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.PorteeAgregat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository des agrégats de paiements par parrain, par organisation et par parrainage
+ */
+public interface AgregatPaiementRepository extends JpaRepository<AgregatPaiement, Long> {
+
+    List<AgregatPaiement> findByPorteeAndCibleId(PorteeAgregat portee, int cibleId);
+
+    boolean existsByPorteeAndCibleIdAndMethode(PorteeAgregat portee, int cibleId, MethodePaiement methode);
+
+    @Query("SELECT COALESCE(SUM(a.montantReussi), 0) FROM AgregatPaiement a " +
+            "WHERE a.portee = :portee AND a.cibleId = :cibleId")
+    BigDecimal sumMontantReussi(@Param("portee") PorteeAgregat portee, @Param("cibleId") int cibleId);
+
+    /**
+     * Applique une variation à un agrégat existant, en une seule instruction pour ne perdre aucune mise à jour concurrente
+     * Le montant du dernier paiement est affecté avant sa date : MySQL évalue les affectations dans l'ordre
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AgregatPaiement a SET a.nombrePaiements = a.nombrePaiements + :nombre, " +
+            "a.nombreReussis = a.nombreReussis + :reussis, " +
+            "a.montantReussi = a.montantReussi + :variationMontant, " +
+            "a.dernierPaiementMontant = CASE WHEN :reussis > 0 AND (a.dernierPaiementDate IS NULL " +
+            "OR a.dernierPaiementDate <= :date) THEN :montant ELSE a.dernierPaiementMontant END, " +
+            "a.dernierPaiementDate = CASE WHEN :reussis > 0 AND (a.dernierPaiementDate IS NULL " +
+            "OR a.dernierPaiementDate <= :date) THEN :date ELSE a.dernierPaiementDate END " +
+            "WHERE a.portee = :portee AND a.cibleId = :cibleId AND a.methode = :methode")
+    int appliquer(@Param("portee") PorteeAgregat portee,
+                  @Param("cibleId") int cibleId,
+                  @Param("methode") MethodePaiement methode,
+                  @Param("nombre") long nombre,
+                  @Param("reussis") long reussis,
+                  @Param("variationMontant") BigDecimal variationMontant,
+                  @Param("montant") BigDecimal montant,
+                  @Param("date") LocalDate date);
+
+    /**
+     * Réécrit un agrégat recalculé, à condition que ses compteurs n'aient pas changé depuis leur lecture :
+     * une variation appliquée entre-temps n'est pas écrasée
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AgregatPaiement a SET a.nombrePaiements = :nombrePaiements, a.nombreReussis = :nombreReussis, " +
+            "a.montantReussi = :montantReussi, a.dernierPaiementDate = :dernierPaiementDate, " +
+            "a.dernierPaiementMontant = :dernierPaiementMontant " +
+            "WHERE a.portee = :portee AND a.cibleId = :cibleId AND a.methode = :methode " +
+            "AND a.nombrePaiements = :nombreLu AND a.nombreReussis = :reussisLu AND a.montantReussi = :montantLu")
+    int corriger(@Param("portee") PorteeAgregat portee,
+                 @Param("cibleId") int cibleId,
+                 @Param("methode") MethodePaiement methode,
+                 @Param("nombreLu") long nombreLu,
+                 @Param("reussisLu") long reussisLu,
+                 @Param("montantLu") BigDecimal montantLu,
+                 @Param("nombrePaiements") long nombrePaiements,
+                 @Param("nombreReussis") long nombreReussis,
+                 @Param("montantReussi") BigDecimal montantReussi,
+                 @Param("dernierPaiementDate") LocalDate dernierPaiementDate,
+                 @Param("dernierPaiementMontant") BigDecimal dernierPaiementMontant);
+
+    // Supprime un agrégat sans paiement, à condition qu'aucune variation ne l'ait modifié depuis sa lecture
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AgregatPaiement a WHERE a.portee = :portee AND a.cibleId = :cibleId " +
+            "AND a.methode = :methode AND a.nombrePaiements = :nombreLu AND a.nombreReussis = :reussisLu " +
+            "AND a.montantReussi = :montantLu")
+    int supprimerSiInchange(@Param("portee") PorteeAgregat portee,
+                            @Param("cibleId") int cibleId,
+                            @Param("methode") MethodePaiement methode,
+                            @Param("nombreLu") long nombreLu,
+                            @Param("reussisLu") long reussisLu,
+                            @Param("montantLu") BigDecimal montantLu);
+}
@@ -1,5 +1,6 @@
 package com.groupe2_ionic.eduka.repository;
 
+import com.groupe2_ionic.eduka.dto.BesoinDto;
 import com.groupe2_ionic.eduka.models.Besoin;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -24,4 +25,13 @@ public interface BesoinRepository extends JpaRepository<Besoin, Integer> {
     Long countByEnfantOrganisationId(int organisationId);
 
     List<Besoin> findByEnfantIdOrderByIdDesc(int id);
+
+    // Les derniers besoins de chaque enfant, au plus :parEnfant, limités en SQL par row_number
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.BesoinDto(r.type, r.montant, r.enfantId) FROM (" +
+            "SELECT b.id AS id, b.type AS type, b.montant AS montant, b.enfant.id AS enfantId, " +
+            "row_number() OVER (PARTITION BY b.enfant.id ORDER BY b.id DESC) AS rang " +
+            "FROM Besoin b WHERE b.enfant.id IN :enfantIds) r " +
+            "WHERE r.rang <= :parEnfant ORDER BY r.id DESC")
+    List<BesoinDto> findDerniersBesoinsByEnfantIds(@Param("enfantIds") List<Integer> enfantIds,
+                                                   @Param("parEnfant") int parEnfant);
 }
@@ -0,0 +1,7 @@
+package com.groupe2_ionic.eduka.repository;
+
+import com.groupe2_ionic.eduka.models.CurseurStatistiques;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CurseurStatistiquesRepository extends JpaRepository<CurseurStatistiques, String> {
+}
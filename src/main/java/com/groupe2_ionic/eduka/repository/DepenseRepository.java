@@ -32,4 +32,15 @@ public interface DepenseRepository extends JpaRepository<Depense, Integer> {
 
     Long countByOrganisationId(int organisationId);
     Long countByEnfantId(int enfantId);
+
+    // Dépenses d'une période par jour et par organisation
+    @Query("SELECT d.dateEnregistrement, o.id, COUNT(d), SUM(d.montant) FROM Depense d LEFT JOIN d.organisation o " +
+            "WHERE d.dateEnregistrement BETWEEN :dateDebut AND :dateFin GROUP BY d.dateEnregistrement, o.id")
+    List<Object[]> cumulerParJour(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM Depense d")
+    int findDernierId();
+
+    @Query("SELECT DISTINCT d.dateEnregistrement FROM Depense d WHERE d.id > :apresId AND d.id <= :jusquA")
+    List<LocalDate> findJoursEntre(@Param("apresId") int apresId, @Param("jusquA") int jusquA);
 }
@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface DocumentRepository extends JpaRepository<Document, Integer> {
 
@@ -68,4 +70,15 @@ public interface DocumentRepository extends JpaRepository<Document, Integer> {
      * Exemple : récupérer uniquement les "PDF" liés à un rapport donné.
      */
     List<Document> findByRapportIdAndType(int rapportId, String type);
+
+    /**
+     * Nombre de documents qui référencent le fichier d'une empreinte.
+     */
+    long countByEmpreinte(String empreinte);
+
+    /**
+     * Parmi des empreintes, celles qui sont encore référencées par au moins un document.
+     */
+    @Query("SELECT DISTINCT d.empreinte FROM Document d WHERE d.empreinte IN :empreintes")
+    Set<String> findEmpreintesReferencees(@Param("empreintes") Collection<String> empreintes);
 }
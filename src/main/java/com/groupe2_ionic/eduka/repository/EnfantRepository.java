@@ -1,30 +1,64 @@
 package com.groupe2_ionic.eduka.repository;
 
+import com.groupe2_ionic.eduka.dto.EnfantIndexeDto;
+import com.groupe2_ionic.eduka.dto.EnfantResponseDto;
 import com.groupe2_ionic.eduka.models.Enfant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface EnfantRepository extends JpaRepository<Enfant, Integer> {
 
+    // Projection des listes d'enfants : colonnes du DTO et compteurs par sous-requêtes, sans charger d'entité
+    String SELECT_ENFANT_DTO = "SELECT new com.groupe2_ionic.eduka.dto.EnfantResponseDto(e.id, e.nom, e.prenom, " +
+            "e.genre, e.dateNaissance, e.niveauScolaire, e.histoire, e.photoProfil, e.statutParrainage, e.solde, " +
+            "e.consentementPedagogique, o.nom, t.nom, t.prenom, ec.nom, " +
+            "(SELECT COUNT(p) FROM Parrainage p WHERE p.enfant.id = e.id), " +
+            "(SELECT COUNT(r) FROM Rapport r WHERE r.enfant.id = e.id)) " +
+            "FROM Enfant e LEFT JOIN e.organisation o LEFT JOIN e.tuteur t LEFT JOIN e.ecole ec ";
+
+    String FILTRES_DISPONIBLES = "WHERE e.statutParrainage = false " +
+            "AND (:organisationNom IS NULL OR o.nom LIKE %:organisationNom%) " +
+            "AND (:zone IS NULL OR o.ville LIKE %:zone%) " +
+            "AND (:niveauScolaire IS NULL OR e.niveauScolaire LIKE %:niveauScolaire%)";
+
     @Query("SELECT e FROM Enfant e WHERE e.statutParrainage = false")
     Page<Enfant> findEnfantsDisponibles(Pageable pageable);
 
-    @Query("SELECT e FROM Enfant e WHERE e.statutParrainage = false " +
-            "AND (:organisationNom IS NULL OR e.organisation.nom LIKE %:organisationNom%) " +
-            "AND (:zone IS NULL OR e.organisation.ville LIKE %:zone%) " +
-            "AND (:niveauScolaire IS NULL OR e.niveauScolaire LIKE %:niveauScolaire%)")
-    Page<Enfant> findEnfantsDisponiblesAvecFiltres(
+    @Query(value = SELECT_ENFANT_DTO + FILTRES_DISPONIBLES,
+            countQuery = "SELECT COUNT(e) FROM Enfant e LEFT JOIN e.organisation o " + FILTRES_DISPONIBLES)
+    Page<EnfantResponseDto> findEnfantsDisponiblesDto(
             @Param("organisationNom") String organisationNom,
             @Param("zone") String zone,
             @Param("niveauScolaire") String niveauScolaire,
             Pageable pageable);
 
+    @Query(value = SELECT_ENFANT_DTO + "WHERE e.organisation.id = :organisationId",
+            countQuery = "SELECT COUNT(e) FROM Enfant e WHERE e.organisation.id = :organisationId")
+    Page<EnfantResponseDto> findEnfantsDtoByOrganisationId(@Param("organisationId") int organisationId, Pageable pageable);
+
+    @Query(SELECT_ENFANT_DTO + "WHERE e.id IN :ids AND e.statutParrainage = false")
+    List<EnfantResponseDto> findEnfantsDisponiblesDtoByIds(@Param("ids") List<Integer> ids);
+
+    // Documents de l'index de recherche, parcourus par identifiant croissant
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.EnfantIndexeDto(e.id, e.nom, e.prenom, e.niveauScolaire, " +
+            "e.histoire, o.nom, o.ville) FROM Enfant e LEFT JOIN e.organisation o " +
+            "WHERE e.statutParrainage = false AND e.id > :apresId ORDER BY e.id")
+    List<EnfantIndexeDto> findIndexablesApres(@Param("apresId") int apresId, Pageable pageable);
+
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.EnfantIndexeDto(e.id, e.nom, e.prenom, e.niveauScolaire, " +
+            "e.histoire, o.nom, o.ville) FROM Enfant e LEFT JOIN e.organisation o " +
+            "WHERE e.id = :id AND e.statutParrainage = false")
+    Optional<EnfantIndexeDto> findIndexableById(@Param("id") int id);
+
     List<Enfant> findByOrganisationId(int organisationId);
 
     Page<Enfant> findByOrganisationId(int organisationId, Pageable pageable);
@@ -41,5 +75,21 @@ public interface EnfantRepository extends JpaRepository<Enfant, Integer> {
     long countByOrganisationIdAndStatutParrainageTrue(int organisationId);
     long countByOrganisationIdAndStatutParrainageFalse(int organisationId);
 
-    // long countByDateInscriptionBetween(LocalDate dateDebut, LocalDate dateFin);
+    // Enfants inscrits pendant une période, par jour et par organisation
+    @Query("SELECT e.dateInscription, o.id, COUNT(e) FROM Enfant e LEFT JOIN e.organisation o " +
+            "WHERE e.dateInscription BETWEEN :dateDebut AND :dateFin GROUP BY e.dateInscription, o.id")
+    List<Object[]> cumulerParJour(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM Enfant e")
+    int findDernierId();
+
+    // Les enfants enregistrés avant la date d'inscription n'ont pas de jour
+    @Query("SELECT DISTINCT e.dateInscription FROM Enfant e WHERE e.id > :apresId AND e.id <= :jusquA " +
+            "AND e.dateInscription IS NOT NULL")
+    List<LocalDate> findJoursEntre(@Param("apresId") int apresId, @Param("jusquA") int jusquA);
+
+    // Crédite le solde sans lecture préalable (pas de mise à jour perdue)
+    @Modifying
+    @Query("UPDATE Enfant e SET e.solde = COALESCE(e.solde, 0) + :montant WHERE e.id = :enfantId")
+    int crediterSolde(@Param("enfantId") int enfantId, @Param("montant") BigDecimal montant);
 }
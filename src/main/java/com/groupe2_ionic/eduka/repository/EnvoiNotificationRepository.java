@@ -0,0 +1,73 @@
+package com.groupe2_ionic.eduka.repository;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.models.enums.StatutEnvoi;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository de la file d'envoi des notifications (outbox)
+ */
+public interface EnvoiNotificationRepository extends JpaRepository<EnvoiNotification, Long> {
+
+    /**
+     * Identifiants des envois d'un canal prêts à être livrés, les plus anciens d'abord
+     */
+    @Query("SELECT e.id FROM EnvoiNotification e WHERE e.canal = :canal AND e.statut = :statut " +
+            "AND e.prochaineTentative <= :maintenant ORDER BY e.prochaineTentative")
+    List<Long> findIdsPrets(@Param("canal") CanalNotification canal,
+                            @Param("statut") StatutEnvoi statut,
+                            @Param("maintenant") LocalDateTime maintenant,
+                            Pageable pageable);
+
+    /**
+     * Réserve des envois pour un lot : seuls les envois encore prêts sont pris,
+     * un autre nœud ne peut pas les reprendre avant la fin du bail
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EnvoiNotification e SET e.jeton = :jeton, e.prochaineTentative = :bail " +
+            "WHERE e.id IN :ids AND e.statut = :statut AND e.prochaineTentative <= :maintenant")
+    int reserver(@Param("ids") List<Long> ids,
+                 @Param("statut") StatutEnvoi statut,
+                 @Param("jeton") String jeton,
+                 @Param("bail") LocalDateTime bail,
+                 @Param("maintenant") LocalDateTime maintenant);
+
+    /**
+     * Envois réservés par un lot
+     */
+    List<EnvoiNotification> findByJeton(String jeton);
+
+    /**
+     * Marque comme livrés les envois d'un lot
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EnvoiNotification e SET e.statut = :statut, e.dateEnvoi = :dateEnvoi, e.jeton = null " +
+            "WHERE e.id IN :ids")
+    int marquerEnvoyes(@Param("ids") List<Long> ids,
+                       @Param("statut") StatutEnvoi statut,
+                       @Param("dateEnvoi") LocalDateTime dateEnvoi);
+
+    /**
+     * Profondeur de la file par canal
+     */
+    long countByCanalAndStatut(CanalNotification canal, StatutEnvoi statut);
+
+    /**
+     * Supprime les envois livrés avant une date
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EnvoiNotification e WHERE e.statut = :statut AND e.dateEnvoi < :limite")
+    int deleteEnvoyesAvant(@Param("statut") StatutEnvoi statut, @Param("limite") LocalDateTime limite);
+}
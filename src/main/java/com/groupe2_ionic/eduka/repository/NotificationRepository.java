@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
@@ -22,6 +23,24 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
      */
     Page<Notification> findByDestinataireOrderByDateDesc(Utilisateur destinataire, Pageable pageable);
 
+    /**
+     * Première page du flux des notifications d'un destinataire (pagination par curseur, sans COUNT).
+     */
+    @Query("SELECT n FROM Notification n WHERE n.destinataire.id = :destinataireId ORDER BY n.date DESC, n.id DESC")
+    List<Notification> findFluxByDestinataireId(@Param("destinataireId") int destinataireId, Pageable pageable);
+
+    /**
+     * Page suivante du flux des notifications, après la position (date, id) du curseur.
+     * La borne {@code date <= :date} permet de positionner la lecture de l'index du flux sur le curseur :
+     * avec la seule disjonction, seul le destinataire borne l'index et le coût croît avec la profondeur.
+     */
+    @Query("SELECT n FROM Notification n WHERE n.destinataire.id = :destinataireId AND n.date <= :date " +
+            "AND (n.date < :date OR n.id < :id) ORDER BY n.date DESC, n.id DESC")
+    List<Notification> findFluxByDestinataireIdApres(@Param("destinataireId") int destinataireId,
+                                                     @Param("date") LocalDate date,
+                                                     @Param("id") int id,
+                                                     Pageable pageable);
+
     /**
      * Trouve les notifications non lues d'un destinataire.
      */
@@ -32,6 +51,12 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
      */
     long countByDestinataireAndLuFalse(Utilisateur destinataire);
 
+    /**
+     * Compte les notifications non lues d'un destinataire sans charger l'utilisateur.
+     */
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.destinataire.id = :destinataireId AND n.lu = false")
+    long countNonLuesByDestinataireId(@Param("destinataireId") int destinataireId);
+
     /**
      * Supprime toutes les notifications d'un destinataire.
      */
@@ -1,11 +1,13 @@
 package com.groupe2_ionic.eduka.repository;
 
+import com.groupe2_ionic.eduka.dto.OrganisationDashboardDto;
 import com.groupe2_ionic.eduka.models.Organisation;
 import com.groupe2_ionic.eduka.models.enums.StatutValidation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +30,23 @@ public interface OrganisationRepository extends JpaRepository<Organisation, Inte
     List<Organisation> findByValidateurIdOrderByDateValidationDesc(Integer adminId);
     long countByStatutValidation(StatutValidation statut);
 
+    // Pays de chaque organisation (rattachement des statistiques journalières)
+    @Query("SELECT o.id, o.pays FROM Organisation o")
+    List<Object[]> findPaysParOrganisation();
+
+    @Query("SELECT o.pays, COUNT(o) FROM Organisation o WHERE o.statutValidation = :statut GROUP BY o.pays")
+    List<Object[]> countByStatutValidationParPays(@Param("statut") StatutValidation statut);
+
+    // Agrégats du tableau de bord en une seule requête ; vide si l'organisation n'existe pas
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.OrganisationDashboardDto(" +
+            "(SELECT COUNT(e) FROM Enfant e WHERE e.organisation.id = o.id), " +
+            "(SELECT COUNT(e) FROM Enfant e WHERE e.organisation.id = o.id AND e.statutParrainage = true), " +
+            "(SELECT COUNT(r) FROM Rapport r WHERE r.organisation.id = o.id), " +
+            "(SELECT COUNT(d) FROM Depense d WHERE d.organisation.id = o.id), " +
+            "(SELECT SUM(d.montant) FROM Depense d WHERE d.organisation.id = o.id)) " +
+            "FROM Organisation o WHERE o.id = :organisationId")
+    Optional<OrganisationDashboardDto> findTableauDeBord(@Param("organisationId") int organisationId);
+
     @Query("SELECT COUNT(o) FROM Organisation o WHERE o.actif = true")
     long countOrganisationsValidees();
 
@@ -1,17 +1,27 @@
 package com.groupe2_ionic.eduka.repository;
 
+import com.groupe2_ionic.eduka.dto.StatistiquesPaiementDto;
 import com.groupe2_ionic.eduka.models.Paiement;
 import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface PaiementReposiroty extends JpaRepository<Paiement, Integer> {
 
@@ -35,6 +45,11 @@ public interface PaiementReposiroty extends JpaRepository<Paiement, Integer> {
 
     Optional<Paiement> findByTransactionId(String transactionId);
 
+    // Paiement verrouillé jusqu'au commit, pour appliquer un changement de statut sans concurrence
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Paiement p WHERE p.transactionId = :transactionId")
+    Optional<Paiement> findByTransactionIdVerrouille(@Param("transactionId") String transactionId);
+
     List<Paiement> findByStatutOrderByDatePaiementDesc(StatutPaiement statut);
 
     @Query("SELECT SUM(p.montant) FROM Paiement p WHERE p.statut = :statut")
@@ -57,4 +72,84 @@ public interface PaiementReposiroty extends JpaRepository<Paiement, Integer> {
     Page<Paiement> findByOrganisationIdOrderByDatePaiementDesc(Integer organisationId, Pageable pageable);
 
     List<Paiement> findByParrainId(Integer parrainId);
+
+    // Montant, nombre et date du dernier paiement par parrainage, pour un ensemble de parrainages
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.StatistiquesPaiementDto(p.parrainage.id, SUM(p.montant), " +
+            "COUNT(p), MAX(p.datePaiement)) FROM Paiement p " +
+            "WHERE p.parrainage.id IN :parrainageIds AND p.statut = :statut GROUP BY p.parrainage.id")
+    List<StatistiquesPaiementDto> findStatistiquesByParrainageIds(@Param("parrainageIds") List<Integer> parrainageIds,
+                                                                  @Param("statut") StatutPaiement statut);
+
+    // Flux de l'historique d'un parrain paginé par curseur (date, id), sans COUNT
+    @Query("SELECT p FROM Paiement p LEFT JOIN FETCH p.parrainage pa LEFT JOIN FETCH pa.enfant " +
+            "LEFT JOIN FETCH p.organisation WHERE p.parrain.id = :parrainId " +
+            "ORDER BY p.datePaiement DESC, p.id DESC")
+    List<Paiement> findFluxByParrainId(@Param("parrainId") int parrainId, Pageable pageable);
+
+    @Query("SELECT p FROM Paiement p LEFT JOIN FETCH p.parrainage pa LEFT JOIN FETCH pa.enfant " +
+            "LEFT JOIN FETCH p.organisation WHERE p.parrain.id = :parrainId " +
+            "AND p.datePaiement <= :date AND (p.datePaiement < :date OR p.id < :id) " +
+            "ORDER BY p.datePaiement DESC, p.id DESC")
+    List<Paiement> findFluxByParrainIdApres(@Param("parrainId") int parrainId,
+                                            @Param("date") LocalDate date,
+                                            @Param("id") int id,
+                                            Pageable pageable);
+
+    // Paiements lus par lots (pagination par clé) pour la reconstruction des agrégats
+    @Query("SELECT p.id, pr.id, o.id, p.methode, p.statut, p.montant, p.datePaiement, pa.id FROM Paiement p " +
+            "LEFT JOIN p.parrain pr LEFT JOIN p.organisation o LEFT JOIN p.parrainage pa " +
+            "WHERE p.id > :apresId ORDER BY p.id")
+    List<Object[]> findPourAgregatsApres(@Param("apresId") int apresId, Pageable pageable);
+
+    // Paiements d'une période par jour et par organisation (directe ou celle de l'enfant parrainé), pour les statistiques journalières
+    @Query("SELECT p.datePaiement, o.id, eo.id, COUNT(p), " +
+            "SUM(CASE WHEN p.statut = :reussi THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.statut = :reussi THEN p.montant ELSE 0 END) " +
+            "FROM Paiement p LEFT JOIN p.organisation o LEFT JOIN p.parrainage pa LEFT JOIN pa.enfant e " +
+            "LEFT JOIN e.organisation eo WHERE p.datePaiement BETWEEN :dateDebut AND :dateFin " +
+            "GROUP BY p.datePaiement, o.id, eo.id")
+    List<Object[]> cumulerParJour(@Param("dateDebut") LocalDate dateDebut,
+                                  @Param("dateFin") LocalDate dateFin,
+                                  @Param("reussi") StatutPaiement reussi);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Paiement p")
+    int findDernierId();
+
+    @Query("SELECT DISTINCT p.datePaiement FROM Paiement p WHERE p.id > :apresId AND p.id <= :jusquA")
+    List<LocalDate> findJoursEntre(@Param("apresId") int apresId, @Param("jusquA") int jusquA);
+
+    // Paiements confirmés dont le traitement (solde, reçu, notification) reste à faire, les plus anciens d'abord
+    @Query("SELECT p.id FROM Paiement p WHERE p.traitementEnAttente = true ORDER BY p.id")
+    List<Integer> findIdsTraitementEnAttente(Pageable pageable);
+
+    // Paiements d'un lot avec tout ce qu'il faut pour le reçu et la notification
+    @Query("SELECT p FROM Paiement p JOIN FETCH p.parrain LEFT JOIN FETCH p.organisation " +
+            "LEFT JOIN FETCH p.parrainage pa LEFT JOIN FETCH pa.enfant e LEFT JOIN FETCH e.organisation " +
+            "LEFT JOIN FETCH e.ecole LEFT JOIN FETCH e.tuteur WHERE p.id IN :ids")
+    List<Paiement> findPourTraitement(@Param("ids") List<Integer> ids);
+
+    // Réserve les paiements d'un lot encore en attente : un autre nœud attend le commit puis ne les voit plus
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Paiement p WHERE p.id IN :ids AND p.traitementEnAttente = true")
+    List<Paiement> findEnAttenteVerrouilles(@Param("ids") List<Integer> ids);
+
+    @Modifying
+    @Query("UPDATE Paiement p SET p.traitementEnAttente = false WHERE p.id IN :ids")
+    int marquerTraites(@Param("ids") List<Integer> ids);
+
+    // Lignes des paiements d'une période lues en flux pour les rapports, sans charger les associations :
+    // MySQL (fetch size MIN_VALUE) lit ligne à ligne et n'accepte pas d'autre requête tant que le flux est ouvert
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.datePaiement, p.transactionId, p.methode, p.statut, p.montant FROM Paiement p " +
+            "WHERE p.datePaiement BETWEEN :dateDebut AND :dateFin ORDER BY p.datePaiement, p.id")
+    Stream<Object[]> streamLignesByDatePaiementBetween(@Param("dateDebut") LocalDate dateDebut,
+                                                       @Param("dateFin") LocalDate dateFin);
+
+    // Paiements reçus pour les enfants d'une organisation sur une période (rapport mensuel)
+    @Query("SELECT p FROM Paiement p JOIN p.parrainage pa JOIN pa.enfant e " +
+            "WHERE e.organisation.id = :organisationId AND p.datePaiement BETWEEN :dateDebut AND :dateFin " +
+            "ORDER BY p.datePaiement, p.id")
+    List<Paiement> findByOrganisationEnfantsAndDatePaiementBetween(@Param("organisationId") int organisationId,
+                                                                   @Param("dateDebut") LocalDate dateDebut,
+                                                                   @Param("dateFin") LocalDate dateFin);
 }
@@ -23,4 +23,15 @@ public interface ParrainRepository extends JpaRepository<Parrain, Integer> {
     List<Parrain> findByVilleAndActif(@Param("ville") String ville);
 
     long countByDateInscriptionBetween(LocalDate dateDebut, LocalDate dateFin);
+
+    // Parrains inscrits pendant une période, par jour
+    @Query("SELECT p.dateInscription, COUNT(p) FROM Parrain p " +
+            "WHERE p.dateInscription BETWEEN :dateDebut AND :dateFin GROUP BY p.dateInscription")
+    List<Object[]> cumulerParJour(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Parrain p")
+    int findDernierId();
+
+    @Query("SELECT DISTINCT p.dateInscription FROM Parrain p WHERE p.id > :apresId AND p.id <= :jusquA")
+    List<LocalDate> findJoursEntre(@Param("apresId") int apresId, @Param("jusquA") int jusquA);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ParrainageRepository extends JpaRepository<Parrainage, Integer> {
@@ -33,10 +34,29 @@ public interface ParrainageRepository extends JpaRepository<Parrainage, Integer>
     @Query("SELECT p FROM Parrainage p WHERE p.parrain.id = :parrainId AND p.enfant.id = :enfantId AND p.statut = :statut")
     List<Parrainage> findByParrainIdAndEnfantIdAndStatut(@Param("parrainId") int parrainId, @Param("enfantId") int enfantId, @Param("statut") StatutParrainage statut);
 
+    // Parrainages avec l'enfant et son contexte (tuteur, école, organisation) chargés en une requête
+    @Query("SELECT p FROM Parrainage p JOIN FETCH p.parrain JOIN FETCH p.enfant e " +
+            "LEFT JOIN FETCH e.tuteur LEFT JOIN FETCH e.ecole LEFT JOIN FETCH e.organisation o " +
+            "LEFT JOIN FETCH o.validateur WHERE p.parrain.id = :parrainId AND p.statut = :statut " +
+            "ORDER BY p.dateDebut DESC")
+    List<Parrainage> findAvecEnfantByParrainIdAndStatut(@Param("parrainId") int parrainId,
+                                                        @Param("statut") StatutParrainage statut);
+
     @Query("SELECT COUNT(p) FROM Parrainage p WHERE p.parrain.id = :parrainId")
     long countByParrainId(@Param("parrainId") int parrainId);
 
     @Query("SELECT COUNT(p) FROM Parrainage p WHERE p.parrain.id = :parrainId AND p.statut = :statut")
     long countByParrainIdAndStatut(@Param("parrainId") int parrainId, @Param("statut") StatutParrainage statut);
 
+
+    // Parrainages commencés pendant une période, par jour et par organisation de l'enfant
+    @Query("SELECT p.dateDebut, o.id, COUNT(p) FROM Parrainage p LEFT JOIN p.enfant e LEFT JOIN e.organisation o " +
+            "WHERE p.dateDebut BETWEEN :dateDebut AND :dateFin GROUP BY p.dateDebut, o.id")
+    List<Object[]> cumulerParJour(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Parrainage p")
+    int findDernierId();
+
+    @Query("SELECT DISTINCT p.dateDebut FROM Parrainage p WHERE p.id > :apresId AND p.id <= :jusquA")
+    List<LocalDate> findJoursEntre(@Param("apresId") int apresId, @Param("jusquA") int jusquA);
 }
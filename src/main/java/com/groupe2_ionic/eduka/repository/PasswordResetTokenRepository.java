@@ -39,6 +39,12 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Query("DELETE FROM PasswordResetToken p WHERE p.expiryDate < :now")
     void deleteExpiredTokens(@Param("now") LocalDateTime now);
 
+    /**
+     * Compte les tokens actifs (non utilisés et non expirés)
+     */
+    @Query("SELECT COUNT(p) FROM PasswordResetToken p WHERE p.used = false AND p.expiryDate > :now")
+    long countActiveTokens(@Param("now") LocalDateTime now);
+
     /**
      * Compte les tentatives récentes pour un email (dernière heure)
      */
@@ -4,6 +4,8 @@ import com.groupe2_ionic.eduka.models.Rapport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -29,4 +31,27 @@ public interface RapportRepository extends JpaRepository<Rapport, Integer> {
     Long countByEnfantId(int enfantId);
 
     Optional<Rapport> findFirstByEnfantIdOrderByDateDesc(int id);
+
+    // Dernier(s) rapport(s) de chaque enfant d'un ensemble (plusieurs en cas d'égalité de date)
+    @Query("SELECT r FROM Rapport r LEFT JOIN FETCH r.organisation o LEFT JOIN FETCH o.validateur " +
+            "WHERE r.enfant.id IN :enfantIds " +
+            "AND r.date = (SELECT MAX(r2.date) FROM Rapport r2 WHERE r2.enfant.id = r.enfant.id)")
+    List<Rapport> findDerniersByEnfantIds(@Param("enfantIds") List<Integer> enfantIds);
+
+    // Nombre de rapports par enfant : [id enfant, nombre]
+    @Query("SELECT r.enfant.id, COUNT(r) FROM Rapport r WHERE r.enfant.id IN :enfantIds GROUP BY r.enfant.id")
+    List<Object[]> countByEnfantIds(@Param("enfantIds") List<Integer> enfantIds);
+
+    // Flux des rapports d'une organisation paginé par curseur (date, id), sans COUNT
+    @Query("SELECT r FROM Rapport r LEFT JOIN FETCH r.enfant LEFT JOIN FETCH r.organisation " +
+            "WHERE r.organisation.id = :organisationId ORDER BY r.date DESC, r.id DESC")
+    List<Rapport> findFluxByOrganisationId(@Param("organisationId") int organisationId, Pageable pageable);
+
+    @Query("SELECT r FROM Rapport r LEFT JOIN FETCH r.enfant LEFT JOIN FETCH r.organisation " +
+            "WHERE r.organisation.id = :organisationId " +
+            "AND r.date <= :date AND (r.date < :date OR r.id < :id) ORDER BY r.date DESC, r.id DESC")
+    List<Rapport> findFluxByOrganisationIdApres(@Param("organisationId") int organisationId,
+                                                @Param("date") LocalDate date,
+                                                @Param("id") int id,
+                                                Pageable pageable);
 }
@@ -39,6 +39,12 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Inte
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
     void deleteExpiredTokens(@Param("now") LocalDateTime now);
 
+    /**
+     * Compte les tokens actifs (non révoqués et non expirés)
+     */
+    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.revoked = false AND rt.expiryDate > :now")
+    long countActiveTokens(@Param("now") LocalDateTime now);
+
     /**
      * Vérifie si un token existe et n'est pas révoqué
      */
@@ -0,0 +1,48 @@
+package com.groupe2_ionic.eduka.repository;
+
+import com.groupe2_ionic.eduka.models.StatistiqueJournaliere;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository des statistiques journalières (cumuls par jour, par pays et par organisation)
+ */
+public interface StatistiqueJournaliereRepository extends JpaRepository<StatistiqueJournaliere, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StatistiqueJournaliere s WHERE s.jour BETWEEN :dateDebut AND :dateFin")
+    int supprimerEntre(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StatistiqueJournaliere s WHERE s.jour < :dateDebut OR s.jour > :dateFin")
+    int supprimerHors(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    // Une seule ligne : paiements, montant réussi, enfants, parrains, parrainages, dépenses, montant des dépenses
+    @Query("SELECT COALESCE(SUM(s.nombrePaiements), 0), COALESCE(SUM(s.montantReussi), 0), " +
+            "COALESCE(SUM(s.nombreEnfants), 0), COALESCE(SUM(s.nombreParrains), 0), " +
+            "COALESCE(SUM(s.nombreParrainages), 0), COALESCE(SUM(s.nombreDepenses), 0), " +
+            "COALESCE(SUM(s.montantDepenses), 0) FROM StatistiqueJournaliere s " +
+            "WHERE s.portee = com.groupe2_ionic.eduka.models.enums.PorteeStatistique.GLOBALE " +
+            "AND s.jour BETWEEN :dateDebut AND :dateFin")
+    List<Object[]> sommerGlobal(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    // Enfants inscrits et montant réussi par pays, les plus gros montants d'abord
+    @Query("SELECT s.pays, SUM(s.nombreEnfants), SUM(s.montantReussi) FROM StatistiqueJournaliere s " +
+            "WHERE s.portee = com.groupe2_ionic.eduka.models.enums.PorteeStatistique.PAYS " +
+            "AND s.jour BETWEEN :dateDebut AND :dateFin GROUP BY s.pays ORDER BY SUM(s.montantReussi) DESC")
+    List<Object[]> sommerParPays(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    // Enfants inscrits et montant réussi par organisation, les plus gros montants d'abord
+    @Query("SELECT s.organisationId, SUM(s.nombreEnfants), SUM(s.montantReussi) FROM StatistiqueJournaliere s " +
+            "WHERE s.portee = com.groupe2_ionic.eduka.models.enums.PorteeStatistique.ORGANISATION " +
+            "AND s.jour BETWEEN :dateDebut AND :dateFin GROUP BY s.organisationId " +
+            "ORDER BY SUM(s.montantReussi) DESC, s.organisationId")
+    List<Object[]> classerOrganisations(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin,
+                                        Pageable pageable);
+}
@@ -1,10 +1,14 @@
 package com.groupe2_ionic.eduka.repository;
 
+import com.groupe2_ionic.eduka.dto.DestinataireDto;
 import com.groupe2_ionic.eduka.models.Utilisateur;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Integer> {
@@ -43,4 +47,19 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, Intege
      * Trouve un utilisateur actif par téléphone
      */
     Optional<Utilisateur> findByTelephoneAndActifTrue(String telephone);
+
+    /**
+     * Récupère uniquement le statut actif d'un utilisateur
+     */
+    @Query("SELECT u.actif FROM Utilisateur u WHERE u.id = :id")
+    Optional<Boolean> findActifById(@Param("id") Integer id);
+
+    /**
+     * Page de destinataires actifs d'un rôle, après un identifiant (pagination par clé)
+     */
+    @Query("SELECT new com.groupe2_ionic.eduka.dto.DestinataireDto(u.id, u.email, u.telephone) " +
+            "FROM Utilisateur u WHERE u.role = :role AND u.actif = true AND u.id > :apresId ORDER BY u.id")
+    List<DestinataireDto> findDestinatairesActifs(@Param("role") RoleUser role,
+                                                  @Param("apresId") int apresId,
+                                                  Pageable pageable);
 }
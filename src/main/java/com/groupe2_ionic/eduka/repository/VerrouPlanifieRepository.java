@@ -0,0 +1,31 @@
+package com.groupe2_ionic.eduka.repository;
+
+import com.groupe2_ionic.eduka.models.VerrouPlanifie;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface VerrouPlanifieRepository extends JpaRepository<VerrouPlanifie, String> {
+
+    // Prend le verrou s'il a expiré ou s'il est déjà détenu par le demandeur ; renvoie 0 sinon
+    @Modifying
+    @Query("UPDATE VerrouPlanifie v SET v.detenteur = :detenteur, v.expiration = :expiration " +
+            "WHERE v.nom = :nom AND (v.expiration <= :maintenant OR v.detenteur = :detenteur)")
+    int prendre(@Param("nom") String nom, @Param("detenteur") String detenteur,
+                @Param("maintenant") LocalDateTime maintenant, @Param("expiration") LocalDateTime expiration);
+
+    // Échoue sur la clé primaire si une autre instance a créé le verrou entre-temps
+    @Modifying
+    @Query(value = "INSERT INTO verrou_planifie (nom, detenteur, expiration) VALUES (:nom, :detenteur, :expiration)",
+            nativeQuery = true)
+    int creer(@Param("nom") String nom, @Param("detenteur") String detenteur,
+              @Param("expiration") LocalDateTime expiration);
+
+    @Modifying
+    @Query("UPDATE VerrouPlanifie v SET v.expiration = :maintenant WHERE v.nom = :nom AND v.detenteur = :detenteur")
+    int liberer(@Param("nom") String nom, @Param("detenteur") String detenteur,
+                @Param("maintenant") LocalDateTime maintenant);
+}
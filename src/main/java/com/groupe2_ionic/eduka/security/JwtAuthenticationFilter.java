@@ -1,5 +1,6 @@
 package com.groupe2_ionic.eduka.security;
 
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,14 +9,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * Filtre d'authentification JWT
@@ -27,7 +30,10 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserAccessStore userAccessStore;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtProperties jwtProperties;
 
     @Override
     protected void doFilterInternal(
@@ -37,8 +43,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         // Vérifier la présence du header Authorization
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -48,17 +52,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             // Extraire le token
-            jwt = jwtUtil.extractTokenFromHeader(authHeader);
-            username = jwtUtil.extractUsername(jwt);
+            final String jwt = jwtUtil.extractTokenFromHeader(authHeader);
 
             // Vérifier si l'utilisateur n'est pas déjà authentifié
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Vérifier la signature une seule fois, puis réutiliser le résultat tant que le token est valide
+                JwtClaims claims = verifiedTokenCache.get(jwt);
+                if (claims == null) {
+                    claims = jwtUtil.parseToken(jwt);
+                    if (claims.isAccessToken()) {
+                        verifiedTokenCache.put(jwt, claims);
+                    }
+                }
 
-                // Charger les détails de l'utilisateur
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = jwtProperties.isStateless()
+                        ? loadFromClaims(claims)
+                        : loadFromDatabase(claims);
 
-                // Valider le token
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null) {
                     // Créer l'objet d'authentification
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -72,7 +83,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // Configurer le contexte de sécurité
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("Utilisateur authentifié: {}", username);
+                    log.debug("Utilisateur authentifié: {}", userDetails.getUsername());
                 }
             }
         } catch (Exception e) {
@@ -81,4 +92,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Mode historique : recharge l'utilisateur en base puis valide le token
+     */
+    private UserDetails loadFromDatabase(JwtClaims claims) {
+        if (claims.username() == null) {
+            return null;
+        }
+
+        // Charger les détails de l'utilisateur
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.username());
+
+        // Valider le token
+        return jwtUtil.validateToken(claims, userDetails) ? userDetails : null;
+    }
+
+    /**
+     * Mode sans état : construit le principal à partir des claims signées du token
+     * La désactivation du compte et la révocation sont vérifiées via le stockage en mémoire
+     */
+    private UserDetails loadFromClaims(JwtClaims claims) {
+        String username = claims.username();
+        String role = claims.role();
+        Integer userId = claims.userId();
+
+        if (username == null || role == null || !claims.isAccessToken() || claims.isExpired()) {
+            return null;
+        }
+
+        // Les tuteurs (authentification OTP) n'ont ni statut actif ni refresh token
+        boolean tuteur = "TUTEUR".equals(role);
+        if (!tuteur) {
+            if (!userAccessStore.isActive(userId)) {
+                log.warn("Token refusé pour un compte désactivé: {}", username);
+                return null;
+            }
+            if (userAccessStore.isRevoked(userId, claims.issuedAt())) {
+                log.warn("Token révoqué présenté pour l'utilisateur: {}", username);
+                return null;
+            }
+        }
+
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+
+        return User.builder()
+                .username(username)
+                .password("")
+                .authorities(Collections.singletonList(new SimpleGrantedAuthority(authority)))
+                .build();
+    }
 }
@@ -0,0 +1,61 @@
+package com.groupe2_ionic.eduka.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Vue typée des claims d'un token JWT dont la signature a déjà été vérifiée
+ * Permet de lire toutes les informations du token après une seule analyse
+ */
+public record JwtClaims(
+        String username,
+        Integer userId,
+        String role,
+        String tokenType,
+        Date issuedAt,
+        Date expiration
+) {
+
+    /**
+     * Date d'émission à la milliseconde, en complément de la claim iat tronquée à la seconde
+     */
+    public static final String ISSUED_AT_MS = "iatMs";
+
+    /**
+     * Construit la vue typée à partir des claims jjwt
+     * La date d'émission est lue à la milliseconde lorsque le token la porte
+     */
+    public static JwtClaims from(Claims claims) {
+        Long issuedAtMs = claims.get(ISSUED_AT_MS, Long.class);
+        return new JwtClaims(
+                claims.getSubject(),
+                claims.get("userId", Integer.class),
+                claims.get("role", String.class),
+                claims.get("tokenType", String.class),
+                issuedAtMs != null ? new Date(issuedAtMs) : claims.getIssuedAt(),
+                claims.getExpiration()
+        );
+    }
+
+    /**
+     * Vérifie si le token est expiré
+     */
+    public boolean isExpired() {
+        return expiration == null || expiration.before(new Date());
+    }
+
+    /**
+     * Vérifie s'il s'agit d'un token d'accès
+     */
+    public boolean isAccessToken() {
+        return "ACCESS".equals(tokenType);
+    }
+
+    /**
+     * Vérifie s'il s'agit d'un token de rafraîchissement
+     */
+    public boolean isRefreshToken() {
+        return "REFRESH".equals(tokenType);
+    }
+}
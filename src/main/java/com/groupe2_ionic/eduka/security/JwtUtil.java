@@ -25,11 +25,42 @@ public class JwtUtil {
 
     private final JwtProperties jwtProperties;
 
+    // Clé et parser construits une seule fois (thread-safe et sans état)
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
     /**
-     * Génère la clé secrète à partir de la configuration
+     * Retourne la clé secrète dérivée de la configuration
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Retourne le parser configuré pour vérifier la signature des tokens
+     */
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
+    /**
+     * Vérifie la signature du token une seule fois et retourne toutes ses claims
+     * A privilégier lorsque plusieurs informations du même token sont nécessaires
+     */
+    public JwtClaims parseToken(String token) {
+        return JwtClaims.from(extractAllClaims(token));
     }
 
     /**
@@ -80,9 +111,7 @@ public class JwtUtil {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return getParser()
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (JwtException e) {
@@ -134,6 +163,8 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .claims(claims)
+                // La claim iat est tronquée à la seconde : la révocation compare la date d'émission à la milliseconde
+                .claim(JwtClaims.ISSUED_AT_MS, now.getTime())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -146,21 +177,29 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return validateToken(parseToken(token), userDetails);
         } catch (JwtException e) {
             log.error("Token invalide: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Valide des claims déjà vérifiées pour un utilisateur donné
+     */
+    public boolean validateToken(JwtClaims claims, UserDetails userDetails) {
+        return claims.username() != null
+                && claims.username().equals(userDetails.getUsername())
+                && !claims.isExpired();
+    }
+
     /**
      * Valide un token de rafraîchissement
      */
     public Boolean validateRefreshToken(String token) {
         try {
-            String tokenType = extractTokenType(token);
-            return "REFRESH".equals(tokenType) && !isTokenExpired(token);
+            JwtClaims claims = parseToken(token);
+            return claims.isRefreshToken() && !claims.isExpired();
         } catch (JwtException e) {
             log.error("Token de rafraîchissement invalide: {}", e.getMessage());
             return false;
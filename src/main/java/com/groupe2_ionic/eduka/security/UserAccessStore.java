@@ -0,0 +1,103 @@
+package com.groupe2_ionic.eduka.security;
+
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stockage en mémoire de l'état d'accès des utilisateurs
+ * Permet au filtre JWT sans état de vérifier la désactivation d'un compte et la révocation
+ * des tokens sans recharger l'utilisateur à chaque requête
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserAccessStore {
+
+    /**
+     * Nombre maximum de statuts conservés avant vidage complet du cache
+     */
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final JwtProperties jwtProperties;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final Map<Integer, Boolean> actifParUtilisateur = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> revocationsParUtilisateur = new ConcurrentHashMap<>();
+
+    /**
+     * Vérifie si le compte d'un utilisateur est actif (chargé une seule fois puis mis en cache)
+     */
+    public boolean isActive(Integer userId) {
+        if (userId == null) {
+            return false;
+        }
+
+        Boolean actif = actifParUtilisateur.get(userId);
+        if (actif == null) {
+            actif = utilisateurRepository.findActifById(userId).orElse(false);
+            if (actifParUtilisateur.size() >= MAX_ENTRIES) {
+                actifParUtilisateur.clear();
+            }
+            actifParUtilisateur.put(userId, actif);
+        }
+        return actif;
+    }
+
+    /**
+     * Vérifie si un token émis à la date donnée a été révoqué pour cet utilisateur
+     * La date d'émission est à la milliseconde ; celle des tokens émis sans la claim iatMs est tronquée
+     * à la seconde et les fait tenir pour révoqués dans la seconde de la révocation
+     */
+    public boolean isRevoked(Integer userId, Date issuedAt) {
+        if (userId == null) {
+            return true;
+        }
+
+        Long revokedAt = revocationsParUtilisateur.get(userId);
+        if (revokedAt == null) {
+            return false;
+        }
+
+        return issuedAt == null || issuedAt.getTime() <= revokedAt;
+    }
+
+    /**
+     * Révoque tous les tokens d'accès émis jusqu'à maintenant pour un utilisateur
+     */
+    public void revokeTokens(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        revocationsParUtilisateur.put(userId, System.currentTimeMillis());
+        verifiedTokenCache.invalidateUser(userId);
+        log.debug("Tokens d'accès révoqués en mémoire pour l'utilisateur ID: {}", userId);
+    }
+
+    /**
+     * Invalide le statut en cache d'un utilisateur (à appeler après activation/désactivation)
+     */
+    public void evict(Integer userId) {
+        if (userId != null) {
+            actifParUtilisateur.remove(userId);
+            verifiedTokenCache.invalidateUser(userId);
+        }
+    }
+
+    /**
+     * Purge les révocations plus anciennes que la durée de vie d'un token d'accès
+     */
+    @Scheduled(fixedRate = 300000) // 5 minutes
+    public void purgeExpiredRevocations() {
+        long limite = System.currentTimeMillis() - jwtProperties.getAccessToken().getExpiration();
+        revocationsParUtilisateur.values().removeIf(revokedAt -> revokedAt < limite);
+    }
+}
@@ -0,0 +1,304 @@
+package com.groupe2_ionic.eduka.security;
+
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache borné des tokens d'accès déjà vérifiés
+ * Les requêtes répétées avec le même token évitent la vérification de signature.
+ * Le cache est découpé en segments verrouillés indépendamment (LRU par segment),
+ * indexé par l'empreinte SHA-256 du token et chaque entrée expire avec le token.
+ * Chaque segment indexe aussi ses empreintes par utilisateur pour invalider un utilisateur sans tout parcourir.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public VerifiedTokenCache(JwtProperties jwtProperties) {
+        JwtProperties.TokenCache config = jwtProperties.getTokenCache();
+        int stripes = Math.max(1, config.getStripes());
+        int capacityPerSegment = Math.max(1, config.getMaxSize() / stripes);
+
+        this.enabled = config.isEnabled();
+        this.segments = new Segment[stripes];
+        for (int i = 0; i < stripes; i++) {
+            segments[i] = new Segment(capacityPerSegment);
+        }
+    }
+
+    /**
+     * Retourne les claims déjà vérifiées pour ce token, ou null si absent ou expiré
+     */
+    public JwtClaims get(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+
+        String key = hash(token);
+        Segment segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                segment.remove(key);
+                expiredEvictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.claims;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Met en cache les claims d'un token vérifié jusqu'à son expiration
+     */
+    public void put(String token, JwtClaims claims) {
+        if (!enabled || token == null || claims == null || claims.expiration() == null) {
+            return;
+        }
+
+        long expiresAt = claims.expiration().getTime();
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+
+        String key = hash(token);
+        Segment segment = segmentFor(key);
+
+        segment.lock.lock();
+        try {
+            segment.put(key, new Entry(claims, expiresAt));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Retire du cache tous les tokens d'un utilisateur (révocation, désactivation)
+     * Les tokens des tuteurs sont ignorés car leurs identifiants proviennent d'une autre table
+     */
+    public void invalidateUser(Integer userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                Set<String> keys = segment.keysByUser.remove(userId);
+                if (keys != null) {
+                    keys.forEach(segment.entries::remove);
+                    invalidations.add(keys.size());
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Purge périodique des entrées expirées
+     */
+    @Scheduled(fixedRate = 60000) // 1 minute
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                Iterator<Map.Entry<String, Entry>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Entry> entry = iterator.next();
+                    if (entry.getValue().expiresAt <= now) {
+                        iterator.remove();
+                        segment.unindex(entry.getKey(), entry.getValue());
+                        expiredEvictions.increment();
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Nombre d'entrées actuellement en cache
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Statistiques du cache
+     */
+    public CacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStats(
+                size(),
+                hitCount,
+                missCount,
+                requests == 0 ? 0.0 : (double) hitCount / requests,
+                sizeEvictions.sum(),
+                expiredEvictions.sum(),
+                invalidations.sum()
+        );
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("eduka.jwt.cache.size", this, VerifiedTokenCache::size)
+                .description("Nombre de tokens vérifiés en cache")
+                .register(registry);
+        Gauge.builder("eduka.jwt.cache.hit.ratio", this, cache -> cache.getStats().hitRatio())
+                .description("Taux de succès du cache des tokens vérifiés")
+                .register(registry);
+        FunctionCounter.builder("eduka.jwt.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("eduka.jwt.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("eduka.jwt.cache.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size")
+                .register(registry);
+        FunctionCounter.builder("eduka.jwt.cache.evictions", expiredEvictions, LongAdder::sum)
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("eduka.jwt.cache.evictions", invalidations, LongAdder::sum)
+                .tag("cause", "invalidated")
+                .register(registry);
+    }
+
+    private Segment segmentFor(String key) {
+        return segments[(key.hashCode() & 0x7fffffff) % segments.length];
+    }
+
+    /**
+     * Empreinte SHA-256 du token : le token brut n'est jamais conservé en mémoire
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    private record Entry(JwtClaims claims, long expiresAt) {
+
+        /**
+         * Utilisateur à indexer, null pour les tuteurs dont les identifiants proviennent d'une autre table
+         */
+        Integer indexedUserId() {
+            return "TUTEUR".equals(claims.role()) ? null : claims.userId();
+        }
+    }
+
+    /**
+     * Segment LRU borné protégé par son propre verrou, avec l'index de ses empreintes par utilisateur
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries;
+        private final Map<Integer, Set<String>> keysByUser = new HashMap<>();
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        sizeEvictions.increment();
+                        unindex(eldest.getKey(), eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private void put(String key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            Integer userId = entry.indexedUserId();
+            if (userId != null) {
+                keysByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(key);
+            }
+        }
+
+        private void remove(String key) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                unindex(key, entry);
+            }
+        }
+
+        private void unindex(String key, Entry entry) {
+            Integer userId = entry.indexedUserId();
+            if (userId == null) {
+                return;
+            }
+            Set<String> keys = keysByUser.get(userId);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByUser.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Classe pour les statistiques du cache
+     */
+    public record CacheStats(long size, long hits, long misses, double hitRatio,
+                             long sizeEvictions, long expiredEvictions, long invalidations) {}
+}
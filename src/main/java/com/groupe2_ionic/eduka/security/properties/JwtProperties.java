@@ -20,6 +20,12 @@ public class JwtProperties {
      */
     private String secret = "default-secret-key-change-in-production-minimum-256-bits-required";
 
+    /**
+     * Authentification sans état : le principal est construit à partir des claims signées
+     * du token au lieu de recharger l'utilisateur en base à chaque requête
+     */
+    private boolean stateless = true;
+
     /**
      * Configuration du token d'accès
      */
@@ -30,6 +36,11 @@ public class JwtProperties {
      */
     private RefreshToken refreshToken = new RefreshToken();
 
+    /**
+     * Configuration du cache des tokens d'accès vérifiés
+     */
+    private TokenCache tokenCache = new TokenCache();
+
     @Data
     public static class AccessToken {
         /**
@@ -47,4 +58,22 @@ public class JwtProperties {
          */
         private long expiration = 604800000L; // 7 jours
     }
+
+    @Data
+    public static class TokenCache {
+        /**
+         * Active le cache des tokens déjà vérifiés
+         */
+        private boolean enabled = true;
+
+        /**
+         * Nombre maximum de tokens conservés (tous segments confondus)
+         */
+        private int maxSize = 50000;
+
+        /**
+         * Nombre de segments verrouillés indépendamment
+         */
+        private int stripes = 16;
+    }
 }
@@ -30,4 +30,27 @@ public class OtpProperties {
      * Par défaut: 6 chiffres
      */
     private int codeLength = 6;
+
+    /**
+     * Stockage des codes OTP : "redis" (par défaut) ou "memory" (tests, nœud unique)
+     */
+    private String store = "redis";
+
+    /**
+     * Nombre maximum de demandes d'OTP par téléphone sur la fenêtre glissante
+     * Par défaut: 5 demandes
+     */
+    private int maxRequests = 5;
+
+    /**
+     * Durée de la fenêtre glissante de limitation des demandes en minutes
+     * Par défaut: 60 minutes
+     */
+    private int requestWindowMinutes = 60;
+
+    /**
+     * Durée de mise en cache de l'identité des tuteurs en minutes
+     * Par défaut: 24 heures
+     */
+    private int tuteurCacheMinutes = 1440;
 }
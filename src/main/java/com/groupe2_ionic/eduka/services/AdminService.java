@@ -5,7 +5,6 @@ import com.groupe2_ionic.eduka.dto.ValidationOrganisationDto;
 import com.groupe2_ionic.eduka.dto.ValidationResponseDto;
 import com.groupe2_ionic.eduka.models.Admin;
 import com.groupe2_ionic.eduka.models.Organisation;
-import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
 import com.groupe2_ionic.eduka.models.enums.StatutValidation;
 import com.groupe2_ionic.eduka.repository.AdminRepository;
 import com.groupe2_ionic.eduka.repository.EnfantRepository;
@@ -13,16 +12,20 @@ import com.groupe2_ionic.eduka.repository.OrganisationRepository;
 import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
 import com.groupe2_ionic.eduka.repository.ParrainRepository;
 import com.groupe2_ionic.eduka.repository.TransfertFondRepository;
+import com.groupe2_ionic.eduka.security.UserAccessStore;
+import com.groupe2_ionic.eduka.services.rapports.ExportComptable;
+import com.groupe2_ionic.eduka.services.rapports.FormatExport;
+import com.groupe2_ionic.eduka.services.statistiques.StatistiquesJournalieresService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,6 +33,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminService {
 
+    private static final int NOMBRE_TOP_ORGANISATIONS = 10;
+
     private final AdminRepository adminRepository;
     private final OrganisationRepository organisationRepository;
     private final NotificationService notificationService;
@@ -37,6 +42,9 @@ public class AdminService {
     private final ParrainRepository parrainRepository;
     private final PaiementReposiroty paiementRepository;
     private final TransfertFondRepository transfertFondRepository;
+    private final UserAccessStore userAccessStore;
+    private final ExportComptable exportComptable;
+    private final StatistiquesJournalieresService statistiquesJournalieres;
 
     /**
      * Valider ou rejeter l'inscription d'une organisation
@@ -70,6 +78,7 @@ public class AdminService {
         }
 
         Organisation organisationSauvegardee = organisationRepository.save(organisation);
+        userAccessStore.evict(organisationSauvegardee.getId());
 
         // Envoyer une notification à l'organisation
         String message = validationDto.getStatut() == StatutValidation.VALIDEE
@@ -162,28 +171,27 @@ public class AdminService {
 
     /**
      * Générer un rapport global pour une période donnée
+     * Les chiffres de la période sont lus dans les statistiques journalières, mises à jour toutes les quelques minutes.
+     * Un changement sur une ligne plus ancienne que les derniers jours (statut d'un ancien paiement, dépense corrigée,
+     * pays d'une organisation) ou une ligne validée tardivement n'y figure qu'après la reconstruction hebdomadaire
      */
+    @Transactional(readOnly = true)
     public RapportGlobalDto genererRapportGlobal(LocalDate dateDebut, LocalDate dateFin) {
         // Statistiques générales
         long nombreOrganisations = organisationRepository.countByStatutValidation(StatutValidation.VALIDEE);
-        long nombreEnfants = 0L;
-                // enfantRepository.countByDateInscriptionBetween(dateDebut, dateFin);
-        long nombreParrains = parrainRepository.countByDateInscriptionBetween(dateDebut, dateFin);
-        long nombrePaiements = paiementRepository.countByDatePaiementBetween(dateDebut, dateFin);
-
-        BigDecimal montantTotalPaiements = paiementRepository.sumMontantByDatePaiementBetweenAndStatut(
-                dateDebut, dateFin, StatutPaiement.REUSSI);
-        if (montantTotalPaiements == null) montantTotalPaiements = BigDecimal.ZERO;
+        StatistiquesJournalieresService.Totaux totaux = statistiquesJournalieres.totaux(dateDebut, dateFin);
 
-        // Statistiques par pays (à implémenter selon les besoins)
-        List<RapportGlobalDto.StatistiqueParPaysDto> statistiquesParPays = new ArrayList<>();
+        // Statistiques par pays
+        List<RapportGlobalDto.StatistiqueParPaysDto> statistiquesParPays =
+                statistiquesJournalieres.parPays(dateDebut, dateFin);
 
-        // Top organisations (à implémenter selon les besoins)
-        List<RapportGlobalDto.StatistiqueParOrganisationDto> topOrganisations = new ArrayList<>();
+        // Top organisations
+        List<RapportGlobalDto.StatistiqueParOrganisationDto> topOrganisations =
+                statistiquesJournalieres.topOrganisations(dateDebut, dateFin, NOMBRE_TOP_ORGANISATIONS);
 
         return new RapportGlobalDto(
-                dateDebut, dateFin, nombreOrganisations, nombreEnfants, nombreParrains,
-                nombrePaiements, montantTotalPaiements, statistiquesParPays, topOrganisations
+                dateDebut, dateFin, nombreOrganisations, totaux.nombreEnfants(), totaux.nombreParrains(),
+                totaux.nombrePaiements(), totaux.montantReussi(), statistiquesParPays, topOrganisations
         );
     }
 
@@ -210,12 +218,12 @@ public class AdminService {
     }*/
 
     /**
-     * Exporter les données comptables
+     * Exporter les données comptables (paiements, dépenses, transferts) de la période en CSV ou XLSX
+     * L'export est écrit en flux dans la sortie, qui n'est pas fermée ; retourne le nombre de lignes exportées
      */
-    public byte[] exporterDonneesComptables(LocalDate dateDebut, LocalDate dateFin, String format) {
-        // Cette méthode sera implémentée avec les services PDF/CSV
-        // Pour l'instant, retourner un placeholder
-        return new byte[0];
+    public long exporterDonneesComptables(LocalDate dateDebut, LocalDate dateFin, String format,
+                                          OutputStream sortie) throws IOException {
+        return exportComptable.exporter(dateDebut, dateFin, FormatExport.depuis(format), sortie);
     }
 
     // Méthodes utilitaires privées
@@ -6,7 +6,9 @@ import com.groupe2_ionic.eduka.models.RefreshToken;
 import com.groupe2_ionic.eduka.models.Utilisateur;
 import com.groupe2_ionic.eduka.repository.RefreshTokenRepository;
 import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.security.JwtClaims;
 import com.groupe2_ionic.eduka.security.JwtUtil;
+import com.groupe2_ionic.eduka.security.UserAccessStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -36,6 +38,7 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final JwtProperties jwtProperties;
+    private final UserAccessStore userAccessStore;
 
     /**
      * Authentifie un utilisateur et génère les tokens
@@ -102,8 +105,9 @@ public class AuthenticationService {
         log.info("Tentative de rafraîchissement de token");
 
         try {
-            // Valider le refresh token
-            if (!jwtUtil.validateRefreshToken(request.getRefreshToken())) {
+            // Valider le refresh token (signature vérifiée une seule fois)
+            JwtClaims claims = jwtUtil.parseToken(request.getRefreshToken());
+            if (!claims.isRefreshToken() || claims.isExpired()) {
                 throw new BadCredentialsException("Token de rafraîchissement invalide");
             }
 
@@ -116,7 +120,7 @@ public class AuthenticationService {
             }
 
             // Récupérer l'utilisateur
-            Integer userId = jwtUtil.extractUserId(request.getRefreshToken());
+            Integer userId = claims.userId();
             Utilisateur utilisateur = utilisateurRepository.findById(userId)
                     .orElseThrow(() -> new BadCredentialsException("Utilisateur non trouvé"));
 
@@ -163,9 +167,10 @@ public class AuthenticationService {
 
         try {
             if (refreshToken != null) {
-                Integer userId = jwtUtil.extractUserId(refreshToken);
+                Integer userId = jwtUtil.parseToken(refreshToken).userId();
                 if (userId != null) {
                     refreshTokenRepository.revokeAllTokensByUserId(userId);
+                    userAccessStore.revokeTokens(userId);
                     log.info("Déconnexion réussie pour l'utilisateur ID: {}", userId);
                 }
             }
@@ -11,6 +11,7 @@ import com.groupe2_ionic.eduka.repository.DepenseRepository;
 import com.groupe2_ionic.eduka.repository.OrganisationRepository;
 import com.groupe2_ionic.eduka.repository.EnfantRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +31,7 @@ public class DepenseService {
     private final DepenseRepository depenseRepository;
     private final OrganisationRepository organisationRepository;
     private final EnfantRepository enfantRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public DepenseResponseDto creerDepense(DepenseDto depenseDto) {
@@ -51,6 +53,7 @@ public class DepenseService {
         depense.setEnfant(enfant);
 
         Depense depenseSauvegardee = depenseRepository.save(depense);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(organisation.getId()));
         return convertToResponseDto(depenseSauvegardee);
     }
 
@@ -58,6 +61,7 @@ public class DepenseService {
     public DepenseResponseDto modifierDepense(int depenseId, DepenseDto depenseDto) {
         Depense depense = depenseRepository.findById(depenseId)
                 .orElseThrow(() -> new RuntimeException("Dépense non trouvée"));
+        int ancienneOrganisationId = depense.getOrganisation().getId();
 
         // Vérifier que l'organisation existe
         Organisation organisation = organisationRepository.findById(depenseDto.getOrganisationId())
@@ -75,15 +79,19 @@ public class DepenseService {
         depense.setEnfant(enfant);
 
         Depense depenseModifiee = depenseRepository.save(depense);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(ancienneOrganisationId));
+        if (ancienneOrganisationId != organisation.getId()) {
+            eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(organisation.getId()));
+        }
         return convertToResponseDto(depenseModifiee);
     }
 
     @Transactional
     public void supprimerDepense(int depenseId) {
-        if (!depenseRepository.existsById(depenseId)) {
-            throw new RuntimeException("Dépense non trouvée");
-        }
-        depenseRepository.deleteById(depenseId);
+        Depense depense = depenseRepository.findById(depenseId)
+                .orElseThrow(() -> new RuntimeException("Dépense non trouvée"));
+        depenseRepository.delete(depense);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(depense.getOrganisation().getId()));
     }
 
     public DepenseResponseDto getDepenseById(int depenseId) {
@@ -10,26 +10,49 @@ import com.groupe2_ionic.eduka.repository.DocumentRepository;
 import com.groupe2_ionic.eduka.repository.OrganisationRepository;
 import com.groupe2_ionic.eduka.repository.RapportRepository;
 import com.groupe2_ionic.eduka.services.utilitaires.FileStorageService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
     private final RapportRepository rapportRepository;
     private final OrganisationRepository organisationRepository;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    // Délai pendant lequel un contenu réutilisé n'est pas supprimé (enregistrement de la nouvelle référence en cours)
+    private final Duration delaiGraceContenus;
+
+    public DocumentService(DocumentRepository documentRepository,
+                           RapportRepository rapportRepository,
+                           OrganisationRepository organisationRepository,
+                           FileStorageService fileStorageService,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${file.contenus.delai-grace-minutes:60}") long delaiGraceMinutes) {
+        this.documentRepository = documentRepository;
+        this.rapportRepository = rapportRepository;
+        this.organisationRepository = organisationRepository;
+        this.fileStorageService = fileStorageService;
+        this.eventPublisher = eventPublisher;
+        this.delaiGraceContenus = Duration.ofMinutes(delaiGraceMinutes);
+    }
 
     /**
      * Upload d'un document avec association automatique selon le type
@@ -50,6 +73,8 @@ public class DocumentService {
         document.setTypeDocument(uploadDto.getType());
         document.setType(uploadDto.getType().name()); // Maintenir la compatibilité
         document.setUrl(storedFile.url());
+        document.setEmpreinte(storedFile.sha256());
+        document.setTaille(storedFile.size());
         document.setDate(LocalDate.now());
 
         // Associer au rapport si spécifié
@@ -132,6 +157,12 @@ public class DocumentService {
         Optional<Document> documentOpt = documentRepository.findById(id);
         if (documentOpt.isPresent()) {
             Document document = documentOpt.get();
+            if (document.getEmpreinte() != null) {
+                // Fichier partagé : supprimé après validation, si plus aucun document ne le référence
+                documentRepository.delete(document);
+                eventPublisher.publishEvent(new ContenuLibereEvent(document.getEmpreinte()));
+                return true;
+            }
             try {
                 // Supprimer le fichier physique
                 fileStorageService.delete(document.getUrl());
@@ -145,6 +176,36 @@ public class DocumentService {
         return false;
     }
 
+    /**
+     * Supprime le fichier d'un contenu dont la dernière référence vient d'être supprimée
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContenuLibere(ContenuLibereEvent event) {
+        if (documentRepository.countByEmpreinte(event.empreinte()) > 0) {
+            return;
+        }
+        try {
+            fileStorageService.releaseContent(event.empreinte(), delaiGraceContenus);
+        } catch (IOException e) {
+            // Le fichier reste en place jusqu'à la prochaine purge
+            log.warn("Suppression du contenu {} impossible : {}", event.empreinte(), e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les contenus qu'aucun document ne référence (envoi annulé, suppression reportée)
+     */
+    @Scheduled(cron = "${file.contenus.purge-cron:0 15 3 * * *}")
+    public void purgerContenusOrphelins() {
+        try {
+            int supprimes = fileStorageService.purgeUnreferencedContents(delaiGraceContenus,
+                    documentRepository::findEmpreintesReferencees);
+            log.info("Purge des contenus orphelins : {} fichiers supprimés", supprimes);
+        } catch (IOException e) {
+            log.error("Échec de la purge des contenus orphelins", e);
+        }
+    }
+
     /**
      * Statistiques des documents
      */
@@ -219,6 +280,7 @@ public class DocumentService {
         dto.setUrl(document.getUrl());
         dto.setDate(document.getDate());
 
+        dto.setFileSize(document.getTaille());
         if (storedFile != null) {
             dto.setFileName(storedFile.fileName());
             dto.setFileSize(storedFile.size());
@@ -238,6 +300,9 @@ public class DocumentService {
         return dto;
     }
 
+    public record ContenuLibereEvent(String empreinte) {
+    }
+
     // DTO pour les statistiques
     public record DocumentStatisticsDto(
             long totalDocuments,
@@ -6,6 +6,7 @@ import com.groupe2_ionic.eduka.models.*;
 import com.groupe2_ionic.eduka.models.enums.StatutParrainage;
 import com.groupe2_ionic.eduka.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +29,8 @@ public class EnfantService {
     private final EcoleRepository ecoleRepository;
     private final OrganisationRepository organisationRepository;
     private final ParrainageRepository parrainageRepository;
+    private final OtpService otpService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EnfantResponseDto creerEnfant(EnfantDto enfantDto) {
         // Vérifier que l'organisation existe
@@ -61,6 +64,7 @@ public class EnfantService {
         enfant.setTuteur(tuteur); // enregistre le tuteur
 
         Enfant enfantSauvegarde = enfantRepository.save(enfant);
+        eventPublisher.publishEvent(new EnfantModifieEvent(enfantSauvegarde));
         return mapToResponseDto(enfantSauvegarde);
     }
 
@@ -86,6 +90,8 @@ public class EnfantService {
         if (enfantDto.getTuteurId() != null) {
             Tuteur tuteur = tuteurRepository.findById(enfantDto.getTuteurId())
                     .orElseThrow(() -> new RuntimeException("Tuteur non trouvé"));
+            // L'identité du tuteur est mise en cache pour l'authentification OTP
+            otpService.evictTuteurCache(tuteur.getTelephone());
             tuteur.setPrenom(enfantDto.getPrenomTuteur());
             tuteur.setNom(enfantDto.getNomTuteur());
             tuteur.setTelephone(enfantDto.getTelephoneTuteur());
@@ -103,6 +109,7 @@ public class EnfantService {
         }
 
         Enfant enfantModifie = enfantRepository.save(enfant);
+        eventPublisher.publishEvent(new EnfantModifieEvent(enfantModifie));
         return mapToResponseDto(enfantModifie);
     }
 
@@ -122,21 +129,18 @@ public class EnfantService {
         }
 
         enfantRepository.delete(enfant);
+        eventPublisher.publishEvent(new EnfantModifieEvent(enfant));
     }
 
     public Page<EnfantResponseDto> getEnfantsDisponibles(int page, int size, String organisationNom, String zone, String niveauScolaire) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("dateNaissance").descending());
 
-        Page<Enfant> enfants = enfantRepository.findEnfantsDisponiblesAvecFiltres(
-                organisationNom, zone, niveauScolaire, pageable);
-
-        return enfants.map(this::mapToResponseDto);
+        return enfantRepository.findEnfantsDisponiblesDto(organisationNom, zone, niveauScolaire, pageable);
     }
 
     public Page<EnfantResponseDto> getEnfantsParOrganisation(int organisationId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("nom").ascending());
-        Page<Enfant> enfants = enfantRepository.findByOrganisationId(organisationId, pageable);
-        return enfants.map(this::mapToResponseDto);
+        return enfantRepository.findEnfantsDtoByOrganisationId(organisationId, pageable);
     }
 
     public EnfantResponseDto getEnfantById(int enfantId) {
@@ -200,6 +204,23 @@ public class EnfantService {
         return dto;
     }
 
+    /**
+     * Un enfant a été créé, modifié, supprimé ou a changé de statut de parrainage
+     * (consommé après commit par l'index de recherche et le cache des tableaux de bord)
+     */
+    public static class EnfantModifieEvent {
+        private final int enfantId;
+        private final Integer organisationId;
+
+        public EnfantModifieEvent(Enfant enfant) {
+            this.enfantId = enfant.getId();
+            this.organisationId = enfant.getOrganisation() != null ? enfant.getOrganisation().getId() : null;
+        }
+
+        public int getEnfantId() { return enfantId; }
+        public Integer getOrganisationId() { return organisationId; }
+    }
+
     public static class EnfantStatsDto {
         private final long totalEnfants;
         private final long enfantsParraines;
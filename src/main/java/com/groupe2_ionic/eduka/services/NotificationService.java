@@ -1,17 +1,25 @@
 package com.groupe2_ionic.eduka.services;
 
 import com.groupe2_ionic.eduka.dto.NotificationResponseDto;
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
 import com.groupe2_ionic.eduka.repository.NotificationRepository;
 import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.services.notification.CompteurNonLus;
+import com.groupe2_ionic.eduka.services.notification.NotificationFanout;
+import com.groupe2_ionic.eduka.services.notification.NotificationOutbox;
+import com.groupe2_ionic.eduka.services.notification.NotificationStream;
+import com.groupe2_ionic.eduka.services.utilitaires.CurseurPagination;
 import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
-import com.groupe2_ionic.eduka.services.utilitaires.SmsService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,11 +32,17 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UtilisateurRepository utilisateurRepository;
     private final EmailService emailService;
-    private final SmsService smsService;
+    private final NotificationOutbox notificationOutbox;
+    private final NotificationFanout notificationFanout;
+    private final CompteurNonLus compteurNonLus;
+    private final NotificationStream notificationStream;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Crée une notification pour un utilisateur et envoie un email.
+     * L'email est livré en arrière-plan après le commit.
      */
+    @Transactional
     public NotificationResponseDto createNotification(Utilisateur utilisateur, String sujet, String message) {
         // Vérification de l'existence de l'utilisateur
         Notification notification = new Notification();
@@ -43,11 +57,11 @@ public class NotificationService {
         Notification savedNotification = notificationRepository.save(notification);
 
         // Envoie de la notification par email :
-        System.out.println(
-                emailService.envoyerEmail(utilisateur.getEmail(), sujet, message)
-        );
+        notificationOutbox.planifierEmail(utilisateur.getEmail(), sujet, message, false);
 
-        return mapToResponseDto(savedNotification);
+        NotificationResponseDto response = mapToResponseDto(savedNotification);
+        eventPublisher.publishEvent(NotificationEvent.creee(utilisateur.getId(), response));
+        return response;
     }
 
     /**
@@ -59,7 +73,10 @@ public class NotificationService {
 
     /**
      * Envoie une notification avec options personnalisées
+     * Les emails et SMS sont enregistrés dans la même transaction que la notification
+     * et livrés en arrière-plan après le commit (voir NotificationDispatcher)
      */
+    @Transactional
     public NotificationResponseDto envoyerNotification(Utilisateur utilisateur, String sujet, String message,
                                                        boolean envoyerEmail, boolean envoyerSms) {
         // Créer la notification en base
@@ -74,23 +91,18 @@ public class NotificationService {
 
         // Envoyer par email si demandé
         if (envoyerEmail) {
-            if (utilisateur instanceof Parrain) {
-                Parrain parrain = (Parrain) utilisateur;
-                emailService.envoyerEmailHtml(utilisateur.getEmail(), sujet, message, null);
-            } else if (utilisateur instanceof Organisation) {
-                Organisation org = (Organisation) utilisateur;
-                emailService.envoyerEmailHtml(utilisateur.getEmail(), sujet, message, null);
-            } else {
-                emailService.envoyerEmail(utilisateur.getEmail(), sujet, message);
-            }
+            boolean html = utilisateur instanceof Parrain || utilisateur instanceof Organisation;
+            notificationOutbox.planifierEmail(utilisateur.getEmail(), sujet, message, html);
         }
 
         // Envoyer par SMS si demandé et numéro disponible
         if (envoyerSms && utilisateur.getTelephone() != null) {
-            smsService.envoyerSms(utilisateur.getTelephone(), message);
+            notificationOutbox.planifierSms(utilisateur.getTelephone(), message);
         }
 
-        return mapToResponseDto(savedNotification);
+        NotificationResponseDto response = mapToResponseDto(savedNotification);
+        eventPublisher.publishEvent(NotificationEvent.creee(utilisateur.getId(), response));
+        return response;
     }
 
     /**
@@ -114,7 +126,8 @@ public class NotificationService {
         String message = String.format("Bienvenue %s ! Votre inscription en tant que %s a été confirmée.", nom, typeUtilisateur);
 
         // Envoyer email de bienvenue avec template HTML
-        emailService.envoyerEmailBienvenue(utilisateur.getEmail(), nom, typeUtilisateur);
+        notificationOutbox.planifierEmail(utilisateur.getEmail(), emailService.sujetBienvenue(),
+                emailService.contenuBienvenue(nom, typeUtilisateur), true);
 
         // Créer notification en base
         envoyerNotification(utilisateur, sujet, message, false, true);
@@ -147,6 +160,27 @@ public class NotificationService {
         return notifications.map(this::mapToResponseDto);
     }
 
+    /**
+     * Récupère le flux des notifications d'un utilisateur paginé par curseur (sans OFFSET ni COUNT)
+     */
+    public PageCurseurDto<NotificationResponseDto> getFluxNotifications(int utilisateurId, String curseur, Integer taille) {
+        if (!utilisateurRepository.existsById(utilisateurId)) {
+            throw new RuntimeException("Utilisateur non trouvé avec l'ID: " + utilisateurId);
+        }
+
+        int tailleEffective = CurseurPagination.taille(taille);
+        CurseurPagination.Position position = CurseurPagination.decoder(curseur);
+        Pageable limite = PageRequest.of(0, tailleEffective + 1);
+
+        List<Notification> notifications = position == null
+                ? notificationRepository.findFluxByDestinataireId(utilisateurId, limite)
+                : notificationRepository.findFluxByDestinataireIdApres(utilisateurId, position.date(), position.id(), limite);
+
+        return CurseurPagination.page(notifications, tailleEffective,
+                notification -> new CurseurPagination.Position(notification.getDate(), notification.getId()),
+                this::mapToResponseDto);
+    }
+
     /**
      * Récupère les notifications non lues d'un utilisateur
      */
@@ -163,12 +197,21 @@ public class NotificationService {
 
     /**
      * Compte le nombre de notifications non lues d'un utilisateur
+     * Servi par le compteur en mémoire ; la base n'est interrogée qu'au premier accès
      */
     public long countUnreadNotifications(int utilisateurId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(utilisateurId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'ID: " + utilisateurId));
+        if (!compteurNonLus.estEnCache(utilisateurId) && !utilisateurRepository.existsById(utilisateurId)) {
+            throw new RuntimeException("Utilisateur non trouvé avec l'ID: " + utilisateurId);
+        }
+
+        return compteurNonLus.get(utilisateurId);
+    }
 
-        return notificationRepository.countByDestinataireAndLuFalse(utilisateur);
+    /**
+     * Ouvre un flux temps réel (SSE) des notifications et du compteur de non lues d'un utilisateur
+     */
+    public SseEmitter abonner(int utilisateurId) {
+        return notificationStream.abonner(utilisateurId, countUnreadNotifications(utilisateurId));
     }
 
     /**
@@ -178,9 +221,13 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification non trouvée avec l'ID: " + notificationId));
 
+        boolean etaitNonLue = !Boolean.TRUE.equals(notification.getLu());
         notification.setLu(true);
         Notification savedNotification = notificationRepository.save(notification);
 
+        if (etaitNonLue) {
+            eventPublisher.publishEvent(NotificationEvent.variation(notification.getDestinataire().getId(), -1));
+        }
         return mapToResponseDto(savedNotification);
     }
 
@@ -194,17 +241,21 @@ public class NotificationService {
         }
 
         notificationRepository.markAllAsReadByDestinataireId(utilisateurId);
+        eventPublisher.publishEvent(NotificationEvent.reinitialisation(utilisateurId));
     }
 
     /**
      * Supprime une notification spécifique
      */
     public void deleteNotification(int notificationId) {
-        if (!notificationRepository.existsById(notificationId)) {
-            throw new RuntimeException("Notification non trouvée avec l'ID: " + notificationId);
-        }
+        Notification notification = notificationRepository.findById(notificationId)
+                .orElseThrow(() -> new RuntimeException("Notification non trouvée avec l'ID: " + notificationId));
 
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.delete(notification);
+
+        if (!Boolean.TRUE.equals(notification.getLu())) {
+            eventPublisher.publishEvent(NotificationEvent.variation(notification.getDestinataire().getId(), -1));
+        }
     }
 
     /**
@@ -217,6 +268,7 @@ public class NotificationService {
         }
 
         notificationRepository.deleteAllByDestinataireId(utilisateurId);
+        eventPublisher.publishEvent(NotificationEvent.reinitialisation(utilisateurId));
     }
 
     /**
@@ -337,20 +389,33 @@ public class NotificationService {
     }
 
     /**
-     * Notifie les parrains potentiels lorsqu'un nouvel enfant est disponible
+     * Notifie tous les parrains actifs lorsqu'un nouvel enfant est disponible
+     * La diffusion est faite en arrière-plan après le commit (voir NotificationFanout)
      */
     public void notifierNouvelEnfantDisponible(Enfant enfant) {
-        // Cette méthode pourrait notifier les parrains potentiels
-        // Pour l'instant, on la laisse vide ou on peut implémenter une logique spécifique
+        String sujet = "Un nouvel enfant attend un parrain";
+        String message = String.format("%s (%s) vient d'être inscrit(e) par %s et attend un parrain ou une marraine. " +
+                        "Consultez son profil depuis votre espace pour le soutenir.",
+                enfant.getPrenom(),
+                enfant.getNiveauScolaire() != null ? enfant.getNiveauScolaire() : "niveau non renseigné",
+                enfant.getOrganisation() != null ? enfant.getOrganisation().getNom() : "une organisation partenaire");
+
+        // Message rédigé en texte brut : email sans HTML
+        notificationFanout.diffuser(RoleUser.ROLE_PARRAIN, sujet, message, true, false, false);
     }
 
     /**
-     * Notifie une organisation lors d'une nouvelle demande d'inscription
+     * Accuse réception de la demande d'inscription d'une organisation et prévient les administrateurs
      */
     public void notifierNouvelleDemandeOrganisation(Organisation organisation) {
         String sujet = "Demande d'inscription reçue";
         String message = String.format("Votre demande d'inscription pour l'organisation %s a été reçue et est en cours de traitement.", organisation.getNom());
         envoyerNotification(organisation, sujet, message);
+
+        String sujetAdmin = "Nouvelle demande d'inscription";
+        String messageAdmin = String.format("L'organisation %s a demandé son inscription et attend une validation.", organisation.getNom());
+        // Message rédigé en texte brut : email sans HTML
+        notificationFanout.diffuser(RoleUser.ROLE_ADMIN, sujetAdmin, messageAdmin, true, false, false);
     }
 
     /**
@@ -379,4 +444,40 @@ public class NotificationService {
                 notification.getDestinataire().getEmail()
         );
     }
+
+    /**
+     * Événement publié lorsqu'une notification est créée, lue ou supprimée
+     * Consommé après le commit par le compteur de non lues et le flux temps réel
+     */
+    public static class NotificationEvent {
+        private final int destinataireId;
+        private final long variation;
+        private final boolean reinitialiser;
+        private final NotificationResponseDto notification;
+
+        public NotificationEvent(int destinataireId, long variation, boolean reinitialiser,
+                                 NotificationResponseDto notification) {
+            this.destinataireId = destinataireId;
+            this.variation = variation;
+            this.reinitialiser = reinitialiser;
+            this.notification = notification;
+        }
+
+        public static NotificationEvent creee(int destinataireId, NotificationResponseDto notification) {
+            return new NotificationEvent(destinataireId, 1, false, notification);
+        }
+
+        public static NotificationEvent variation(int destinataireId, long variation) {
+            return new NotificationEvent(destinataireId, variation, false, null);
+        }
+
+        public static NotificationEvent reinitialisation(int destinataireId) {
+            return new NotificationEvent(destinataireId, 0, true, null);
+        }
+
+        public int getDestinataireId() { return destinataireId; }
+        public long getVariation() { return variation; }
+        public boolean isReinitialiser() { return reinitialiser; }
+        public NotificationResponseDto getNotification() { return notification; }
+    }
 }
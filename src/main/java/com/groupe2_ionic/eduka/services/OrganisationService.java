@@ -5,7 +5,9 @@ import com.groupe2_ionic.eduka.models.*;
 import com.groupe2_ionic.eduka.models.enums.RoleUser;
 import com.groupe2_ionic.eduka.models.enums.StatutTransfert;
 import com.groupe2_ionic.eduka.repository.*;
+import com.groupe2_ionic.eduka.services.organisation.TableauDeBordCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,6 +31,8 @@ public class OrganisationService {
     private final RapportRepository rapportRepository;
     private final TransfertFondRepository transfertFondRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TableauDeBordCache tableauDeBordCache;
 
     /**
      * Inscription d'une nouvelle organisation
@@ -89,6 +93,7 @@ public class OrganisationService {
         enfant.setOrganisation(organisation);
 
         Enfant savedEnfant = enfantRepository.save(enfant);
+        eventPublisher.publishEvent(new EnfantService.EnfantModifieEvent(savedEnfant));
 
         // Notifier les parrains potentiels
         notificationService.notifierNouvelEnfantDisponible(savedEnfant);
@@ -101,8 +106,7 @@ public class OrganisationService {
      */
     @Transactional(readOnly = true)
     public Page<EnfantResponseDto> obtenirEnfantsOrganisation(int organisationId, Pageable pageable) {
-        Page<Enfant> enfants = enfantRepository.findByOrganisationId(organisationId, pageable);
-        return enfants.map(this::mapEnfantToResponseDto);
+        return enfantRepository.findEnfantsDtoByOrganisationId(organisationId, pageable);
     }
 
     /**
@@ -160,6 +164,7 @@ public class OrganisationService {
         depense.setEnfant(enfant);
 
         Depense savedDepense = depenseRepository.save(depense);
+        eventPublisher.publishEvent(new DonneesOrganisationModifieesEvent(organisationId));
 
         // Déduire du solde de l'enfant si applicable
         if (enfant.getSolde() != null && enfant.getSolde().compareTo(depenseDto.getMontant()) >= 0) {
@@ -199,6 +204,7 @@ public class OrganisationService {
         rapport.setOrganisation(organisation);
 
         Rapport savedRapport = rapportRepository.save(rapport);
+        eventPublisher.publishEvent(new DonneesOrganisationModifieesEvent(organisationId));
 
         // Notifier le parrain
         if (enfant.getStatutParrainage()) {
@@ -259,19 +265,9 @@ public class OrganisationService {
      */
     @Transactional(readOnly = true)
     public OrganisationDashboardDto obtenirTableauDeBord(int organisationId) {
-        // Vérifie l'existence de l'organisation.
-        if (!organisationRepository.existsById(organisationId)){
-            throw new RuntimeException("Organisation non trouvée");
-        }
-
-        OrganisationDashboardDto dashboard = new OrganisationDashboardDto();
-        dashboard.setNombreEnfants(enfantRepository.countByOrganisationId(organisationId));
-        dashboard.setNombreEnfantsParraines(enfantRepository.countByOrganisationIdAndStatutParrainageTrue(organisationId));
-        dashboard.setNombreRapports(rapportRepository.countByOrganisationId(organisationId));
-        dashboard.setNombreDepenses(depenseRepository.countByOrganisationId(organisationId));
-        dashboard.setMontantTotalDepenses(depenseRepository.sumMontantByOrganisationId(organisationId));
-
-        return dashboard;
+        // Servi depuis le cache ; au premier accès, tous les agrégats sont calculés en une requête
+        return tableauDeBordCache.obtenir(organisationId, id -> organisationRepository.findTableauDeBord(id)
+                .orElseThrow(() -> new RuntimeException("Organisation non trouvée")));
     }
 
     // Méthodes utilitaires de mapping
@@ -373,4 +369,18 @@ public class OrganisationService {
                 transfert.getParrain().getNom() + " " + transfert.getParrain().getPrenom() : null);
         return dto;
     }
+
+    /**
+     * Un rapport ou une dépense de l'organisation a été créé, modifié ou supprimé
+     * (consommé après commit par le cache des tableaux de bord)
+     */
+    public static class DonneesOrganisationModifieesEvent {
+        private final int organisationId;
+
+        public DonneesOrganisationModifieesEvent(int organisationId) {
+            this.organisationId = organisationId;
+        }
+
+        public int getOrganisationId() { return organisationId; }
+    }
 }
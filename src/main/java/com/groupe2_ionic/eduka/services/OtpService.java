@@ -5,84 +5,75 @@ import com.groupe2_ionic.eduka.security.properties.OtpProperties;
 import com.groupe2_ionic.eduka.dto.auth.OtpRequestDto;
 import com.groupe2_ionic.eduka.dto.auth.OtpVerificationDto;
 import com.groupe2_ionic.eduka.dto.auth.TuteurAuthResponseDto;
-import com.groupe2_ionic.eduka.models.OtpCode;
-import com.groupe2_ionic.eduka.models.Tuteur;
-import com.groupe2_ionic.eduka.repository.OtpCodeRepository;
 import com.groupe2_ionic.eduka.repository.TuteurRepository;
 import com.groupe2_ionic.eduka.security.JwtUtil;
+import com.groupe2_ionic.eduka.services.otp.OtpStore;
+import com.groupe2_ionic.eduka.services.otp.OtpStore.OtpEntry;
+import com.groupe2_ionic.eduka.services.otp.OtpStore.TuteurIdentite;
+import com.groupe2_ionic.eduka.services.otp.OtpStore.Verification;
 import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import com.groupe2_ionic.eduka.services.utilitaires.InstantanesStatistiques;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.Optional;
 
 /**
  * Service de gestion des codes OTP
  * Gère la génération, l'envoi et la vérification des codes OTP pour les tuteurs
+ * Les codes, les tentatives et la limitation des demandes sont conservés dans {@link OtpStore} (Redis)
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OtpService {
 
-    private final OtpCodeRepository otpCodeRepository;
+    private final OtpStore otpStore;
     private final TuteurRepository tuteurRepository;
     private final EmailService emailService;
     private final JwtUtil jwtUtil;
     private final OtpProperties otpProperties;
     private final JwtProperties jwtProperties;
+    private final InstantanesStatistiques instantanesStatistiques;
     private final SecureRandom secureRandom = new SecureRandom();
 
     /**
      * Génère et envoie un code OTP pour un tuteur
      */
-    @Transactional
     public void generateAndSendOtp(OtpRequestDto request) {
         log.info("Génération d'OTP pour le téléphone: {}", request.getTelephone());
 
-        // Vérifier si le tuteur existe
-        Tuteur tuteur = tuteurRepository.findByTelephone(request.getTelephone())
-                .orElseThrow(() -> new BadCredentialsException("Aucun tuteur trouvé avec ce numéro de téléphone"));
+        // Vérifier si le tuteur existe (cache de l'identité, la base n'est consultée qu'au premier appel)
+        TuteurIdentite tuteur = findTuteur(request.getTelephone());
 
-        // Vérifier le nombre de tentatives récentes (protection contre le spam)
-        long recentAttempts = otpCodeRepository.countRecentAttemptsByTelephone(
+        // Limiter le nombre de demandes sur une fenêtre glissante (protection contre le spam)
+        boolean autorise = otpStore.tryAcquireIssuance(
                 request.getTelephone(),
-                LocalDateTime.now().minusHours(1)
+                otpProperties.getMaxRequests(),
+                Duration.ofMinutes(otpProperties.getRequestWindowMinutes())
         );
 
-        if (recentAttempts >= 5) {
+        if (!autorise) {
             throw new BadCredentialsException("Trop de tentatives. Veuillez réessayer dans une heure.");
         }
 
-        // Marquer tous les anciens codes comme utilisés
-        otpCodeRepository.markAllAsUsedByTelephone(request.getTelephone());
-
-        // Générer un nouveau code OTP
+        // Générer un nouveau code OTP (remplace l'éventuel code précédent)
         String otpCode = generateOtpCode();
-        LocalDateTime expiryDate = LocalDateTime.now().plusMinutes(otpProperties.getExpirationMinutes());
-
-        // Sauvegarder le code OTP
-        OtpCode otp = new OtpCode();
-        otp.setTelephone(request.getTelephone());
-        otp.setCode(otpCode);
-        otp.setExpiryDate(expiryDate);
-        otp.setUsed(false);
-        otp.setAttempts(0);
-
-        otpCodeRepository.save(otp);
+        otpStore.save(
+                request.getTelephone(),
+                new OtpEntry(otpCode, tuteur),
+                Duration.ofMinutes(otpProperties.getExpirationMinutes())
+        );
 
         // Envoyer le code par SMS/Email (simulation par email pour le moment)
         try {
-            sendOtpNotification(tuteur, otpCode);
+            sendOtpNotification(request.getTelephone(), tuteur, otpCode);
             log.info("Code OTP généré et envoyé avec succès pour: {}", request.getTelephone());
         } catch (Exception e) {
             log.error("Erreur lors de l'envoi de l'OTP: {}", e.getMessage());
@@ -93,64 +84,71 @@ public class OtpService {
     /**
      * Vérifie un code OTP et authentifie le tuteur
      */
-    @Transactional
     public TuteurAuthResponseDto verifyOtpAndAuthenticate(OtpVerificationDto request) {
         log.info("Vérification d'OTP pour le téléphone: {}", request.getTelephone());
 
-        // Récupérer le tuteur
-        Tuteur tuteur = tuteurRepository.findByTelephone(request.getTelephone())
-                .orElseThrow(() -> new BadCredentialsException("Tuteur non trouvé"));
-
-        // Récupérer le code OTP le plus récent et valide
-        OtpCode otpCode = otpCodeRepository.findLatestValidOtpByTelephone(
+        // Vérifier le code et compter la tentative en une seule opération atomique
+        Verification verification = otpStore.verify(
                 request.getTelephone(),
-                LocalDateTime.now()
-        ).orElseThrow(() -> new BadCredentialsException("Code OTP expiré ou invalide"));
-
-        // Vérifier le nombre de tentatives
-        if (otpCode.getAttempts() >= otpProperties.getMaxAttempts()) {
-            otpCode.setUsed(true);
-            otpCodeRepository.save(otpCode);
-            throw new BadCredentialsException("Nombre maximum de tentatives atteint");
-        }
-
-        // Incrémenter le nombre de tentatives
-        otpCode.setAttempts(otpCode.getAttempts() + 1);
-        otpCodeRepository.save(otpCode);
+                request.getOtpCode(),
+                otpProperties.getMaxAttempts()
+        );
 
-        // Vérifier le code
-        if (!otpCode.getCode().equals(request.getOtpCode())) {
-            throw new BadCredentialsException("Code OTP incorrect");
+        switch (verification.statut()) {
+            case EXPIRE -> throw new BadCredentialsException("Code OTP expiré ou invalide");
+            case TENTATIVES_EPUISEES -> throw new BadCredentialsException("Nombre maximum de tentatives atteint");
+            case INVALIDE -> throw new BadCredentialsException("Code OTP incorrect");
+            case VALIDE -> { }
         }
 
-        // Marquer le code comme utilisé
-        otpCode.setUsed(true);
-        otpCodeRepository.save(otpCode);
+        TuteurIdentite tuteur = verification.tuteur();
 
         // Générer le token JWT pour le tuteur
         UserDetails userDetails = User.builder()
-                .username(tuteur.getTelephone())
+                .username(request.getTelephone())
                 .password("") // Pas de mot de passe pour les tuteurs
                 .authorities(Collections.singletonList(() -> "ROLE_TUTEUR"))
                 .build();
 
-        String accessToken = jwtUtil.generateAccessToken(userDetails, tuteur.getId(), "TUTEUR");
+        String accessToken = jwtUtil.generateAccessToken(userDetails, tuteur.id(), "TUTEUR");
 
-        log.info("Authentification OTP réussie pour le tuteur: {}", tuteur.getTelephone());
+        log.info("Authentification OTP réussie pour le tuteur: {}", request.getTelephone());
 
         return TuteurAuthResponseDto.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
                 .expiresIn(jwtProperties.getAccessToken().getExpiration() / 1000)
                 .tuteur(TuteurAuthResponseDto.TuteurInfoDto.builder()
-                        .id(tuteur.getId())
-                        .nom(tuteur.getNom())
-                        .prenom(tuteur.getPrenom())
-                        .telephone(tuteur.getTelephone())
+                        .id(tuteur.id())
+                        .nom(tuteur.nom())
+                        .prenom(tuteur.prenom())
+                        .telephone(request.getTelephone())
                         .build())
                 .build();
     }
 
+    /**
+     * Retire l'identité d'un tuteur du cache (à appeler après modification du tuteur)
+     */
+    public void evictTuteurCache(String telephone) {
+        if (telephone != null) {
+            otpStore.evictTuteur(telephone);
+        }
+    }
+
+    /**
+     * Récupère l'identité du tuteur depuis le cache, ou depuis la base au premier appel
+     */
+    private TuteurIdentite findTuteur(String telephone) {
+        return otpStore.findTuteur(telephone).orElseGet(() -> {
+            TuteurIdentite tuteur = tuteurRepository.findByTelephone(telephone)
+                    .map(t -> new TuteurIdentite(t.getId(), t.getNom(), t.getPrenom()))
+                    .orElseThrow(() -> new BadCredentialsException("Aucun tuteur trouvé avec ce numéro de téléphone"));
+            otpStore.cacheTuteur(telephone, tuteur, Duration.ofMinutes(otpProperties.getTuteurCacheMinutes()));
+            return tuteur;
+        });
+    }
+
     /**
      * Génère un code OTP aléatoire
      */
@@ -162,7 +160,7 @@ public class OtpService {
     /**
      * Envoie le code OTP par notification (email pour simulation)
      */
-    private void sendOtpNotification(Tuteur tuteur, String otpCode) {
+    private void sendOtpNotification(String telephone, TuteurIdentite tuteur, String otpCode) {
         String subject = "Code de vérification Eduka";
         String message = String.format(
                 "Bonjour %s %s,\n\n" +
@@ -171,8 +169,8 @@ public class OtpService {
                         "Si vous n'avez pas demandé ce code, ignorez ce message.\n\n" +
                         "Cordialement,\n" +
                         "L'équipe Eduka",
-                tuteur.getPrenom(),
-                tuteur.getNom(),
+                tuteur.prenom(),
+                tuteur.nom(),
                 otpCode,
                 otpProperties.getExpirationMinutes()
         );
@@ -180,43 +178,32 @@ public class OtpService {
         // Pour le moment, on simule l'envoi par email
         // Dans un vrai projet, on utiliserait un service SMS
         emailService.envoyerEmail(
-                tuteur.getTelephone() + "@sms-simulation.com", // Email de simulation
+                telephone + "@sms-simulation.com", // Email de simulation
                 subject,
                 message
         );
     }
 
     /**
-     * Nettoyage automatique des codes OTP expirés (exécuté toutes les heures)
+     * Statistiques des codes OTP (instantané si activé, sinon requêtes de comptage)
      */
-    @Scheduled(fixedRate = 3600000) // 1 heure
-    @Transactional
-    public void cleanupExpiredOtps() {
-        log.info("Démarrage du nettoyage automatique des codes OTP expirés");
-
-        try {
-            otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
-            log.info("Nettoyage des codes OTP expirés terminé");
-        } catch (Exception e) {
-            log.error("Erreur lors du nettoyage des codes OTP expirés: {}", e.getMessage());
-        }
+    public OtpStats getOtpStats() {
+        return instantanesStatistiques.lire("codes-otp", this::computeOtpStats);
     }
 
     /**
-     * Statistiques des codes OTP
+     * Calcule les statistiques à partir des compteurs du stockage
      */
-    public OtpStats getOtpStats() {
-        long totalOtps = otpCodeRepository.count();
-        long activeOtps = otpCodeRepository.findAll().stream()
-                .filter(otp -> !otp.getUsed() &&
-                        otp.getExpiryDate().isAfter(LocalDateTime.now()))
-                .count();
+    private OtpStats computeOtpStats() {
+        long totalOtps = otpStore.countIssued();
+        long activeOtps = otpStore.countActive();
 
-        return new OtpStats(totalOtps, activeOtps, totalOtps - activeOtps);
+        return new OtpStats(totalOtps, activeOtps, Math.max(0, totalOtps - activeOtps));
     }
 
     /**
      * Classe pour les statistiques des codes OTP
+     * total : codes émis, active : codes en cours de validité, expired : codes utilisés, remplacés ou expirés
      */
     public record OtpStats(long total, long active, long expired) {}
 }
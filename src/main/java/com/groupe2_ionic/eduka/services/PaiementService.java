@@ -1,5 +1,6 @@
 package com.groupe2_ionic.eduka.services;
 
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.dto.PaiementEspeceDto;
 import com.groupe2_ionic.eduka.dto.PaiementHistoriqueDto;
 import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
@@ -7,27 +8,45 @@ import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
 import com.groupe2_ionic.eduka.models.Organisation;
 import com.groupe2_ionic.eduka.models.Paiement;
 import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.AgregatPaiement;
 import com.groupe2_ionic.eduka.models.Parrainage;
 import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.PorteeAgregat;
 import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
 import com.groupe2_ionic.eduka.repository.OrganisationRepository;
 import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
 import com.groupe2_ionic.eduka.repository.ParrainRepository;
 import com.groupe2_ionic.eduka.repository.ParrainageRepository;
 import com.groupe2_ionic.eduka.services.payment.*;
+import com.groupe2_ionic.eduka.services.statistiques.AgregatsPaiementService;
+import com.groupe2_ionic.eduka.services.utilitaires.CurseurPagination;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,19 +58,70 @@ public class PaiementService {
     private final ParrainRepository parrainRepository;
     private final OrganisationRepository organisationRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final AgregatsPaiementService agregatsPaiementService;
 
     // Services d'intégration
-    private final StripePaymentService stripePaymentService;
-    private final PayPalPaymentService payPalPaymentService;
-    private final OrangeMoneyService orangeMoneyService;
-    private final MoovMoneyService moovMoneyService;
-    private final WavePaymentService wavePaymentService;
+    private final PasserellePaiement passerellePaiement;
+    private final GenerateurIdentifiantsTransaction generateurIdentifiants;
+    private final TransactionTemplate transactionTemplate;
+    private final PdfService pdfService;
+    private final ExecutorService enregistrementReponses = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
-     * Initier un paiement selon la méthode choisie
+     * Initier un paiement selon la méthode choisie, en attendant la réponse du fournisseur
+     * Aucune transaction n'est ouverte pendant l'appel au fournisseur (voir initierPaiementAsync)
      */
-    @Transactional
     public PaiementResponseDto initierPaiement(PaiementRequestDto requestDto) {
+        if (requestDto.getMethodePaiement() == MethodePaiement.ESPECE) {
+            return initierPaiementEspece(requestDto);
+        }
+        FournisseurPaiement.Demande demande = transactionTemplate.execute(status ->
+                versDemande(creerPaiementInitie(requestDto)));
+        FournisseurPaiement.Reponse reponse;
+        try {
+            reponse = passerellePaiement.initier(requestDto.getMethodePaiement(), demande).join();
+        } catch (CompletionException e) {
+            return traiterErreur(demande.paiementId(), e.getCause());
+        }
+        return enregistrerReponse(demande.paiementId(), reponse);
+    }
+
+    /**
+     * Initier un paiement selon la méthode choisie, sans bloquer l'appelant
+     * Le paiement et son identifiant de transaction sont enregistrés dans une première transaction, le fournisseur
+     * est appelé hors transaction par la PasserellePaiement, puis sa réponse est enregistrée dans une seconde
+     * transaction sur un exécuteur dédié (pas sur le thread du fournisseur ni sur celui du délai)
+     */
+    public CompletableFuture<PaiementResponseDto> initierPaiementAsync(PaiementRequestDto requestDto) {
+        if (requestDto.getMethodePaiement() == MethodePaiement.ESPECE) {
+            return CompletableFuture.completedFuture(initierPaiementEspece(requestDto));
+        }
+        FournisseurPaiement.Demande demande = transactionTemplate.execute(status ->
+                versDemande(creerPaiementInitie(requestDto)));
+        return passerellePaiement.initier(requestDto.getMethodePaiement(), demande)
+                .handleAsync((reponse, erreur) -> erreur != null
+                        ? traiterErreur(demande.paiementId(),
+                                erreur instanceof CompletionException ? erreur.getCause() : erreur)
+                        : enregistrerReponse(demande.paiementId(), reponse), enregistrementReponses);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        enregistrementReponses.shutdown();
+    }
+
+    /**
+     * Les paiements en espèce sont confirmés manuellement par l'organisation : pas de fournisseur à appeler
+     */
+    private PaiementResponseDto initierPaiementEspece(PaiementRequestDto requestDto) {
+        return transactionTemplate.execute(status -> convertirEnResponseDto(creerPaiementInitie(requestDto)));
+    }
+
+    /**
+     * Enregistrer le paiement initié avec son identifiant de transaction (dans la transaction de l'appelant)
+     * L'identifiant est connu avant l'appel au fournisseur : un rappel arrivé après le délai retrouve le paiement
+     */
+    private Paiement creerPaiementInitie(PaiementRequestDto requestDto) {
         // Vérifier que le parrainage existe
         Parrainage parrainage = parrainageRepository.findById(requestDto.getParrainageId())
                 .orElseThrow(() -> new RuntimeException("Parrainage non trouvé"));
@@ -62,50 +132,118 @@ public class PaiementService {
         paiement.setMethode(requestDto.getMethodePaiement());
         paiement.setStatut(StatutPaiement.INITE);
         paiement.setDatePaiement(LocalDate.now());
+        paiement.setNumeroTelephone(requestDto.getNumeroTelephone());
         paiement.setParrain(parrainage.getParrain());
         paiement.setParrainage(parrainage);
+        paiement.setTransactionId(generateurIdentifiants.nouvelIdentifiant(prefixeTransaction(requestDto.getMethodePaiement())));
 
         // Sauvegarder le paiement initial
         paiement = paiementRepository.save(paiement);
+        agregatsPaiementService.enregistrerTransition(paiement, null);
+        return paiement;
+    }
 
-        try {
-            // Traiter selon la méthode de paiement
-            PaiementResponseDto response = switch (requestDto.getMethodePaiement()) {
-                case STRIPE -> stripePaymentService.creerPaiement(paiement, requestDto);
-                case PAYPAL -> payPalPaymentService.creerPaiement(paiement, requestDto);
-                case ORANGE_MONEY -> orangeMoneyService.initierPaiement(paiement, requestDto);
-                case MOOV_MONEY -> moovMoneyService.initierPaiement(paiement, requestDto);
-                case WAVE -> wavePaymentService.initierPaiement(paiement, requestDto);
-                case ESPECE -> traiterPaiementEspece(paiement);
-                default -> throw new RuntimeException("Méthode de paiement non supportée");
-            };
+    private static String prefixeTransaction(MethodePaiement methode) {
+        return switch (methode) {
+            case ORANGE_MONEY -> "OM_";
+            case MOOV_MONEY -> "MOOV_";
+            case WAVE -> "WAVE_";
+            case STRIPE -> "pi_";
+            case PAYPAL -> "PAYPAL_";
+            case ESPECE -> "ESPECE_";
+        };
+    }
 
-            return response;
+    private FournisseurPaiement.Demande versDemande(Paiement paiement) {
+        return new FournisseurPaiement.Demande(paiement.getId(), paiement.getTransactionId(), paiement.getMontant(),
+                paiement.getNumeroTelephone(), paiement.getParrain() != null ? paiement.getParrain().getId() : null,
+                paiement.getParrainage().getId());
+    }
 
-        } catch (Exception e) {
-            log.error("Erreur lors de l'initiation du paiement: {}", e.getMessage());
+    /**
+     * Enregistrer les informations attribuées par le fournisseur
+     */
+    private PaiementResponseDto enregistrerReponse(Integer paiementId, FournisseurPaiement.Reponse reponse) {
+        return transactionTemplate.execute(status -> {
+            Paiement paiement = paiementRepository.findById(paiementId)
+                    .orElseThrow(() -> new RuntimeException("Paiement non trouvé"));
+            paiement.setPaymentIntentId(reponse.paymentIntentId());
+            if (reponse.metadonnees() != null) {
+                paiement.setMetadonnees(reponse.metadonnees());
+            }
+            paiement = paiementRepository.save(paiement);
+
+            PaiementResponseDto response = convertirEnResponseDto(paiement);
+            response.setPaymentUrl(reponse.paymentUrl());
+            return response;
+        });
+    }
 
-            // Marquer le paiement comme échoué
-            paiement.setStatut(StatutPaiement.ECHEC);
-            paiement.setMessageErreur(e.getMessage());
-            paiementRepository.save(paiement);
+    /**
+     * Sans réponse dans le délai, le paiement a pu être créé chez le fournisseur : il reste en attente de son rappel.
+     * Sinon le paiement est marqué échoué et l'erreur est transmise à l'appelant
+     */
+    private PaiementResponseDto traiterErreur(Integer paiementId, Throwable erreur) {
+        if (!(erreur instanceof TimeoutException)) {
+            throw marquerEchec(paiementId, erreur);
+        }
+        log.warn("Paiement {} sans réponse du fournisseur dans le délai, en attente de confirmation", paiementId);
+        return transactionTemplate.execute(status -> {
+            PaiementResponseDto response = convertirEnResponseDto(paiementRepository.findById(paiementId)
+                    .orElseThrow(() -> new RuntimeException("Paiement non trouvé")));
+            response.setMessageErreur("Délai de réponse du fournisseur dépassé, paiement en attente de confirmation");
+            return response;
+        });
+    }
 
-            throw new RuntimeException("Erreur lors du paiement: " + e.getMessage());
+    /**
+     * Marquer le paiement comme échoué et rendre l'erreur à transmettre à l'appelant
+     */
+    private RuntimeException marquerEchec(Integer paiementId, Throwable erreur) {
+        String message = erreur.getMessage();
+        log.error("Erreur lors de l'initiation du paiement: {}", message);
+
+        transactionTemplate.executeWithoutResult(status -> paiementRepository.findById(paiementId)
+                .filter(paiement -> paiement.getStatut() == StatutPaiement.INITE)
+                .ifPresent(paiement -> {
+                    paiement.setStatut(StatutPaiement.ECHEC);
+                    paiement.setMessageErreur(message);
+                    paiementRepository.save(paiement);
+                }));
+
+        if (erreur instanceof PasserellePaiement.FournisseurIndisponibleException indisponible) {
+            return indisponible;
         }
+        return new RuntimeException("Erreur lors du paiement: " + message);
     }
 
     /**
      * Confirmer un paiement (callback des services externes)
+     * Les statuts REUSSI et ECHEC sont définitifs : un rappel tardif ou rejoué qui en sortirait est ignoré.
+     * La ligne est verrouillée pour que deux confirmations simultanées ne marquent pas deux fois le traitement
      */
     @Transactional
     public void confirmerPaiement(String transactionId, StatutPaiement nouveauStatut, String codeConfirmation) {
-        Paiement paiement = paiementRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new RuntimeException("Paiement non trouvé"));
+        Paiement paiement = paiementRepository.findByTransactionIdVerrouille(transactionId)
+                .orElseThrow(() -> new PaiementInconnuException(transactionId));
+
+        StatutPaiement ancienStatut = paiement.getStatut();
+        if (ancienStatut == StatutPaiement.REUSSI || ancienStatut == StatutPaiement.ECHEC) {
+            if (ancienStatut != nouveauStatut) {
+                log.warn("Paiement {} déjà {} : passage à {} ignoré", transactionId, ancienStatut, nouveauStatut);
+            }
+            return;
+        }
 
         paiement.setStatut(nouveauStatut);
         paiement.setCodeConfirmation(codeConfirmation);
+        if (nouveauStatut == StatutPaiement.REUSSI) {
+            // Solde, reçu et notification sont traités en arrière-plan après le commit (TraitementPaiements)
+            paiement.setTraitementEnAttente(true);
+        }
 
         paiementRepository.save(paiement);
+        agregatsPaiementService.enregistrerTransition(paiement, ancienStatut);
 
         PaiementService.PaiementEvent event = new PaiementService.PaiementEvent(paiement, nouveauStatut);
         eventPublisher.publishEvent(event);
@@ -114,14 +252,22 @@ public class PaiementService {
     }
 
     /**
-     * Traiter un paiement en espèce (enregistré par l'organisation)
+     * Indique si le reçu d'un paiement peut être téléchargé (paiement réussi)
      */
-    private PaiementResponseDto traiterPaiementEspece(Paiement paiement) {
-        // Les paiements en espèce sont confirmés manuellement par l'organisation
-        paiement.setStatut(StatutPaiement.INITE);
-        paiement = paiementRepository.save(paiement);
+    public boolean recuDisponible(Integer paiementId) {
+        return paiementRepository.findById(paiementId)
+                .map(paiement -> paiement.getStatut() == StatutPaiement.REUSSI && paiement.getParrainage() != null)
+                .orElse(false);
+    }
 
-        return convertirEnResponseDto(paiement);
+    /**
+     * Écrit le reçu PDF d'un paiement dans le flux (réponse HTTP)
+     */
+    @Transactional(readOnly = true)
+    public void ecrireRecuPaiement(Integer paiementId, OutputStream sortie) throws IOException {
+        Paiement paiement = paiementRepository.findById(paiementId)
+                .orElseThrow(() -> new RuntimeException("Paiement non trouvé"));
+        pdfService.genererRecuPaiement(paiement, sortie);
     }
 
     /**
@@ -142,13 +288,14 @@ public class PaiementService {
         paiement.setMontant(paiementEspeceDto.getMontant());
         paiement.setMethode(MethodePaiement.ESPECE);
         paiement.setStatut(StatutPaiement.REUSSI); // Les paiements en espèces sont automatiquement confirmés
+        paiement.setTraitementEnAttente(true);
         paiement.setDatePaiement(paiementEspeceDto.getDateReception());
         paiement.setParrain(parrainage.getParrain());
         paiement.setParrainage(parrainage);
         paiement.setOrganisation(organisation);
 
         // Générer un ID de transaction unique
-        String transactionId = "ESPECE_" + System.currentTimeMillis();
+        String transactionId = generateurIdentifiants.nouvelIdentifiant("ESPECE_");
         paiement.setTransactionId(transactionId);
         paiement.setCodeConfirmation(paiementEspeceDto.getReferenceReception());
 
@@ -162,6 +309,7 @@ public class PaiementService {
 
         // Sauvegarder le paiement
         paiement = paiementRepository.save(paiement);
+        agregatsPaiementService.enregistrerTransition(paiement, null);
 
         PaiementService.PaiementEspeceEvent event = new PaiementService.PaiementEspeceEvent(paiement, organisation, parrainage);
         eventPublisher.publishEvent(event);
@@ -191,6 +339,27 @@ public class PaiementService {
         return new PageImpl<>(historiqueDtos, pageable, paiements.getTotalElements());
     }
 
+    /**
+     * Historique des paiements d'un parrain paginé par curseur (sans OFFSET ni COUNT)
+     */
+    public PageCurseurDto<PaiementHistoriqueDto> getFluxHistoriquePaiements(Integer parrainId, String curseur, Integer taille) {
+        if (!parrainRepository.existsById(parrainId)) {
+            throw new RuntimeException("Parrain non trouvé");
+        }
+
+        int tailleEffective = CurseurPagination.taille(taille);
+        CurseurPagination.Position position = CurseurPagination.decoder(curseur);
+        Pageable limite = PageRequest.of(0, tailleEffective + 1);
+
+        List<Paiement> paiements = position == null
+                ? paiementRepository.findFluxByParrainId(parrainId, limite)
+                : paiementRepository.findFluxByParrainIdApres(parrainId, position.date(), position.id(), limite);
+
+        return CurseurPagination.page(paiements, tailleEffective,
+                paiement -> new CurseurPagination.Position(paiement.getDatePaiement(), paiement.getId()),
+                this::convertirEnHistoriqueDto);
+    }
+
     /**
      * Récupérer l'historique des paiements d'une organisation
      */
@@ -212,41 +381,56 @@ public class PaiementService {
 
     /**
      * Récupérer les statistiques de paiement d'un parrain
+     * Lues dans les agrégats tenus à jour à chaque paiement, sans parcourir l'historique
      */
     public Map<String, Object> getStatistiquesPaiements(Integer parrainId) {
         // Vérifier que le parrain existe
-        Parrain parrain = parrainRepository.findById(parrainId)
-                .orElseThrow(() -> new RuntimeException("Parrain non trouvé"));
+        if (!parrainRepository.existsById(parrainId)) {
+            throw new RuntimeException("Parrain non trouvé");
+        }
 
-        List<Paiement> paiements = paiementRepository.findByParrainId(parrainId);
+        return construireStatistiques(agregatsPaiementService.obtenir(PorteeAgregat.PARRAIN, parrainId));
+    }
 
+    /**
+     * Récupérer les statistiques des paiements enregistrés par une organisation
+     */
+    public Map<String, Object> getStatistiquesPaiementsOrganisation(Integer organisationId) {
+        // Vérifier que l'organisation existe
+        if (!organisationRepository.existsById(organisationId)) {
+            throw new RuntimeException("Organisation non trouvée");
+        }
+
+        return construireStatistiques(agregatsPaiementService.obtenir(PorteeAgregat.ORGANISATION, organisationId));
+    }
+
+    private Map<String, Object> construireStatistiques(List<AgregatPaiement> agregats) {
         Map<String, Object> statistiques = new HashMap<>();
 
         // Statistiques générales
-        statistiques.put("nombreTotalPaiements", paiements.size());
-        statistiques.put("nombrePaiementsReussis",
-                paiements.stream().filter(p -> p.getStatut() == StatutPaiement.REUSSI).count());
+        statistiques.put("nombreTotalPaiements", agregats.stream().mapToLong(AgregatPaiement::getNombrePaiements).sum());
+        statistiques.put("nombrePaiementsReussis", agregats.stream().mapToLong(AgregatPaiement::getNombreReussis).sum());
 
         // Montants
-        double montantTotal = paiements.stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI)
-                .mapToDouble(p -> p.getMontant().doubleValue())
-                .sum();
-        statistiques.put("montantTotalPaye", montantTotal);
+        BigDecimal montantTotal = agregats.stream()
+                .map(AgregatPaiement::getMontantReussi)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        statistiques.put("montantTotalPaye", montantTotal.doubleValue());
 
         // Répartition par méthode de paiement
-        Map<MethodePaiement, Long> repartitionMethodes = paiements.stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI)
-                .collect(Collectors.groupingBy(Paiement::getMethode, Collectors.counting()));
+        Map<MethodePaiement, Long> repartitionMethodes = new EnumMap<>(MethodePaiement.class);
+        agregats.stream()
+                .filter(a -> a.getNombreReussis() > 0)
+                .forEach(a -> repartitionMethodes.put(a.getMethode(), a.getNombreReussis()));
         statistiques.put("repartitionParMethode", repartitionMethodes);
 
         // Paiement le plus récent
-        paiements.stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI)
-                .max((p1, p2) -> p1.getDatePaiement().compareTo(p2.getDatePaiement()))
-                .ifPresent(dernierPaiement -> {
-                    statistiques.put("dernierPaiementDate", dernierPaiement.getDatePaiement());
-                    statistiques.put("dernierPaiementMontant", dernierPaiement.getMontant());
+        agregats.stream()
+                .filter(a -> a.getNombreReussis() > 0 && a.getDernierPaiementDate() != null)
+                .max(Comparator.comparing(AgregatPaiement::getDernierPaiementDate))
+                .ifPresent(dernier -> {
+                    statistiques.put("dernierPaiementDate", dernier.getDernierPaiementDate());
+                    statistiques.put("dernierPaiementMontant", dernier.getDernierPaiementMontant());
                 });
 
         return statistiques;
@@ -336,6 +520,15 @@ public class PaiementService {
         public StatutPaiement getStatut() { return statut; }
     }
 
+    /**
+     * Aucun paiement ne porte l'identifiant de transaction reçu
+     */
+    public static class PaiementInconnuException extends RuntimeException {
+        public PaiementInconnuException(String transactionId) {
+            super("Paiement non trouvé: " + transactionId);
+        }
+    }
+
     /**
      * Événement publié lors de l'enregistrement d'un paiement en espèces
      */
@@ -7,6 +7,7 @@ import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
 import com.groupe2_ionic.eduka.models.enums.StatutParrainage;
 import com.groupe2_ionic.eduka.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,8 +18,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +30,9 @@ import java.util.stream.Collectors;
 @Transactional
 public class ParrainService {
 
+    // Nombre de besoins récents affichés par filleul
+    private static final int BESOINS_PAR_FILLEUL = 5;
+
     private final ParrainRepository parrainRepository;
     private final EnfantRepository enfantRepository;
     private final ParrainageRepository parrainageRepository;
@@ -33,6 +40,7 @@ public class ParrainService {
     private final PaiementReposiroty paiementRepository;
     private final NotificationService notificationService;
     private final BesoinRepository besoinRepository;
+    private final ApplicationEventPublisher eventPublisher;
     // private final PasswordEncoder passwordEncoder; // À décommenter quand Spring Security sera activé
 
     /**
@@ -108,10 +116,7 @@ public class ParrainService {
             String niveauScolaire,
             Pageable pageable) {
 
-        Page<Enfant> enfants = enfantRepository.findEnfantsDisponiblesAvecFiltres(
-                organisationNom, zone, niveauScolaire, pageable);
-
-        return enfants.map(this::mapEnfantToResponseDto);
+        return enfantRepository.findEnfantsDisponiblesDto(organisationNom, zone, niveauScolaire, pageable);
     }
 
     /**
@@ -156,6 +161,7 @@ public class ParrainService {
         // Mettre à jour le statut de l'enfant
         enfant.setStatutParrainage(true);
         enfantRepository.save(enfant);
+        eventPublisher.publishEvent(new EnfantService.EnfantModifieEvent(enfant));
 
         // Envoyer notifications
         notificationService.notifierNouveauParrainage(savedParrainage);
@@ -199,14 +205,43 @@ public class ParrainService {
      */
     @Transactional(readOnly = true)
     public List<FilleulDetailDto> obtenirFilleulsAvecDetails(int parrainId) {
-        Parrain parrain = parrainRepository.findById(parrainId)
-                .orElseThrow(() -> new RuntimeException("Parrain non trouvé"));
+        if (!parrainRepository.existsById(parrainId)) {
+            throw new RuntimeException("Parrain non trouvé");
+        }
 
+        // Nombre de requêtes constant : parrainages + enfants en une jointure, puis agrégats par lots d'identifiants
         List<Parrainage> parrainagesActifs = parrainageRepository
-                .findByParrainIdAndStatutOrderByDateDebutDesc(parrainId, StatutParrainage.ACTIF);
+                .findAvecEnfantByParrainIdAndStatut(parrainId, StatutParrainage.ACTIF);
+        if (parrainagesActifs.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> parrainageIds = parrainagesActifs.stream().map(Parrainage::getId).toList();
+        List<Integer> enfantIds = parrainagesActifs.stream().map(p -> p.getEnfant().getId()).distinct().toList();
+
+        Map<Integer, StatistiquesPaiementDto> paiementsParParrainage = paiementRepository
+                .findStatistiquesByParrainageIds(parrainageIds, StatutPaiement.REUSSI).stream()
+                .collect(Collectors.toMap(StatistiquesPaiementDto::getParrainageId, Function.identity()));
+
+        Map<Integer, List<BesoinDto>> besoinsParEnfant = besoinRepository.findDerniersBesoinsByEnfantIds(enfantIds, BESOINS_PAR_FILLEUL).stream()
+                .collect(Collectors.groupingBy(BesoinDto::getEnfantId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Integer, Rapport> dernierRapportParEnfant = rapportRepository.findDerniersByEnfantIds(enfantIds).stream()
+                .collect(Collectors.toMap(r -> r.getEnfant().getId(), Function.identity(),
+                        (r1, r2) -> r1.getId() >= r2.getId() ? r1 : r2));
+
+        Map<Integer, Long> rapportsParEnfant = rapportRepository.countByEnfantIds(enfantIds).stream()
+                .collect(Collectors.toMap(ligne -> (Integer) ligne[0], ligne -> (Long) ligne[1]));
 
         return parrainagesActifs.stream()
-                .map(this::mapToFilleulDetailDto)
+                .map(parrainage -> {
+                    int enfantId = parrainage.getEnfant().getId();
+                    return mapToFilleulDetailDto(parrainage,
+                            paiementsParParrainage.get(parrainage.getId()),
+                            besoinsParEnfant.getOrDefault(enfantId, List.of()),
+                            dernierRapportParEnfant.get(enfantId),
+                            rapportsParEnfant.getOrDefault(enfantId, 0L));
+                })
                 .collect(Collectors.toList());
     }
 
@@ -251,7 +286,9 @@ public class ParrainService {
         return dto;
     }
 
-    private FilleulDetailDto mapToFilleulDetailDto(Parrainage parrainage) {
+    private FilleulDetailDto mapToFilleulDetailDto(Parrainage parrainage, StatistiquesPaiementDto paiements,
+                                                   List<BesoinDto> besoinsEnfant, Rapport dernierRapport,
+                                                   long nombreRapports) {
         Enfant enfant = parrainage.getEnfant();
         FilleulDetailDto dto = new FilleulDetailDto();
 
@@ -273,11 +310,8 @@ public class ParrainService {
         dto.setMontantTotalParrainage(parrainage.getMontantTotal());
         dto.setSoldeEnfant(enfant.getSolde());
 
-        // Calculer montants payé et restant
-        BigDecimal montantPaye = parrainage.getPaiements().stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI)
-                .map(Paiement::getMontant)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculer montants payé et restant (agrégés en SQL)
+        BigDecimal montantPaye = paiements != null ? paiements.getMontantPaye() : BigDecimal.ZERO;
         dto.setMontantPaye(montantPaye);
         dto.setMontantRestant(parrainage.getMontantTotal().subtract(montantPaye));
 
@@ -288,36 +322,26 @@ public class ParrainService {
                 enfant.getTuteur().getNom() + " " + enfant.getTuteur().getPrenom() : null);
         dto.setTuteurTelephone(enfant.getTuteur() != null ? enfant.getTuteur().getTelephone() : null);
 
-        // Besoins actuels
-        List<BesoinDto> besoins = besoinRepository.findByEnfantIdOrderByIdDesc(enfant.getId())
-                .stream()
-                .limit(5)
-                .map(this::mapToBesoinDto)
-                .collect(Collectors.toList());
-        dto.setBesoinsActuels(besoins);
+        // Besoins actuels, déjà limités aux BESOINS_PAR_FILLEUL derniers par la requête
+        dto.setBesoinsActuels(besoinsEnfant);
 
         // Dernier rapport
-        Optional<Rapport> dernierRapport = rapportRepository.findFirstByEnfantIdOrderByDateDesc(enfant.getId());
-        if (dernierRapport.isPresent()) {
-            dto.setDernierRapport(mapToRapportRecentDto(dernierRapport.get()));
-            dto.setJoursDepuisDernierRapport((int) ChronoUnit.DAYS.between(dernierRapport.get().getDate(), LocalDate.now()));
+        if (dernierRapport != null) {
+            dto.setDernierRapport(mapToRapportRecentDto(dernierRapport));
+            dto.setJoursDepuisDernierRapport((int) ChronoUnit.DAYS.between(dernierRapport.getDate(), LocalDate.now()));
             dto.setRapportEnRetard(dto.getJoursDepuisDernierRapport() > 90); // 3 mois
         }
 
         // Statistiques
-        dto.setNombrePaiementsEffectues((int) parrainage.getPaiements().stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI).count());
-        dto.setDateDernierPaiement(parrainage.getPaiements().stream()
-                .filter(p -> p.getStatut() == StatutPaiement.REUSSI)
-                .map(Paiement::getDatePaiement)
-                .max(LocalDate::compareTo).orElse(null));
-        dto.setNombreRapportsRecus(enfant.getRapports().size());
+        dto.setNombrePaiementsEffectues(paiements != null ? paiements.getNombrePaiements().intValue() : 0);
+        dto.setDateDernierPaiement(paiements != null ? paiements.getDernierPaiement() : null);
+        dto.setNombreRapportsRecus((int) nombreRapports);
 
         // Photos d'activités récentes (simulé - à implémenter selon votre système de fichiers)
         dto.setPhotosActivitesRecentes(List.of()); // TODO: implémenter récupération photos
 
         // Indicateurs de performance
-        dto.setBesoinUrgent(besoins.stream().anyMatch(b -> b.getType().toLowerCase().contains("urgent")));
+        dto.setBesoinUrgent(besoinsEnfant.stream().anyMatch(b -> b.getType().toLowerCase().contains("urgent")));
 
         return dto;
     }
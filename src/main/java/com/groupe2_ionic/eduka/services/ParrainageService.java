@@ -3,9 +3,12 @@ package com.groupe2_ionic.eduka.services;
 import com.groupe2_ionic.eduka.dto.ParrainageDto;
 import com.groupe2_ionic.eduka.dto.ParrainageResponseDto;
 import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.PorteeAgregat;
 import com.groupe2_ionic.eduka.models.enums.StatutParrainage;
 import com.groupe2_ionic.eduka.repository.*;
+import com.groupe2_ionic.eduka.services.statistiques.AgregatsPaiementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +26,8 @@ public class ParrainageService {
     private final ParrainRepository parrainRepository;
     private final EnfantRepository enfantRepository;
     private final PaiementReposiroty paiementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AgregatsPaiementService agregatsPaiementService;
 
     public ParrainageResponseDto creerParrainage(ParrainageDto parrainageDto) {
         // Vérifier que le parrain existe
@@ -46,6 +51,7 @@ public class ParrainageService {
         // Mettre à jour le statut de parrainage de l'enfant
         enfant.setStatutParrainage(true);
         enfantRepository.save(enfant);
+        eventPublisher.publishEvent(new EnfantService.EnfantModifieEvent(enfant));
 
         return mapToResponseDto(parrainageSauvegarde);
     }
@@ -72,6 +78,7 @@ public class ParrainageService {
             Enfant enfant = parrainage.getEnfant();
             enfant.setStatutParrainage(false);
             enfantRepository.save(enfant);
+            eventPublisher.publishEvent(new EnfantService.EnfantModifieEvent(enfant));
         }
 
         return mapToResponseDto(parrainageTermine);
@@ -173,11 +180,7 @@ public class ParrainageService {
         long totalParrainages = parrainageRepository.countByParrainId(parrainId);
         long parrainagesActifs = parrainageRepository.countParrainagesActifsByParrainId(parrainId);
         long parrainagesTermines = parrainageRepository.countByParrainIdAndStatut(parrainId, StatutParrainage.TERMINE);
-        BigDecimal montantTotalVerse = paiementRepository.sumMontantByParrainId(parrainId);
-
-        if (montantTotalVerse == null) {
-            montantTotalVerse = BigDecimal.ZERO;
-        }
+        BigDecimal montantTotalVerse = agregatsPaiementService.montantReussi(PorteeAgregat.PARRAIN, parrainId);
 
         return new ParrainageStatsDto(totalParrainages, parrainagesActifs, parrainagesTermines, montantTotalVerse);
     }
@@ -8,7 +8,9 @@ import com.groupe2_ionic.eduka.models.Utilisateur;
 import com.groupe2_ionic.eduka.repository.PasswordResetTokenRepository;
 import com.groupe2_ionic.eduka.repository.RefreshTokenRepository;
 import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.security.UserAccessStore;
 import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import com.groupe2_ionic.eduka.services.utilitaires.InstantanesStatistiques;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -37,6 +39,8 @@ public class PasswordService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final UserAccessStore userAccessStore;
+    private final InstantanesStatistiques instantanesStatistiques;
     private final SecureRandom secureRandom = new SecureRandom();
 
     /**
@@ -119,6 +123,7 @@ public class PasswordService {
 
         // Révoquer tous les refresh tokens de l'utilisateur pour forcer une nouvelle connexion
         refreshTokenRepository.revokeAllTokensByUserId(utilisateur.getId());
+        userAccessStore.revokeTokens(utilisateur.getId());
 
         log.info("Mot de passe réinitialisé avec succès pour l'utilisateur: {}", utilisateur.getEmail());
     }
@@ -156,9 +161,9 @@ public class PasswordService {
         utilisateur.setPassword(passwordEncoder.encode(request.getNewPassword()));
         utilisateurRepository.save(utilisateur);
 
-        // Révoquer tous les refresh tokens sauf celui de la session actuelle
-        // (optionnel - on peut garder la session actuelle)
+        // Révoquer tous les tokens de l'utilisateur pour forcer une nouvelle connexion
         refreshTokenRepository.revokeAllTokensByUserId(utilisateur.getId());
+        userAccessStore.revokeTokens(utilisateur.getId());
 
         log.info("Mot de passe changé avec succès pour l'utilisateur: {}", utilisateur.getEmail());
     }
@@ -223,14 +228,18 @@ public class PasswordService {
     }
 
     /**
-     * Statistiques des tokens de réinitialisation
+     * Statistiques des tokens de réinitialisation (instantané si activé, sinon requêtes de comptage)
      */
     public PasswordResetStats getPasswordResetStats() {
+        return instantanesStatistiques.lire("reinitialisations-mot-de-passe", this::computePasswordResetStats);
+    }
+
+    /**
+     * Calcule les statistiques par comptage en base
+     */
+    private PasswordResetStats computePasswordResetStats() {
         long totalTokens = passwordResetTokenRepository.count();
-        long activeTokens = passwordResetTokenRepository.findAll().stream()
-                .filter(token -> !token.getUsed() &&
-                        token.getExpiryDate().isAfter(LocalDateTime.now()))
-                .count();
+        long activeTokens = passwordResetTokenRepository.countActiveTokens(LocalDateTime.now());
 
         return new PasswordResetStats(totalTokens, activeTokens, totalTokens - activeTokens);
     }
@@ -1,5 +1,6 @@
 package com.groupe2_ionic.eduka.services;
 
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
 import com.groupe2_ionic.eduka.dto.RapportDto;
 import com.groupe2_ionic.eduka.dto.RapportResponseDto;
 import com.groupe2_ionic.eduka.dto.RapportRecentDto;
@@ -9,7 +10,9 @@ import com.groupe2_ionic.eduka.models.Enfant;
 import com.groupe2_ionic.eduka.repository.RapportRepository;
 import com.groupe2_ionic.eduka.repository.OrganisationRepository;
 import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.services.utilitaires.CurseurPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +31,7 @@ public class RapportService {
     private final RapportRepository rapportRepository;
     private final OrganisationRepository organisationRepository;
     private final EnfantRepository enfantRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public RapportResponseDto creerRapport(RapportDto rapportDto) {
@@ -50,6 +54,7 @@ public class RapportService {
         rapport.setEnfant(enfant);
 
         Rapport rapportSauvegarde = rapportRepository.save(rapport);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(organisation.getId()));
         return convertToResponseDto(rapportSauvegarde);
     }
 
@@ -57,6 +62,7 @@ public class RapportService {
     public RapportResponseDto modifierRapport(int rapportId, RapportDto rapportDto) {
         Rapport rapport = rapportRepository.findById(rapportId)
                 .orElseThrow(() -> new RuntimeException("Rapport non trouvé"));
+        int ancienneOrganisationId = rapport.getOrganisation().getId();
 
         // Vérifier que l'organisation existe
         Organisation organisation = organisationRepository.findById(rapportDto.getOrganisationId())
@@ -75,15 +81,19 @@ public class RapportService {
         rapport.setEnfant(enfant);
 
         Rapport rapportModifie = rapportRepository.save(rapport);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(ancienneOrganisationId));
+        if (ancienneOrganisationId != organisation.getId()) {
+            eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(organisation.getId()));
+        }
         return convertToResponseDto(rapportModifie);
     }
 
     @Transactional
     public void supprimerRapport(int rapportId) {
-        if (!rapportRepository.existsById(rapportId)) {
-            throw new RuntimeException("Rapport non trouvé");
-        }
-        rapportRepository.deleteById(rapportId);
+        Rapport rapport = rapportRepository.findById(rapportId)
+                .orElseThrow(() -> new RuntimeException("Rapport non trouvé"));
+        rapportRepository.delete(rapport);
+        eventPublisher.publishEvent(new OrganisationService.DonneesOrganisationModifieesEvent(rapport.getOrganisation().getId()));
     }
 
     public RapportResponseDto getRapportById(int rapportId) {
@@ -98,6 +108,24 @@ public class RapportService {
         return rapports.map(this::convertToResponseDto);
     }
 
+    /**
+     * Flux des rapports d'une organisation paginé par curseur : coût constant quelle que soit la profondeur
+     */
+    @Transactional(readOnly = true)
+    public PageCurseurDto<RapportResponseDto> getFluxRapportsParOrganisation(int organisationId, String curseur, Integer taille) {
+        int tailleEffective = CurseurPagination.taille(taille);
+        CurseurPagination.Position position = CurseurPagination.decoder(curseur);
+        Pageable limite = PageRequest.of(0, tailleEffective + 1);
+
+        List<Rapport> rapports = position == null
+                ? rapportRepository.findFluxByOrganisationId(organisationId, limite)
+                : rapportRepository.findFluxByOrganisationIdApres(organisationId, position.date(), position.id(), limite);
+
+        return CurseurPagination.page(rapports, tailleEffective,
+                rapport -> new CurseurPagination.Position(rapport.getDate(), rapport.getId()),
+                this::convertToResponseDto);
+    }
+
     public Page<RapportResponseDto> getRapportsParEnfant(int enfantId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("date").descending());
         Page<Rapport> rapports = rapportRepository.findByEnfantId(enfantId, pageable);
@@ -2,6 +2,8 @@ package com.groupe2_ionic.eduka.services;
 
 import com.groupe2_ionic.eduka.models.RefreshToken;
 import com.groupe2_ionic.eduka.repository.RefreshTokenRepository;
+import com.groupe2_ionic.eduka.security.UserAccessStore;
+import com.groupe2_ionic.eduka.services.utilitaires.InstantanesStatistiques;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -22,6 +24,8 @@ import java.util.Optional;
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserAccessStore userAccessStore;
+    private final InstantanesStatistiques instantanesStatistiques;
 
     /**
      * Trouve un refresh token par sa valeur
@@ -59,6 +63,7 @@ public class RefreshTokenService {
     @Transactional
     public void revokeAllUserTokens(Integer userId) {
         refreshTokenRepository.revokeAllTokensByUserId(userId);
+        userAccessStore.revokeTokens(userId);
         log.info("Tous les tokens révoqués pour l'utilisateur ID: {}", userId);
     }
 
@@ -86,14 +91,18 @@ public class RefreshTokenService {
     }
 
     /**
-     * Statistiques des tokens
+     * Statistiques des tokens (instantané si activé, sinon requêtes de comptage)
      */
     public TokenStats getTokenStats() {
+        return instantanesStatistiques.lire("tokens-rafraichissement", this::computeTokenStats);
+    }
+
+    /**
+     * Calcule les statistiques par comptage en base
+     */
+    private TokenStats computeTokenStats() {
         long totalTokens = refreshTokenRepository.count();
-        long activeTokens = refreshTokenRepository.findAll().stream()
-                .filter(token -> !token.getRevoked() &&
-                        token.getExpiryDate().isAfter(LocalDateTime.now()))
-                .count();
+        long activeTokens = refreshTokenRepository.countActiveTokens(LocalDateTime.now());
 
         return new TokenStats(totalTokens, activeTokens, totalTokens - activeTokens);
     }
@@ -0,0 +1,111 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.repository.NotificationRepository;
+import com.groupe2_ionic.eduka.services.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compteur en mémoire des notifications non lues par utilisateur
+ *
+ * Chargé depuis la base au premier accès puis ajusté après chaque commit (création, lecture, suppression).
+ * Les entrées sont rechargées après {@link #DUREE_VALIDITE_MS} pour corriger les écarts éventuels
+ * (autre instance, transaction concurrente au chargement).
+ */
+@Component
+@RequiredArgsConstructor
+public class CompteurNonLus {
+
+    private static final int MAX_ENTREES = 50_000;
+    private static final long DUREE_VALIDITE_MS = 10 * 60 * 1000L;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationStream notificationStream;
+    private final Map<Integer, Compteur> compteurs = new ConcurrentHashMap<>();
+
+    /**
+     * Nombre de notifications non lues d'un utilisateur
+     */
+    public long get(int utilisateurId) {
+        Compteur compteur = compteurs.get(utilisateurId);
+        if (compteur != null && !compteur.estExpire()) {
+            return compteur.valeur();
+        }
+
+        if (compteurs.size() >= MAX_ENTREES) {
+            compteurs.clear();
+        }
+        compteur = new Compteur(notificationRepository.countNonLuesByDestinataireId(utilisateurId));
+        compteurs.put(utilisateurId, compteur);
+        return compteur.valeur();
+    }
+
+    /**
+     * Indique si le compteur est disponible sans requête
+     */
+    public boolean estEnCache(int utilisateurId) {
+        Compteur compteur = compteurs.get(utilisateurId);
+        return compteur != null && !compteur.estExpire();
+    }
+
+    /**
+     * Met à jour le compteur et les flux ouverts une fois la modification validée en base
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationModifiee(NotificationService.NotificationEvent event) {
+        int utilisateurId = event.getDestinataireId();
+        if (event.isReinitialiser()) {
+            compteurs.put(utilisateurId, new Compteur(0));
+        } else if (event.getVariation() != 0) {
+            ajuster(utilisateurId, event.getVariation());
+        }
+
+        if (notificationStream.estAbonne(utilisateurId)) {
+            if (event.getNotification() != null) {
+                notificationStream.publierNotification(utilisateurId, event.getNotification());
+            }
+            notificationStream.publierCompteur(utilisateurId, get(utilisateurId));
+        }
+    }
+
+    /**
+     * Une page de diffusion vient d'être écrite : une notification non lue de plus par destinataire
+     */
+    public void diffusionEcrite(List<Integer> utilisateurIds) {
+        for (Integer utilisateurId : utilisateurIds) {
+            ajuster(utilisateurId, 1);
+            if (notificationStream.estAbonne(utilisateurId)) {
+                notificationStream.publierCompteur(utilisateurId, get(utilisateurId));
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void purgerExpires() {
+        compteurs.values().removeIf(Compteur::estExpire);
+    }
+
+    private void ajuster(int utilisateurId, long variation) {
+        // Sans entrée en cache, la prochaine lecture chargera la valeur à jour depuis la base
+        compteurs.computeIfPresent(utilisateurId,
+                (id, compteur) -> new Compteur(Math.max(0, compteur.valeur() + variation), compteur.chargeLe()));
+    }
+
+    private record Compteur(long valeur, long chargeLe) {
+
+        Compteur(long valeur) {
+            this(valeur, System.currentTimeMillis());
+        }
+
+        boolean estExpire() {
+            return System.currentTimeMillis() - chargeLe > DUREE_VALIDITE_MS;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Livraison des emails : le lot part sur une seule connexion SMTP
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpediteurEmail implements ExpediteurNotification {
+
+    private final EmailService emailService;
+
+    @Override
+    public CanalNotification canal() {
+        return CanalNotification.EMAIL;
+    }
+
+    @Override
+    public Map<Long, String> envoyer(List<EnvoiNotification> lot) {
+        List<EmailService.EmailSortant> emails = lot.stream()
+                .map(envoi -> new EmailService.EmailSortant(
+                        envoi.getDestinataire(), envoi.getSujet(), envoi.getContenu(), envoi.isHtml()))
+                .toList();
+
+        Map<Long, String> erreurs = new HashMap<>();
+        emailService.envoyerLot(emails).forEach((position, erreur) ->
+                erreurs.put(lot.get(position).getId(), erreur));
+        return erreurs;
+    }
+}
@@ -0,0 +1,21 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Livraison d'un lot d'envois vers le fournisseur d'un canal
+ */
+public interface ExpediteurNotification {
+
+    CanalNotification canal();
+
+    /**
+     * Livre un lot d'envois
+     * Retourne les erreurs indexées par identifiant d'envoi (vide si tout est parti)
+     */
+    Map<Long, String> envoyer(List<EnvoiNotification> lot);
+}
@@ -0,0 +1,48 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.services.sms.RoutageSms;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Livraison des SMS : les envois du lot portant le même contenu (diffusions) sont regroupés
+ * pour partir en une requête chez les fournisseurs qui acceptent plusieurs destinataires
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpediteurSms implements ExpediteurNotification {
+
+    private final RoutageSms routageSms;
+
+    @Override
+    public CanalNotification canal() {
+        return CanalNotification.SMS;
+    }
+
+    @Override
+    public Map<Long, String> envoyer(List<EnvoiNotification> lot) {
+        Map<String, List<EnvoiNotification>> parContenu = lot.stream()
+                .collect(Collectors.groupingBy(EnvoiNotification::getContenu, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, String> erreurs = new HashMap<>();
+        parContenu.forEach((contenu, envois) -> {
+            List<String> destinataires = envois.stream().map(EnvoiNotification::getDestinataire).toList();
+            Map<String, String> nonServis = routageSms.envoyer(destinataires, contenu);
+            for (EnvoiNotification envoi : envois) {
+                String erreur = nonServis.get(envoi.getDestinataire());
+                if (erreur != null) {
+                    erreurs.put(envoi.getId(), erreur);
+                }
+            }
+        });
+        return erreurs;
+    }
+}
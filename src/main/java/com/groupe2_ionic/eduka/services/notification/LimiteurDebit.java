@@ -0,0 +1,42 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limiteur de débit d'un fournisseur : espace les envois pour ne pas dépasser N messages par seconde
+ * Chaque appelant réserve sa plage d'envoi puis attend hors verrou (threads virtuels)
+ */
+class LimiteurDebit {
+
+    private final long intervalleNanos;
+    private long prochainCreneau = System.nanoTime();
+
+    /**
+     * @param messagesParSeconde débit maximum, 0 ou moins pour ne pas limiter
+     */
+    LimiteurDebit(int messagesParSeconde) {
+        this.intervalleNanos = messagesParSeconde > 0 ? TimeUnit.SECONDS.toNanos(1) / messagesParSeconde : 0;
+    }
+
+    /**
+     * Attend jusqu'à ce que {@code messages} envois puissent partir sans dépasser le débit
+     */
+    void acquerir(int messages) {
+        if (intervalleNanos == 0) {
+            return;
+        }
+
+        long attente;
+        synchronized (this) {
+            long maintenant = System.nanoTime();
+            long creneau = Math.max(prochainCreneau, maintenant);
+            prochainCreneau = creneau + intervalleNanos * messages;
+            attente = creneau - maintenant;
+        }
+
+        if (attente > 0) {
+            LockSupport.parkNanos(attente);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.models.enums.StatutEnvoi;
+import com.groupe2_ionic.eduka.repository.EnvoiNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Livraison en arrière-plan des envois enregistrés par le NotificationOutbox
+ *
+ * Les envois sont réservés par lots (bail en base, plusieurs nœuds possibles), livrés sur des threads virtuels
+ * dans la limite de concurrence et de débit de chaque fournisseur, puis retentés avec un délai exponentiel en cas d'échec.
+ * La file est relevée après chaque commit qui ajoute des envois et périodiquement pour les nouvelles tentatives.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final EnvoiNotificationRepository envoiNotificationRepository;
+    private final NotificationProperties properties;
+    private final Map<CanalNotification, FileCanal> files = new EnumMap<>(CanalNotification.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock pompe = new ReentrantLock();
+    private final AtomicBoolean releveDemandee = new AtomicBoolean();
+
+    public NotificationDispatcher(EnvoiNotificationRepository envoiNotificationRepository,
+                                  NotificationProperties properties,
+                                  List<ExpediteurNotification> expediteurs,
+                                  MeterRegistry meterRegistry) {
+        this.envoiNotificationRepository = envoiNotificationRepository;
+        this.properties = properties;
+
+        for (ExpediteurNotification expediteur : expediteurs) {
+            NotificationProperties.Canal limites = expediteur.canal() == CanalNotification.EMAIL
+                    ? properties.getEmail()
+                    : properties.getSms();
+            files.put(expediteur.canal(), new FileCanal(expediteur, limites, meterRegistry));
+        }
+    }
+
+    /**
+     * Relève la file dès que la transaction qui a ajouté des envois est validée
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnvoiPlanifie(NotificationOutbox.EnvoiPlanifieEvent event) {
+        demanderReleve();
+    }
+
+    /**
+     * Relève périodique : nouvelles tentatives, bails expirés, profondeur de la file
+     */
+    @Scheduled(fixedDelayString = "${notification.dispatch.poll-ms:5000}")
+    public void releverPeriodiquement() {
+        files.forEach((canal, file) ->
+                file.profondeur.set(envoiNotificationRepository.countByCanalAndStatut(canal, StatutEnvoi.EN_ATTENTE)));
+        demanderReleve();
+    }
+
+    /**
+     * Supprime chaque nuit les envois livrés au-delà de la durée de conservation
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgerEnvoisLivres() {
+        int supprimes = envoiNotificationRepository.deleteEnvoyesAvant(
+                StatutEnvoi.ENVOYE, LocalDateTime.now().minusDays(properties.getRetentionJours()));
+        log.info("{} envois de notifications livrés purgés", supprimes);
+    }
+
+    /**
+     * Demande une relève de la file sans bloquer l'appelant
+     * Une seule relève s'exécute à la fois ; une demande reçue pendant une relève en relance une autre
+     */
+    public void demanderReleve() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        releveDemandee.set(true);
+        executor.execute(this::relever);
+    }
+
+    private void relever() {
+        while (releveDemandee.get() && pompe.tryLock()) {
+            try {
+                releveDemandee.set(false);
+                files.values().forEach(this::releverCanal);
+            } catch (Exception e) {
+                log.error("Erreur lors de la relève des notifications: {}", e.getMessage());
+            } finally {
+                pompe.unlock();
+            }
+        }
+    }
+
+    private void releverCanal(FileCanal file) {
+        int lotsLibres = file.permis.availablePermits();
+        if (lotsLibres == 0) {
+            return;
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<Long> ids = envoiNotificationRepository.findIdsPrets(
+                file.expediteur.canal(), StatutEnvoi.EN_ATTENTE, maintenant,
+                PageRequest.of(0, lotsLibres * file.tailleLot));
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        String jeton = UUID.randomUUID().toString();
+        envoiNotificationRepository.reserver(ids, StatutEnvoi.EN_ATTENTE, jeton,
+                maintenant.plusSeconds(properties.getBailSecondes()), maintenant);
+        List<EnvoiNotification> reserves = envoiNotificationRepository.findByJeton(jeton);
+
+        for (int debut = 0; debut < reserves.size(); debut += file.tailleLot) {
+            // Seule la relève prend des permis : ceux comptés plus haut sont encore disponibles
+            file.permis.acquireUninterruptibly();
+            List<EnvoiNotification> lot = reserves.subList(debut, Math.min(debut + file.tailleLot, reserves.size()));
+            executor.execute(() -> livrer(file, new ArrayList<>(lot)));
+        }
+    }
+
+    private void livrer(FileCanal file, List<EnvoiNotification> lot) {
+        try {
+            long debut = System.nanoTime();
+            Map<Long, String> erreurs;
+            try {
+                file.limiteur.acquerir(lot.size());
+                erreurs = file.expediteur.envoyer(lot);
+            } catch (Exception e) {
+                log.error("Échec du lot {} ({} envois): {}", file.expediteur.canal(), lot.size(), e.getMessage());
+                erreurs = new HashMap<>();
+                for (EnvoiNotification envoi : lot) {
+                    erreurs.put(envoi.getId(), e.getMessage());
+                }
+            }
+            file.dureeLot.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+            enregistrerResultats(file, lot, erreurs);
+        } catch (Exception e) {
+            // Les envois restent réservés et seront repris à l'expiration du bail
+            log.error("Erreur lors de l'enregistrement du lot {}: {}", file.expediteur.canal(), e.getMessage());
+        } finally {
+            file.permis.release();
+            demanderReleve();
+        }
+    }
+
+    private void enregistrerResultats(FileCanal file, List<EnvoiNotification> lot, Map<Long, String> erreurs) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<Long> livres = new ArrayList<>();
+        List<EnvoiNotification> echecs = new ArrayList<>();
+
+        for (EnvoiNotification envoi : lot) {
+            String erreur = erreurs.get(envoi.getId());
+            if (erreur == null) {
+                livres.add(envoi.getId());
+                file.latence.record(Duration.between(envoi.getDateCreation(), maintenant));
+                continue;
+            }
+
+            envoi.setTentatives(envoi.getTentatives() + 1);
+            envoi.setDerniereErreur(erreur.length() > 500 ? erreur.substring(0, 500) : erreur);
+            envoi.setJeton(null);
+            if (envoi.getTentatives() >= properties.getMaxTentatives()) {
+                envoi.setStatut(StatutEnvoi.ECHEC);
+                file.abandons.increment();
+                log.warn("Envoi {} {} abandonné après {} tentatives: {}",
+                        file.expediteur.canal(), envoi.getId(), envoi.getTentatives(), erreur);
+            } else {
+                envoi.setProchaineTentative(maintenant.plus(delaiAvantTentative(envoi.getTentatives())));
+                file.nouvellesTentatives.increment();
+            }
+            echecs.add(envoi);
+        }
+
+        if (!livres.isEmpty()) {
+            envoiNotificationRepository.marquerEnvoyes(livres, StatutEnvoi.ENVOYE, maintenant);
+            file.livres.increment(livres.size());
+        }
+        if (!echecs.isEmpty()) {
+            envoiNotificationRepository.saveAll(echecs);
+        }
+    }
+
+    /**
+     * Délai exponentiel plafonné, avec une variation de ±10 % pour étaler les reprises
+     */
+    Duration delaiAvantTentative(int tentatives) {
+        long delai = properties.getBackoffInitialSecondes() << Math.min(tentatives - 1, 20);
+        delai = Math.min(delai, properties.getBackoffMaxSecondes());
+        long variation = delai / 10;
+        if (variation > 0) {
+            delai += ThreadLocalRandom.current().nextLong(-variation, variation + 1);
+        }
+        return Duration.ofSeconds(delai);
+    }
+
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Les envois en cours seront repris à l'expiration de leur bail
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * État et métriques d'un canal de livraison
+     */
+    private static class FileCanal {
+        private final ExpediteurNotification expediteur;
+        private final int tailleLot;
+        private final int maxConcurrence;
+        private final Semaphore permis;
+        private final LimiteurDebit limiteur;
+        private final AtomicLong profondeur = new AtomicLong();
+        private final Timer latence;
+        private final Timer dureeLot;
+        private final Counter livres;
+        private final Counter nouvellesTentatives;
+        private final Counter abandons;
+
+        private FileCanal(ExpediteurNotification expediteur, NotificationProperties.Canal limites, MeterRegistry registry) {
+            this.expediteur = expediteur;
+            this.tailleLot = Math.max(1, limites.getTailleLot());
+            this.maxConcurrence = Math.max(1, limites.getMaxConcurrence());
+            this.permis = new Semaphore(maxConcurrence);
+            this.limiteur = new LimiteurDebit(limites.getDebitMaxParSeconde());
+
+            String canal = expediteur.canal().name().toLowerCase();
+            Gauge.builder("eduka.notifications.queue.depth", profondeur, AtomicLong::get)
+                    .description("Envois en attente de livraison")
+                    .tag("canal", canal)
+                    .register(registry);
+            Gauge.builder("eduka.notifications.inflight", permis, p -> maxConcurrence - p.availablePermits())
+                    .description("Lots en cours de livraison")
+                    .tag("canal", canal)
+                    .register(registry);
+            this.latence = Timer.builder("eduka.notifications.delivery.latency")
+                    .description("Délai entre l'enregistrement et la livraison d'un envoi")
+                    .tag("canal", canal)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+            this.dureeLot = Timer.builder("eduka.notifications.batch.duration")
+                    .description("Durée de livraison d'un lot chez le fournisseur")
+                    .tag("canal", canal)
+                    .register(registry);
+            this.livres = Counter.builder("eduka.notifications.delivered")
+                    .tag("canal", canal).tag("result", "success")
+                    .register(registry);
+            this.nouvellesTentatives = Counter.builder("eduka.notifications.delivered")
+                    .tag("canal", canal).tag("result", "retry")
+                    .register(registry);
+            this.abandons = Counter.builder("eduka.notifications.delivered")
+                    .tag("canal", canal).tag("result", "failed")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.dto.DestinataireDto;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.models.enums.StatutEnvoi;
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Diffusion d'une notification à tous les utilisateurs actifs d'un rôle (parrains, administrateurs)
+ *
+ * La diffusion démarre après le commit de la transaction qui l'a demandée. Les destinataires sont lus par pages
+ * (pagination par clé, sans charger les entités), et chaque page est écrite dans sa propre transaction par
+ * insertions JDBC groupées : notifications et envois de l'outbox. La mémoire reste bornée à une page.
+ * Une page en échec est annulée en entier puis retentée : la diffusion reprend après le dernier destinataire écrit.
+ * La livraison est ensuite assurée par le NotificationDispatcher dans les limites de débit de chaque canal.
+ */
+@Slf4j
+@Component
+public class NotificationFanout {
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notification (sujet, message, date, lu, id_destinataire) VALUES (?, ?, ?, false, ?)";
+
+    private static final String INSERT_ENVOI =
+            "INSERT INTO envoi_notification (canal, destinataire, sujet, contenu, html, statut, tentatives, " +
+                    "prochaine_tentative, date_creation) VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CompteurNonLus compteurNonLus;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NotificationFanout(UtilisateurRepository utilisateurRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              NotificationDispatcher notificationDispatcher,
+                              NotificationProperties properties,
+                              ApplicationEventPublisher eventPublisher,
+                              CompteurNonLus compteurNonLus) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationDispatcher = notificationDispatcher;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.compteurNonLus = compteurNonLus;
+    }
+
+    /**
+     * Demande la diffusion d'une notification à tous les utilisateurs actifs d'un rôle
+     * La diffusion est lancée en arrière-plan après le commit de la transaction courante
+     *
+     * @param emailHtml email envoyé en HTML plutôt qu'en texte brut
+     */
+    public void diffuser(RoleUser role, String sujet, String message, boolean envoyerEmail, boolean emailHtml,
+                         boolean envoyerSms) {
+        eventPublisher.publishEvent(new DiffusionDemandeeEvent(role, sujet, message, envoyerEmail, emailHtml,
+                envoyerSms));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDiffusionDemandee(DiffusionDemandeeEvent event) {
+        executor.execute(() -> {
+            try {
+                executer(event);
+            } catch (Exception e) {
+                log.error("Échec de la diffusion \"{}\" aux {}: {}", event.getSujet(), event.getRole(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Écrit les notifications et les envois page par page
+     * Retourne le nombre de destinataires notifiés
+     */
+    long executer(DiffusionDemandeeEvent event) {
+        long debut = System.currentTimeMillis();
+        int taillePage = Math.max(1, properties.getTaillePageDiffusion());
+        int apresId = 0;
+        long total = 0;
+
+        while (true) {
+            List<DestinataireDto> page = utilisateurRepository.findDestinatairesActifs(
+                    event.getRole(), apresId, PageRequest.of(0, taillePage));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            ecrireAvecTentatives(event, page, apresId);
+            notificationDispatcher.demanderReleve();
+            compteurNonLus.diffusionEcrite(page.stream().map(DestinataireDto::getId).toList());
+
+            total += page.size();
+            apresId = page.get(page.size() - 1).getId();
+            if (page.size() < taillePage) {
+                break;
+            }
+        }
+
+        log.info("Diffusion \"{}\" : {} {} notifiés en {} ms",
+                event.getSujet(), total, event.getRole(), System.currentTimeMillis() - debut);
+        return total;
+    }
+
+    /**
+     * Écrit une page dans sa transaction, retentée avec une attente croissante : la page annulée
+     * n'a rien écrit, la retenter ne crée pas de doublon
+     */
+    private void ecrireAvecTentatives(DiffusionDemandeeEvent event, List<DestinataireDto> page, int apresId) {
+        int tentatives = Math.max(1, properties.getTentativesPageDiffusion());
+        long attente = properties.getAttentePageDiffusionMs();
+        for (int tentative = 1; ; tentative++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> ecrirePage(event, page));
+                return;
+            } catch (RuntimeException e) {
+                if (tentative >= tentatives) {
+                    log.error("Diffusion \"{}\" interrompue après le destinataire {} ({} tentatives)",
+                            event.getSujet(), apresId, tentatives);
+                    throw e;
+                }
+                log.warn("Page de diffusion \"{}\" après le destinataire {} en échec (tentative {}/{}): {}",
+                        event.getSujet(), apresId, tentative, tentatives, e.getMessage());
+            }
+            try {
+                Thread.sleep(attente);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Diffusion interrompue après le destinataire " + apresId, e);
+            }
+            attente = Math.min(attente * 2, 30_000);
+        }
+    }
+
+    private void ecrirePage(DiffusionDemandeeEvent event, List<DestinataireDto> page) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Date date = Date.valueOf(LocalDate.now());
+        Timestamp horodatage = Timestamp.valueOf(maintenant);
+
+        List<Object[]> notifications = new ArrayList<>(page.size());
+        List<Object[]> envois = new ArrayList<>();
+
+        for (DestinataireDto destinataire : page) {
+            notifications.add(new Object[]{event.getSujet(), event.getMessage(), date, destinataire.getId()});
+
+            if (event.isEnvoyerEmail() && destinataire.getEmail() != null && !destinataire.getEmail().isBlank()) {
+                envois.add(new Object[]{CanalNotification.EMAIL.name(), destinataire.getEmail(), event.getSujet(),
+                        event.getMessage(), event.isEmailHtml(), StatutEnvoi.EN_ATTENTE.name(), horodatage, horodatage});
+            }
+            if (event.isEnvoyerSms() && destinataire.getTelephone() != null && !destinataire.getTelephone().isBlank()) {
+                envois.add(new Object[]{CanalNotification.SMS.name(), destinataire.getTelephone(), null,
+                        event.getMessage(), false, StatutEnvoi.EN_ATTENTE.name(), horodatage, horodatage});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, notifications);
+        if (!envois.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENVOI, envois);
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdown();
+    }
+
+    /**
+     * Événement publié lorsqu'une diffusion est demandée
+     */
+    public static class DiffusionDemandeeEvent {
+        private final RoleUser role;
+        private final String sujet;
+        private final String message;
+        private final boolean envoyerEmail;
+        private final boolean emailHtml;
+        private final boolean envoyerSms;
+
+        public DiffusionDemandeeEvent(RoleUser role, String sujet, String message,
+                                      boolean envoyerEmail, boolean emailHtml, boolean envoyerSms) {
+            this.role = role;
+            this.sujet = sujet;
+            this.message = message;
+            this.envoyerEmail = envoyerEmail;
+            this.emailHtml = emailHtml;
+            this.envoyerSms = envoyerSms;
+        }
+
+        public RoleUser getRole() { return role; }
+        public String getSujet() { return sujet; }
+        public String getMessage() { return message; }
+        public boolean isEnvoyerEmail() { return envoyerEmail; }
+        public boolean isEmailHtml() { return emailHtml; }
+        public boolean isEnvoyerSms() { return envoyerSms; }
+    }
+}
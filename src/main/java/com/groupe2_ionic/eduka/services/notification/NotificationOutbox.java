@@ -0,0 +1,68 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.repository.EnvoiNotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Enregistre les emails et SMS à livrer dans la transaction de l'appelant
+ * La livraison est déclenchée après le commit par le NotificationDispatcher
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private final EnvoiNotificationRepository envoiNotificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Planifie l'envoi d'un email
+     */
+    public void planifierEmail(String to, String sujet, String contenu, boolean html) {
+        planifier(CanalNotification.EMAIL, to, sujet, contenu, html);
+    }
+
+    /**
+     * Planifie l'envoi d'un SMS
+     */
+    public void planifierSms(String telephone, String message) {
+        planifier(CanalNotification.SMS, telephone, null, message, false);
+    }
+
+    private void planifier(CanalNotification canal, String destinataire, String sujet, String contenu, boolean html) {
+        if (destinataire == null || destinataire.isBlank()) {
+            return;
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        EnvoiNotification envoi = new EnvoiNotification();
+        envoi.setCanal(canal);
+        envoi.setDestinataire(destinataire);
+        envoi.setSujet(sujet);
+        envoi.setContenu(contenu);
+        envoi.setHtml(html);
+        envoi.setDateCreation(maintenant);
+        envoi.setProchaineTentative(maintenant);
+        envoiNotificationRepository.save(envoi);
+
+        eventPublisher.publishEvent(new EnvoiPlanifieEvent(canal));
+    }
+
+    /**
+     * Événement publié lorsqu'un envoi est ajouté à la file
+     */
+    public static class EnvoiPlanifieEvent {
+        private final CanalNotification canal;
+
+        public EnvoiPlanifieEvent(CanalNotification canal) {
+            this.canal = canal;
+        }
+
+        public CanalNotification getCanal() { return canal; }
+    }
+}
@@ -0,0 +1,92 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration de la livraison asynchrone des notifications (emails et SMS)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class NotificationProperties {
+
+    /**
+     * Nombre maximum de tentatives avant abandon d'un envoi
+     */
+    private int maxTentatives = 5;
+
+    /**
+     * Délai avant la première nouvelle tentative, doublé à chaque échec
+     */
+    private long backoffInitialSecondes = 30;
+
+    /**
+     * Délai maximum entre deux tentatives
+     */
+    private long backoffMaxSecondes = 3600;
+
+    /**
+     * Durée pendant laquelle un lot réservé ne peut pas être repris par un autre nœud
+     */
+    private long bailSecondes = 300;
+
+    /**
+     * Durée de conservation des envois livrés
+     */
+    private int retentionJours = 7;
+
+    /**
+     * Nombre de destinataires lus et écrits par transaction lors d'une diffusion
+     */
+    private int taillePageDiffusion = 1000;
+
+    /**
+     * Tentatives d'écriture d'une page de diffusion avant d'abandonner la suite de la diffusion
+     */
+    private int tentativesPageDiffusion = 5;
+
+    /**
+     * Attente avant de retenter l'écriture d'une page, doublée à chaque échec
+     */
+    private long attentePageDiffusionMs = 1000;
+
+    /**
+     * Limites du fournisseur email (SMTP)
+     */
+    private Canal email = new Canal(4, 50, 0);
+
+    /**
+     * Limites du fournisseur SMS
+     */
+    private Canal sms = new Canal(2, 20, 10);
+
+    @Data
+    public static class Canal {
+
+        /**
+         * Nombre maximum de lots livrés en parallèle vers le fournisseur
+         */
+        private int maxConcurrence;
+
+        /**
+         * Nombre maximum d'envois par lot
+         */
+        private int tailleLot;
+
+        /**
+         * Débit maximum accepté par le fournisseur (messages par seconde), 0 pour ne pas limiter
+         */
+        private int debitMaxParSeconde;
+
+        public Canal() {
+        }
+
+        public Canal(int maxConcurrence, int tailleLot, int debitMaxParSeconde) {
+            this.maxConcurrence = maxConcurrence;
+            this.tailleLot = tailleLot;
+            this.debitMaxParSeconde = debitMaxParSeconde;
+        }
+    }
+}
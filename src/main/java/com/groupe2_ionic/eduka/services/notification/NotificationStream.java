@@ -0,0 +1,109 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.dto.NotificationResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Flux Server-Sent Events des notifications, par utilisateur
+ * Événements : "notification" (nouvelle notification) et "compteur" (nombre de notifications non lues)
+ * Les abonnements sont locaux à l'instance qui a reçu la connexion.
+ */
+@Slf4j
+@Component
+public class NotificationStream {
+
+    private static final long DUREE_CONNEXION_MS = 30 * 60 * 1000L;
+    private static final int MAX_CONNEXIONS_PAR_UTILISATEUR = 5;
+
+    // Flux de chaque utilisateur dans l'ordre d'ouverture, le plus ancien en tête
+    private final Map<Integer, Deque<SseEmitter>> abonnes = new ConcurrentHashMap<>();
+
+    /**
+     * Ouvre un flux pour un utilisateur et envoie immédiatement son compteur
+     */
+    public SseEmitter abonner(int utilisateurId, long nonLus) {
+        SseEmitter emitter = new SseEmitter(DUREE_CONNEXION_MS);
+        List<SseEmitter> evinces = new ArrayList<>();
+        abonnes.compute(utilisateurId, (id, emitters) -> {
+            Deque<SseEmitter> ouverts = emitters != null ? emitters : new ConcurrentLinkedDeque<>();
+            // Écarte les plus anciennes connexions au-delà de la limite (onglets oubliés)
+            while (ouverts.size() >= MAX_CONNEXIONS_PAR_UTILISATEUR) {
+                evinces.add(ouverts.pollFirst());
+            }
+            ouverts.addLast(emitter);
+            return ouverts;
+        });
+        evinces.forEach(SseEmitter::complete);
+
+        emitter.onCompletion(() -> retirer(utilisateurId, emitter));
+        emitter.onTimeout(() -> retirer(utilisateurId, emitter));
+        emitter.onError(e -> retirer(utilisateurId, emitter));
+
+        envoyer(utilisateurId, emitter, SseEmitter.event().name("compteur").data(nonLus));
+        return emitter;
+    }
+
+    /**
+     * Indique si l'utilisateur a au moins un flux ouvert sur cette instance
+     */
+    public boolean estAbonne(int utilisateurId) {
+        Deque<SseEmitter> emitters = abonnes.get(utilisateurId);
+        return emitters != null && !emitters.isEmpty();
+    }
+
+    public void publierNotification(int utilisateurId, NotificationResponseDto notification) {
+        publier(utilisateurId, "notification", notification);
+    }
+
+    public void publierCompteur(int utilisateurId, long nonLus) {
+        publier(utilisateurId, "compteur", nonLus);
+    }
+
+    /**
+     * Commentaire périodique : maintient les connexions ouvertes derrière les proxys et détecte les clients partis
+     */
+    @Scheduled(fixedRate = 25000)
+    public void maintenirConnexions() {
+        abonnes.forEach((utilisateurId, emitters) ->
+                emitters.forEach(emitter -> envoyer(utilisateurId, emitter, SseEmitter.event().comment("ping"))));
+    }
+
+    public int nombreConnexions() {
+        return abonnes.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    private void publier(int utilisateurId, String nom, Object donnees) {
+        Deque<SseEmitter> emitters = abonnes.get(utilisateurId);
+        if (emitters == null) {
+            return;
+        }
+        emitters.forEach(emitter -> envoyer(utilisateurId, emitter, SseEmitter.event().name(nom).data(donnees)));
+    }
+
+    private void envoyer(int utilisateurId, SseEmitter emitter, SseEmitter.SseEventBuilder evenement) {
+        try {
+            emitter.send(evenement);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Flux de notifications fermé pour l'utilisateur {}: {}", utilisateurId, e.getMessage());
+            retirer(utilisateurId, emitter);
+        }
+    }
+
+    private void retirer(int utilisateurId, SseEmitter emitter) {
+        abonnes.computeIfPresent(utilisateurId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.groupe2_ionic.eduka.services.organisation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupe2_ionic.eduka.dto.OrganisationDashboardDto;
+import com.groupe2_ionic.eduka.services.EnfantService;
+import com.groupe2_ionic.eduka.services.OrganisationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Cache en lecture des tableaux de bord des organisations
+ *
+ * Premier niveau local (Caffeine), second niveau Redis optionnel partagé entre instances
+ * (organisation.tableau-de-bord.redis-actif). Une entrée est invalidée après le commit de toute
+ * modification d'un enfant, d'un parrainage, d'un rapport ou d'une dépense de l'organisation ;
+ * avec Redis, l'invalidation est diffusée aux autres instances par pub/sub.
+ */
+@Slf4j
+@Component
+public class TableauDeBordCache {
+
+    private static final String PREFIXE_CLE = "tableau-bord:organisation:";
+    private static final String CANAL_INVALIDATION = "tableau-bord:invalidation";
+
+    private final Cache<Integer, OrganisationDashboardDto> local;
+    private final TableauDeBordProperties properties;
+    private final StringRedisTemplate redis;
+    private final ObjectProvider<RedisConnectionFactory> connexionRedis;
+    private final ObjectMapper objectMapper;
+    private RedisMessageListenerContainer abonnement;
+
+    public TableauDeBordCache(TableauDeBordProperties properties,
+                              ObjectProvider<StringRedisTemplate> redis,
+                              ObjectProvider<RedisConnectionFactory> connexionRedis,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redis = properties.isRedisActif() ? redis.getObject() : null;
+        this.connexionRedis = connexionRedis;
+        this.objectMapper = objectMapper;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(properties.getDureeLocaleSecondes()))
+                .maximumSize(properties.getTailleMax())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "tableauDeBordOrganisation");
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        if (redis == null) {
+            return;
+        }
+        abonnement = new RedisMessageListenerContainer();
+        abonnement.setConnectionFactory(connexionRedis.getObject());
+        abonnement.addMessageListener((message, pattern) -> {
+            String organisationId = new String(message.getBody(), StandardCharsets.UTF_8);
+            local.invalidate(Integer.parseInt(organisationId));
+        }, new ChannelTopic(CANAL_INVALIDATION));
+        abonnement.afterPropertiesSet();
+        abonnement.start();
+    }
+
+    @PreDestroy
+    public void arreter() throws Exception {
+        if (abonnement != null) {
+            abonnement.destroy();
+        }
+    }
+
+    /**
+     * Tableau de bord d'une organisation ; les chargements concurrents d'une même organisation
+     * sont regroupés en un seul appel au chargeur
+     */
+    public OrganisationDashboardDto obtenir(int organisationId, IntFunction<OrganisationDashboardDto> chargeur) {
+        return local.get(organisationId, id -> lireOuCharger(id, chargeur));
+    }
+
+    public void invalider(int organisationId) {
+        local.invalidate(organisationId);
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.delete(PREFIXE_CLE + organisationId);
+            redis.convertAndSend(CANAL_INVALIDATION, String.valueOf(organisationId));
+        } catch (Exception e) {
+            log.warn("Invalidation Redis du tableau de bord de l'organisation {} impossible : {}",
+                    organisationId, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnfantModifie(EnfantService.EnfantModifieEvent event) {
+        if (event.getOrganisationId() != null) {
+            invalider(event.getOrganisationId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDonneesOrganisationModifiees(OrganisationService.DonneesOrganisationModifieesEvent event) {
+        invalider(event.getOrganisationId());
+    }
+
+    private OrganisationDashboardDto lireOuCharger(int organisationId, IntFunction<OrganisationDashboardDto> chargeur) {
+        if (redis == null) {
+            return chargeur.apply(organisationId);
+        }
+
+        String cle = PREFIXE_CLE + organisationId;
+        try {
+            String json = redis.opsForValue().get(cle);
+            if (json != null) {
+                return objectMapper.readValue(json, OrganisationDashboardDto.class);
+            }
+        } catch (Exception e) {
+            log.warn("Lecture Redis du tableau de bord de l'organisation {} impossible : {}", organisationId, e.getMessage());
+        }
+
+        OrganisationDashboardDto tableau = chargeur.apply(organisationId);
+        try {
+            redis.opsForValue().set(cle, objectMapper.writeValueAsString(tableau),
+                    Duration.ofSeconds(properties.getDureeRedisSecondes()));
+        } catch (Exception e) {
+            log.warn("Écriture Redis du tableau de bord de l'organisation {} impossible : {}", organisationId, e.getMessage());
+        }
+        return tableau;
+    }
+}
@@ -0,0 +1,34 @@
+package com.groupe2_ionic.eduka.services.organisation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration du cache des tableaux de bord des organisations
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "organisation.tableau-de-bord")
+public class TableauDeBordProperties {
+
+    /**
+     * Durée de conservation dans le cache local (Caffeine) ; les événements invalident avant l'expiration
+     */
+    private long dureeLocaleSecondes = 300;
+
+    /**
+     * Nombre maximum de tableaux de bord gardés en mémoire
+     */
+    private long tailleMax = 10_000;
+
+    /**
+     * Partage du cache entre instances via Redis (second niveau et diffusion des invalidations)
+     */
+    private boolean redisActif = false;
+
+    /**
+     * Durée de conservation dans Redis
+     */
+    private long dureeRedisSecondes = 300;
+}
@@ -0,0 +1,110 @@
+package com.groupe2_ionic.eduka.services.otp;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stockage des codes OTP en mémoire (un seul nœud)
+ * Destiné aux tests et au développement local sans Redis (otp.store=memory)
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory")
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Map<String, CodeEnAttente> codes = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Long>> demandes = new ConcurrentHashMap<>();
+    private final Map<String, TuteurEnCache> tuteurs = new ConcurrentHashMap<>();
+    private final AtomicLong emis = new AtomicLong();
+
+    @Override
+    public boolean tryAcquireIssuance(String telephone, int limit, Duration window) {
+        long now = System.currentTimeMillis();
+        Deque<Long> fenetre = demandes.computeIfAbsent(telephone, t -> new ArrayDeque<>());
+        synchronized (fenetre) {
+            while (!fenetre.isEmpty() && fenetre.peekFirst() <= now - window.toMillis()) {
+                fenetre.pollFirst();
+            }
+            if (fenetre.size() >= limit) {
+                return false;
+            }
+            fenetre.addLast(now);
+            return true;
+        }
+    }
+
+    @Override
+    public void save(String telephone, OtpEntry entry, Duration ttl) {
+        codes.put(telephone, new CodeEnAttente(entry, System.currentTimeMillis() + ttl.toMillis(), 0));
+        emis.incrementAndGet();
+    }
+
+    @Override
+    public Verification verify(String telephone, String code, int maxAttempts) {
+        Verification[] resultat = new Verification[1];
+
+        codes.compute(telephone, (t, enAttente) -> {
+            if (enAttente == null || enAttente.expiresAt() <= System.currentTimeMillis()) {
+                resultat[0] = Verification.of(Statut.EXPIRE);
+                return null;
+            }
+
+            int tentatives = enAttente.attempts() + 1;
+            if (tentatives > maxAttempts) {
+                resultat[0] = Verification.of(Statut.TENTATIVES_EPUISEES);
+                return null;
+            }
+            if (enAttente.entry().code().equals(code)) {
+                resultat[0] = new Verification(Statut.VALIDE, enAttente.entry().tuteur());
+                return null;
+            }
+
+            resultat[0] = Verification.of(Statut.INVALIDE);
+            return new CodeEnAttente(enAttente.entry(), enAttente.expiresAt(), tentatives);
+        });
+
+        return resultat[0];
+    }
+
+    @Override
+    public Optional<TuteurIdentite> findTuteur(String telephone) {
+        TuteurEnCache enCache = tuteurs.get(telephone);
+        if (enCache == null || enCache.expiresAt() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(enCache.tuteur());
+    }
+
+    @Override
+    public void cacheTuteur(String telephone, TuteurIdentite tuteur, Duration ttl) {
+        tuteurs.put(telephone, new TuteurEnCache(tuteur, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evictTuteur(String telephone) {
+        tuteurs.remove(telephone);
+    }
+
+    @Override
+    public long countActive() {
+        long now = System.currentTimeMillis();
+        codes.values().removeIf(enAttente -> enAttente.expiresAt() <= now);
+        return codes.size();
+    }
+
+    @Override
+    public long countIssued() {
+        return emis.get();
+    }
+
+    private record CodeEnAttente(OtpEntry entry, long expiresAt, int attempts) {}
+
+    private record TuteurEnCache(TuteurIdentite tuteur, long expiresAt) {}
+}
@@ -0,0 +1,82 @@
+package com.groupe2_ionic.eduka.services.otp;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Stockage des codes OTP des tuteurs
+ * L'expiration, le comptage des tentatives et la limitation de débit sont gérés par le stockage
+ * (Redis en production, implémentation en mémoire pour les tests)
+ */
+public interface OtpStore {
+
+    /**
+     * Enregistre une demande d'OTP dans la fenêtre glissante
+     * Retourne false si la limite de demandes est déjà atteinte sur la fenêtre
+     */
+    boolean tryAcquireIssuance(String telephone, int limit, Duration window);
+
+    /**
+     * Enregistre un nouveau code pour ce téléphone (remplace le code précédent)
+     */
+    void save(String telephone, OtpEntry entry, Duration ttl);
+
+    /**
+     * Vérifie un code et incrémente atomiquement le nombre de tentatives
+     * Le code est supprimé s'il est validé ou si les tentatives sont épuisées
+     */
+    Verification verify(String telephone, String code, int maxAttempts);
+
+    /**
+     * Identité d'un tuteur mise en cache pour éviter la base lors des demandes d'OTP
+     */
+    Optional<TuteurIdentite> findTuteur(String telephone);
+
+    /**
+     * Met en cache l'identité d'un tuteur
+     */
+    void cacheTuteur(String telephone, TuteurIdentite tuteur, Duration ttl);
+
+    /**
+     * Retire l'identité d'un tuteur du cache
+     */
+    void evictTuteur(String telephone);
+
+    /**
+     * Nombre de codes OTP en cours de validité
+     */
+    long countActive();
+
+    /**
+     * Nombre de codes OTP émis depuis la mise en service du stockage, y compris les codes utilisés,
+     * remplacés ou expirés
+     */
+    long countIssued();
+
+    /**
+     * Code OTP et identité du tuteur à authentifier
+     */
+    record OtpEntry(String code, TuteurIdentite tuteur) {}
+
+    /**
+     * Identité minimale d'un tuteur nécessaire à l'émission du token
+     */
+    record TuteurIdentite(int id, String nom, String prenom) {}
+
+    /**
+     * Résultat de la vérification d'un code
+     */
+    record Verification(Statut statut, TuteurIdentite tuteur) {
+
+        public static Verification of(Statut statut) {
+            return new Verification(statut, null);
+        }
+    }
+
+    enum Statut {
+        VALIDE,
+        INVALIDE,
+        EXPIRE,
+        TENTATIVES_EPUISEES
+    }
+}
@@ -0,0 +1,194 @@
+package com.groupe2_ionic.eduka.services.otp;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stockage des codes OTP dans Redis
+ * Expiration native (TTL), tentatives et limitation de débit atomiques via scripts Lua
+ * Les codes en cours sont indexés par expiration dans un ensemble trié et les codes émis comptés,
+ * pour que les statistiques ne parcourent pas l'espace de clés
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "otp.store", havingValue = "redis", matchIfMissing = true)
+public class RedisOtpStore implements OtpStore {
+
+    private static final String CODE_PREFIX = "otp:code:";
+    private static final String RATE_PREFIX = "otp:rate:";
+    private static final String TUTEUR_PREFIX = "otp:tuteur:";
+    private static final String ACTIVE_KEY = "otp:actifs";
+    private static final String ISSUED_KEY = "otp:emis";
+
+    /**
+     * Fenêtre glissante : purge les demandes hors fenêtre puis ajoute la demande si la limite n'est pas atteinte
+     */
+    private static final RedisScript<Long> RATE_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window)
+            if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then
+                return 0
+            end
+            redis.call('ZADD', KEYS[1], now, ARGV[4])
+            redis.call('PEXPIRE', KEYS[1], window)
+            return 1
+            """, Long.class);
+
+    /**
+     * Remplace le code précédent par le nouveau code avec son TTL, l'indexe par expiration et compte l'émission
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'tuteurId', ARGV[2], 'nom', ARGV[3], 'prenom', ARGV[4], 'attempts', 0)
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            redis.call('ZADD', KEYS[2], ARGV[6], ARGV[7])
+            redis.call('INCR', KEYS[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * Retire de l'index les codes expirés puis compte les codes restants
+     */
+    private static final RedisScript<Long> COUNT_ACTIVE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[1])
+            return redis.call('ZCARD', KEYS[1])
+            """, Long.class);
+
+    /**
+     * Incrémente les tentatives puis compare le code ; supprime le code validé ou épuisé
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> VERIFY_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                redis.call('ZREM', KEYS[2], ARGV[3])
+                return {'EXPIRE'}
+            end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            if attempts > tonumber(ARGV[2]) then
+                redis.call('DEL', KEYS[1])
+                redis.call('ZREM', KEYS[2], ARGV[3])
+                return {'TENTATIVES_EPUISEES'}
+            end
+            local data = redis.call('HMGET', KEYS[1], 'code', 'tuteurId', 'nom', 'prenom')
+            if data[1] == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                redis.call('ZREM', KEYS[2], ARGV[3])
+                return {'VALIDE', data[2], data[3], data[4]}
+            end
+            return {'INVALIDE'}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public boolean tryAcquireIssuance(String telephone, int limit, Duration window) {
+        long now = System.currentTimeMillis();
+        Long acquired = redisTemplate.execute(
+                RATE_LIMIT_SCRIPT,
+                List.of(RATE_PREFIX + telephone),
+                String.valueOf(now),
+                String.valueOf(window.toMillis()),
+                String.valueOf(limit),
+                now + ":" + UUID.randomUUID()
+        );
+        return acquired != null && acquired == 1L;
+    }
+
+    @Override
+    public void save(String telephone, OtpEntry entry, Duration ttl) {
+        redisTemplate.execute(
+                SAVE_SCRIPT,
+                List.of(CODE_PREFIX + telephone, ACTIVE_KEY, ISSUED_KEY),
+                entry.code(),
+                String.valueOf(entry.tuteur().id()),
+                entry.tuteur().nom(),
+                entry.tuteur().prenom(),
+                String.valueOf(ttl.toMillis()),
+                String.valueOf(System.currentTimeMillis() + ttl.toMillis()),
+                telephone
+        );
+    }
+
+    @Override
+    public Verification verify(String telephone, String code, int maxAttempts) {
+        List<?> result = redisTemplate.execute(
+                VERIFY_SCRIPT,
+                List.of(CODE_PREFIX + telephone, ACTIVE_KEY),
+                code,
+                String.valueOf(maxAttempts),
+                telephone
+        );
+
+        if (result == null || result.isEmpty()) {
+            return Verification.of(Statut.EXPIRE);
+        }
+
+        Statut statut = Statut.valueOf(String.valueOf(result.get(0)));
+        if (statut != Statut.VALIDE) {
+            return Verification.of(statut);
+        }
+
+        TuteurIdentite tuteur = new TuteurIdentite(
+                Integer.parseInt(String.valueOf(result.get(1))),
+                String.valueOf(result.get(2)),
+                String.valueOf(result.get(3))
+        );
+        return new Verification(Statut.VALIDE, tuteur);
+    }
+
+    @Override
+    public Optional<TuteurIdentite> findTuteur(String telephone) {
+        Map<Object, Object> data = redisTemplate.opsForHash().entries(TUTEUR_PREFIX + telephone);
+        if (data.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new TuteurIdentite(
+                Integer.parseInt(String.valueOf(data.get("id"))),
+                String.valueOf(data.get("nom")),
+                String.valueOf(data.get("prenom"))
+        ));
+    }
+
+    @Override
+    public void cacheTuteur(String telephone, TuteurIdentite tuteur, Duration ttl) {
+        String key = TUTEUR_PREFIX + telephone;
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "id", String.valueOf(tuteur.id()),
+                "nom", tuteur.nom(),
+                "prenom", tuteur.prenom()
+        ));
+        redisTemplate.expire(key, ttl);
+    }
+
+    @Override
+    public void evictTuteur(String telephone) {
+        redisTemplate.delete(TUTEUR_PREFIX + telephone);
+    }
+
+    @Override
+    public long countActive() {
+        Long count = redisTemplate.execute(
+                COUNT_ACTIVE_SCRIPT,
+                List.of(ACTIVE_KEY),
+                String.valueOf(System.currentTimeMillis())
+        );
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public long countIssued() {
+        String count = redisTemplate.opsForValue().get(ISSUED_KEY);
+        return count != null ? Long.parseLong(count) : 0L;
+    }
+}
@@ -0,0 +1,106 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Disjoncteur d'un fournisseur de paiement
+ *
+ * Fermé : les appels passent et leurs résultats sont comptés sur une fenêtre glissante des derniers appels.
+ * Ouvert : quand le taux d'échec de la fenêtre atteint le seuil, les appels sont refusés sans solliciter
+ * le fournisseur pendant la durée d'ouverture. Semi-ouvert : ensuite, un seul appel d'essai passe ;
+ * son succès referme le disjoncteur, son échec le rouvre.
+ */
+public class Disjoncteur {
+
+    public enum Etat {
+        FERME,
+        OUVERT,
+        SEMI_OUVERT
+    }
+
+    private final int seuilEchecPourcent;
+    private final long dureeOuvertureNanos;
+    private final LongSupplier horloge;
+    private final boolean[] fenetre;
+    private int position;
+    private int appels;
+    private int echecs;
+    private Etat etat = Etat.FERME;
+    private long ouvertDepuis;
+    private boolean essaiEnCours;
+
+    public Disjoncteur(int tailleFenetre, int seuilEchecPourcent, long dureeOuvertureNanos, LongSupplier horloge) {
+        this.fenetre = new boolean[tailleFenetre];
+        this.seuilEchecPourcent = seuilEchecPourcent;
+        this.dureeOuvertureNanos = dureeOuvertureNanos;
+        this.horloge = horloge;
+    }
+
+    /**
+     * Indique si un appel peut passer ; en semi-ouvert, réserve l'unique appel d'essai
+     */
+    public synchronized boolean autoriser() {
+        if (etat == Etat.OUVERT && horloge.getAsLong() - ouvertDepuis >= dureeOuvertureNanos) {
+            etat = Etat.SEMI_OUVERT;
+        }
+        return switch (etat) {
+            case FERME -> true;
+            case OUVERT -> false;
+            case SEMI_OUVERT -> {
+                if (essaiEnCours) {
+                    yield false;
+                }
+                essaiEnCours = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void enregistrer(boolean succes) {
+        if (etat == Etat.SEMI_OUVERT) {
+            essaiEnCours = false;
+            if (succes) {
+                fermer();
+            } else {
+                ouvrir();
+            }
+            return;
+        }
+        if (etat == Etat.OUVERT) {
+            // Réponse tardive d'un appel lancé avant l'ouverture
+            return;
+        }
+
+        if (appels == fenetre.length) {
+            if (!fenetre[position]) {
+                echecs--;
+            }
+        } else {
+            appels++;
+        }
+        fenetre[position] = succes;
+        position = (position + 1) % fenetre.length;
+        if (!succes) {
+            echecs++;
+        }
+        if (appels == fenetre.length && echecs * 100 >= seuilEchecPourcent * appels) {
+            ouvrir();
+        }
+    }
+
+    public synchronized Etat etat() {
+        return etat;
+    }
+
+    private void ouvrir() {
+        etat = Etat.OUVERT;
+        ouvertDepuis = horloge.getAsLong();
+    }
+
+    private void fermer() {
+        etat = Etat.FERME;
+        appels = 0;
+        echecs = 0;
+        position = 0;
+    }
+}
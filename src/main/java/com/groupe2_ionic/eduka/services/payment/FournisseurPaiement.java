@@ -0,0 +1,41 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+
+import java.math.BigDecimal;
+
+/**
+ * Fournisseur de paiement en ligne (Stripe, PayPal, Orange Money, Moov Money, Wave)
+ *
+ * Un fournisseur ne lit ni n'écrit en base : il reçoit une demande décrite par valeurs et rend ce que le fournisseur
+ * a attribué au paiement. L'identifiant de transaction est attribué et enregistré avant l'appel : il est transmis
+ * au fournisseur comme référence de la commande, et un rappel arrivé après le délai d'appel retrouve son paiement. Il est appelé par la PasserellePaiement, hors de toute transaction, sur un thread dédié,
+ * avec un délai maximal, un nombre limité d'appels simultanés et un disjoncteur propres à chaque fournisseur.
+ */
+public interface FournisseurPaiement {
+
+    MethodePaiement methode();
+
+    /**
+     * Crée le paiement chez le fournisseur
+     * Une RuntimeException signale un refus (numéro invalide, montant refusé) ou une panne du fournisseur
+     */
+    Reponse initier(Demande demande);
+
+    /**
+     * Paiement à créer chez le fournisseur
+     */
+    record Demande(Integer paiementId, String transactionId, BigDecimal montant, String numeroTelephone,
+                   Integer parrainId, Integer parrainageId) {
+    }
+
+    /**
+     * Informations attribuées par le fournisseur
+     */
+    record Reponse(String paymentIntentId, String paymentUrl, String metadonnees) {
+
+        public static Reponse vide() {
+            return new Reponse(null, null, null);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Générateur des identifiants de transaction des paiements (Orange Money, Moov Money, Wave, Stripe, PayPal, espèces)
+ *
+ * Identifiant de 63 bits sur le modèle Snowflake : millisecondes depuis le 1er janvier 2025 (41 bits, environ 69 ans),
+ * numéro du nœud (10 bits) et séquence dans la milliseconde (12 bits, 4096 identifiants par milliseconde et par nœud).
+ * L'état (milliseconde, séquence) tient dans un seul long mis à jour par compare-and-set : aucun verrou, aucune attente.
+ * Les identifiants d'un nœud sont strictement croissants : si l'horloge recule ou si la séquence d'une milliseconde
+ * est épuisée, le générateur continue sur la milliseconde suivante au lieu de revenir en arrière.
+ * Deux nœuds ne produisent jamais le même identifiant tant que leurs numéros diffèrent (paiement.identifiants.noeud).
+ */
+@Slf4j
+@Component
+public class GenerateurIdentifiantsTransaction {
+
+    static final long EPOQUE = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int BITS_NOEUD = 10;
+    static final int BITS_SEQUENCE = 12;
+    static final int NOEUD_MAX = (1 << BITS_NOEUD) - 1;
+    private static final long MASQUE_SEQUENCE = (1L << BITS_SEQUENCE) - 1;
+
+    // Largeur fixe : l'ordre alphabétique des identifiants suit leur ordre de création
+    private static final int LONGUEUR = Long.toString(Long.MAX_VALUE, 36).length();
+
+    private final long noeud;
+    private final LongSupplier horloge;
+    private final AtomicLong dernier = new AtomicLong();
+
+    public GenerateurIdentifiantsTransaction(@Value("${paiement.identifiants.noeud:-1}") int noeud) {
+        this(noeud < 0 ? noeudParDefaut() : noeud, System::currentTimeMillis);
+    }
+
+    GenerateurIdentifiantsTransaction(int noeud, LongSupplier horloge) {
+        if (noeud < 0 || noeud > NOEUD_MAX) {
+            throw new IllegalArgumentException("Numéro de nœud hors de [0, " + NOEUD_MAX + "]: " + noeud);
+        }
+        this.noeud = noeud;
+        this.horloge = horloge;
+    }
+
+    /**
+     * Nouvel identifiant de transaction préfixé par le fournisseur (ex. "OM_", "pi_")
+     */
+    public String nouvelIdentifiant(String prefixe) {
+        String code = Long.toString(suivant(), 36).toUpperCase();
+        return prefixe + "0".repeat(LONGUEUR - code.length()) + code;
+    }
+
+    /**
+     * Identifiant numérique suivant, strictement croissant sur ce nœud
+     */
+    public long suivant() {
+        long maintenant = horloge.getAsLong() - EPOQUE;
+        long precedent;
+        long etat;
+        do {
+            precedent = dernier.get();
+            long milliseconde = precedent >>> BITS_SEQUENCE;
+            if (maintenant > milliseconde) {
+                etat = maintenant << BITS_SEQUENCE;
+            } else {
+                // Même milliseconde ou horloge en retard : séquence suivante, qui déborde sur la milliseconde suivante
+                etat = precedent + 1;
+            }
+        } while (!dernier.compareAndSet(precedent, etat));
+
+        return (etat >>> BITS_SEQUENCE) << (BITS_NOEUD + BITS_SEQUENCE)
+                | noeud << BITS_SEQUENCE
+                | etat & MASQUE_SEQUENCE;
+    }
+
+    /**
+     * Numéro de nœud déduit du nom d'hôte quand il n'est pas configuré
+     * Deux hôtes peuvent tomber sur le même numéro : en production, le configurer explicitement par instance
+     */
+    private static int noeudParDefaut() {
+        String hote;
+        try {
+            hote = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            hote = String.valueOf(ProcessHandle.current().pid());
+        }
+        int noeud = hote.hashCode() & NOEUD_MAX;
+        log.warn("paiement.identifiants.noeud non configuré : nœud {} déduit de l'hôte {}", noeud, hote);
+        return noeud;
+    }
+}
@@ -0,0 +1,263 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.services.PaiementService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestion des rappels des fournisseurs de paiement (webhook Stripe, callback Wave, confirmation Mobile Money)
+ *
+ * Le rappel est accusé dès sa mise en file : les renvois d'un même événement sont écartés grâce à une mémoire
+ * bornée des identifiants d'événements, puis les changements de statut sont appliqués en arrière-plan.
+ * Les rappels d'une transaction sont toujours dirigés vers la même file, traitée par un seul thread :
+ * ils sont appliqués dans l'ordre de réception, sans concurrence sur la ligne du paiement. Les rappels
+ * d'une même transaction présents ensemble dans une file sont fusionnés : le premier statut définitif
+ * (REUSSI ou ECHEC) l'emporte, à défaut le dernier statut reçu est appliqué.
+ *
+ * La mémoire des événements est propre à chaque instance ; un renvoi reçu par une autre instance est sans effet
+ * car confirmerPaiement tient REUSSI et ECHEC pour définitifs. Un rappel qui n'a pas pu être appliqué est oublié
+ * de cette mémoire pour que le renvoi du fournisseur soit accepté ; un rappel qui précède l'enregistrement
+ * de sa transaction est retenté pendant un délai borné.
+ * Les rappels encore en file à l'arrêt sont appliqués avant la fermeture ; en cas d'arrêt brutal ils sont perdus
+ * et le paiement reste en attente jusqu'au prochain rappel du fournisseur.
+ */
+@Slf4j
+@Component
+public class IngestionRappelsPaiement {
+
+    private static final int TAILLE_LOT = 256;
+    private static final Duration DELAI_ARRET = Duration.ofSeconds(10);
+
+    public enum Accuse {
+        ACCEPTE,
+        DOUBLON,
+        SATURE
+    }
+
+    /**
+     * Rappel d'un fournisseur : identifiant de l'événement chez le fournisseur, transaction concernée et nouveau statut
+     */
+    public record RappelPaiement(String evenementId, String transactionId, StatutPaiement statut,
+                                 String codeConfirmation) {
+    }
+
+    private final PaiementService paiementService;
+    private final RappelsPaiementProperties properties;
+    private final Cache<String, Boolean> evenementsRecus;
+    private final Partition[] partitions;
+    private final Counter acceptes;
+    private final Counter doublons;
+    private final Counter refuses;
+    private final Counter appliques;
+    private final Counter echecs;
+    private volatile boolean arrete;
+
+    public IngestionRappelsPaiement(PaiementService paiementService,
+                                    RappelsPaiementProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.paiementService = paiementService;
+        this.properties = properties;
+        this.evenementsRecus = Caffeine.newBuilder()
+                .maximumSize(properties.getTailleDedoublonnage())
+                .expireAfterWrite(Duration.ofMinutes(properties.getDureeDedoublonnageMinutes()))
+                .build();
+
+        this.partitions = new Partition[properties.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, properties.getCapacitePartition());
+        }
+
+        this.acceptes = compteur(meterRegistry, "accepte");
+        this.doublons = compteur(meterRegistry, "doublon");
+        this.refuses = compteur(meterRegistry, "sature");
+        this.appliques = compteur(meterRegistry, "applique");
+        this.echecs = compteur(meterRegistry, "echec");
+        Gauge.builder("eduka.paiements.rappels.file", this, IngestionRappelsPaiement::enAttente)
+                .description("Rappels de paiement en attente d'application")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Met un rappel en file sans attendre son application
+     */
+    public Accuse soumettre(RappelPaiement rappel) {
+        if (arrete) {
+            refuses.increment();
+            return Accuse.SATURE;
+        }
+        if (evenementsRecus.asMap().putIfAbsent(rappel.evenementId(), Boolean.TRUE) != null) {
+            doublons.increment();
+            return Accuse.DOUBLON;
+        }
+
+        Partition partition = partitions[Math.floorMod(rappel.transactionId().hashCode(), partitions.length)];
+        partition.restants.incrementAndGet();
+        if (!partition.file.offer(rappel)) {
+            partition.restants.decrementAndGet();
+            // Oublié pour que le renvoi du fournisseur soit accepté
+            evenementsRecus.invalidate(rappel.evenementId());
+            refuses.increment();
+            return Accuse.SATURE;
+        }
+        acceptes.increment();
+        return Accuse.ACCEPTE;
+    }
+
+    /**
+     * Nombre de rappels en file ou en cours d'application, toutes partitions confondues
+     */
+    public int enAttente() {
+        return Arrays.stream(partitions).mapToInt(p -> p.restants.get()).sum();
+    }
+
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        arrete = true;
+        long limite = System.nanoTime() + DELAI_ARRET.toNanos();
+        for (Partition partition : partitions) {
+            partition.thread.join(Duration.ofNanos(Math.max(1, limite - System.nanoTime())));
+        }
+        if (enAttente() > 0) {
+            log.warn("{} rappels de paiement non appliqués à l'arrêt", enAttente());
+        }
+    }
+
+    /**
+     * Fusionne les rappels du lot par transaction puis les applique : un statut en attente est remplacé par
+     * le rappel suivant, le premier REUSSI ou ECHEC est retenu et les rappels qui le suivent sont écartés,
+     * comme confirmerPaiement les ignorerait. Les rappels écartés sont oubliés de la mémoire des événements.
+     */
+    private void appliquer(List<RappelPaiement> lot) {
+        Map<String, RappelPaiement> retenus = new LinkedHashMap<>();
+        for (RappelPaiement rappel : lot) {
+            RappelPaiement retenu = retenus.get(rappel.transactionId());
+            if (retenu != null && estDefinitif(retenu.statut())) {
+                evenementsRecus.invalidate(rappel.evenementId());
+                continue;
+            }
+            if (retenu != null) {
+                evenementsRecus.invalidate(retenu.evenementId());
+                retenus.remove(rappel.transactionId());
+            }
+            retenus.put(rappel.transactionId(), rappel);
+        }
+        retenus.values().forEach(this::appliquer);
+    }
+
+    private static boolean estDefinitif(StatutPaiement statut) {
+        return statut == StatutPaiement.REUSSI || statut == StatutPaiement.ECHEC;
+    }
+
+    private void appliquer(RappelPaiement rappel) {
+        long limiteInconnu = System.nanoTime() + Duration.ofMillis(properties.getAttentePaiementInconnuMs()).toNanos();
+        int erreursBase = 0;
+        int attentes = 0;
+        while (true) {
+            try {
+                paiementService.confirmerPaiement(rappel.transactionId(), rappel.statut(), rappel.codeConfirmation());
+                appliques.increment();
+                return;
+            } catch (DataAccessException | TransactionException e) {
+                if (++erreursBase >= properties.getTentatives()) {
+                    abandonner(rappel, "abandonné après " + erreursBase + " tentatives: " + e.getMessage());
+                    return;
+                }
+                attendre(50L * erreursBase);
+            } catch (PaiementService.PaiementInconnuException e) {
+                // Le rappel peut arriver avant le commit de l'enregistrement de la transaction
+                if (System.nanoTime() >= limiteInconnu) {
+                    abandonner(rappel, "ignoré: " + e.getMessage());
+                    return;
+                }
+                attendre(Math.min(50L << Math.min(attentes++, 4), 500));
+            } catch (RuntimeException e) {
+                // Rappel invalide : une nouvelle tentative n'y changerait rien
+                abandonner(rappel, "ignoré: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Oublie l'événement pour que le renvoi du fournisseur soit de nouveau appliqué
+     */
+    private void abandonner(RappelPaiement rappel, String raison) {
+        evenementsRecus.invalidate(rappel.evenementId());
+        echecs.increment();
+        log.warn("Rappel {} de la transaction {} {}", rappel.evenementId(), rappel.transactionId(), raison);
+    }
+
+    private static void attendre(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Counter compteur(MeterRegistry meterRegistry, String resultat) {
+        return Counter.builder("eduka.paiements.rappels")
+                .description("Rappels des fournisseurs de paiement par résultat")
+                .tag("resultat", resultat)
+                .register(meterRegistry);
+    }
+
+    /**
+     * File d'une partition et son thread de traitement
+     */
+    private final class Partition implements Runnable {
+        private final BlockingQueue<RappelPaiement> file;
+        private final AtomicInteger restants = new AtomicInteger();
+        private final Thread thread;
+
+        Partition(int numero, int capacite) {
+            this.file = new ArrayBlockingQueue<>(capacite);
+            this.thread = Thread.ofVirtual().name("rappels-paiement-" + numero).start(this);
+        }
+
+        @Override
+        public void run() {
+            List<RappelPaiement> lot = new ArrayList<>(TAILLE_LOT);
+            while (!arrete || !file.isEmpty()) {
+                try {
+                    RappelPaiement premier = file.poll(200, TimeUnit.MILLISECONDS);
+                    if (premier == null) {
+                        continue;
+                    }
+                    lot.add(premier);
+                    file.drainTo(lot, TAILLE_LOT - 1);
+                    appliquer(lot);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Erreur lors de l'application des rappels de paiement: {}", e.getMessage());
+                    lot.forEach(rappel -> evenementsRecus.invalidate(rappel.evenementId()));
+                } finally {
+                    restants.addAndGet(-lot.size());
+                    lot.clear();
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package com.groupe2_ionic.eduka.services.payment;
 
-import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
-import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
-import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
 import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
-import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,9 +10,9 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class OrangeMoneyService {
+public class OrangeMoneyService implements FournisseurPaiement {
     
-    private final PaiementReposiroty paiementRepository;
+    private final GenerateurIdentifiantsTransaction generateurIdentifiants;
     
     @Value("${orange.money.api.url:https://api.orange.com/orange-money-webpay/ml/v1}")
     private String orangeApiUrl;
@@ -29,42 +26,29 @@ public class OrangeMoneyService {
     @Value("${orange.money.client.secret:}")
     private String clientSecret;
     
+    @Override
+    public MethodePaiement methode() {
+        return MethodePaiement.ORANGE_MONEY;
+    }
+
     /**
      * Initier un paiement Orange Money
      */
-    public PaiementResponseDto initierPaiement(Paiement paiement, PaiementRequestDto requestDto) {
+    @Override
+    public Reponse initier(Demande demande) {
+        // Validation du numéro de téléphone
+        if (demande.numeroTelephone() == null || !demande.numeroTelephone().matches("^\\+223[67]\\d{7}$")) {
+            throw new IllegalArgumentException("Numéro de téléphone Orange Money invalide");
+        }
+        
         try {
-            // Validation du numéro de téléphone
-            if (requestDto.getNumeroTelephone() == null || !requestDto.getNumeroTelephone().matches("^\\+223[67]\\d{7}$")) {
-                throw new RuntimeException("Numéro de téléphone Orange Money invalide");
-            }
-            
-            // Générer un ID de transaction unique
-            String transactionId = "OM_" + System.currentTimeMillis();
-            
             // Simulation de l'appel API Orange Money
             // Dans un vrai projet, faire l'appel HTTP à l'API Orange Money
             
-            // Mettre à jour le paiement
-            paiement.setTransactionId(transactionId);
-            paiement.setNumeroTelephone(requestDto.getNumeroTelephone());
-            paiement.setStatut(StatutPaiement.INITE);
-            
-            paiement = paiementRepository.save(paiement);
-            
             // Simulation: envoyer une demande de paiement au téléphone
-            log.info("Demande de paiement Orange Money envoyée au {}", requestDto.getNumeroTelephone());
-            
-            PaiementResponseDto response = new PaiementResponseDto();
-            response.setId(paiement.getId());
-            response.setMontant(paiement.getMontant());
-            response.setMethodePaiement(paiement.getMethode());
-            response.setStatut(paiement.getStatut());
-            response.setDatePaiement(paiement.getDatePaiement());
-            response.setTransactionId(paiement.getTransactionId());
-            
-            return response;
+            log.info("Demande de paiement Orange Money envoyée au {}", demande.numeroTelephone());
             
+            return Reponse.vide();
         } catch (Exception e) {
             log.error("Erreur Orange Money: {}", e.getMessage());
             throw new RuntimeException("Erreur lors du paiement Orange Money: " + e.getMessage());
@@ -73,30 +57,24 @@ public class OrangeMoneyService {
     
     /**
      * Vérifier le statut d'un paiement Orange Money
+     * Le rappel rendu est appliqué par PaiementService.confirmerPaiement (via IngestionRappelsPaiement)
      */
-    public void verifierStatutPaiement(String transactionId) {
+    public IngestionRappelsPaiement.RappelPaiement verifierStatutPaiement(String transactionId) {
         try {
             // Appel API pour vérifier le statut
-            // Simulation
-            
-            Paiement paiement = paiementRepository.findByTransactionId(transactionId)
-                    .orElseThrow(() -> new RuntimeException("Paiement non trouvé"));
-            
             // Simulation: 80% de chance de succès
             boolean succes = Math.random() > 0.2;
-            
-            if (succes) {
-                paiement.setStatut(StatutPaiement.REUSSI);
-                paiement.setCodeConfirmation("OM_CONF_" + System.currentTimeMillis());
-            } else {
-                paiement.setStatut(StatutPaiement.ECHEC);
-                paiement.setMessageErreur("Paiement refusé par Orange Money");
+
+            StatutPaiement statut = succes ? StatutPaiement.REUSSI : StatutPaiement.ECHEC;
+            if (!succes) {
+                log.info("Paiement {} refusé par Orange Money", transactionId);
             }
-            
-            paiementRepository.save(paiement);
-            
+            return new IngestionRappelsPaiement.RappelPaiement(transactionId + ":" + statut, transactionId, statut,
+                    succes ? generateurIdentifiants.nouvelIdentifiant("OM_CONF_") : null);
+
         } catch (Exception e) {
             log.error("Erreur lors de la vérification Orange Money: {}", e.getMessage());
+            throw new RuntimeException("Erreur vérification Orange Money");
         }
     }
 }
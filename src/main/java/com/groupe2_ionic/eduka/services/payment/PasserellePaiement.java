@@ -0,0 +1,149 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Point d'entrée unique des appels aux fournisseurs de paiement
+ *
+ * Chaque fournisseur a son compartiment : ses propres threads (virtuels), un nombre limité d'appels simultanés,
+ * un délai maximal de réponse et un disjoncteur. Un fournisseur lent ou en panne n'occupe donc que son compartiment :
+ * au-delà, ses demandes sont refusées immédiatement (FournisseurIndisponibleException) au lieu de s'accumuler,
+ * et les autres fournisseurs ne sont pas affectés.
+ * Les appels sont asynchrones : l'appelant reçoit un CompletableFuture et ne doit pas tenir de transaction en l'attendant.
+ */
+@Slf4j
+@Component
+public class PasserellePaiement {
+
+    private final Map<MethodePaiement, Compartiment> compartiments = new EnumMap<>(MethodePaiement.class);
+    private final MeterRegistry meterRegistry;
+
+    public PasserellePaiement(List<FournisseurPaiement> fournisseurs,
+                              PasserellePaiementProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (FournisseurPaiement fournisseur : fournisseurs) {
+            PasserellePaiementProperties.Reglages reglages = properties.pour(fournisseur.methode());
+            compartiments.put(fournisseur.methode(), new Compartiment(fournisseur, reglages));
+        }
+    }
+
+    /**
+     * Crée le paiement chez le fournisseur de la méthode choisie
+     * Le futur échoue avec une IllegalArgumentException pour une demande refusée par le fournisseur,
+     * une FournisseurIndisponibleException si le fournisseur n'est pas appelé (compartiment plein, disjoncteur ouvert)
+     * et une TimeoutException au-delà du délai
+     */
+    public CompletableFuture<FournisseurPaiement.Reponse> initier(MethodePaiement methode,
+                                                                  FournisseurPaiement.Demande demande) {
+        Compartiment compartiment = compartiments.get(methode);
+        if (compartiment == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Méthode de paiement non supportée"));
+        }
+        return compartiment.appeler(demande);
+    }
+
+    public Disjoncteur.Etat etat(MethodePaiement methode) {
+        Compartiment compartiment = compartiments.get(methode);
+        return compartiment != null ? compartiment.disjoncteur.etat() : null;
+    }
+
+    @PreDestroy
+    public void arreter() {
+        compartiments.values().forEach(c -> c.executor.shutdown());
+    }
+
+    /**
+     * Appel refusé sans solliciter le fournisseur
+     */
+    public static class FournisseurIndisponibleException extends RuntimeException {
+        public FournisseurIndisponibleException(String message) {
+            super(message);
+        }
+    }
+
+    private final class Compartiment {
+        private final FournisseurPaiement fournisseur;
+        private final ExecutorService executor;
+        private final Semaphore appelsSimultanes;
+        private final Disjoncteur disjoncteur;
+        private final long delaiMs;
+        private final String nom;
+
+        Compartiment(FournisseurPaiement fournisseur, PasserellePaiementProperties.Reglages reglages) {
+            this.fournisseur = fournisseur;
+            this.nom = fournisseur.methode().name().toLowerCase();
+            this.executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("fournisseur-" + nom + "-", 0).factory());
+            this.appelsSimultanes = new Semaphore(reglages.getAppelsSimultanes());
+            this.disjoncteur = new Disjoncteur(reglages.getFenetreDisjoncteur(), reglages.getSeuilEchecPourcent(),
+                    TimeUnit.SECONDS.toNanos(reglages.getDureeOuvertureSecondes()), System::nanoTime);
+            this.delaiMs = reglages.getDelaiMs();
+        }
+
+        CompletableFuture<FournisseurPaiement.Reponse> appeler(FournisseurPaiement.Demande demande) {
+            if (!appelsSimultanes.tryAcquire()) {
+                return refuser("trop d'appels en cours");
+            }
+            if (!disjoncteur.autoriser()) {
+                appelsSimultanes.release();
+                return refuser("fournisseur en panne");
+            }
+
+            long debut = System.nanoTime();
+            CompletableFuture<FournisseurPaiement.Reponse> appel =
+                    CompletableFuture.supplyAsync(() -> fournisseur.initier(demande), executor);
+            // La place n'est rendue qu'au retour réel du fournisseur, même après le délai :
+            // le compartiment borne ainsi les appels réellement en attente chez lui
+            appel.whenComplete((reponse, erreur) -> appelsSimultanes.release());
+
+            return appel.copy()
+                    .orTimeout(delaiMs, TimeUnit.MILLISECONDS)
+                    .whenComplete((reponse, erreur) -> {
+                        Throwable cause = erreur instanceof CompletionException ? erreur.getCause() : erreur;
+                        // Une demande refusée (numéro invalide...) montre un fournisseur qui répond
+                        disjoncteur.enregistrer(cause == null || cause instanceof IllegalArgumentException);
+                        mesurer(resultat(cause), System.nanoTime() - debut);
+                        if (cause instanceof TimeoutException) {
+                            log.warn("Fournisseur {} sans réponse après {} ms", nom, delaiMs);
+                        }
+                    });
+        }
+
+        private CompletableFuture<FournisseurPaiement.Reponse> refuser(String raison) {
+            mesurer("indisponible", 0);
+            return CompletableFuture.failedFuture(
+                    new FournisseurIndisponibleException("Paiement " + nom + " momentanément indisponible (" + raison + ")"));
+        }
+
+        private String resultat(Throwable cause) {
+            if (cause == null) {
+                return "succes";
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return "refus";
+            }
+            return cause instanceof TimeoutException ? "delai" : "echec";
+        }
+
+        private void mesurer(String resultat, long dureeNanos) {
+            meterRegistry.timer("eduka.paiements.fournisseurs.appels", "methode", nom, "resultat", resultat)
+                    .record(dureeNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
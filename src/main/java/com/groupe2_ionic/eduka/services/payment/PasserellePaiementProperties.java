@@ -0,0 +1,58 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration des appels aux fournisseurs de paiement : réglages communs et réglages propres à un fournisseur
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "paiement.fournisseurs")
+public class PasserellePaiementProperties {
+
+    private Reglages defaut = new Reglages();
+
+    /**
+     * Réglages remplaçant entièrement les réglages communs pour une méthode (ex. paiement.fournisseurs.methodes.wave.delai-ms)
+     */
+    private Map<MethodePaiement, Reglages> methodes = new EnumMap<>(MethodePaiement.class);
+
+    public Reglages pour(MethodePaiement methode) {
+        return methodes.getOrDefault(methode, defaut);
+    }
+
+    @Data
+    public static class Reglages {
+
+        /**
+         * Délai maximal de réponse du fournisseur
+         */
+        private long delaiMs = 10_000;
+
+        /**
+         * Appels simultanés au fournisseur au-delà desquels une nouvelle demande est refusée
+         */
+        private int appelsSimultanes = 50;
+
+        /**
+         * Nombre de derniers appels sur lesquels le taux d'échec est calculé
+         */
+        private int fenetreDisjoncteur = 20;
+
+        /**
+         * Taux d'échec (en %) de la fenêtre à partir duquel le fournisseur n'est plus appelé
+         */
+        private int seuilEchecPourcent = 50;
+
+        /**
+         * Durée pendant laquelle le fournisseur n'est plus appelé avant un appel d'essai
+         */
+        private long dureeOuvertureSecondes = 30;
+    }
+}
@@ -1,10 +1,7 @@
 package com.groupe2_ionic.eduka.services.payment;
 
-import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
-import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
-import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
 import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
-import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,9 +10,9 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class PayPalPaymentService {
+public class PayPalPaymentService implements FournisseurPaiement {
     
-    private final PaiementReposiroty paiementRepository;
+    private final GenerateurIdentifiantsTransaction generateurIdentifiants;
     
     @Value("${paypal.client.id:}")
     private String paypalClientId;
@@ -26,21 +23,21 @@ public class PayPalPaymentService {
     @Value("${paypal.mode:sandbox}")
     private String paypalMode;
     
+    @Override
+    public MethodePaiement methode() {
+        return MethodePaiement.PAYPAL;
+    }
+
     /**
-     * Créer un paiement PayPal
+     * Créer une commande PayPal
      */
-    public PaiementResponseDto creerPaiement(Paiement paiement, PaiementRequestDto requestDto) {
+    @Override
+    public Reponse initier(Demande demande) {
         try {
             // Configuration PayPal (simulation)
             // Dans un vrai projet, utiliser la SDK PayPal
             
-            String orderId = "PAYPAL_" + System.currentTimeMillis();
-            
-            // Mettre à jour le paiement
-            paiement.setTransactionId(orderId);
-            paiement.setStatut(StatutPaiement.INITE);
-            
-            paiement = paiementRepository.save(paiement);
+            String orderId = demande.transactionId();
             
             // URL d'approbation PayPal (simulation)
             String approvalUrl = String.format(
@@ -49,16 +46,7 @@ public class PayPalPaymentService {
                 orderId
             );
             
-            PaiementResponseDto response = new PaiementResponseDto();
-            response.setId(paiement.getId());
-            response.setMontant(paiement.getMontant());
-            response.setMethodePaiement(paiement.getMethode());
-            response.setStatut(paiement.getStatut());
-            response.setDatePaiement(paiement.getDatePaiement());
-            response.setTransactionId(paiement.getTransactionId());
-            response.setPaymentUrl(approvalUrl);
-            
-            return response;
+            return new Reponse(null, approvalUrl, null);
             
         } catch (Exception e) {
             log.error("Erreur PayPal: {}", e.getMessage());
@@ -68,22 +56,18 @@ public class PayPalPaymentService {
     
     /**
      * Capturer un paiement PayPal après approbation
+     * Le changement de statut est appliqué par PaiementService.confirmerPaiement (solde, reçu, notification)
      */
-    public void capturerPaiement(String orderId) {
+    public IngestionRappelsPaiement.RappelPaiement capturerPaiement(String orderId) {
         try {
             // Capturer le paiement PayPal
             // Dans un vrai projet, utiliser l'API PayPal
-            
-            Paiement paiement = paiementRepository.findByTransactionId(orderId)
-                    .orElseThrow(() -> new RuntimeException("Paiement non trouvé"));
-            
-            paiement.setStatut(StatutPaiement.REUSSI);
-            paiement.setCodeConfirmation("PAYPAL_CAPTURED_" + System.currentTimeMillis());
-            
-            paiementRepository.save(paiement);
-            
+            String codeCapture = generateurIdentifiants.nouvelIdentifiant("PAYPAL_CAPTURED_");
+
             log.info("Paiement PayPal capturé: {}", orderId);
-            
+            return new IngestionRappelsPaiement.RappelPaiement(orderId + ":" + StatutPaiement.REUSSI, orderId,
+                    StatutPaiement.REUSSI, codeCapture);
+
         } catch (Exception e) {
             log.error("Erreur lors de la capture PayPal: {}", e.getMessage());
             throw new RuntimeException("Erreur capture PayPal");
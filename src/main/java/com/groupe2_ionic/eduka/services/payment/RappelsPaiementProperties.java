@@ -0,0 +1,44 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration de l'ingestion des rappels (webhooks, callbacks) des fournisseurs de paiement
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "paiement.rappels")
+public class RappelsPaiementProperties {
+
+    /**
+     * Nombre de files traitées en parallèle ; les rappels d'une même transaction vont toujours dans la même file
+     */
+    private int partitions = 8;
+
+    /**
+     * Rappels en attente par file au-delà desquels un rappel est refusé (503, le fournisseur le renverra)
+     */
+    private int capacitePartition = 10_000;
+
+    /**
+     * Identifiants d'événements mémorisés pour écarter les renvois
+     */
+    private long tailleDedoublonnage = 200_000;
+
+    /**
+     * Durée pendant laquelle un identifiant d'événement est mémorisé
+     */
+    private long dureeDedoublonnageMinutes = 1440;
+
+    /**
+     * Tentatives d'application d'un rappel en cas d'erreur de base de données (verrou, interblocage)
+     */
+    private int tentatives = 3;
+
+    /**
+     * Durée pendant laquelle un rappel dont la transaction est encore inconnue est retenté
+     */
+    private long attentePaiementInconnuMs = 2_000;
+}
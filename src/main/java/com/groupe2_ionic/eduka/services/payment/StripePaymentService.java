@@ -1,10 +1,9 @@
 package com.groupe2_ionic.eduka.services.payment;
 
-import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
-import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
-import com.groupe2_ionic.eduka.models.Paiement;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
 import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
-import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,13 +11,15 @@ import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class StripePaymentService {
+public class StripePaymentService implements FournisseurPaiement {
     
-    private final PaiementReposiroty paiementRepository;
+    private final ObjectMapper objectMapper;
     
     @Value("${stripe.secret.key:sk_test_...}")
     private String stripeSecretKey;
@@ -26,42 +27,32 @@ public class StripePaymentService {
     @Value("${stripe.webhook.secret:whsec_...}")
     private String webhookSecret;
     
+    @Override
+    public MethodePaiement methode() {
+        return MethodePaiement.STRIPE;
+    }
+
     /**
-     * Créer un paiement Stripe
+     * Créer un PaymentIntent Stripe
      */
-    public PaiementResponseDto creerPaiement(Paiement paiement, PaiementRequestDto requestDto) {
+    @Override
+    public Reponse initier(Demande demande) {
         try {
             // Configuration Stripe (simulation)
             // Dans un vrai projet, utiliser la SDK Stripe
             
-            // Créer un PaymentIntent
-            String paymentIntentId = "pi_" + System.currentTimeMillis();
-            String clientSecret = paymentIntentId + "_secret_" + System.currentTimeMillis();
-            
-            // Mettre à jour le paiement
-            paiement.setPaymentIntentId(paymentIntentId);
-            paiement.setTransactionId(paymentIntentId);
-            paiement.setStatut(StatutPaiement.INITE);
+            // Créer un PaymentIntent (simulation : son identifiant est la référence déjà enregistrée)
+            String paymentIntentId = demande.transactionId();
+            String clientSecret = paymentIntentId + "_secret_" + UUID.randomUUID();
             
             // Métadonnées
             Map<String, Object> metadata = new HashMap<>();
-            metadata.put("parrainage_id", paiement.getParrainage().getId());
-            metadata.put("parrain_id", paiement.getParrain().getId());
-            paiement.setMetadonnees(metadata.toString());
-            
-            paiement = paiementRepository.save(paiement);
-            
-            // Retourner la réponse avec l'URL de paiement
-            PaiementResponseDto response = new PaiementResponseDto();
-            response.setId(paiement.getId());
-            response.setMontant(paiement.getMontant());
-            response.setMethodePaiement(paiement.getMethode());
-            response.setStatut(paiement.getStatut());
-            response.setDatePaiement(paiement.getDatePaiement());
-            response.setTransactionId(paiement.getTransactionId());
-            response.setPaymentUrl("https://checkout.stripe.com/pay/" + clientSecret);
+            metadata.put("parrainage_id", demande.parrainageId());
+            metadata.put("parrain_id", demande.parrainId());
             
-            return response;
+            // Retourner l'URL de paiement
+            return new Reponse(paymentIntentId, "https://checkout.stripe.com/pay/" + clientSecret,
+                    metadata.toString());
             
         } catch (Exception e) {
             log.error("Erreur Stripe: {}", e.getMessage());
@@ -70,18 +61,30 @@ public class StripePaymentService {
     }
     
     /**
-     * Traiter le webhook Stripe
+     * Lire le webhook Stripe
+     * Seuls les événements de PaymentIntent changent le statut d'un paiement ; les autres sont ignorés
      */
-    public void traiterWebhook(String payload, String signature) {
+    public Optional<IngestionRappelsPaiement.RappelPaiement> traiterWebhook(String payload, String signature) {
         try {
             // Vérifier la signature du webhook
-            // Traiter l'événement Stripe
-            
-            log.info("Webhook Stripe reçu: {}", payload);
-            
-            // Exemple de traitement d'événement
-            // Dans un vrai projet, parser le JSON et traiter selon le type d'événement
-            
+            JsonNode evenement = objectMapper.readTree(payload);
+            StatutPaiement statut = switch (evenement.path("type").asText()) {
+                case "payment_intent.succeeded" -> StatutPaiement.REUSSI;
+                case "payment_intent.payment_failed", "payment_intent.canceled" -> StatutPaiement.ECHEC;
+                default -> null;
+            };
+            if (statut == null) {
+                log.debug("Webhook Stripe ignoré: {}", evenement.path("type").asText());
+                return Optional.empty();
+            }
+
+            String paymentIntentId = evenement.path("data").path("object").path("id").asText();
+            if (paymentIntentId.isEmpty()) {
+                throw new IllegalArgumentException("PaymentIntent absent");
+            }
+            return Optional.of(new IngestionRappelsPaiement.RappelPaiement(
+                    evenement.path("id").asText(paymentIntentId + ":" + statut), paymentIntentId, statut, null));
+
         } catch (Exception e) {
             log.error("Erreur lors du traitement du webhook Stripe: {}", e.getMessage());
             throw new RuntimeException("Erreur webhook Stripe");
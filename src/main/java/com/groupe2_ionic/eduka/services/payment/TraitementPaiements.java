@@ -0,0 +1,217 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.Enfant;
+import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import com.groupe2_ionic.eduka.services.NotificationService;
+import com.groupe2_ionic.eduka.services.PaiementService;
+import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Traitement en arrière-plan des paiements confirmés : crédit du solde de l'enfant, reçu et notification du parrain
+ *
+ * La confirmation marque le paiement (traitementEnAttente) dans sa propre transaction puis publie un PaiementEvent ;
+ * après le commit, le traitement est demandé sur un exécuteur dédié et l'appelant (callback du fournisseur) rend la main.
+ * Les paiements sont traités par lots : les soldes sont crédités en une mise à jour par enfant et les paiements
+ * réservés dans la même transaction, puis reçus et notifications sont envoyés. La marque en base sert de file :
+ * une relève périodique reprend ce qu'un arrêt ou un autre nœud a laissé.
+ */
+@Slf4j
+@Component
+public class TraitementPaiements {
+
+    private final PaiementReposiroty paiementRepository;
+    private final EnfantRepository enfantRepository;
+    private final PdfService pdfService;
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tailleLot;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock pompe = new ReentrantLock();
+    private final AtomicBoolean traitementDemande = new AtomicBoolean();
+    private final Counter paiementsTraites;
+    private final Timer dureeLot;
+
+    public TraitementPaiements(PaiementReposiroty paiementRepository,
+                               EnfantRepository enfantRepository,
+                               PdfService pdfService,
+                               EmailService emailService,
+                               NotificationService notificationService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${paiement.traitement.taille-lot:50}") int tailleLot,
+                               MeterRegistry meterRegistry) {
+        this.paiementRepository = paiementRepository;
+        this.enfantRepository = enfantRepository;
+        this.pdfService = pdfService;
+        this.emailService = emailService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.tailleLot = tailleLot;
+        this.paiementsTraites = Counter.builder("eduka.paiements.traites")
+                .description("Paiements confirmés dont le solde a été crédité")
+                .register(meterRegistry);
+        this.dureeLot = Timer.builder("eduka.paiements.traitement.lot")
+                .description("Durée du crédit des soldes d'un lot de paiements")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaiementConfirme(PaiementService.PaiementEvent event) {
+        if (event.getPaiement().isTraitementEnAttente()) {
+            demanderTraitement();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaiementEspece(PaiementService.PaiementEspeceEvent event) {
+        demanderTraitement();
+    }
+
+    /**
+     * Relève périodique : paiements laissés en attente par un arrêt ou un échec
+     */
+    @Scheduled(fixedDelayString = "${paiement.traitement.releve-ms:60000}")
+    public void releverPeriodiquement() {
+        demanderTraitement();
+    }
+
+    /**
+     * Demande un traitement sans bloquer l'appelant
+     * Un seul traitement s'exécute à la fois ; une demande reçue pendant un traitement en relance un autre
+     */
+    public void demanderTraitement() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        traitementDemande.set(true);
+        executor.execute(this::traiter);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdown();
+    }
+
+    private void traiter() {
+        while (traitementDemande.get() && pompe.tryLock()) {
+            try {
+                traitementDemande.set(false);
+                traiterEnAttente();
+            } catch (Exception e) {
+                log.error("Erreur lors du traitement des paiements confirmés: {}", e.getMessage());
+            } finally {
+                pompe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Traite tous les paiements en attente, lot par lot
+     *
+     * @return nombre de paiements traités
+     */
+    int traiterEnAttente() {
+        int total = 0;
+        List<Integer> ids;
+        do {
+            ids = paiementRepository.findIdsTraitementEnAttente(PageRequest.of(0, tailleLot));
+            if (!ids.isEmpty()) {
+                total += traiterLot(ids);
+            }
+        } while (ids.size() == tailleLot);
+        return total;
+    }
+
+    private int traiterLot(List<Integer> ids) {
+        long debut = System.nanoTime();
+        List<Paiement> reserves = transactionTemplate.execute(status -> crediterSoldes(ids));
+        dureeLot.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        if (reserves == null || reserves.isEmpty()) {
+            return 0;
+        }
+        paiementsTraites.increment(reserves.size());
+
+        // Hors transaction : un échec d'envoi ne remet pas en cause le crédit du solde
+        reserves.forEach(this::envoyerRecuEtNotifier);
+        return reserves.size();
+    }
+
+    private List<Paiement> crediterSoldes(List<Integer> ids) {
+        // Charge d'abord le lot avec ses associations, puis réserve sous verrou ceux encore en attente
+        Map<Integer, Paiement> paiements = paiementRepository.findPourTraitement(ids).stream()
+                .collect(Collectors.toMap(Paiement::getId, p -> p));
+        Set<Integer> reserves = paiementRepository.findEnAttenteVerrouilles(ids).stream()
+                .map(Paiement::getId)
+                .collect(Collectors.toSet());
+        if (reserves.isEmpty()) {
+            return List.of();
+        }
+
+        List<Paiement> lot = reserves.stream().map(paiements::get).toList();
+        Map<Integer, BigDecimal> creditsParEnfant = lot.stream()
+                .filter(p -> p.getParrainage() != null && p.getParrainage().getEnfant() != null)
+                .collect(Collectors.groupingBy(p -> p.getParrainage().getEnfant().getId(),
+                        Collectors.reducing(BigDecimal.ZERO, Paiement::getMontant, BigDecimal::add)));
+        creditsParEnfant.forEach(enfantRepository::crediterSolde);
+        paiementRepository.marquerTraites(List.copyOf(reserves));
+        return lot;
+    }
+
+    /**
+     * Reçu par email et notification sont indépendants : l'échec de l'un n'empêche pas l'autre
+     */
+    private void envoyerRecuEtNotifier(Paiement paiement) {
+        Parrain parrain = paiement.getParrain();
+        Enfant enfant = paiement.getParrainage() != null ? paiement.getParrainage().getEnfant() : null;
+        String nomEnfant = enfant != null ? enfant.getPrenom() + " " + enfant.getNom() : "votre filleul(e)";
+
+        if (enfant != null && enfant.getOrganisation() != null) {
+            try {
+                byte[] recu = pdfService.genererRecuPaiement(paiement);
+                emailService.envoyerEmailHtml(parrain.getEmail(), "Reçu de votre paiement",
+                        String.format("<p>Bonjour %s %s,</p><p>Vous trouverez ci-joint le reçu de votre paiement de "
+                                        + "%s FCFA pour %s.</p><p>Merci pour votre soutien !</p>",
+                                parrain.getPrenom(), parrain.getNom(), paiement.getMontant(), nomEnfant),
+                        List.of(new EmailService.PieceJointe("recu-paiement-" + paiement.getId() + ".pdf", recu,
+                                "application/pdf")));
+            } catch (Exception e) {
+                log.error("Reçu du paiement {} non envoyé: {}", paiement.getId(), e.getMessage());
+            }
+        }
+
+        try {
+            notificationService.envoyerNotification(parrain, "Paiement confirmé",
+                    String.format("Votre paiement de %s FCFA pour %s a bien été reçu.", paiement.getMontant(), nomEnfant),
+                    false, true);
+        } catch (Exception e) {
+            log.error("Notification du paiement {} non envoyée: {}", paiement.getId(), e.getMessage());
+        }
+    }
+}
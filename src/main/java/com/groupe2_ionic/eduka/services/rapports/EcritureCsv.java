@@ -0,0 +1,97 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * CSV UTF-8 (avec BOM pour Excel), séparateur point-virgule, une seule table pour toutes les sections
+ */
+final class EcritureCsv implements EcritureExport {
+
+    private static final char SEPARATEUR = ';';
+    private static final String DEBUTS_FORMULE = "=+-@\t\r";
+
+    private final Writer sortie;
+
+    EcritureCsv(OutputStream sortie) throws IOException {
+        this.sortie = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), 64 * 1024);
+        this.sortie.write('\uFEFF');
+        for (int i = 0; i < COLONNES.length; i++) {
+            if (i > 0) {
+                this.sortie.write(SEPARATEUR);
+            }
+            this.sortie.write(COLONNES[i]);
+        }
+        this.sortie.write("\r\n");
+    }
+
+    @Override
+    public void section(String nom) {
+        // La colonne Type distingue les sections
+    }
+
+    @Override
+    public void ligne(String type, int id, LocalDate date, String categorie, String statut, String reference,
+                      String organisation, Integer enfant, BigDecimal montant) throws IOException {
+        sortie.write(type);
+        sortie.write(SEPARATEUR);
+        sortie.write(Integer.toString(id));
+        sortie.write(SEPARATEUR);
+        if (date != null) {
+            sortie.write(date.toString());
+        }
+        sortie.write(SEPARATEUR);
+        texte(categorie);
+        sortie.write(SEPARATEUR);
+        texte(statut);
+        sortie.write(SEPARATEUR);
+        texte(reference);
+        sortie.write(SEPARATEUR);
+        texte(organisation);
+        sortie.write(SEPARATEUR);
+        if (enfant != null) {
+            sortie.write(enfant.toString());
+        }
+        sortie.write(SEPARATEUR);
+        if (montant != null) {
+            sortie.write(montant.toPlainString());
+        }
+        sortie.write("\r\n");
+    }
+
+    @Override
+    public void terminer() throws IOException {
+        sortie.flush();
+    }
+
+    /**
+     * Texte entre guillemets s'il contient un séparateur, un guillemet ou un retour à la ligne (RFC 4180).
+     * Une apostrophe précède le texte qui commence comme une formule, pour qu'Excel ne l'évalue pas
+     */
+    private void texte(String valeur) throws IOException {
+        if (valeur == null) {
+            return;
+        }
+        if (!valeur.isEmpty() && DEBUTS_FORMULE.indexOf(valeur.charAt(0)) >= 0) {
+            valeur = "'" + valeur;
+        }
+        boolean protege = false;
+        for (int i = 0; i < valeur.length() && !protege; i++) {
+            char c = valeur.charAt(i);
+            protege = c == SEPARATEUR || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!protege) {
+            sortie.write(valeur);
+            return;
+        }
+        sortie.write('"');
+        sortie.write(valeur.replace("\"", "\"\""));
+        sortie.write('"');
+    }
+}
@@ -0,0 +1,38 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Encodage ligne à ligne de l'export comptable : chaque ligne est écrite dès sa lecture,
+ * rien n'est accumulé en mémoire. {@link #terminer()} complète le fichier, {@link #close()} libère les
+ * ressources de l'encodage ; le flux de sortie n'est jamais fermé.
+ */
+interface EcritureExport extends Closeable {
+
+    String[] COLONNES = {"Type", "ID", "Date", "Catégorie", "Statut", "Référence", "Organisation", "Enfant", "Montant"};
+
+    /**
+     * Début des lignes d'une table (paiements, dépenses, transferts)
+     */
+    void section(String nom) throws IOException;
+
+    void ligne(String type, int id, LocalDate date, String categorie, String statut, String reference,
+               String organisation, Integer enfant, BigDecimal montant) throws IOException;
+
+    void terminer() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    static EcritureExport pour(FormatExport format, OutputStream sortie) throws IOException {
+        return switch (format) {
+            case CSV -> new EcritureCsv(sortie);
+            case XLSX -> new EcritureXlsx(sortie);
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Classeur Excel en flux (SXSSF) : une feuille par section, seules les dernières lignes restent en mémoire,
+ * les autres partent dans un fichier temporaire par feuille, compressé une seule fois dans le classeur à la fin
+ * (compresser aussi les fichiers temporaires divise le débit par 1,4 pour économiser de l'espace disque)
+ */
+final class EcritureXlsx implements EcritureExport {
+
+    private static final int LIGNES_EN_MEMOIRE = 100;
+    // Limite d'une feuille Excel, en-tête compris
+    private static final int LIGNES_MAX_FEUILLE = 1_048_576;
+
+    private final OutputStream sortie;
+    private final SXSSFWorkbook classeur;
+    private final CellStyle styleEntete;
+    private final CellStyle styleDate;
+    private final CellStyle styleMontant;
+    private String nomSection;
+    private int suite;
+    private SXSSFSheet feuille;
+    private int rang;
+
+    EcritureXlsx(OutputStream sortie) {
+        this.sortie = sortie;
+        this.classeur = new SXSSFWorkbook(LIGNES_EN_MEMOIRE);
+        this.classeur.setCompressTempFiles(false);
+
+        Font gras = classeur.createFont();
+        gras.setBold(true);
+        styleEntete = classeur.createCellStyle();
+        styleEntete.setFont(gras);
+        styleDate = classeur.createCellStyle();
+        styleDate.setDataFormat(classeur.createDataFormat().getFormat("dd/mm/yyyy"));
+        styleMontant = classeur.createCellStyle();
+        styleMontant.setDataFormat(classeur.createDataFormat().getFormat("#,##0.00"));
+    }
+
+    @Override
+    public void section(String nom) {
+        nomSection = nom;
+        suite = 1;
+        nouvelleFeuille(nom);
+    }
+
+    @Override
+    public void ligne(String type, int id, LocalDate date, String categorie, String statut, String reference,
+                      String organisation, Integer enfant, BigDecimal montant) {
+        if (rang == LIGNES_MAX_FEUILLE) {
+            nouvelleFeuille(nomSection + " (" + ++suite + ")");
+        }
+
+        Row ligne = feuille.createRow(rang++);
+        ligne.createCell(0).setCellValue(type);
+        ligne.createCell(1).setCellValue(id);
+        if (date != null) {
+            ligne.createCell(2).setCellValue(date);
+            ligne.getCell(2).setCellStyle(styleDate);
+        }
+        texte(ligne, 3, categorie);
+        texte(ligne, 4, statut);
+        texte(ligne, 5, reference);
+        texte(ligne, 6, organisation);
+        if (enfant != null) {
+            ligne.createCell(7).setCellValue(enfant);
+        }
+        if (montant != null) {
+            ligne.createCell(8).setCellValue(montant.doubleValue());
+            ligne.getCell(8).setCellStyle(styleMontant);
+        }
+    }
+
+    @Override
+    public void terminer() throws IOException {
+        classeur.write(sortie);
+        sortie.flush();
+    }
+
+    /**
+     * Supprime les fichiers temporaires des feuilles, que le classeur ait été écrit ou non
+     */
+    @Override
+    public void close() throws IOException {
+        classeur.close();
+    }
+
+    private void nouvelleFeuille(String nom) {
+        feuille = classeur.createSheet(nom);
+        feuille.createFreezePane(0, 1);
+        Row entete = feuille.createRow(0);
+        for (int i = 0; i < COLONNES.length; i++) {
+            entete.createCell(i).setCellValue(COLONNES[i]);
+            entete.getCell(i).setCellStyle(styleEntete);
+        }
+        rang = 1;
+    }
+
+    private static void texte(Row ligne, int colonne, String valeur) {
+        if (valeur != null) {
+            ligne.createCell(colonne).setCellValue(valeur);
+        }
+    }
+}
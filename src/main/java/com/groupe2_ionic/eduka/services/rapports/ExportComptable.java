@@ -0,0 +1,144 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.function.LongConsumer;
+
+/**
+ * Export comptable des paiements, dépenses et transferts d'une période
+ *
+ * Chaque table est lue par un curseur JDBC en avant seulement, en lecture seule, avec une taille de lecture
+ * fixée (MySQL : {@code Integer.MIN_VALUE} = lignes reçues une à une du serveur), et chaque ligne est encodée
+ * dès sa lecture : la mémoire utilisée ne dépend pas du nombre de lignes exportées.
+ */
+@Slf4j
+@Service
+public class ExportComptable {
+
+    private static final int AVANCEMENT_TOUTES_LES = 1000;
+
+    // Toutes les requêtes retournent : id, date, catégorie, statut, référence, organisation, enfant, montant
+    private static final String PAIEMENTS =
+            "SELECT p.id_paiement, p.date_paiement, p.methode, p.statut, p.transaction_id, o.nom, pa.id_enfant, p.montant " +
+            "FROM paiement p " +
+            "LEFT JOIN parrainage pa ON pa.id_parrainage = p.id_parrainage " +
+            "LEFT JOIN enfant e ON e.id_enfant = pa.id_enfant " +
+            "LEFT JOIN organisation o ON o.id_organisation = COALESCE(p.id_organisation, e.id_organisation) " +
+            "WHERE p.date_paiement BETWEEN ? AND ? ORDER BY p.date_paiement, p.id_paiement";
+
+    private static final String DEPENSES =
+            "SELECT d.id_depense, d.date_enregistrement, d.type_depense, NULL, NULL, o.nom, d.id_enfant, d.montant " +
+            "FROM depense d " +
+            "LEFT JOIN organisation o ON o.id_organisation = d.id_organisation " +
+            "WHERE d.date_enregistrement BETWEEN ? AND ? ORDER BY d.date_enregistrement, d.id_depense";
+
+    private static final String TRANSFERTS =
+            "SELECT t.id_transfert, t.date_demande, t.motif, t.statut, NULL, o.nom, t.id_enfant_source, t.montant " +
+            "FROM transfert_fond t " +
+            "LEFT JOIN organisation o ON o.id_organisation = t.id_organisation " +
+            "WHERE t.date_demande BETWEEN ? AND ? ORDER BY t.date_demande, t.id_transfert";
+
+    private static final String COMPTE =
+            "SELECT (SELECT COUNT(*) FROM paiement WHERE date_paiement BETWEEN ? AND ?) " +
+            "+ (SELECT COUNT(*) FROM depense WHERE date_enregistrement BETWEEN ? AND ?) " +
+            "+ (SELECT COUNT(*) FROM transfert_fond WHERE date_demande BETWEEN ? AND ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tailleLecture;
+
+    public ExportComptable(JdbcTemplate jdbcTemplate,
+                           @Value("${export.comptable.taille-lecture:" + Integer.MIN_VALUE + "}") int tailleLecture) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tailleLecture = tailleLecture;
+    }
+
+    /**
+     * Nombre de lignes de l'export d'une période (suivi de progression)
+     */
+    public long compter(LocalDate dateDebut, LocalDate dateFin) {
+        Date debut = Date.valueOf(dateDebut);
+        Date fin = Date.valueOf(dateFin);
+        Long total = jdbcTemplate.queryForObject(COMPTE, Long.class, debut, fin, debut, fin, debut, fin);
+        return total != null ? total : 0;
+    }
+
+    public long exporter(LocalDate dateDebut, LocalDate dateFin, FormatExport format,
+                         OutputStream sortie) throws IOException {
+        return exporter(dateDebut, dateFin, format, sortie, lignes -> {
+        });
+    }
+
+    /**
+     * Écrit l'export dans le flux sans le fermer et retourne le nombre de lignes exportées
+     *
+     * @param avancement reçoit régulièrement le nombre de lignes déjà écrites
+     */
+    public long exporter(LocalDate dateDebut, LocalDate dateFin, FormatExport format,
+                         OutputStream sortie, LongConsumer avancement) throws IOException {
+        long debut = System.nanoTime();
+        long[] lignes = {0};
+        try (EcritureExport ecriture = EcritureExport.pour(format, sortie)) {
+            lire(ecriture, "Paiements", "PAIEMENT", PAIEMENTS, dateDebut, dateFin, lignes, avancement);
+            lire(ecriture, "Dépenses", "DEPENSE", DEPENSES, dateDebut, dateFin, lignes, avancement);
+            lire(ecriture, "Transferts", "TRANSFERT", TRANSFERTS, dateDebut, dateFin, lignes, avancement);
+            ecriture.terminer();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        avancement.accept(lignes[0]);
+
+        log.info("Export comptable {} du {} au {} : {} lignes en {} ms", format, dateDebut, dateFin, lignes[0],
+                (System.nanoTime() - debut) / 1_000_000);
+        return lignes[0];
+    }
+
+    private void lire(EcritureExport ecriture, String section, String type, String sql,
+                      LocalDate dateDebut, LocalDate dateFin, long[] lignes, LongConsumer avancement) throws IOException {
+        ecriture.section(section);
+        jdbcTemplate.query(connexion -> {
+            PreparedStatement requete = connexion.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            requete.setFetchSize(tailleLecture);
+            requete.setDate(1, Date.valueOf(dateDebut));
+            requete.setDate(2, Date.valueOf(dateFin));
+            return requete;
+        }, (ResultSet rs) -> {
+            try {
+                ecrireLigne(ecriture, type, rs);
+            } catch (IOException e) {
+                // Client déconnecté ou disque plein : remonte hors du curseur, qui est alors fermé
+                throw new UncheckedIOException(e);
+            }
+            if (++lignes[0] % AVANCEMENT_TOUTES_LES == 0) {
+                avancement.accept(lignes[0]);
+            }
+        });
+    }
+
+    private static void ecrireLigne(EcritureExport ecriture, String type, ResultSet rs) throws SQLException, IOException {
+        Date date = rs.getDate(2);
+        Integer enfant = rs.getInt(7);
+        if (rs.wasNull()) {
+            enfant = null;
+        }
+        ecriture.ligne(type,
+                rs.getInt(1),
+                date != null ? date.toLocalDate() : null,
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                enfant,
+                rs.getBigDecimal(8));
+    }
+}
@@ -0,0 +1,38 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+/**
+ * Formats de l'export comptable
+ */
+public enum FormatExport {
+    CSV("csv", "text/csv;charset=UTF-8"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extension;
+    private final String contentType;
+
+    FormatExport(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Format demandé (insensible à la casse, EXCEL accepté pour XLSX)
+     */
+    public static FormatExport depuis(String format) {
+        if (format == null || format.isBlank() || format.equalsIgnoreCase("CSV")) {
+            return CSV;
+        }
+        if (format.equalsIgnoreCase("XLSX") || format.equalsIgnoreCase("EXCEL")) {
+            return XLSX;
+        }
+        throw new IllegalArgumentException("Format d'export non supporté: " + format);
+    }
+}
@@ -0,0 +1,154 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import com.groupe2_ionic.eduka.dto.TacheRapportDto;
+import com.groupe2_ionic.eduka.models.Enfant;
+import com.groupe2_ionic.eduka.models.Organisation;
+import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.models.enums.StatutValidation;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.repository.OrganisationRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rapports volumineux générés en tâche de fond (voir {@link TachesRapport})
+ *
+ * Chaque méthode met le rapport en file et retourne aussitôt la tâche ; la lecture en base se fait
+ * sur le travailleur, dans une transaction en lecture seule.
+ */
+@Service
+public class GenerationRapports {
+
+    private static final String PDF = "application/pdf";
+    private static final String ADMINISTRATION = "administration";
+
+    private final TachesRapport tachesRapport;
+    private final PdfService pdfService;
+    private final ExportComptable exportComptable;
+    private final PaiementReposiroty paiementRepository;
+    private final OrganisationRepository organisationRepository;
+    private final EnfantRepository enfantRepository;
+    private final TransactionTemplate lecture;
+
+    public GenerationRapports(TachesRapport tachesRapport,
+                              PdfService pdfService,
+                              ExportComptable exportComptable,
+                              PaiementReposiroty paiementRepository,
+                              OrganisationRepository organisationRepository,
+                              EnfantRepository enfantRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.tachesRapport = tachesRapport;
+        this.pdfService = pdfService;
+        this.exportComptable = exportComptable;
+        this.paiementRepository = paiementRepository;
+        this.organisationRepository = organisationRepository;
+        this.enfantRepository = enfantRepository;
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+    }
+
+    /**
+     * Rapport administratif PDF : organisations validées et détail des paiements de la période
+     */
+    public TacheRapportDto soumettreRapportAdministratif(LocalDate dateDebut, LocalDate dateFin) {
+        return tachesRapport.soumettre(new TachesRapport.Demande(ADMINISTRATION, "RAPPORT_ADMINISTRATIF",
+                "RAPPORT_ADMINISTRATIF:" + dateDebut + ":" + dateFin,
+                "rapport_administratif_" + dateDebut + "_" + dateFin + ".pdf", PDF,
+                (sortie, progression) -> enLecture(() -> {
+                    List<Organisation> organisations = organisationRepository
+                            .findByStatutValidationOrderByDateInscription(StatutValidation.VALIDEE);
+                    long nombrePaiements = paiementRepository.countByDatePaiementBetween(dateDebut, dateFin);
+                    BigDecimal montantTotal = paiementRepository.sumMontantByDatePaiementBetweenAndStatut(
+                            dateDebut, dateFin, StatutPaiement.REUSSI);
+
+                    AtomicLong lus = new AtomicLong();
+                    try (Stream<Object[]> lignes = paiementRepository.streamLignesByDatePaiementBetween(dateDebut, dateFin)) {
+                        Stream<Paiement> paiements = lignes
+                                .map(GenerationRapports::paiement)
+                                .peek(p -> progression.avancer(lus.incrementAndGet(), nombrePaiements));
+                        pdfService.genererRapportAdministratif(dateDebut, dateFin, organisations, paiements,
+                                nombrePaiements, montantTotal != null ? montantTotal : BigDecimal.ZERO, sortie);
+                    }
+                })));
+    }
+
+    /**
+     * Export comptable CSV ou XLSX de la période
+     */
+    public TacheRapportDto soumettreExportComptable(LocalDate dateDebut, LocalDate dateFin, String format) {
+        FormatExport formatExport = FormatExport.depuis(format);
+        return tachesRapport.soumettre(new TachesRapport.Demande(ADMINISTRATION, "EXPORT_COMPTABLE",
+                "EXPORT_COMPTABLE:" + formatExport + ":" + dateDebut + ":" + dateFin,
+                "export_comptable_" + dateDebut + "_" + dateFin + "." + formatExport.getExtension(),
+                formatExport.getContentType(),
+                (sortie, progression) -> {
+                    long total = exportComptable.compter(dateDebut, dateFin);
+                    exportComptable.exporter(dateDebut, dateFin, formatExport, sortie,
+                            lignes -> progression.avancer(lignes, total));
+                }));
+    }
+
+    /**
+     * Rapport mensuel PDF d'une organisation ; les demandes d'une organisation forment sa propre file
+     */
+    public TacheRapportDto soumettreRapportMensuel(int organisationId, YearMonth mois) {
+        if (!organisationRepository.existsById(organisationId)) {
+            throw new RuntimeException("Organisation non trouvée avec l'ID: " + organisationId);
+        }
+
+        return tachesRapport.soumettre(new TachesRapport.Demande("organisation-" + organisationId,
+                "RAPPORT_MENSUEL", "RAPPORT_MENSUEL:" + organisationId + ":" + mois,
+                "rapport_mensuel_" + organisationId + "_" + mois + ".pdf", PDF,
+                (sortie, progression) -> enLecture(() -> {
+                    Organisation organisation = organisationRepository.findById(organisationId)
+                            .orElseThrow(() -> new RuntimeException("Organisation non trouvée avec l'ID: " + organisationId));
+                    List<Paiement> paiements = paiementRepository.findByOrganisationEnfantsAndDatePaiementBetween(
+                            organisationId, mois.atDay(1), mois.atEndOfMonth());
+                    progression.avancer(1, 2);
+                    List<Enfant> enfants = enfantRepository.findByOrganisationId(organisationId);
+                    pdfService.genererRapportMensuelOrganisation(organisation, mois.atDay(1), paiements, enfants, sortie);
+                })));
+    }
+
+    private void enLecture(Lecture lectureRapport) {
+        lecture.executeWithoutResult(statut -> {
+            try {
+                lectureRapport.executer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Paiement non géré reconstitué depuis une ligne de {@code streamLignesByDatePaiementBetween}
+     */
+    private static Paiement paiement(Object[] ligne) {
+        Paiement paiement = new Paiement();
+        paiement.setDatePaiement((LocalDate) ligne[0]);
+        paiement.setTransactionId((String) ligne[1]);
+        paiement.setMethode((MethodePaiement) ligne[2]);
+        paiement.setStatut((StatutPaiement) ligne[3]);
+        paiement.setMontant((BigDecimal) ligne[4]);
+        return paiement;
+    }
+
+    @FunctionalInterface
+    private interface Lecture {
+        void executer() throws IOException;
+    }
+}
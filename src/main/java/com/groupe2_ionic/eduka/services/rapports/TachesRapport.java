@@ -0,0 +1,323 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import com.groupe2_ionic.eduka.dto.TacheRapportDto;
+import com.groupe2_ionic.eduka.services.utilitaires.FileStorageService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Génération des rapports volumineux en arrière-plan
+ *
+ * Une demande reçoit immédiatement un identifiant de tâche dont l'état et la progression peuvent être consultés.
+ * Un nombre fixe de travailleurs exécute les tâches ; chaque demandeur (locataire : administration, organisation)
+ * a sa propre file et les travailleurs passent d'une file à l'autre à tour de rôle, si bien qu'un demandeur
+ * qui soumet beaucoup de rapports ne retarde pas les autres. Une demande identique à une tâche en attente ou
+ * en cours (même clé, ex. même rapport sur la même période) est rattachée à cette tâche au lieu d'en créer une.
+ * Le fichier produit est enregistré dans le stockage de fichiers puis supprimé avec l'état de la tâche
+ * après la durée de conservation.
+ */
+@Slf4j
+@Service
+public class TachesRapport {
+
+    public enum Statut {
+        EN_ATTENTE,
+        EN_COURS,
+        TERMINEE,
+        ECHEC
+    }
+
+    /**
+     * Écriture du rapport dans le fichier de résultat
+     */
+    @FunctionalInterface
+    public interface Travail {
+        void ecrire(OutputStream sortie, Progression progression) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Progression {
+        void avancer(long fait, long total);
+    }
+
+    /**
+     * Rapport demandé : {@code cle} identifie les demandes identiques, {@code nomFichier} nomme le résultat
+     */
+    public record Demande(String locataire, String type, String cle, String nomFichier, String contentType,
+                          Travail travail) {
+    }
+
+    /**
+     * Le demandeur a déjà trop de rapports en attente
+     */
+    public static class FileSatureeException extends RuntimeException {
+        public FileSatureeException(String message) {
+            super(message);
+        }
+    }
+
+    private final FileStorageService fileStorageService;
+    private final TachesRapportProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock horloge;
+    private final Duration conservation;
+
+    private final Map<String, Tache> taches = new ConcurrentHashMap<>();
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition travailDisponible = verrou.newCondition();
+    // Protégés par le verrou : tâches non terminées par clé, files par locataire, locataires ayant du travail
+    private final Map<String, Tache> actives = new HashMap<>();
+    private final Map<String, ArrayDeque<Tache>> files = new HashMap<>();
+    private final ArrayDeque<String> tourDeRole = new ArrayDeque<>();
+    private final List<Thread> travailleurs = new ArrayList<>();
+    private volatile boolean arrete;
+
+    @Autowired
+    public TachesRapport(FileStorageService fileStorageService, TachesRapportProperties properties,
+                         MeterRegistry meterRegistry) {
+        this(fileStorageService, properties, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    TachesRapport(FileStorageService fileStorageService, TachesRapportProperties properties,
+                  MeterRegistry meterRegistry, Clock horloge) {
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.horloge = horloge;
+        this.conservation = Duration.ofMinutes(properties.getDureeConservationMinutes());
+
+        Gauge.builder("eduka.rapports.taches.attente", this, TachesRapport::enAttente)
+                .description("Rapports en attente de génération")
+                .register(meterRegistry);
+        for (int i = 0; i < Math.max(1, properties.getTravailleurs()); i++) {
+            travailleurs.add(Thread.ofVirtual().name("rapport-" + i).start(this::travailler));
+        }
+    }
+
+    /**
+     * Met un rapport en file, ou rattache la demande à la tâche identique en attente ou en cours
+     */
+    public TacheRapportDto soumettre(Demande demande) {
+        verrou.lock();
+        try {
+            Tache existante = actives.get(demande.cle());
+            if (existante != null) {
+                return existante.vue();
+            }
+
+            ArrayDeque<Tache> file = files.computeIfAbsent(demande.locataire(), l -> new ArrayDeque<>());
+            if (file.size() >= properties.getAttenteMaxParLocataire()) {
+                throw new FileSatureeException("Trop de rapports en attente pour " + demande.locataire());
+            }
+
+            Tache tache = new Tache(UUID.randomUUID().toString(), demande, LocalDateTime.now(horloge));
+            taches.put(tache.id, tache);
+            actives.put(demande.cle(), tache);
+            if (file.isEmpty()) {
+                tourDeRole.addLast(demande.locataire());
+            }
+            file.addLast(tache);
+            travailDisponible.signal();
+            return tache.vue();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public Optional<TacheRapportDto> etat(String tacheId) {
+        return Optional.ofNullable(taches.get(tacheId)).map(Tache::vue);
+    }
+
+    /**
+     * Fichier d'un rapport terminé
+     */
+    public Optional<Path> fichier(String tacheId) throws IOException {
+        Tache tache = taches.get(tacheId);
+        if (tache == null || tache.statut != Statut.TERMINEE) {
+            return Optional.empty();
+        }
+        return Optional.of(fileStorageService.resolve(tache.url));
+    }
+
+    public int enAttente() {
+        verrou.lock();
+        try {
+            return files.values().stream().mapToInt(ArrayDeque::size).sum();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Supprime les rapports dont la durée de conservation est écoulée, ainsi que les fichiers orphelins
+     * (tâches perdues lors d'un redémarrage)
+     */
+    @Scheduled(fixedDelayString = "${rapports.taches.nettoyage-ms:600000}")
+    public void nettoyer() {
+        LocalDateTime limite = LocalDateTime.now(horloge).minus(conservation);
+        for (Tache tache : taches.values()) {
+            if (tache.dateFin != null && tache.dateFin.isBefore(limite)) {
+                taches.remove(tache.id);
+                supprimerFichier(tache);
+            }
+        }
+
+        try {
+            int orphelins = fileStorageService.purgeOlderThan(properties.getDossier(), conservation);
+            if (orphelins > 0) {
+                log.info("{} rapports expirés supprimés du stockage", orphelins);
+            }
+        } catch (IOException e) {
+            log.warn("Nettoyage du dossier des rapports impossible: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        arrete = true;
+        verrou.lock();
+        try {
+            travailDisponible.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+        travailleurs.forEach(Thread::interrupt);
+    }
+
+    private void travailler() {
+        Tache tache;
+        while ((tache = prochaine()) != null) {
+            executer(tache);
+        }
+    }
+
+    /**
+     * Prend la plus ancienne tâche du locataire suivant dans le tour de rôle
+     */
+    private Tache prochaine() {
+        verrou.lock();
+        try {
+            while (!arrete && tourDeRole.isEmpty()) {
+                travailDisponible.awaitUninterruptibly();
+            }
+            if (arrete) {
+                return null;
+            }
+
+            String locataire = tourDeRole.pollFirst();
+            ArrayDeque<Tache> file = files.get(locataire);
+            Tache tache = file.pollFirst();
+            if (file.isEmpty()) {
+                files.remove(locataire);
+            } else {
+                tourDeRole.addLast(locataire);
+            }
+            return tache;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void executer(Tache tache) {
+        Demande demande = tache.demande;
+        tache.statut = Statut.EN_COURS;
+        long debut = System.nanoTime();
+        String resultat = "succes";
+        try {
+            FileStorageService.StoredFile fichier = fileStorageService.storeGenerated(properties.getDossier(),
+                    tache.id + "-" + demande.nomFichier(), demande.contentType(),
+                    sortie -> demande.travail().ecrire(sortie, tache::avancer));
+            tache.url = fichier.url();
+            tache.taille = fichier.size();
+            tache.progression = 100;
+            tache.statut = Statut.TERMINEE;
+        } catch (Exception e) {
+            log.error("Échec de la génération du rapport {} ({}): {}", tache.id, demande.type(), e.getMessage(), e);
+            resultat = "echec";
+            tache.message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            tache.statut = Statut.ECHEC;
+        } finally {
+            tache.dateFin = LocalDateTime.now(horloge);
+            verrou.lock();
+            try {
+                actives.remove(demande.cle(), tache);
+            } finally {
+                verrou.unlock();
+            }
+            Timer.builder("eduka.rapports.taches")
+                    .tag("type", demande.type())
+                    .tag("resultat", resultat)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - debut));
+        }
+    }
+
+    private void supprimerFichier(Tache tache) {
+        if (tache.url == null) {
+            return;
+        }
+        try {
+            fileStorageService.delete(tache.url);
+        } catch (NoSuchFileException e) {
+            // Déjà supprimé
+        } catch (IOException e) {
+            log.warn("Suppression du rapport {} impossible: {}", tache.id, e.getMessage());
+        }
+    }
+
+    private final class Tache {
+
+        private final String id;
+        private final Demande demande;
+        private final LocalDateTime dateCreation;
+        private volatile Statut statut = Statut.EN_ATTENTE;
+        private volatile int progression;
+        private volatile String url;
+        private volatile Long taille;
+        private volatile String message;
+        private volatile LocalDateTime dateFin;
+
+        Tache(String id, Demande demande, LocalDateTime dateCreation) {
+            this.id = id;
+            this.demande = demande;
+            this.dateCreation = dateCreation;
+        }
+
+        void avancer(long fait, long total) {
+            if (total > 0) {
+                // 100 % n'est atteint qu'une fois le fichier enregistré
+                progression = (int) Math.min(99, fait * 100 / total);
+            }
+        }
+
+        TacheRapportDto vue() {
+            LocalDateTime fin = dateFin;
+            return new TacheRapportDto(id, demande.type(), statut.name(), progression, url, taille, message,
+                    dateCreation, fin, fin != null ? fin.plus(conservation) : null);
+        }
+    }
+}
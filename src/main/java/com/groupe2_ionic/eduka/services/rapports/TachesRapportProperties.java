@@ -0,0 +1,34 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration de la génération des rapports en arrière-plan
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rapports.taches")
+public class TachesRapportProperties {
+
+    /**
+     * Rapports générés simultanément, tous demandeurs confondus
+     */
+    private int travailleurs = 2;
+
+    /**
+     * Rapports en attente par demandeur (administration, organisation) au-delà desquels une demande est refusée
+     */
+    private int attenteMaxParLocataire = 10;
+
+    /**
+     * Durée de conservation d'un rapport terminé (fichier et état) avant suppression
+     */
+    private long dureeConservationMinutes = 120;
+
+    /**
+     * Sous-dossier du stockage de fichiers recevant les rapports
+     */
+    private String dossier = "rapports";
+}
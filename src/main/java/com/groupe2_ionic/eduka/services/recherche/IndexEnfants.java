@@ -0,0 +1,436 @@
+package com.groupe2_ionic.eduka.services.recherche;
+
+import com.groupe2_ionic.eduka.dto.EnfantIndexeDto;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire des enfants disponibles pour parrainage
+ *
+ * Chaque enfant occupe un emplacement (slot) dense ; les listes de postings associent un terme normalisé
+ * (minuscules, sans accents) aux emplacements qui le contiennent avec un poids par champ
+ * (nom/prénom 3, organisation/ville/niveau 2, histoire 1). Le classement utilise BM25 sur ces poids.
+ * Le dernier terme de la requête est aussi recherché comme préfixe (saisie en cours).
+ *
+ * Lectures concurrentes sous verrou partagé, mises à jour sous verrou exclusif.
+ */
+public class IndexEnfants {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float POIDS_PREFIXE = 0.7f;
+    private static final int EXPANSIONS_MAX = 64;
+    private static final int LIBRE = -1;
+
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "est", "et", "il", "la",
+            "le", "les", "leur", "lui", "ne", "ou", "par", "pas", "pour", "qu", "que", "qui", "sa", "se", "ses",
+            "son", "sur", "un", "une");
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Integer> slotParEnfant = new HashMap<>();
+    private final Deque<Integer> slotsLibres = new ArrayDeque<>();
+    private final Facette facetteVilles = new Facette();
+    private final Facette facetteNiveaux = new Facette();
+
+    private int[] enfantIds = new int[0];
+    private int[] villes = new int[0];
+    private int[] niveaux = new int[0];
+    private String[][] termes = new String[0][];
+    private float[] longueurs = new float[0];
+    private int nombreSlots;
+    private double longueurTotale;
+
+    /**
+     * Ajoute ou remplace le document d'un enfant
+     */
+    public void indexer(EnfantIndexeDto enfant) {
+        Map<String, Float> poids = new HashMap<>();
+        ajouterChamp(poids, enfant.getNom(), 3f);
+        ajouterChamp(poids, enfant.getPrenom(), 3f);
+        ajouterChamp(poids, enfant.getOrganisationNom(), 2f);
+        ajouterChamp(poids, enfant.getVille(), 2f);
+        ajouterChamp(poids, enfant.getNiveauScolaire(), 2f);
+        ajouterChamp(poids, enfant.getHistoire(), 1f);
+
+        verrou.writeLock().lock();
+        try {
+            retirer(enfant.getId());
+
+            int slot = allouerSlot();
+            enfantIds[slot] = enfant.getId();
+            villes[slot] = facetteVilles.coder(enfant.getVille());
+            niveaux[slot] = facetteNiveaux.coder(enfant.getNiveauScolaire());
+            termes[slot] = poids.keySet().toArray(String[]::new);
+
+            float longueur = 0;
+            for (Map.Entry<String, Float> terme : poids.entrySet()) {
+                postings.computeIfAbsent(terme.getKey(), t -> new Postings()).ajouter(slot, terme.getValue());
+                longueur += terme.getValue();
+            }
+            longueurs[slot] = longueur;
+            longueurTotale += longueur;
+            slotParEnfant.put(enfant.getId(), slot);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un enfant de l'index (parrainé ou supprimé)
+     */
+    public void supprimer(int enfantId) {
+        verrou.writeLock().lock();
+        try {
+            retirer(enfantId);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return slotParEnfant.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche classée : tous les termes doivent correspondre (le dernier éventuellement par préfixe).
+     * Sans texte, tous les enfants correspondent et sont classés du plus récent au plus ancien.
+     */
+    public Resultat rechercher(String texte, String ville, String niveau, int debut, int limite) {
+        List<String> requete = new ArrayList<>(new LinkedHashSet<>(analyser(texte)));
+
+        verrou.readLock().lock();
+        try {
+            int villeFiltre = facetteVilles.code(ville);
+            int niveauFiltre = facetteNiveaux.code(niveau);
+            if (villeFiltre == Facette.INCONNUE || niveauFiltre == Facette.INCONNUE) {
+                return new Resultat(List.of(), 0, Map.of(), Map.of());
+            }
+
+            float[] scores = new float[nombreSlots];
+            int[] correspondances = requete.isEmpty() ? null : new int[nombreSlots];
+            if (correspondances != null) {
+                noter(requete, scores, correspondances);
+            }
+
+            long[] comptesVilles = new long[facetteVilles.taille()];
+            long[] comptesNiveaux = new long[facetteNiveaux.taille()];
+            // Jamais plus de places que d'enfants indexés, quelle que soit la page demandée
+            int capacite = (int) Math.min((long) Math.max(0, debut) + Math.max(0, limite), slotParEnfant.size());
+            Meilleurs meilleurs = new Meilleurs(capacite, scores);
+            long total = 0;
+
+            for (int slot = 0; slot < nombreSlots; slot++) {
+                if (enfantIds[slot] == LIBRE) {
+                    continue;
+                }
+                if (correspondances != null && correspondances[slot] != requete.size()) {
+                    continue;
+                }
+
+                boolean villeOk = villeFiltre == Facette.AUCUNE || villeFiltre == villes[slot];
+                boolean niveauOk = niveauFiltre == Facette.AUCUNE || niveauFiltre == niveaux[slot];
+                if (niveauOk && villes[slot] != Facette.AUCUNE) {
+                    comptesVilles[villes[slot]]++;
+                }
+                if (villeOk && niveaux[slot] != Facette.AUCUNE) {
+                    comptesNiveaux[niveaux[slot]]++;
+                }
+                if (villeOk && niveauOk) {
+                    total++;
+                    meilleurs.proposer(slot);
+                }
+            }
+
+            int[] classes = meilleurs.classes();
+            List<Integer> ids = new ArrayList<>();
+            for (int i = Math.max(0, debut); i < classes.length; i++) {
+                ids.add(enfantIds[classes[i]]);
+            }
+
+            return new Resultat(ids, total, facetteVilles.libeller(comptesVilles), facetteNiveaux.libeller(comptesNiveaux));
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Minuscules sans accents ni espaces superflus ; chaîne vide pour une valeur absente
+     */
+    static String normaliser(String valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        String sansAccents = ACCENTS.matcher(Normalizer.normalize(valeur, Normalizer.Form.NFD)).replaceAll("");
+        return sansAccents.toLowerCase(Locale.ROOT).trim();
+    }
+
+    static List<String> analyser(String texte) {
+        List<String> jetons = new ArrayList<>();
+        for (String jeton : SEPARATEURS.split(normaliser(texte))) {
+            if (jeton.length() >= 2 && !MOTS_VIDES.contains(jeton)) {
+                jetons.add(jeton);
+            }
+        }
+        return jetons;
+    }
+
+    private void noter(List<String> requete, float[] scores, int[] correspondances) {
+        int documents = slotParEnfant.size();
+        float longueurMoyenne = documents == 0 ? 1f : (float) (longueurTotale / documents);
+        int[] vu = new int[nombreSlots];
+
+        for (int i = 0; i < requete.size(); i++) {
+            String jeton = requete.get(i);
+            int marque = i + 1;
+
+            Map<String, Postings> expansions;
+            if (i == requete.size() - 1) {
+                expansions = postings.subMap(jeton, true, jeton + Character.MAX_VALUE, false);
+            } else {
+                Postings exact = postings.get(jeton);
+                expansions = exact != null ? Map.of(jeton, exact) : Map.of();
+            }
+
+            int parcourues = 0;
+            for (Map.Entry<String, Postings> expansion : expansions.entrySet()) {
+                if (parcourues++ >= EXPANSIONS_MAX) {
+                    break;
+                }
+                Postings liste = expansion.getValue();
+                float bonus = expansion.getKey().equals(jeton) ? 1f : POIDS_PREFIXE;
+                double idf = Math.log(1 + (documents - liste.taille + 0.5) / (liste.taille + 0.5));
+
+                for (int p = 0; p < liste.taille; p++) {
+                    int slot = liste.slots[p];
+                    float tf = liste.poids[p];
+                    float norme = K1 * (1 - B + B * longueurs[slot] / longueurMoyenne);
+                    scores[slot] += (float) (bonus * idf * tf * (K1 + 1) / (tf + norme));
+                    if (vu[slot] != marque) {
+                        vu[slot] = marque;
+                        correspondances[slot]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private void retirer(int enfantId) {
+        Integer slot = slotParEnfant.remove(enfantId);
+        if (slot == null) {
+            return;
+        }
+        for (String terme : termes[slot]) {
+            Postings liste = postings.get(terme);
+            if (liste != null && liste.retirer(slot) == 0) {
+                postings.remove(terme);
+            }
+        }
+        longueurTotale -= longueurs[slot];
+        enfantIds[slot] = LIBRE;
+        villes[slot] = Facette.AUCUNE;
+        niveaux[slot] = Facette.AUCUNE;
+        termes[slot] = null;
+        longueurs[slot] = 0;
+        slotsLibres.push(slot);
+    }
+
+    private int allouerSlot() {
+        if (!slotsLibres.isEmpty()) {
+            return slotsLibres.pop();
+        }
+        if (nombreSlots == enfantIds.length) {
+            int capacite = Math.max(1024, enfantIds.length * 2);
+            enfantIds = Arrays.copyOf(enfantIds, capacite);
+            villes = Arrays.copyOf(villes, capacite);
+            niveaux = Arrays.copyOf(niveaux, capacite);
+            termes = Arrays.copyOf(termes, capacite);
+            longueurs = Arrays.copyOf(longueurs, capacite);
+        }
+        return nombreSlots++;
+    }
+
+    private static void ajouterChamp(Map<String, Float> poids, String valeur, float poidsChamp) {
+        for (String jeton : analyser(valeur)) {
+            poids.merge(jeton, poidsChamp, Float::sum);
+        }
+    }
+
+    /**
+     * Identifiants de la page demandée (classés), nombre total de correspondances et facettes
+     */
+    public record Resultat(List<Integer> enfantIds, long total,
+                           Map<String, Long> facettesVilles, Map<String, Long> facettesNiveaux) {}
+
+    /**
+     * Valeurs d'une facette codées par entier (clé normalisée -> code, code -> premier libellé rencontré)
+     */
+    private static final class Facette {
+        static final int AUCUNE = -1;
+        static final int INCONNUE = -2;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> libelles = new ArrayList<>();
+
+        int coder(String valeur) {
+            String cle = normaliser(valeur);
+            if (cle.isEmpty()) {
+                return AUCUNE;
+            }
+            return codes.computeIfAbsent(cle, c -> {
+                libelles.add(valeur.trim());
+                return libelles.size() - 1;
+            });
+        }
+
+        int code(String valeur) {
+            String cle = normaliser(valeur);
+            return cle.isEmpty() ? AUCUNE : codes.getOrDefault(cle, INCONNUE);
+        }
+
+        int taille() {
+            return libelles.size();
+        }
+
+        Map<String, Long> libeller(long[] comptes) {
+            Integer[] ordre = new Integer[comptes.length];
+            for (int i = 0; i < ordre.length; i++) {
+                ordre[i] = i;
+            }
+            Arrays.sort(ordre, Comparator.<Integer>comparingLong(i -> comptes[i]).reversed()
+                    .thenComparing(libelles::get));
+
+            Map<String, Long> resultat = new LinkedHashMap<>();
+            for (int code : ordre) {
+                if (comptes[code] > 0) {
+                    resultat.put(libelles.get(code), comptes[code]);
+                }
+            }
+            return resultat;
+        }
+    }
+
+    /**
+     * Tas binaire des k meilleurs emplacements : score puis identifiant d'enfant le plus élevé
+     * La racine est le moins bon des emplacements gardés
+     */
+    private final class Meilleurs {
+        private final int[] tas;
+        private final float[] scores;
+        private int taille;
+
+        Meilleurs(int capacite, float[] scores) {
+            this.tas = new int[capacite];
+            this.scores = scores;
+        }
+
+        void proposer(int slot) {
+            if (taille < tas.length) {
+                tas[taille] = slot;
+                monter(taille++);
+            } else if (taille > 0 && meilleur(slot, tas[0])) {
+                tas[0] = slot;
+                descendre(0);
+            }
+        }
+
+        int[] classes() {
+            // Extraction successive de la racine (le moins bon) en partant de la fin du tableau
+            int[] copie = Arrays.copyOf(tas, taille);
+            int[] classes = new int[taille];
+            int restants = taille;
+            for (int i = taille - 1; i >= 0; i--) {
+                classes[i] = copie[0];
+                copie[0] = copie[--restants];
+                descendre(copie, restants, 0);
+            }
+            return classes;
+        }
+
+        private boolean meilleur(int a, int b) {
+            if (scores[a] != scores[b]) {
+                return scores[a] > scores[b];
+            }
+            return enfantIds[a] > enfantIds[b];
+        }
+
+        private void monter(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!meilleur(tas[parent], tas[i])) {
+                    break;
+                }
+                echanger(tas, parent, i);
+                i = parent;
+            }
+        }
+
+        private void descendre(int i) {
+            descendre(tas, taille, i);
+        }
+
+        private void descendre(int[] t, int n, int i) {
+            while (true) {
+                int gauche = 2 * i + 1;
+                int droite = gauche + 1;
+                int pire = i;
+                if (gauche < n && meilleur(t[pire], t[gauche])) {
+                    pire = gauche;
+                }
+                if (droite < n && meilleur(t[pire], t[droite])) {
+                    pire = droite;
+                }
+                if (pire == i) {
+                    return;
+                }
+                echanger(t, i, pire);
+                i = pire;
+            }
+        }
+
+        private static void echanger(int[] t, int a, int b) {
+            int temp = t[a];
+            t[a] = t[b];
+            t[b] = temp;
+        }
+    }
+
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private float[] poids = new float[4];
+        private int taille;
+
+        void ajouter(int slot, float valeur) {
+            if (taille == slots.length) {
+                slots = Arrays.copyOf(slots, taille * 2);
+                poids = Arrays.copyOf(poids, taille * 2);
+            }
+            slots[taille] = slot;
+            poids[taille] = valeur;
+            taille++;
+        }
+
+        int retirer(int slot) {
+            for (int i = 0; i < taille; i++) {
+                if (slots[i] == slot) {
+                    taille--;
+                    slots[i] = slots[taille];
+                    poids[i] = poids[taille];
+                    break;
+                }
+            }
+            return taille;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.groupe2_ionic.eduka.services.recherche;
+
+import com.groupe2_ionic.eduka.dto.EnfantIndexeDto;
+import com.groupe2_ionic.eduka.dto.EnfantResponseDto;
+import com.groupe2_ionic.eduka.dto.RechercheEnfantsDto;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.services.EnfantService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche des enfants disponibles pour parrainage via l'index en mémoire {@link IndexEnfants}
+ *
+ * L'index est construit au démarrage puis mis à jour après chaque commit modifiant un enfant
+ * (création, modification, suppression, début ou fin de parrainage). Il est reconstruit périodiquement
+ * pour intégrer les modifications faites par les autres instances et celles des organisations (nom, ville).
+ * Tant que le premier index n'est pas construit, la recherche est servie par la requête de parcours en base.
+ */
+@Slf4j
+@Service
+public class RechercheEnfantsService {
+
+    private static final int TAILLE_LOT_CHARGEMENT = 5000;
+    private static final int TAILLE_MAX = 100;
+
+    private final EnfantRepository enfantRepository;
+    private final Timer dureeRecherche;
+    private final AtomicBoolean reconstructionEnCours = new AtomicBoolean();
+    private final Set<Integer> modifiesPendantReconstruction = ConcurrentHashMap.newKeySet();
+
+    private volatile IndexEnfants index;
+
+    public RechercheEnfantsService(EnfantRepository enfantRepository, MeterRegistry meterRegistry) {
+        this.enfantRepository = enfantRepository;
+        this.dureeRecherche = Timer.builder("eduka.recherche.enfants.duree")
+                .description("Durée de la recherche dans l'index (hors chargement des résultats)")
+                .register(meterRegistry);
+        Gauge.builder("eduka.recherche.enfants.documents", this, s -> s.index != null ? s.index.taille() : 0)
+                .description("Enfants disponibles présents dans l'index de recherche")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construireAuDemarrage() {
+        Thread.ofVirtual().name("index-enfants").start(this::reconstruire);
+    }
+
+    @Scheduled(fixedDelayString = "${recherche.enfants.reconstruction-ms:900000}",
+            initialDelayString = "${recherche.enfants.reconstruction-ms:900000}")
+    public void reconstruirePeriodiquement() {
+        reconstruire();
+    }
+
+    /**
+     * Reconstruit l'index complet à partir de la base puis remplace l'index courant
+     * Les enfants modifiés pendant le chargement sont rechargés dans le nouvel index
+     */
+    public void reconstruire() {
+        if (!reconstructionEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long debut = System.currentTimeMillis();
+            modifiesPendantReconstruction.clear();
+
+            IndexEnfants nouvelIndex = new IndexEnfants();
+            int dernierId = 0;
+            List<EnfantIndexeDto> lot;
+            do {
+                lot = enfantRepository.findIndexablesApres(dernierId, PageRequest.of(0, TAILLE_LOT_CHARGEMENT));
+                lot.forEach(nouvelIndex::indexer);
+                if (!lot.isEmpty()) {
+                    dernierId = lot.get(lot.size() - 1).getId();
+                }
+            } while (lot.size() == TAILLE_LOT_CHARGEMENT);
+
+            index = nouvelIndex;
+            for (Integer enfantId : modifiesPendantReconstruction) {
+                actualiser(nouvelIndex, enfantId);
+            }
+            log.info("Index de recherche des enfants construit : {} enfants en {} ms",
+                    nouvelIndex.taille(), System.currentTimeMillis() - debut);
+        } catch (Exception e) {
+            log.error("Échec de la construction de l'index de recherche des enfants", e);
+        } finally {
+            reconstructionEnCours.set(false);
+        }
+    }
+
+    /**
+     * Met à jour l'index une fois la modification de l'enfant validée en base
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnfantModifie(EnfantService.EnfantModifieEvent event) {
+        if (reconstructionEnCours.get()) {
+            modifiesPendantReconstruction.add(event.getEnfantId());
+        }
+        IndexEnfants courant = index;
+        if (courant != null) {
+            actualiser(courant, event.getEnfantId());
+        }
+    }
+
+    /**
+     * Recherche classée des enfants disponibles avec facettes par ville et par niveau scolaire
+     * Pendant la construction de l'index : résultats de la base filtrés par ville et niveau, sans classement
+     * par le texte ni facettes
+     */
+    public RechercheEnfantsDto rechercher(String texte, String ville, String niveauScolaire, int page, int taille) {
+        int pageEffective = Math.max(0, page);
+        int tailleEffective = Math.min(Math.max(1, taille), TAILLE_MAX);
+        IndexEnfants courant = index;
+        if (courant == null) {
+            return rechercherEnBase(ville, niveauScolaire, pageEffective, tailleEffective);
+        }
+
+        int debut = (int) Math.min((long) pageEffective * tailleEffective, Integer.MAX_VALUE);
+        IndexEnfants.Resultat resultat = dureeRecherche.record(() -> courant.rechercher(
+                texte, ville, niveauScolaire, debut, tailleEffective));
+
+        return new RechercheEnfantsDto(charger(resultat.enfantIds()), resultat.total(),
+                pageEffective, tailleEffective, resultat.facettesVilles(), resultat.facettesNiveaux());
+    }
+
+    private RechercheEnfantsDto rechercherEnBase(String ville, String niveauScolaire, int page, int taille) {
+        Page<EnfantResponseDto> resultats = enfantRepository.findEnfantsDisponiblesDto(
+                null, ville, niveauScolaire, PageRequest.of(page, taille));
+        return new RechercheEnfantsDto(resultats.getContent(), resultats.getTotalElements(), page, taille,
+                Map.of(), Map.of());
+    }
+
+    private List<EnfantResponseDto> charger(List<Integer> enfantIds) {
+        if (enfantIds.isEmpty()) {
+            return List.of();
+        }
+        // Une seule requête par page, remise dans l'ordre du classement
+        Map<Integer, Integer> rang = enfantIds.stream()
+                .collect(Collectors.toMap(Function.identity(), enfantIds::indexOf));
+        return enfantRepository.findEnfantsDisponiblesDtoByIds(enfantIds).stream()
+                .sorted(Comparator.comparing(enfant -> rang.get(enfant.getId())))
+                .toList();
+    }
+
+    private void actualiser(IndexEnfants cible, int enfantId) {
+        enfantRepository.findIndexableById(enfantId)
+                .ifPresentOrElse(cible::indexer, () -> cible.supprimer(enfantId));
+    }
+}
@@ -0,0 +1,35 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fournisseur SMS appelé par le routage
+ */
+public interface FournisseurSms {
+
+    /**
+     * Nom du fournisseur dans l'ordre de routage (ex. ORANGE_SMS)
+     */
+    String nom();
+
+    /**
+     * Indique si les identifiants du fournisseur sont renseignés ; un fournisseur non configuré n'est pas routé
+     */
+    boolean configure();
+
+    /**
+     * Destinataires acceptés dans une même requête pour un message identique (1 si l'API n'envoie qu'à un numéro)
+     */
+    default int destinatairesParRequete() {
+        return 1;
+    }
+
+    /**
+     * Envoie un même message à des destinataires en une requête
+     * Retourne les destinataires refusés par le fournisseur (numéro non desservi, invalide), avec le motif :
+     * ils sont proposés au fournisseur suivant sans pénaliser celui-ci.
+     * Une exception signale une défaillance du fournisseur : tout le lot bascule vers le fournisseur suivant.
+     */
+    Map<String, String> envoyer(List<String> destinataires, String message);
+}
@@ -0,0 +1,44 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AWS SNS - 100 SMS gratuits par mois
+ * Idéal pour: Production avec volume modéré
+ */
+@Component
+@Slf4j
+public class FournisseurSmsAwsSns implements FournisseurSms {
+
+    @Value("${aws.sns.region:us-east-1}")
+    private String awsRegion;
+
+    @Value("${aws.access.key.id:}")
+    private String awsAccessKeyId;
+
+    @Value("${aws.secret.access.key:}")
+    private String awsSecretAccessKey;
+
+    @Override
+    public String nom() {
+        return "AWS_SNS";
+    }
+
+    @Override
+    public boolean configure() {
+        return !awsAccessKeyId.isEmpty() && !awsSecretAccessKey.isEmpty();
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        // Note: Nécessite AWS SDK (signature V4) pour une implémentation complète
+        String numeroDestinataire = destinataires.getFirst();
+        log.info("SMS AWS SNS ({}) simulé avec succès à {}: {}", awsRegion, numeroDestinataire, message);
+        return Map.of();
+    }
+}
@@ -0,0 +1,72 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API Orange SMS Mali : numéros maliens uniquement, les autres sont laissés aux fournisseurs suivants
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FournisseurSmsOrange implements FournisseurSms {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${sms.orange.api.url:https://api.orange.com/smsmessaging/v1/outbound}")
+    private String orangeSmsApiUrl;
+
+    @Value("${sms.orange.access.token:}")
+    private String orangeAccessToken;
+
+    @Override
+    public String nom() {
+        return "ORANGE_SMS";
+    }
+
+    @Override
+    public boolean configure() {
+        return !orangeAccessToken.isEmpty();
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        String numeroDestinataire = destinataires.getFirst();
+        // Validation du numéro malien
+        if (!numeroDestinataire.matches("^\\+223[67]\\d{7}$")) {
+            return Map.of(numeroDestinataire, "Numéro de téléphone malien invalide");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(orangeAccessToken);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("outboundSMSMessageRequest", Map.of(
+                "address", "tel:" + numeroDestinataire,
+                "senderAddress", "tel:+22300000000", // Numéro expéditeur Orange
+                "outboundSMSTextMessage", Map.of("message", message)
+        ));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                orangeSmsApiUrl + "/requests", new HttpEntity<>(requestBody, headers), String.class);
+
+        if (response.getStatusCode() != HttpStatus.CREATED) {
+            throw new IllegalStateException("Réponse Orange SMS inattendue: " + response.getStatusCode());
+        }
+        log.info("SMS Orange envoyé avec succès à {}", numeroDestinataire);
+        return Map.of();
+    }
+}
@@ -0,0 +1,74 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plivo - Crédit gratuit pour débuter
+ * L'API accepte plusieurs destinataires par requête (numéros séparés par "<")
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FournisseurSmsPlivo implements FournisseurSms {
+
+    /**
+     * Destinataires maximum d'une requête d'envoi groupé Plivo
+     */
+    private static final int DESTINATAIRES_MAX = 1_000;
+
+    private final RestTemplate restTemplate;
+
+    @Value("${sms.plivo.auth.id:}")
+    private String plivoAuthId;
+
+    @Value("${sms.plivo.auth.token:}")
+    private String plivoAuthToken;
+
+    @Value("${sms.plivo.from:+1234567890}")
+    private String plivoFrom;
+
+    @Override
+    public String nom() {
+        return "PLIVO";
+    }
+
+    @Override
+    public boolean configure() {
+        return !plivoAuthId.isEmpty() && !plivoAuthToken.isEmpty();
+    }
+
+    @Override
+    public int destinatairesParRequete() {
+        return DESTINATAIRES_MAX;
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        String plivoUrl = String.format("https://api.plivo.com/v1/Account/%s/Message/", plivoAuthId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBasicAuth(plivoAuthId, plivoAuthToken);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("src", plivoFrom);
+        requestBody.put("dst", String.join("<", destinataires));
+        requestBody.put("text", message);
+
+        // Plivo répond 202 Accepted ; les erreurs HTTP font basculer le lot entier
+        restTemplate.postForEntity(plivoUrl, new HttpEntity<>(requestBody, headers), String.class);
+        log.info("SMS Plivo envoyé avec succès à {} destinataire(s)", destinataires.size());
+        return Map.of();
+    }
+}
@@ -0,0 +1,67 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TextBelt - 1 SMS gratuit par jour
+ * Idéal pour: Tests et développement
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FournisseurSmsTextBelt implements FournisseurSms {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${sms.textbelt.api.url:https://textbelt.com/text}")
+    private String textbeltApiUrl;
+
+    @Value("${sms.textbelt.api.key:textbelt}")
+    private String textbeltApiKey;
+
+    @Override
+    public String nom() {
+        return "TEXTBELT";
+    }
+
+    @Override
+    public boolean configure() {
+        return !textbeltApiKey.isEmpty();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        String numeroDestinataire = destinataires.getFirst();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("phone", numeroDestinataire);
+        requestBody.put("message", message);
+        requestBody.put("key", textbeltApiKey);
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+                textbeltApiUrl, new HttpEntity<>(requestBody, headers), Map.class);
+
+        Map body = response.getBody();
+        if (body == null || !Boolean.TRUE.equals(body.get("success"))) {
+            // Quota épuisé ou clé invalide : le fournisseur ne peut plus envoyer
+            throw new IllegalStateException("Échec envoi SMS TextBelt: " + (body != null ? body.get("error") : "réponse vide"));
+        }
+        log.info("SMS TextBelt envoyé avec succès à {}", numeroDestinataire);
+        return Map.of();
+    }
+}
@@ -0,0 +1,76 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Twilio (pour usage international), un destinataire par requête
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FournisseurSmsTwilio implements FournisseurSms {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${sms.twilio.account.sid:}")
+    private String twilioAccountSid;
+
+    @Value("${sms.twilio.auth.token:}")
+    private String twilioAuthToken;
+
+    @Value("${sms.twilio.phone.number:}")
+    private String twilioPhoneNumber;
+
+    @Override
+    public String nom() {
+        return "TWILIO";
+    }
+
+    @Override
+    public boolean configure() {
+        return !twilioAccountSid.isEmpty() && !twilioAuthToken.isEmpty() && !twilioPhoneNumber.isEmpty();
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        String numeroDestinataire = destinataires.getFirst();
+        String twilioUrl = "https://api.twilio.com/2010-04-01/Accounts/" + twilioAccountSid + "/Messages.json";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setBasicAuth(twilioAccountSid, twilioAuthToken);
+
+        MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
+        requestBody.add("From", twilioPhoneNumber);
+        requestBody.add("To", numeroDestinataire);
+        requestBody.add("Body", message);
+
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    twilioUrl, new HttpEntity<>(requestBody, headers), String.class);
+            if (response.getStatusCode() != HttpStatus.CREATED) {
+                throw new IllegalStateException("Réponse Twilio inattendue: " + response.getStatusCode());
+            }
+        } catch (HttpClientErrorException.BadRequest e) {
+            // Numéro refusé (invalide ou non desservi) : le fournisseur lui-même répond
+            return Map.of(numeroDestinataire, "Numéro refusé par Twilio");
+        }
+        log.info("SMS Twilio envoyé avec succès à {}", numeroDestinataire);
+        return Map.of();
+    }
+}
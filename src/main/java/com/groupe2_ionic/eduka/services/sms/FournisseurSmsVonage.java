@@ -0,0 +1,70 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vonage (ex-Nexmo) - 2€ de crédit gratuit
+ * Idéal pour: Tests internationaux
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FournisseurSmsVonage implements FournisseurSms {
+
+    private static final String VONAGE_URL = "https://rest.nexmo.com/sms/json";
+
+    private final RestTemplate restTemplate;
+
+    @Value("${sms.vonage.api.key:}")
+    private String vonageApiKey;
+
+    @Value("${sms.vonage.api.secret:}")
+    private String vonageApiSecret;
+
+    @Value("${sms.vonage.from:EduKa}")
+    private String vonageFrom;
+
+    @Override
+    public String nom() {
+        return "VONAGE";
+    }
+
+    @Override
+    public boolean configure() {
+        return !vonageApiKey.isEmpty() && !vonageApiSecret.isEmpty();
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        String numeroDestinataire = destinataires.getFirst();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("from", vonageFrom);
+        requestBody.put("to", numeroDestinataire);
+        requestBody.put("text", message);
+        requestBody.put("api_key", vonageApiKey);
+        requestBody.put("api_secret", vonageApiSecret);
+
+        try {
+            restTemplate.postForEntity(VONAGE_URL, new HttpEntity<>(requestBody, headers), String.class);
+        } catch (HttpClientErrorException.BadRequest e) {
+            return Map.of(numeroDestinataire, "Numéro refusé par Vonage");
+        }
+        log.info("SMS Vonage envoyé avec succès à {}", numeroDestinataire);
+        return Map.of();
+    }
+}
@@ -0,0 +1,205 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Routage des SMS entre les fournisseurs configurés
+ *
+ * Les fournisseurs sont essayés dans l'ordre de préférence (sms.routage.ordre). Chacun a son seau à jetons,
+ * dimensionné sur son quota : quand l'attente d'un jeton dépasserait le maximum réglé, les destinataires passent
+ * au fournisseur suivant. Un fournisseur en échec répété ou trop lent est mis en quarantaine et ses envois
+ * basculent automatiquement sur les suivants jusqu'à ce qu'une requête d'essai réussisse.
+ * Un même message destiné à plusieurs numéros part en une requête chez les fournisseurs qui l'acceptent.
+ * Sans aucun fournisseur configuré, les envois sont simulés (journalisés), comme en développement.
+ */
+@Slf4j
+@Service
+public class RoutageSms {
+
+    private final List<Route> routes = new ArrayList<>();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier horloge;
+
+    @Autowired
+    public RoutageSms(List<FournisseurSms> fournisseurs, RoutageSmsProperties properties, MeterRegistry meterRegistry) {
+        this(fournisseurs, properties, meterRegistry, System::nanoTime);
+    }
+
+    RoutageSms(List<FournisseurSms> fournisseurs, RoutageSmsProperties properties, MeterRegistry meterRegistry,
+               LongSupplier horloge) {
+        this.meterRegistry = meterRegistry;
+        this.horloge = horloge;
+
+        Map<String, FournisseurSms> parNom = fournisseurs.stream()
+                .collect(Collectors.toMap(FournisseurSms::nom, Function.identity()));
+        for (String nom : new LinkedHashSet<>(properties.getOrdre())) {
+            FournisseurSms fournisseur = parNom.get(nom);
+            if (fournisseur == null) {
+                log.warn("Fournisseur SMS inconnu dans l'ordre de routage: {}", nom);
+            } else if (!fournisseur.configure()) {
+                log.info("Fournisseur SMS {} non configuré, ignoré par le routage", nom);
+            } else {
+                routes.add(new Route(fournisseur, properties.pour(nom)));
+            }
+        }
+
+        if (routes.isEmpty()) {
+            log.warn("Aucun fournisseur SMS configuré, les envois seront simulés");
+        } else {
+            log.info("Routage SMS: {}", routes.stream().map(r -> r.fournisseur.nom()).toList());
+        }
+    }
+
+    /**
+     * Envoie un SMS à un destinataire
+     */
+    public boolean envoyer(String numeroDestinataire, String message) {
+        Map<String, String> erreurs = envoyer(List.of(numeroDestinataire), message);
+        erreurs.values().forEach(erreur -> log.error("Échec de l'envoi SMS à {}: {}", numeroDestinataire, erreur));
+        return erreurs.isEmpty();
+    }
+
+    /**
+     * Envoie un même message à plusieurs destinataires
+     * Retourne les destinataires qu'aucun fournisseur n'a servis, avec le dernier motif d'échec (vide si tout est parti)
+     */
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        List<String> restants = destinataires.stream().distinct().toList();
+        Map<String, String> motifs = new HashMap<>();
+        if (routes.isEmpty()) {
+            restants.forEach(destinataire -> simulerEnvoiSms(destinataire, message));
+            return motifs;
+        }
+
+        for (Route route : routes) {
+            if (restants.isEmpty()) {
+                break;
+            }
+            restants = route.envoyer(restants, message, motifs);
+        }
+
+        Map<String, String> erreurs = new HashMap<>();
+        restants.forEach(d -> erreurs.put(d, motifs.getOrDefault(d, "Aucun fournisseur SMS disponible")));
+        return erreurs;
+    }
+
+    /**
+     * Indique si le fournisseur est routé et hors quarantaine
+     */
+    public boolean disponible(String fournisseur) {
+        return routes.stream().anyMatch(r -> r.fournisseur.nom().equals(fournisseur) && r.sante.disponible());
+    }
+
+    /**
+     * Simule l'envoi d'un SMS (pour développement/test)
+     */
+    private void simulerEnvoiSms(String numeroDestinataire, String message) {
+        log.info("=== SIMULATION SMS ===");
+        log.info("Destinataire: {}", numeroDestinataire);
+        log.info("Message: {}", message);
+        log.info("======================");
+    }
+
+    private final class Route {
+
+        private final FournisseurSms fournisseur;
+        private final SeauJetons seau;
+        private final SanteFournisseurSms sante;
+        private final int destinatairesParRequete;
+        private final long attenteMaxNanos;
+        private final Timer succes;
+        private final Timer echecs;
+        private final Counter messages;
+
+        Route(FournisseurSms fournisseur, RoutageSmsProperties.Reglages reglages) {
+            this.fournisseur = fournisseur;
+            this.seau = new SeauJetons(reglages.getMessagesParSeconde(), reglages.getRafale(), horloge);
+            this.sante = new SanteFournisseurSms(reglages.getEchecsAvantQuarantaine(),
+                    TimeUnit.MILLISECONDS.toNanos(reglages.getLatenceMaxMs()),
+                    TimeUnit.SECONDS.toNanos(reglages.getQuarantaineSecondes()), horloge);
+            // Un lot ne dépasse pas la rafale : le seau ne contient jamais plus de jetons que la rafale
+            int parRequete = Math.min(fournisseur.destinatairesParRequete(), reglages.getDestinatairesParRequete());
+            if (reglages.getMessagesParSeconde() > 0) {
+                parRequete = Math.min(parRequete, reglages.getRafale());
+            }
+            this.destinatairesParRequete = Math.max(1, parRequete);
+            this.attenteMaxNanos = TimeUnit.MILLISECONDS.toNanos(reglages.getAttenteMaxMs());
+
+            String nom = fournisseur.nom();
+            this.succes = Timer.builder("eduka.sms.requetes").tag("fournisseur", nom).tag("resultat", "succes")
+                    .register(meterRegistry);
+            this.echecs = Timer.builder("eduka.sms.requetes").tag("fournisseur", nom).tag("resultat", "echec")
+                    .register(meterRegistry);
+            this.messages = Counter.builder("eduka.sms.messages").tag("fournisseur", nom).register(meterRegistry);
+            Gauge.builder("eduka.sms.fournisseurs.disponible", sante, s -> s.disponible() ? 1 : 0)
+                    .tag("fournisseur", nom).register(meterRegistry);
+            Gauge.builder("eduka.sms.fournisseurs.latence", sante, SanteFournisseurSms::latenceMoyenneMs)
+                    .tag("fournisseur", nom).baseUnit("milliseconds").register(meterRegistry);
+        }
+
+        /**
+         * Envoie le message par requêtes de {@code destinatairesParRequete} numéros
+         * Retourne les destinataires à proposer au fournisseur suivant
+         */
+        List<String> envoyer(List<String> destinataires, String message, Map<String, String> motifs) {
+            List<String> reportes = new ArrayList<>();
+            for (int debut = 0; debut < destinataires.size(); debut += destinatairesParRequete) {
+                List<String> lot = destinataires.subList(debut, Math.min(debut + destinatairesParRequete, destinataires.size()));
+
+                if (!sante.autoriser()) {
+                    reporter(destinataires.subList(debut, destinataires.size()), "fournisseur en quarantaine", reportes, motifs);
+                    break;
+                }
+                long attente = seau.reserver(lot.size(), attenteMaxNanos);
+                if (attente < 0) {
+                    sante.enregistrerAbandon();
+                    reporter(destinataires.subList(debut, destinataires.size()), "quota atteint", reportes, motifs);
+                    break;
+                }
+                if (attente > 0) {
+                    LockSupport.parkNanos(attente);
+                }
+
+                long depart = System.nanoTime();
+                try {
+                    Map<String, String> refus = fournisseur.envoyer(lot, message);
+                    long duree = System.nanoTime() - depart;
+                    sante.enregistrerSucces(duree);
+                    succes.record(duree, TimeUnit.NANOSECONDS);
+                    messages.increment(lot.size() - refus.size());
+                    reportes.addAll(refus.keySet());
+                    refus.forEach((destinataire, motif) -> motifs.put(destinataire, fournisseur.nom() + ": " + motif));
+                } catch (RuntimeException e) {
+                    sante.enregistrerEchec();
+                    echecs.record(System.nanoTime() - depart, TimeUnit.NANOSECONDS);
+                    log.warn("Fournisseur SMS {} en échec, bascule de {} destinataire(s): {}",
+                            fournisseur.nom(), lot.size(), e.getMessage());
+                    reporter(lot, e.getMessage(), reportes, motifs);
+                }
+            }
+            return reportes;
+        }
+
+        private void reporter(List<String> destinataires, String motif, List<String> reportes, Map<String, String> motifs) {
+            reportes.addAll(destinataires);
+            destinataires.forEach(destinataire -> motifs.put(destinataire, fournisseur.nom() + ": " + motif));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration du routage SMS : ordre de préférence des fournisseurs, réglages communs et réglages propres
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sms.routage")
+public class RoutageSmsProperties {
+
+    /**
+     * Fournisseurs par ordre de préférence ; les fournisseurs non configurés sont ignorés
+     */
+    private List<String> ordre = new ArrayList<>(List.of("ORANGE_SMS", "TWILIO", "PLIVO", "VONAGE", "TEXTBELT", "AWS_SNS"));
+
+    private Reglages defaut = new Reglages();
+
+    /**
+     * Réglages remplaçant entièrement les réglages communs pour un fournisseur
+     * (ex. sms.routage.fournisseurs[TEXTBELT].messages-par-seconde=1)
+     */
+    private Map<String, Reglages> fournisseurs = new HashMap<>();
+
+    public Reglages pour(String fournisseur) {
+        return fournisseurs.getOrDefault(fournisseur, defaut);
+    }
+
+    @Data
+    public static class Reglages {
+
+        /**
+         * Quota du fournisseur en messages par seconde (0 pour ne pas limiter)
+         */
+        private int messagesParSeconde = 10;
+
+        /**
+         * Messages pouvant partir d'un coup avant d'être espacés au débit du quota
+         */
+        private int rafale = 20;
+
+        /**
+         * Attente maximale d'un jeton avant de passer au fournisseur suivant
+         */
+        private long attenteMaxMs = 2_000;
+
+        /**
+         * Destinataires par requête, dans la limite de ce que l'API du fournisseur accepte et de la rafale
+         */
+        private int destinatairesParRequete = 100;
+
+        /**
+         * Échecs consécutifs déclenchant la mise en quarantaine du fournisseur
+         */
+        private int echecsAvantQuarantaine = 3;
+
+        /**
+         * Latence moyenne au-delà de laquelle le fournisseur est mis en quarantaine (0 pour ignorer la latence)
+         */
+        private long latenceMaxMs = 5_000;
+
+        /**
+         * Durée de la quarantaine avant une requête d'essai
+         */
+        private long quarantaineSecondes = 30;
+    }
+}
@@ -0,0 +1,97 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Santé d'un fournisseur SMS : latence moyenne mobile et échecs consécutifs
+ *
+ * Le fournisseur est mis en quarantaine après {@code echecsMax} échecs consécutifs ou quand sa latence moyenne
+ * dépasse {@code latenceMaxNanos}. À la fin de la quarantaine, une seule requête d'essai est autorisée :
+ * son succès (rapide) rétablit le fournisseur, son échec prolonge la quarantaine.
+ */
+class SanteFournisseurSms {
+
+    /**
+     * Poids de la dernière mesure dans la latence moyenne
+     */
+    private static final double LISSAGE = 0.3;
+
+    private final int echecsMax;
+    private final long latenceMaxNanos;
+    private final long quarantaineNanos;
+    private final LongSupplier horloge;
+
+    private double latenceMoyenneNanos;
+    private int echecsConsecutifs;
+    private long finQuarantaine;
+    private boolean enQuarantaine;
+    private boolean essaiEnCours;
+
+    SanteFournisseurSms(int echecsMax, long latenceMaxNanos, long quarantaineNanos, LongSupplier horloge) {
+        this.echecsMax = Math.max(1, echecsMax);
+        this.latenceMaxNanos = latenceMaxNanos;
+        this.quarantaineNanos = quarantaineNanos;
+        this.horloge = horloge;
+    }
+
+    /**
+     * Indique si une requête peut être envoyée au fournisseur maintenant
+     */
+    synchronized boolean autoriser() {
+        if (!enQuarantaine) {
+            return true;
+        }
+        if (essaiEnCours || horloge.getAsLong() - finQuarantaine < 0) {
+            return false;
+        }
+        essaiEnCours = true;
+        return true;
+    }
+
+    synchronized void enregistrerSucces(long latenceNanos) {
+        echecsConsecutifs = 0;
+        if (enQuarantaine) {
+            // La moyenne repart de l'essai : les mesures d'avant la quarantaine sont périmées
+            latenceMoyenneNanos = latenceNanos;
+        } else {
+            latenceMoyenneNanos = latenceMoyenneNanos == 0 ? latenceNanos
+                    : LISSAGE * latenceNanos + (1 - LISSAGE) * latenceMoyenneNanos;
+        }
+
+        if (latenceMaxNanos > 0 && latenceMoyenneNanos > latenceMaxNanos) {
+            mettreEnQuarantaine();
+        } else {
+            enQuarantaine = false;
+            essaiEnCours = false;
+        }
+    }
+
+    synchronized void enregistrerEchec() {
+        echecsConsecutifs++;
+        if (enQuarantaine || echecsConsecutifs >= echecsMax) {
+            mettreEnQuarantaine();
+        }
+    }
+
+    /**
+     * Rend l'essai autorisé quand la requête n'est finalement pas envoyée
+     */
+    synchronized void enregistrerAbandon() {
+        essaiEnCours = false;
+    }
+
+    synchronized boolean disponible() {
+        return !enQuarantaine;
+    }
+
+    synchronized double latenceMoyenneMs() {
+        return latenceMoyenneNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void mettreEnQuarantaine() {
+        enQuarantaine = true;
+        essaiEnCours = false;
+        finQuarantaine = horloge.getAsLong() + quarantaineNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Seau à jetons d'un fournisseur : une rafale de {@code capacite} messages part immédiatement,
+ * puis les jetons se reconstituent au débit autorisé par le fournisseur
+ * Une réservation peut rendre le solde négatif : l'appelant attend alors le temps de le rembourser, hors verrou
+ */
+class SeauJetons {
+
+    private final double capacite;
+    private final double jetonsParNano;
+    private final LongSupplier horloge;
+    private double jetons;
+    private long derniereRecharge;
+
+    /**
+     * @param messagesParSeconde débit maximum, 0 ou moins pour ne pas limiter
+     */
+    SeauJetons(int messagesParSeconde, int rafale, LongSupplier horloge) {
+        this.capacite = Math.max(1, rafale);
+        this.jetonsParNano = messagesParSeconde > 0 ? messagesParSeconde / (double) TimeUnit.SECONDS.toNanos(1) : 0;
+        this.horloge = horloge;
+        this.jetons = capacite;
+        this.derniereRecharge = horloge.getAsLong();
+    }
+
+    /**
+     * Réserve {@code messages} jetons si l'attente nécessaire ne dépasse pas {@code attenteMaxNanos}
+     * Retourne l'attente à observer avant l'envoi, ou -1 sans rien réserver si elle serait trop longue
+     */
+    synchronized long reserver(int messages, long attenteMaxNanos) {
+        if (jetonsParNano == 0) {
+            return 0;
+        }
+
+        long maintenant = horloge.getAsLong();
+        jetons = Math.min(capacite, jetons + (maintenant - derniereRecharge) * jetonsParNano);
+        derniereRecharge = maintenant;
+
+        double manque = messages - jetons;
+        long attente = manque > 0 ? (long) Math.ceil(manque / jetonsParNano) : 0;
+        if (attente > attenteMaxNanos) {
+            return -1;
+        }
+        jetons -= messages;
+        return attente;
+    }
+}
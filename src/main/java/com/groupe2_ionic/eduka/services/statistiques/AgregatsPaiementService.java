@@ -0,0 +1,255 @@
+package com.groupe2_ionic.eduka.services.statistiques;
+
+import com.groupe2_ionic.eduka.models.AgregatPaiement;
+import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.PorteeAgregat;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.repository.AgregatPaiementRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Agrégats des paiements par parrain, par organisation et par parrainage
+ *
+ * Chaque changement de statut d'un paiement applique une variation dans la transaction du paiement
+ * (mises à jour atomiques en base), de sorte que les statistiques se lisent sans parcourir l'historique.
+ * Une réparation planifiée recalcule le tout depuis les paiements et corrige les écarts éventuels.
+ * Le montant versé d'un parrainage se lit ici : {@code Parrainage.montantTotal} reste le montant promis.
+ */
+@Slf4j
+@Service
+public class AgregatsPaiementService {
+
+    private static final int TAILLE_LOT_REPARATION = 5000;
+
+    private final AgregatPaiementRepository agregatRepository;
+    private final PaiementReposiroty paiementRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate lecture;
+    private final TransactionTemplate nouvelleTransaction;
+
+    public AgregatsPaiementService(AgregatPaiementRepository agregatRepository,
+                                   PaiementReposiroty paiementRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.agregatRepository = agregatRepository;
+        this.paiementRepository = paiementRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Répercute sur les agrégats le changement de statut d'un paiement déjà enregistré
+     *
+     * @param ancienStatut statut avant le changement, null pour un nouveau paiement
+     */
+    @Transactional
+    public void enregistrerTransition(Paiement paiement, StatutPaiement ancienStatut) {
+        boolean etaitReussi = ancienStatut == StatutPaiement.REUSSI;
+        boolean estReussi = paiement.getStatut() == StatutPaiement.REUSSI;
+        long nombre = ancienStatut == null ? 1 : 0;
+        long reussis = estReussi == etaitReussi ? 0 : (estReussi ? 1 : -1);
+        if (nombre == 0 && reussis == 0) {
+            return;
+        }
+
+        // Une annulation ne sait pas rétablir le paiement précédent : la date du dernier paiement reste
+        // celle du paiement annulé jusqu'à la prochaine réparation
+        BigDecimal variationMontant = paiement.getMontant().multiply(BigDecimal.valueOf(reussis));
+        if (paiement.getParrain() != null) {
+            appliquer(PorteeAgregat.PARRAIN, paiement.getParrain().getId(), paiement, nombre, reussis, variationMontant);
+        }
+        if (paiement.getOrganisation() != null) {
+            appliquer(PorteeAgregat.ORGANISATION, paiement.getOrganisation().getId(), paiement, nombre, reussis,
+                    variationMontant);
+        }
+        if (paiement.getParrainage() != null) {
+            appliquer(PorteeAgregat.PARRAINAGE, paiement.getParrainage().getId(), paiement, nombre, reussis,
+                    variationMontant);
+        }
+    }
+
+    /**
+     * Agrégats d'un parrain, d'une organisation ou d'un parrainage, une ligne par méthode de paiement utilisée
+     */
+    @Transactional(readOnly = true)
+    public List<AgregatPaiement> obtenir(PorteeAgregat portee, int cibleId) {
+        return agregatRepository.findByPorteeAndCibleId(portee, cibleId);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal montantReussi(PorteeAgregat portee, int cibleId) {
+        return agregatRepository.sumMontantReussi(portee, cibleId);
+    }
+
+    /**
+     * Construit les agrégats au démarrage s'ils n'existent pas encore (première mise en service)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiserSiVide() {
+        if (agregatRepository.count() == 0) {
+            Thread.ofVirtual().name("agregats-paiement").start(this::reparer);
+        }
+    }
+
+    @Scheduled(cron = "${paiement.agregats.reparation-cron:0 0 4 * * *}")
+    public void reparerPeriodiquement() {
+        reparer();
+    }
+
+    /**
+     * Recalcule tous les agrégats depuis les paiements
+     * Le calcul se fait sur une lecture cohérente, puis chaque écart est corrigé dans sa propre courte transaction
+     * et seulement si l'agrégat n'a pas changé depuis la lecture : une variation appliquée pendant la réparation
+     * n'est jamais écrasée, l'écart éventuel est repris à la réparation suivante
+     *
+     * @return nombre d'agrégats corrigés
+     */
+    public int reparer() {
+        try {
+            long debut = System.currentTimeMillis();
+            List<Correction> ecarts = lecture.execute(status -> calculerEcarts());
+            int corrections = 0;
+            for (Correction correction : ecarts) {
+                if (Boolean.TRUE.equals(transaction.execute(status -> corriger(correction)))) {
+                    corrections++;
+                }
+            }
+            log.info("Agrégats de paiements réparés : {} corrections sur {} écarts en {} ms",
+                    corrections, ecarts.size(), System.currentTimeMillis() - debut);
+            return corrections;
+        } catch (Exception e) {
+            log.error("Échec de la réparation des agrégats de paiements", e);
+            return 0;
+        }
+    }
+
+    private List<Correction> calculerEcarts() {
+        Map<Cle, AgregatPaiement> attendus = new HashMap<>();
+        int dernierId = 0;
+        List<Object[]> lot;
+        do {
+            lot = paiementRepository.findPourAgregatsApres(dernierId, PageRequest.of(0, TAILLE_LOT_REPARATION));
+            for (Object[] ligne : lot) {
+                dernierId = (Integer) ligne[0];
+                cumuler(attendus, PorteeAgregat.PARRAIN, (Integer) ligne[1], ligne);
+                cumuler(attendus, PorteeAgregat.ORGANISATION, (Integer) ligne[2], ligne);
+                cumuler(attendus, PorteeAgregat.PARRAINAGE, (Integer) ligne[7], ligne);
+            }
+        } while (lot.size() == TAILLE_LOT_REPARATION);
+
+        List<Correction> ecarts = new ArrayList<>();
+        for (AgregatPaiement existant : agregatRepository.findAll()) {
+            AgregatPaiement attendu = attendus.remove(
+                    new Cle(existant.getPortee(), existant.getCibleId(), existant.getMethode()));
+            if (attendu == null || !identique(attendu, existant)) {
+                ecarts.add(new Correction(existant, attendu));
+            }
+        }
+        attendus.values().forEach(attendu -> ecarts.add(new Correction(null, attendu)));
+        return ecarts;
+    }
+
+    private boolean corriger(Correction correction) {
+        AgregatPaiement lu = correction.lu();
+        AgregatPaiement attendu = correction.attendu();
+        if (attendu == null) {
+            return agregatRepository.supprimerSiInchange(lu.getPortee(), lu.getCibleId(), lu.getMethode(),
+                    lu.getNombrePaiements(), lu.getNombreReussis(), lu.getMontantReussi()) == 1;
+        }
+        if (lu == null) {
+            creerLigne(attendu.getPortee(), attendu.getCibleId(), attendu.getMethode());
+            lu = new AgregatPaiement(attendu.getPortee(), attendu.getCibleId(), attendu.getMethode());
+        }
+        return agregatRepository.corriger(attendu.getPortee(), attendu.getCibleId(), attendu.getMethode(),
+                lu.getNombrePaiements(), lu.getNombreReussis(), lu.getMontantReussi(),
+                attendu.getNombrePaiements(), attendu.getNombreReussis(), attendu.getMontantReussi(),
+                attendu.getDernierPaiementDate(), attendu.getDernierPaiementMontant()) == 1;
+    }
+
+    private void cumuler(Map<Cle, AgregatPaiement> attendus, PorteeAgregat portee, Integer cibleId, Object[] ligne) {
+        if (cibleId == null || ligne[3] == null) {
+            return;
+        }
+        MethodePaiement methode = (MethodePaiement) ligne[3];
+        Cle cle = new Cle(portee, cibleId, methode);
+        AgregatPaiement agregat = attendus.computeIfAbsent(cle, c -> new AgregatPaiement(portee, cibleId, methode));
+        agregat.setNombrePaiements(agregat.getNombrePaiements() + 1);
+
+        if (ligne[4] != StatutPaiement.REUSSI) {
+            return;
+        }
+        BigDecimal montant = (BigDecimal) ligne[5];
+        LocalDate date = (LocalDate) ligne[6];
+        agregat.setNombreReussis(agregat.getNombreReussis() + 1);
+        agregat.setMontantReussi(agregat.getMontantReussi().add(montant));
+        // Les paiements sont lus par identifiant croissant : à date égale, le plus récent l'emporte
+        if (agregat.getDernierPaiementDate() == null || !date.isBefore(agregat.getDernierPaiementDate())) {
+            agregat.setDernierPaiementDate(date);
+            agregat.setDernierPaiementMontant(montant);
+        }
+    }
+
+    private static boolean identique(AgregatPaiement attendu, AgregatPaiement existant) {
+        return attendu.getNombrePaiements() == existant.getNombrePaiements()
+                && attendu.getNombreReussis() == existant.getNombreReussis()
+                && attendu.getMontantReussi().compareTo(existant.getMontantReussi()) == 0
+                && Objects.equals(attendu.getDernierPaiementDate(), existant.getDernierPaiementDate())
+                && memeMontant(attendu.getDernierPaiementMontant(), existant.getDernierPaiementMontant());
+    }
+
+    private static boolean memeMontant(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private void appliquer(PorteeAgregat portee, int cibleId, Paiement paiement,
+                           long nombre, long reussis, BigDecimal variationMontant) {
+        MethodePaiement methode = paiement.getMethode();
+        if (!agregatRepository.existsByPorteeAndCibleIdAndMethode(portee, cibleId, methode)) {
+            creerLigne(portee, cibleId, methode);
+        }
+        agregatRepository.appliquer(portee, cibleId, methode, nombre, reussis, variationMontant,
+                paiement.getMontant(), paiement.getDatePaiement());
+    }
+
+    /**
+     * Crée la ligne vide dans sa propre transaction : si deux premiers paiements arrivent en même temps,
+     * le doublon est rejeté par la contrainte d'unicité sans annuler la transaction du paiement
+     */
+    private void creerLigne(PorteeAgregat portee, int cibleId, MethodePaiement methode) {
+        try {
+            nouvelleTransaction.executeWithoutResult(status ->
+                    agregatRepository.saveAndFlush(new AgregatPaiement(portee, cibleId, methode)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Agrégat {} {} {} déjà créé par une transaction concurrente", portee, cibleId, methode);
+        }
+    }
+
+    private record Cle(PorteeAgregat portee, int cibleId, MethodePaiement methode) {
+    }
+
+    // Agrégat tel que lu (null s'il manque) et valeurs recalculées (null s'il n'a plus de paiement)
+    private record Correction(AgregatPaiement lu, AgregatPaiement attendu) {
+    }
+}
@@ -0,0 +1,377 @@
+package com.groupe2_ionic.eduka.services.statistiques;
+
+import com.groupe2_ionic.eduka.dto.RapportGlobalDto;
+import com.groupe2_ionic.eduka.models.CurseurStatistiques;
+import com.groupe2_ionic.eduka.models.Organisation;
+import com.groupe2_ionic.eduka.models.StatistiqueJournaliere;
+import com.groupe2_ionic.eduka.models.enums.PorteeStatistique;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.models.enums.StatutValidation;
+import com.groupe2_ionic.eduka.repository.CurseurStatistiquesRepository;
+import com.groupe2_ionic.eduka.repository.DepenseRepository;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.repository.OrganisationRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import com.groupe2_ionic.eduka.repository.ParrainRepository;
+import com.groupe2_ionic.eduka.repository.ParrainageRepository;
+import com.groupe2_ionic.eduka.repository.StatistiqueJournaliereRepository;
+import com.groupe2_ionic.eduka.services.utilitaires.VerrousPlanifies;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Statistiques journalières de la plateforme : cumuls par jour, par pays et par organisation des paiements,
+ * parrainages, enfants, parrains et dépenses
+ *
+ * Un passage planifié recalcule les jours des lignes ajoutées depuis le passage précédent (repérées par
+ * identifiant) ainsi que les derniers jours, où les paiements changent encore de statut. Les rapports d'une période
+ * additionnent alors quelques centaines de lignes de cumul au lieu de parcourir les tables de l'activité.
+ * Une reconstruction complète planifiée rattrape les modifications plus anciennes (dépense corrigée, paiement
+ * remboursé, organisation qui change de pays), ainsi qu'une ligne validée après le passage d'un identifiant
+ * plus grand et dont le jour est sorti des derniers jours.
+ *
+ * Les passages sont réservés à une seule instance à la fois par un verrou en base ({@link VerrousPlanifies}) :
+ * deux instances qui recalculeraient les mêmes jours inséreraient les mêmes cumuls.
+ */
+@Slf4j
+@Service
+public class StatistiquesJournalieresService {
+
+    // Jours recalculés par transaction
+    private static final int JOURS_PAR_LOT = 31;
+    private static final String VERROU = "statistiques-journalieres";
+
+    private final StatistiqueJournaliereRepository statistiqueRepository;
+    private final CurseurStatistiquesRepository curseurRepository;
+    private final PaiementReposiroty paiementRepository;
+    private final ParrainageRepository parrainageRepository;
+    private final EnfantRepository enfantRepository;
+    private final ParrainRepository parrainRepository;
+    private final DepenseRepository depenseRepository;
+    private final OrganisationRepository organisationRepository;
+    private final VerrousPlanifies verrousPlanifies;
+    private final TransactionTemplate transaction;
+    private final Duration dureeVerrou;
+    private final int fenetreJours;
+    private final List<Source> sources;
+
+    public StatistiquesJournalieresService(StatistiqueJournaliereRepository statistiqueRepository,
+                                           CurseurStatistiquesRepository curseurRepository,
+                                           PaiementReposiroty paiementRepository,
+                                           ParrainageRepository parrainageRepository,
+                                           EnfantRepository enfantRepository,
+                                           ParrainRepository parrainRepository,
+                                           DepenseRepository depenseRepository,
+                                           OrganisationRepository organisationRepository,
+                                           VerrousPlanifies verrousPlanifies,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${statistiques.journalieres.fenetre-jours:3}") int fenetreJours,
+                                           @Value("${statistiques.journalieres.verrou-minutes:60}") int verrouMinutes) {
+        this.statistiqueRepository = statistiqueRepository;
+        this.curseurRepository = curseurRepository;
+        this.paiementRepository = paiementRepository;
+        this.parrainageRepository = parrainageRepository;
+        this.enfantRepository = enfantRepository;
+        this.parrainRepository = parrainRepository;
+        this.depenseRepository = depenseRepository;
+        this.organisationRepository = organisationRepository;
+        this.verrousPlanifies = verrousPlanifies;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.dureeVerrou = Duration.ofMinutes(verrouMinutes);
+        this.fenetreJours = fenetreJours;
+        this.sources = List.of(
+                new Source("PAIEMENT", paiementRepository::findDernierId, paiementRepository::findJoursEntre),
+                new Source("PARRAINAGE", parrainageRepository::findDernierId, parrainageRepository::findJoursEntre),
+                new Source("ENFANT", enfantRepository::findDernierId, enfantRepository::findJoursEntre),
+                new Source("PARRAIN", parrainRepository::findDernierId, parrainRepository::findJoursEntre),
+                new Source("DEPENSE", depenseRepository::findDernierId, depenseRepository::findJoursEntre));
+    }
+
+    @Scheduled(fixedDelayString = "${statistiques.journalieres.intervalle-ms:900000}")
+    public void cumulerPeriodiquement() {
+        cumuler();
+    }
+
+    @Scheduled(cron = "${statistiques.journalieres.reconstruction-cron:0 30 4 * * SUN}")
+    public void reconstruirePeriodiquement() {
+        reconstruire();
+    }
+
+    /**
+     * Recalcule les jours touchés par les lignes ajoutées depuis le dernier passage et les derniers jours
+     * Au premier passage, aucune ligne n'est encore cumulée : tous les jours de l'historique sont calculés
+     *
+     * @return nombre de jours recalculés, 0 si une autre instance fait déjà un passage
+     */
+    public synchronized int cumuler() {
+        if (!verrousPlanifies.prendre(VERROU, dureeVerrou)) {
+            log.debug("Statistiques journalières : passage en cours sur une autre instance");
+            return 0;
+        }
+        try {
+            long debut = System.currentTimeMillis();
+            Map<String, Integer> curseurs = new HashMap<>();
+            curseurRepository.findAll().forEach(curseur -> curseurs.put(curseur.getSource(), curseur.getDernierId()));
+
+            SortedSet<LocalDate> jours = new TreeSet<>();
+            Map<String, Integer> derniers = new HashMap<>();
+            for (Source source : sources) {
+                // Le dernier identifiant est lu avant les jours : une ligne ajoutée entre-temps attend le passage suivant
+                int dernierId = source.dernierId().getAsInt();
+                int apresId = curseurs.getOrDefault(source.nom(), 0);
+                if (dernierId > apresId) {
+                    jours.addAll(source.joursEntre().apply(apresId, dernierId));
+                }
+                derniers.put(source.nom(), dernierId);
+            }
+            LocalDate aujourdhui = LocalDate.now();
+            for (int i = 0; i < fenetreJours; i++) {
+                jours.add(aujourdhui.minusDays(i));
+            }
+
+            recalculer(jours, derniers);
+            log.info("Statistiques journalières : {} jours recalculés en {} ms",
+                    jours.size(), System.currentTimeMillis() - debut);
+            return jours.size();
+        } catch (Exception e) {
+            log.error("Échec du cumul des statistiques journalières", e);
+            return 0;
+        } finally {
+            verrousPlanifies.liberer(VERROU);
+        }
+    }
+
+    /**
+     * Recalcule tous les jours, du premier jour d'activité à aujourd'hui, et supprime les cumuls hors de cette période
+     *
+     * @return nombre de jours recalculés, 0 si une autre instance fait déjà un passage
+     */
+    public synchronized int reconstruire() {
+        if (!verrousPlanifies.prendre(VERROU, dureeVerrou)) {
+            log.info("Reconstruction des statistiques journalières : passage en cours sur une autre instance");
+            return 0;
+        }
+        try {
+            long debut = System.currentTimeMillis();
+            SortedSet<LocalDate> actifs = new TreeSet<>();
+            Map<String, Integer> derniers = new HashMap<>();
+            for (Source source : sources) {
+                int dernierId = source.dernierId().getAsInt();
+                actifs.addAll(source.joursEntre().apply(0, dernierId));
+                derniers.put(source.nom(), dernierId);
+            }
+
+            LocalDate aujourdhui = LocalDate.now();
+            LocalDate premier = actifs.isEmpty() || actifs.first().isAfter(aujourdhui) ? aujourdhui : actifs.first();
+            LocalDate dernier = actifs.isEmpty() || actifs.last().isBefore(aujourdhui) ? aujourdhui : actifs.last();
+            SortedSet<LocalDate> jours = new TreeSet<>(premier.datesUntil(dernier.plusDays(1)).toList());
+
+            transaction.executeWithoutResult(status -> statistiqueRepository.supprimerHors(premier, dernier));
+            recalculer(jours, derniers);
+            log.info("Statistiques journalières reconstruites : {} jours en {} ms",
+                    jours.size(), System.currentTimeMillis() - debut);
+            return jours.size();
+        } catch (Exception e) {
+            log.error("Échec de la reconstruction des statistiques journalières", e);
+            return 0;
+        } finally {
+            verrousPlanifies.liberer(VERROU);
+        }
+    }
+
+    /**
+     * Totaux de la plateforme sur une période
+     */
+    @Transactional(readOnly = true)
+    public Totaux totaux(LocalDate dateDebut, LocalDate dateFin) {
+        Object[] ligne = statistiqueRepository.sommerGlobal(dateDebut, dateFin).get(0);
+        return new Totaux(nombre(ligne[0]), montant(ligne[1]), nombre(ligne[2]), nombre(ligne[3]),
+                nombre(ligne[4]), nombre(ligne[5]), montant(ligne[6]));
+    }
+
+    /**
+     * Enfants inscrits et montant des paiements réussis par pays sur une période, avec le nombre d'organisations
+     * validées de chaque pays ; les pays sans activité sur la période suivent, par ordre alphabétique
+     */
+    @Transactional(readOnly = true)
+    public List<RapportGlobalDto.StatistiqueParPaysDto> parPays(LocalDate dateDebut, LocalDate dateFin) {
+        Map<String, Long> organisations = new TreeMap<>();
+        for (Object[] ligne : organisationRepository.countByStatutValidationParPays(StatutValidation.VALIDEE)) {
+            if (ligne[0] != null && !((String) ligne[0]).isBlank()) {
+                organisations.merge(((String) ligne[0]).trim(), nombre(ligne[1]), Long::sum);
+            }
+        }
+
+        List<RapportGlobalDto.StatistiqueParPaysDto> statistiques = new ArrayList<>();
+        for (Object[] ligne : statistiqueRepository.sommerParPays(dateDebut, dateFin)) {
+            String pays = (String) ligne[0];
+            Long nombreOrganisations = organisations.remove(pays);
+            statistiques.add(new RapportGlobalDto.StatistiqueParPaysDto(pays,
+                    nombreOrganisations != null ? nombreOrganisations : 0, nombre(ligne[1]), montant(ligne[2])));
+        }
+        organisations.forEach((pays, nombreOrganisations) -> statistiques.add(
+                new RapportGlobalDto.StatistiqueParPaysDto(pays, nombreOrganisations, 0, BigDecimal.ZERO)));
+        return statistiques;
+    }
+
+    /**
+     * Organisations ayant reçu le plus de paiements réussis sur une période
+     */
+    @Transactional(readOnly = true)
+    public List<RapportGlobalDto.StatistiqueParOrganisationDto> topOrganisations(LocalDate dateDebut,
+                                                                                  LocalDate dateFin, int nombre) {
+        List<Object[]> classement = statistiqueRepository.classerOrganisations(dateDebut, dateFin,
+                PageRequest.of(0, nombre));
+        Map<Integer, Organisation> organisations = new HashMap<>();
+        organisationRepository.findAllById(classement.stream().map(ligne -> (Integer) ligne[0]).toList())
+                .forEach(organisation -> organisations.put(organisation.getId(), organisation));
+
+        List<RapportGlobalDto.StatistiqueParOrganisationDto> top = new ArrayList<>();
+        for (Object[] ligne : classement) {
+            Organisation organisation = organisations.get((Integer) ligne[0]);
+            if (organisation != null) {
+                top.add(new RapportGlobalDto.StatistiqueParOrganisationDto(organisation.getNom(), nombre(ligne[1]),
+                        montant(ligne[2]), organisation.getVille(), organisation.getPays()));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Recalcule les jours par périodes consécutives d'au plus {@link #JOURS_PAR_LOT} jours, une transaction
+     * par période, puis enregistre les derniers identifiants cumulés
+     */
+    private void recalculer(SortedSet<LocalDate> jours, Map<String, Integer> derniers) {
+        Map<Integer, String> pays = paysParOrganisation();
+        LocalDate debut = null;
+        LocalDate fin = null;
+        for (LocalDate jour : jours) {
+            if (debut != null && (!jour.equals(fin.plusDays(1)) || fin.toEpochDay() - debut.toEpochDay() + 1 == JOURS_PAR_LOT)) {
+                recalculerPeriode(debut, fin, pays);
+                debut = null;
+            }
+            if (debut == null) {
+                debut = jour;
+            }
+            fin = jour;
+        }
+        if (debut != null) {
+            recalculerPeriode(debut, fin, pays);
+        }
+
+        transaction.executeWithoutResult(status -> derniers.forEach((source, dernierId) ->
+                curseurRepository.save(new CurseurStatistiques(source, dernierId))));
+    }
+
+    private void recalculerPeriode(LocalDate debut, LocalDate fin, Map<Integer, String> pays) {
+        transaction.executeWithoutResult(status -> {
+            Map<Cle, StatistiqueJournaliere> cumuls = new HashMap<>();
+            for (Object[] ligne : paiementRepository.cumulerParJour(debut, fin, StatutPaiement.REUSSI)) {
+                // Organisation du paiement en espèces, sinon celle de l'enfant parrainé
+                Integer organisationId = ligne[1] != null ? (Integer) ligne[1] : (Integer) ligne[2];
+                cumuler(cumuls, pays, (LocalDate) ligne[0], organisationId, cumul -> {
+                    cumul.setNombrePaiements(cumul.getNombrePaiements() + nombre(ligne[3]));
+                    cumul.setNombreReussis(cumul.getNombreReussis() + nombre(ligne[4]));
+                    cumul.setMontantReussi(cumul.getMontantReussi().add(montant(ligne[5])));
+                });
+            }
+            for (Object[] ligne : parrainageRepository.cumulerParJour(debut, fin)) {
+                cumuler(cumuls, pays, (LocalDate) ligne[0], (Integer) ligne[1], cumul ->
+                        cumul.setNombreParrainages(cumul.getNombreParrainages() + nombre(ligne[2])));
+            }
+            for (Object[] ligne : enfantRepository.cumulerParJour(debut, fin)) {
+                cumuler(cumuls, pays, (LocalDate) ligne[0], (Integer) ligne[1], cumul ->
+                        cumul.setNombreEnfants(cumul.getNombreEnfants() + nombre(ligne[2])));
+            }
+            for (Object[] ligne : parrainRepository.cumulerParJour(debut, fin)) {
+                cumuler(cumuls, pays, (LocalDate) ligne[0], null, cumul ->
+                        cumul.setNombreParrains(cumul.getNombreParrains() + nombre(ligne[1])));
+            }
+            for (Object[] ligne : depenseRepository.cumulerParJour(debut, fin)) {
+                cumuler(cumuls, pays, (LocalDate) ligne[0], (Integer) ligne[1], cumul -> {
+                    cumul.setNombreDepenses(cumul.getNombreDepenses() + nombre(ligne[2]));
+                    cumul.setMontantDepenses(cumul.getMontantDepenses().add(montant(ligne[3])));
+                });
+            }
+
+            statistiqueRepository.supprimerEntre(debut, fin);
+            statistiqueRepository.saveAll(cumuls.values());
+        });
+    }
+
+    /**
+     * Applique une ligne source au cumul global du jour, puis à ceux du pays et de l'organisation s'ils sont connus
+     */
+    private static void cumuler(Map<Cle, StatistiqueJournaliere> cumuls, Map<Integer, String> pays, LocalDate jour,
+                                Integer organisationId, Consumer<StatistiqueJournaliere> ajout) {
+        ajout.accept(cumul(cumuls, PorteeStatistique.GLOBALE, jour, "", 0));
+        if (organisationId == null) {
+            return;
+        }
+        String paysOrganisation = pays.getOrDefault(organisationId, "");
+        if (!paysOrganisation.isEmpty()) {
+            ajout.accept(cumul(cumuls, PorteeStatistique.PAYS, jour, paysOrganisation, 0));
+        }
+        ajout.accept(cumul(cumuls, PorteeStatistique.ORGANISATION, jour, paysOrganisation, organisationId));
+    }
+
+    private static StatistiqueJournaliere cumul(Map<Cle, StatistiqueJournaliere> cumuls, PorteeStatistique portee,
+                                                LocalDate jour, String pays, int organisationId) {
+        return cumuls.computeIfAbsent(new Cle(portee, jour, pays, organisationId),
+                cle -> new StatistiqueJournaliere(portee, jour, pays, organisationId));
+    }
+
+    private Map<Integer, String> paysParOrganisation() {
+        Map<Integer, String> pays = new HashMap<>();
+        for (Object[] ligne : organisationRepository.findPaysParOrganisation()) {
+            if (ligne[1] != null && !((String) ligne[1]).isBlank()) {
+                pays.put((Integer) ligne[0], ((String) ligne[1]).trim());
+            }
+        }
+        return pays;
+    }
+
+    private static long nombre(Object valeur) {
+        return valeur != null ? ((Number) valeur).longValue() : 0;
+    }
+
+    private static BigDecimal montant(Object valeur) {
+        if (valeur == null) {
+            return BigDecimal.ZERO;
+        }
+        return valeur instanceof BigDecimal montant ? montant : new BigDecimal(valeur.toString());
+    }
+
+    /**
+     * Totaux d'une période, lus dans les cumuls de portée globale
+     */
+    public record Totaux(long nombrePaiements, BigDecimal montantReussi, long nombreEnfants, long nombreParrains,
+                         long nombreParrainages, long nombreDepenses, BigDecimal montantDepenses) {
+    }
+
+    private record Source(String nom, IntSupplier dernierId, BiFunction<Integer, Integer, List<LocalDate>> joursEntre) {
+    }
+
+    private record Cle(PorteeStatistique portee, LocalDate jour, String pays, int organisationId) {
+    }
+}
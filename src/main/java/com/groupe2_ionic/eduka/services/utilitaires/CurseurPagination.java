@@ -0,0 +1,71 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pagination par curseur (keyset) des flux triés par date décroissante puis identifiant décroissant
+ *
+ * Le curseur encode la position (date, id) du dernier élément renvoyé ; la page suivante est lue avec
+ * {@code date <= :date AND (date < :date OR id < :id)}, sans OFFSET ni requête COUNT ; la première borne
+ * positionne la lecture de l'index (cible, date, id) sur le curseur, la disjonction seule ne le permet pas.
+ */
+public final class CurseurPagination {
+
+    public static final int TAILLE_PAR_DEFAUT = 20;
+    public static final int TAILLE_MAX = 100;
+
+    private CurseurPagination() {
+    }
+
+    /**
+     * Position du dernier élément d'une page
+     */
+    public record Position(LocalDate date, int id) {}
+
+    public static int taille(Integer taille) {
+        if (taille == null || taille <= 0) {
+            return TAILLE_PAR_DEFAUT;
+        }
+        return Math.min(taille, TAILLE_MAX);
+    }
+
+    public static String encoder(Position position) {
+        String brut = position.date() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur ; {@code null} ou vide pour la première page
+     */
+    public static Position decoder(String curseur) {
+        if (curseur == null || curseur.isBlank()) {
+            return null;
+        }
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            int separateur = brut.indexOf('|');
+            return new Position(LocalDate.parse(brut.substring(0, separateur)),
+                    Integer.parseInt(brut.substring(separateur + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Construit la page à partir des éléments lus avec une taille de {@code taille + 1}
+     * L'élément supplémentaire indique seulement qu'une page suivante existe
+     */
+    public static <E, T> PageCurseurDto<T> page(List<E> lus, int taille,
+                                                Function<E, Position> position, Function<E, T> mapper) {
+        boolean suivant = lus.size() > taille;
+        List<E> elements = suivant ? lus.subList(0, taille) : lus;
+        String curseurSuivant = suivant ? encoder(position.apply(elements.get(elements.size() - 1))) : null;
+        return new PageCurseurDto<>(elements.stream().map(mapper).toList(), curseurSuivant, suivant, elements.size());
+    }
+}
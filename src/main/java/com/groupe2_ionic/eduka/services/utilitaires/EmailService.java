@@ -6,12 +6,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -75,20 +79,77 @@ public class EmailService {
         }
     }
 
+    /**
+     * Envoie un lot d'emails sur une seule connexion SMTP
+     * Retourne les erreurs indexées par position dans le lot (vide si tout est parti)
+     */
+    public Map<Integer, String> envoyerLot(List<EmailSortant> emails) {
+        Map<Integer, String> erreurs = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        for (int i = 0; i < emails.size(); i++) {
+            EmailSortant email = emails.get(i);
+            try {
+                MimeMessage message = javaMailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+                helper.setFrom(expediteur);
+                helper.setTo(email.to());
+                helper.setSubject(email.sujet());
+                helper.setText(email.contenu(), email.html());
+                messages.add(message);
+                positions.add(i);
+            } catch (MessagingException e) {
+                erreurs.put(i, e.getMessage());
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return erreurs;
+        }
+
+        try {
+            javaMailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                positions.forEach(i -> erreurs.put(i, e.getMessage()));
+            } else {
+                e.getFailedMessages().forEach((message, cause) ->
+                        erreurs.put(positions.get(messages.indexOf(message)), cause.getMessage()));
+            }
+        } catch (Exception e) {
+            positions.forEach(i -> erreurs.put(i, e.getMessage()));
+        }
+
+        log.info("Lot de {} emails envoyé ({} échecs)", emails.size(), erreurs.size());
+        return erreurs;
+    }
+
     /**
      * Envoie un email de bienvenue
      */
     public boolean envoyerEmailBienvenue(String to, String nom, String typeUtilisateur) {
-        String sujet = "Bienvenue sur " + appName + " !";
-        String contenuHtml = genererTemplateHtml(
+        return envoyerEmailHtml(to, sujetBienvenue(), contenuBienvenue(nom, typeUtilisateur), null);
+    }
+
+    /**
+     * Sujet de l'email de bienvenue
+     */
+    public String sujetBienvenue() {
+        return "Bienvenue sur " + appName + " !";
+    }
+
+    /**
+     * Contenu HTML de l'email de bienvenue
+     */
+    public String contenuBienvenue(String nom, String typeUtilisateur) {
+        return genererTemplateHtml(
                 "Bienvenue " + nom + " !",
                 "Votre inscription en tant que " + typeUtilisateur + " a été confirmée avec succès.",
                 "Vous pouvez maintenant accéder à toutes les fonctionnalités de la plateforme.",
                 "Se connecter",
                 "#"
         );
-
-        return envoyerEmailHtml(to, sujet, contenuHtml, null);
     }
 
     /**
@@ -185,6 +246,11 @@ public class EmailService {
      */
     public record PieceJointe(String nom, byte[] contenu, String typeContenu) {}
 
+    /**
+     * Record pour les emails envoyés par lot
+     */
+    public record EmailSortant(String to, String sujet, String contenu, boolean html) {}
+
     /**
      * Envoie un email simple
      */
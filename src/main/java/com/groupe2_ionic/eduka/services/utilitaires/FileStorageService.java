@@ -7,27 +7,64 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class FileStorageService {
 
+    // Dossier des fichiers adressés par contenu : contenus/ab/cd/<sha256>.<ext>
+    private static final String CONTENT_FOLDER = "contenus";
+    private static final int PURGE_BATCH = 1000;
+    // Verrous des contenus, répartis par empreinte
+    private static final int CONTENT_LOCKS = 256;
+
     private final Path storageRoot;
+    private final Path contentRoot;
+    private final boolean contentAddressed;
+    // Sérialisent, pour une même empreinte, la réutilisation d'un contenu et sa suppression : sans eux le fichier
+    // pourrait être supprimé entre la vérification de son âge et sa suppression alors qu'un envoi vient de le reprendre
+    private final ReentrantLock[] contentLocks = new ReentrantLock[CONTENT_LOCKS];
 
     private static final Set<String> ALLOWED_EXT = Set.of(
             "png","jpg","jpeg","pdf","doc","docx","ppt","pptx","zip","txt","md"
     );
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) throws IOException {
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                              @Value("${file.content-addressed:true}") boolean contentAddressed) throws IOException {
         this.storageRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.contentRoot = storageRoot.resolve(CONTENT_FOLDER);
+        this.contentAddressed = contentAddressed;
         Files.createDirectories(storageRoot);
+        for (int i = 0; i < CONTENT_LOCKS; i++) {
+            contentLocks[i] = new ReentrantLock();
+        }
     }
 
+    /**
+     * Enregistre un fichier téléversé
+     * En mode adressé par contenu, le sous-dossier est ignoré : un contenu déjà stocké n'est pas réécrit et
+     * le fichier retourné porte son empreinte SHA-256. Sinon le fichier est écrit sous un nom unique dans le
+     * sous-dossier, sans empreinte.
+     */
     public StoredFile store(MultipartFile file, String subFolder) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IOException("Fichier vide");
@@ -38,6 +75,9 @@ public class FileStorageService {
         if (!ALLOWED_EXT.contains(ext.toLowerCase())) {
             throw new IOException("Type de fichier non supporté: " + ext);
         }
+        if (contentAddressed) {
+            return storeContent(file, ext.toLowerCase());
+        }
 
         String uniqueName = UUID.randomUUID().toString() + "." + ext;
         Path folder = storageRoot.resolve(subFolder).normalize();
@@ -52,7 +92,207 @@ public class FileStorageService {
                 .path(uniqueName)
                 .toUriString();
 
-        return new StoredFile(uniqueName, url, destination.toString(), file.getSize(), file.getContentType());
+        return new StoredFile(uniqueName, url, destination.toString(), file.getSize(), file.getContentType(), null);
+    }
+
+    /**
+     * Reçoit le fichier dans un fichier temporaire en calculant son empreinte au fil de la lecture, puis le range
+     * sous son empreinte ; si ce contenu est déjà stocké, le temporaire est supprimé et le fichier existant réutilisé.
+     * Deux niveaux de sous-dossiers tirés de l'empreinte limitent chaque dossier à quelques fichiers.
+     */
+    private StoredFile storeContent(MultipartFile file, String ext) throws IOException {
+        Files.createDirectories(contentRoot);
+        Path temporaire = Files.createTempFile(contentRoot, ".reception-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                Files.copy(in, temporaire, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path shard = contentRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+            Files.createDirectories(shard);
+
+            Path destination;
+            ReentrantLock lock = contentLock(hash);
+            lock.lock();
+            try {
+                destination = findContent(shard, hash);
+                if (destination != null) {
+                    // Rajeunit le fichier : la purge des contenus orphelins ne le supprime pas avant que la
+                    // nouvelle référence soit enregistrée
+                    Files.setLastModifiedTime(destination, FileTime.from(Instant.now()));
+                } else {
+                    destination = shard.resolve(hash + "." + ext);
+                    // Un envoi concurrent du même contenu remplace le fichier par des octets identiques
+                    Files.move(temporaire, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            String relative = storageRoot.relativize(destination).toString().replace("\\", "/");
+            String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/uploads/")
+                    .path(relative)
+                    .toUriString();
+            return new StoredFile(destination.getFileName().toString(), url, destination.toString(),
+                    Files.size(destination), file.getContentType(), hash);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Supprime le fichier d'un contenu qui n'est plus référencé, sauf s'il a été réutilisé il y a moins de
+     * {@code gracePeriod} : un envoi du même contenu peut être en cours d'enregistrement, la purge le reprendra
+     *
+     * @return true si le fichier a été supprimé
+     */
+    public boolean releaseContent(String sha256, Duration gracePeriod) throws IOException {
+        if (sha256 == null || !sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Empreinte invalide : " + sha256);
+        }
+        ReentrantLock lock = contentLock(sha256);
+        lock.lock();
+        try {
+            Path fichier = findContent(contentRoot.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)), sha256);
+            if (fichier == null || isYoungerThan(fichier, gracePeriod)) {
+                return false;
+            }
+            return Files.deleteIfExists(fichier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Supprime les contenus modifiés il y a plus de {@code gracePeriod} qu'aucune référence ne retient,
+     * ainsi que les réceptions temporaires abandonnées
+     *
+     * @param referenced reçoit un lot d'empreintes et retourne celles qui sont encore référencées
+     * @return nombre de fichiers supprimés
+     */
+    public int purgeUnreferencedContents(Duration gracePeriod,
+                                         Function<Collection<String>, Set<String>> referenced) throws IOException {
+        if (!Files.isDirectory(contentRoot)) {
+            return 0;
+        }
+
+        int supprimes = 0;
+        List<Path> lot = new ArrayList<>(PURGE_BATCH);
+        try (Stream<Path> fichiers = Files.walk(contentRoot)) {
+            for (Path fichier : (Iterable<Path>) fichiers::iterator) {
+                if (!Files.isRegularFile(fichier) || isYoungerThan(fichier, gracePeriod)) {
+                    continue;
+                }
+                if (fichier.getFileName().toString().startsWith(".reception-")) {
+                    supprimes += Files.deleteIfExists(fichier) ? 1 : 0;
+                    continue;
+                }
+                lot.add(fichier);
+                if (lot.size() == PURGE_BATCH) {
+                    supprimes += purgeBatch(lot, gracePeriod, referenced);
+                    lot.clear();
+                }
+            }
+        }
+        return supprimes + purgeBatch(lot, gracePeriod, referenced);
+    }
+
+    /**
+     * Supprime les fichiers du lot qu'aucune référence ne retient ; l'âge est vérifié de nouveau sous le verrou
+     * de l'empreinte, le contenu ayant pu être réutilisé depuis le parcours
+     */
+    private int purgeBatch(List<Path> lot, Duration gracePeriod,
+                           Function<Collection<String>, Set<String>> referenced) throws IOException {
+        if (lot.isEmpty()) {
+            return 0;
+        }
+        Set<String> retenus = referenced.apply(lot.stream().map(FileStorageService::contentHash).toList());
+        int supprimes = 0;
+        for (Path fichier : lot) {
+            String hash = contentHash(fichier);
+            if (retenus.contains(hash)) {
+                continue;
+            }
+            ReentrantLock lock = contentLock(hash);
+            lock.lock();
+            try {
+                if (Files.exists(fichier) && !isYoungerThan(fichier, gracePeriod) && Files.deleteIfExists(fichier)) {
+                    supprimes++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return supprimes;
+    }
+
+    private ReentrantLock contentLock(String hash) {
+        return contentLocks[Math.floorMod(hash.hashCode(), CONTENT_LOCKS)];
+    }
+
+    /**
+     * Enregistre un fichier produit par l'application (rapport, export)
+     * Le contenu est écrit en flux dans un fichier temporaire, renommé une fois complet : un fichier présent
+     * dans le dossier est toujours entier. L'URL est relative, l'écriture pouvant se faire hors requête HTTP.
+     */
+    public StoredFile storeGenerated(String subFolder, String fileName, String contentType,
+                                     ContentWriter writer) throws IOException {
+        Path folder = storageRoot.resolve(subFolder).normalize();
+        Path destination = folder.resolve(StringUtils.cleanPath(fileName)).normalize().toAbsolutePath();
+        if (!destination.startsWith(storageRoot)) {
+            throw new IOException("Accès refusé au chemin demandé : " + fileName);
+        }
+        Files.createDirectories(folder);
+
+        Path temporaire = Files.createTempFile(folder, ".ecriture-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporaire)) {
+                writer.write(out);
+            }
+            Files.move(temporaire, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+
+        String url = "/uploads/" + subFolder + "/" + destination.getFileName();
+        return new StoredFile(destination.getFileName().toString(), url, destination.toString(),
+                Files.size(destination), contentType, null);
+    }
+
+    /**
+     * Chemin absolu d'un fichier stocké, à partir de son URL ou de son chemin relatif
+     */
+    public Path resolve(String pathOrUrl) throws IOException {
+        Path target = storageRoot.resolve(extractRelativePath(pathOrUrl)).normalize().toAbsolutePath();
+        if (!target.startsWith(storageRoot)) {
+            throw new IOException("Accès refusé au chemin demandé : " + pathOrUrl);
+        }
+        return target;
+    }
+
+    /**
+     * Supprime les fichiers d'un sous-dossier modifiés il y a plus de {@code age}
+     * Retourne le nombre de fichiers supprimés
+     */
+    public int purgeOlderThan(String subFolder, Duration age) throws IOException {
+        Path folder = storageRoot.resolve(subFolder).normalize();
+        if (!folder.startsWith(storageRoot) || !Files.isDirectory(folder)) {
+            return 0;
+        }
+
+        FileTime limite = FileTime.from(Instant.now().minus(age));
+        int supprimes = 0;
+        try (Stream<Path> fichiers = Files.list(folder)) {
+            for (Path fichier : (Iterable<Path>) fichiers::iterator) {
+                if (Files.isRegularFile(fichier) && Files.getLastModifiedTime(fichier).compareTo(limite) < 0
+                        && Files.deleteIfExists(fichier)) {
+                    supprimes++;
+                }
+            }
+        }
+        return supprimes;
     }
 
     /**
@@ -133,7 +373,12 @@ public class FileStorageService {
             // pas une URL -> continuer
         }
 
-        // 2) Si c'est un chemin absolu à l'extérieur, tenter de le relativiser
+        // 2) URL relative des fichiers générés (ex: /uploads/rapports/nom.pdf)
+        if (pathOrUrl.startsWith("/uploads/")) {
+            return pathOrUrl.substring("/uploads/".length());
+        }
+
+        // 3) Si c'est un chemin absolu à l'extérieur, tenter de le relativiser
         Path given = Paths.get(pathOrUrl);
         if (given.isAbsolute()) {
             Path normalized = given.toAbsolutePath().normalize();
@@ -145,14 +390,51 @@ public class FileStorageService {
             }
         }
 
-        // 3) chemin relatif ou nom de fichier -> nettoyer slashs initiaux
+        // 4) chemin relatif ou nom de fichier -> nettoyer slashs initiaux
         return pathOrUrl.replaceFirst("^/+", "");
     }
 
+    private static Path findContent(Path shard, String hash) throws IOException {
+        if (!Files.isDirectory(shard)) {
+            return null;
+        }
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(shard, hash + ".*")) {
+            Iterator<Path> fichiers = ds.iterator();
+            return fichiers.hasNext() ? fichiers.next() : null;
+        }
+    }
+
+    private static String contentHash(Path fichier) {
+        String nom = fichier.getFileName().toString();
+        int idx = nom.indexOf('.');
+        return idx >= 0 ? nom.substring(0, idx) : nom;
+    }
+
+    private static boolean isYoungerThan(Path fichier, Duration age) throws IOException {
+        return Files.getLastModifiedTime(fichier).toInstant().isAfter(Instant.now().minus(age));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
     private String getExtension(String filename) {
         int idx = filename.lastIndexOf('.');
         return (idx >= 0 && idx < filename.length() - 1) ? filename.substring(idx + 1) : "";
     }
 
-    public record StoredFile(String fileName, String url, String absolutePath, long size, String contentType) {}
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * @param sha256 empreinte du contenu, null hors mode adressé par contenu
+     */
+    public record StoredFile(String fileName, String url, String absolutePath, long size, String contentType,
+                             String sha256) {}
 }
@@ -0,0 +1,76 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Instantanés des statistiques d'administration (tokens, codes OTP, réinitialisations de mot de passe)
+ *
+ * Désactivé, chaque lecture recalcule les statistiques. Activé (auth.stats.snapshot.enabled), une statistique
+ * lue une première fois est ensuite rafraîchie périodiquement et les lectures renvoient le dernier instantané
+ * sans requête.
+ */
+@Slf4j
+@Component
+public class InstantanesStatistiques {
+
+    private final boolean actif;
+    private final Map<String, Instantane<?>> instantanes = new ConcurrentHashMap<>();
+
+    public InstantanesStatistiques(@Value("${auth.stats.snapshot.enabled:false}") boolean actif) {
+        this.actif = actif;
+    }
+
+    /**
+     * Dernier instantané de la statistique, ou son calcul immédiat s'il n'y en a pas encore
+     *
+     * @param nom    nom unique de la statistique, repris dans les journaux
+     * @param calcul calcul de la statistique, appelé aussi à chaque rafraîchissement
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T lire(String nom, Supplier<T> calcul) {
+        if (!actif) {
+            return calcul.get();
+        }
+        Instantane<T> instantane = (Instantane<T>) instantanes.computeIfAbsent(nom, n -> new Instantane<>(calcul));
+        T valeur = instantane.valeur;
+        if (valeur == null) {
+            valeur = calcul.get();
+            instantane.valeur = valeur;
+        }
+        return valeur;
+    }
+
+    /**
+     * Recalcule tous les instantanés déjà lus ; l'échec d'un calcul garde son instantané précédent
+     */
+    @Scheduled(fixedDelayString = "${auth.stats.snapshot.refresh-ms:60000}")
+    public void rafraichir() {
+        instantanes.forEach((nom, instantane) -> {
+            try {
+                instantane.rafraichir();
+            } catch (Exception e) {
+                log.error("Erreur lors du rafraîchissement des statistiques {}: {}", nom, e.getMessage());
+            }
+        });
+    }
+
+    private static final class Instantane<T> {
+        private final Supplier<T> calcul;
+        private volatile T valeur;
+
+        private Instantane(Supplier<T> calcul) {
+            this.calcul = calcul;
+        }
+
+        private void rafraichir() {
+            valeur = calcul.get();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfTemplate;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Mise en page commune des documents PDF : polices chargées une seule fois, modèles de tableaux
+ * préparés au démarrage et cadre de page (bandeau, pied de page) dessiné une fois par document
+ */
+final class MiseEnPagePdf {
+
+    static final float MARGE = 36;
+    static final float MARGE_HAUT = 80;
+    static final float MARGE_BAS = 54;
+
+    private static final Color COULEUR = new Color(0x1F, 0x5F, 0x8B);
+    private static final Color FOND_LIGNE = new Color(0xF2, 0xF5, 0xF8);
+
+    // Polices standard PDF (non embarquées) en Windows-1252 : accents français sans fichier de police à lire
+    static final BaseFont POLICE = police(BaseFont.HELVETICA);
+    static final BaseFont POLICE_GRASSE = police(BaseFont.HELVETICA_BOLD);
+
+    static final Font TITRE = new Font(POLICE_GRASSE, 16, Font.NORMAL, COULEUR);
+    static final Font SECTION = new Font(POLICE_GRASSE, 11, Font.NORMAL, COULEUR);
+    static final Font TEXTE = new Font(POLICE, 9);
+    static final Font LIBELLE = new Font(POLICE_GRASSE, 9);
+    static final Font ENTETE = new Font(POLICE_GRASSE, 9, Font.NORMAL, Color.WHITE);
+
+    static final ModeleTableau PAIEMENTS = new ModeleTableau(
+            new String[]{"Date", "Référence", "Méthode", "Statut", "Montant"},
+            new float[]{14, 34, 18, 14, 20},
+            new int[]{Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_RIGHT});
+    static final ModeleTableau ENFANTS = new ModeleTableau(
+            new String[]{"Nom", "Prénom", "Âge", "École"},
+            new float[]{25, 25, 10, 40},
+            new int[]{Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_RIGHT, Element.ALIGN_LEFT});
+    static final ModeleTableau ORGANISATIONS = new ModeleTableau(
+            new String[]{"Organisation", "Ville", "Pays"},
+            new float[]{50, 25, 25},
+            new int[]{Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_LEFT});
+
+    private MiseEnPagePdf() {
+    }
+
+    static Document nouveauDocument() {
+        return new Document(PageSize.A4, MARGE, MARGE, MARGE_HAUT, MARGE_BAS);
+    }
+
+    static Paragraph titreSection(String titre) {
+        Paragraph paragraphe = new Paragraph(titre, SECTION);
+        paragraphe.setSpacingBefore(12);
+        paragraphe.setSpacingAfter(4);
+        return paragraphe;
+    }
+
+    /**
+     * Bloc libellé / valeur sur deux colonnes
+     */
+    static PdfPTable informations(String... libellesEtValeurs) {
+        PdfPTable table = new PdfPTable(new float[]{30, 70});
+        table.setWidthPercentage(100);
+        for (int i = 0; i + 1 < libellesEtValeurs.length; i += 2) {
+            table.addCell(cellule(libellesEtValeurs[i], LIBELLE, Element.ALIGN_LEFT, null));
+            table.addCell(cellule(libellesEtValeurs[i + 1], TEXTE, Element.ALIGN_LEFT, null));
+        }
+        return table;
+    }
+
+    static PdfPCell cellule(String texte, Font police, int alignement, Color fond) {
+        PdfPCell cellule = new PdfPCell(new Phrase(texte != null ? texte : "N/A", police));
+        cellule.setBorder(Rectangle.NO_BORDER);
+        cellule.setHorizontalAlignment(alignement);
+        cellule.setPadding(3);
+        if (fond != null) {
+            cellule.setBackgroundColor(fond);
+        }
+        return cellule;
+    }
+
+    private static BaseFont police(String nom) {
+        try {
+            return BaseFont.createFont(nom, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Colonnes d'un tableau de données ; l'en-tête est répété en haut de chaque page
+     */
+    record ModeleTableau(String[] entetes, float[] largeurs, int[] alignements) {
+
+        PdfPTable nouveauTableau() {
+            PdfPTable table = new PdfPTable(largeurs);
+            table.setWidthPercentage(100);
+            for (String entete : entetes) {
+                table.addCell(cellule(entete, ENTETE, Element.ALIGN_LEFT, COULEUR));
+            }
+            table.setHeaderRows(1);
+            // Tableau incomplet : les lignes déjà placées sont écrites et libérées à chaque ajout au document
+            table.setComplete(false);
+            return table;
+        }
+
+        void ajouterLigne(PdfPTable table, int rang, String... valeurs) {
+            Color fond = rang % 2 == 1 ? FOND_LIGNE : null;
+            for (int i = 0; i < valeurs.length; i++) {
+                table.addCell(cellule(valeurs[i], TEXTE, alignements[i], fond));
+            }
+        }
+    }
+
+    /**
+     * Bandeau et pied de page : le bandeau est dessiné une fois dans un XObject référencé par chaque page,
+     * le nombre total de pages est inscrit dans un second XObject à la fermeture du document
+     */
+    static final class CadrePage extends PdfPageEventHelper {
+
+        private final String titre;
+        private final String dateGeneration;
+        private PdfTemplate bandeau;
+        private PdfTemplate totalPages;
+
+        CadrePage(String titre, String dateGeneration) {
+            this.titre = titre;
+            this.dateGeneration = dateGeneration;
+        }
+
+        @Override
+        public void onOpenDocument(PdfWriter writer, Document document) {
+            float largeur = document.getPageSize().getWidth() - 2 * MARGE;
+            bandeau = writer.getDirectContent().createTemplate(largeur, 40);
+            bandeau.setColorFill(COULEUR);
+            bandeau.beginText();
+            bandeau.setFontAndSize(POLICE_GRASSE, 18);
+            bandeau.setTextMatrix(0, 16);
+            bandeau.showText("EDUKA");
+            bandeau.setFontAndSize(POLICE, 10);
+            bandeau.showTextAligned(Element.ALIGN_RIGHT, titre, largeur, 18, 0);
+            bandeau.endText();
+            bandeau.setColorStroke(COULEUR);
+            bandeau.setLineWidth(1.5f);
+            bandeau.moveTo(0, 6);
+            bandeau.lineTo(largeur, 6);
+            bandeau.stroke();
+
+            totalPages = writer.getDirectContent().createTemplate(40, 12);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte contenu = writer.getDirectContent();
+            float hauteur = document.getPageSize().getHeight();
+            contenu.addTemplate(bandeau, MARGE, hauteur - MARGE_HAUT + 24);
+
+            String page = "Page " + writer.getPageNumber() + " / ";
+            float largeurPage = POLICE.getWidthPoint(page, 8);
+            float droite = document.getPageSize().getWidth() - MARGE;
+            contenu.beginText();
+            contenu.setFontAndSize(POLICE, 8);
+            contenu.showTextAligned(Element.ALIGN_LEFT, "Généré le " + dateGeneration, MARGE, MARGE_BAS - 24, 0);
+            contenu.showTextAligned(Element.ALIGN_LEFT, page, droite - 40 - largeurPage, MARGE_BAS - 24, 0);
+            contenu.endText();
+            contenu.addTemplate(totalPages, droite - 40, MARGE_BAS - 24);
+        }
+
+        @Override
+        public void onCloseDocument(PdfWriter writer, Document document) {
+            totalPages.beginText();
+            totalPages.setFontAndSize(POLICE, 8);
+            totalPages.setTextMatrix(0, 0);
+            totalPages.showText(String.valueOf(writer.getPageNumber() - 1));
+            totalPages.endText();
+        }
+    }
+}
@@ -1,354 +1,308 @@
 package com.groupe2_ionic.eduka.services.utilitaires;
 
 import com.groupe2_ionic.eduka.models.*;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static com.groupe2_ionic.eduka.services.utilitaires.MiseEnPagePdf.*;
+
+/**
+ * Génération des reçus et rapports PDF
+ *
+ * Les documents sont écrits en flux dans le flux de sortie fourni (réponse HTTP, fichier) : chaque page est
+ * envoyée dès qu'elle est remplie et les lignes des tableaux sont libérées au fil de l'eau, la mémoire
+ * utilisée ne dépend donc pas du nombre de lignes. Le flux n'est pas fermé.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PdfService {
 
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
     /**
-     * Génère un reçu de paiement en PDF
+     * Lignes ajoutées à un tableau avant de le mettre en page et de libérer les lignes placées
      */
-    public byte[] genererRecuPaiement(Paiement paiement) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            // Simulation de génération PDF
-            // Dans un vrai projet, utiliser iText, Apache PDFBox, ou Flying Saucer
+    private static final int LIGNES_PAR_VIDAGE = 200;
 
-            String contenu = genererContenuRecuPaiement(paiement);
-
-            // Pour la simulation, on retourne le contenu en bytes
-            // Dans la réalité, on utiliserait une bibliothèque PDF
-            baos.write(contenu.getBytes("UTF-8"));
-
-            log.info("Reçu de paiement généré pour le paiement ID: {}", paiement.getId());
-            return baos.toByteArray();
-        }
-    }
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private final DateTimeFormatter moisFormatter = DateTimeFormatter.ofPattern("MMMM yyyy");
 
     /**
-     * Génère un rapport mensuel d'organisation en PDF
+     * Génère un reçu de paiement en PDF (pièce jointe d'email)
      */
-    public byte[] genererRapportMensuelOrganisation(Organisation organisation, LocalDate mois,
-                                                    List<Paiement> paiements, List<Enfant> enfants) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            String contenu = genererContenuRapportMensuel(organisation, mois, paiements, enfants);
-            baos.write(contenu.getBytes("UTF-8"));
-
-            log.info("Rapport mensuel généré pour l'organisation: {}", organisation.getNom());
-            return baos.toByteArray();
-        }
+    public byte[] genererRecuPaiement(Paiement paiement) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(8 * 1024);
+        genererRecuPaiement(paiement, baos);
+        return baos.toByteArray();
     }
 
     /**
-     * Génère un rapport de parrainage en PDF
+     * Écrit le reçu d'un paiement dans le flux
      */
-    public byte[] genererRapportParrainage(Parrainage parrainage, List<Paiement> paiements) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            String contenu = genererContenuRapportParrainage(parrainage, paiements);
-            baos.write(contenu.getBytes("UTF-8"));
+    public void genererRecuPaiement(Paiement paiement, OutputStream sortie) throws IOException {
+        Enfant enfant = paiement.getParrainage().getEnfant();
+        Parrain parrain = paiement.getParrain();
+        Organisation organisation = enfant.getOrganisation();
 
-            log.info("Rapport de parrainage généré pour le parrainage ID: {}", parrainage.getId());
-            return baos.toByteArray();
-        }
-    }
+        generer(sortie, "Reçu de paiement", document -> {
+            document.add(new Paragraph("REÇU DE PAIEMENT", TITRE));
+            document.add(informations(
+                    "Date", LocalDate.now().format(dateFormatter),
+                    "Référence", paiement.getTransactionId() != null ? paiement.getTransactionId() : "N/A"));
 
-    /**
-     * Génère un rapport administratif global en PDF
-     */
-    public byte[] genererRapportAdministratif(LocalDate dateDebut, LocalDate dateFin,
-                                              List<Organisation> organisations, List<Paiement> paiements,
-                                              BigDecimal montantTotal) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            String contenu = genererContenuRapportAdministratif(dateDebut, dateFin, organisations, paiements, montantTotal);
-            baos.write(contenu.getBytes("UTF-8"));
-
-            log.info("Rapport administratif généré pour la période: {} - {}", dateDebut, dateFin);
-            return baos.toByteArray();
-        }
+            document.add(titreSection("Informations parrain"));
+            document.add(informations(
+                    "Nom", parrain.getNom() + " " + parrain.getPrenom(),
+                    "Email", parrain.getEmail(),
+                    "Téléphone", parrain.getTelephone()));
+
+            document.add(titreSection("Informations enfant"));
+            document.add(informations(
+                    "Nom", enfant.getNom() + " " + enfant.getPrenom(),
+                    "Âge", enfant.getAge() + " ans",
+                    "École", nomEcole(enfant)));
+
+            document.add(titreSection("Détails du paiement"));
+            document.add(informations(
+                    "Montant", montant(paiement.getMontant()),
+                    "Méthode", String.valueOf(paiement.getMethode()),
+                    "Statut", String.valueOf(paiement.getStatut()),
+                    "Date de paiement", paiement.getDatePaiement().format(dateFormatter),
+                    "Code de confirmation", paiement.getCodeConfirmation() != null ? paiement.getCodeConfirmation() : "N/A"));
+
+            document.add(titreSection("Organisation"));
+            document.add(informations(
+                    "Nom", organisation.getNom(),
+                    "Localisation", organisation.getVille() + ", " + organisation.getPays()));
+
+            Paragraph merci = new Paragraph("Merci pour votre contribution à l'éducation !", SECTION);
+            merci.setSpacingBefore(24);
+            document.add(merci);
+        });
+
+        log.info("Reçu de paiement généré pour le paiement ID: {}", paiement.getId());
     }
 
     /**
-     * Génère le contenu du reçu de paiement
+     * Écrit le rapport mensuel d'une organisation dans le flux
      */
-    private String genererContenuRecuPaiement(Paiement paiement) {
-        return String.format("""
-            =====================================
-                    REÇU DE PAIEMENT
-            =====================================
-            
-            Date: %s
-            Référence: %s
-            
-            INFORMATIONS PARRAIN:
-            Nom: %s %s
-            Email: %s
-            Téléphone: %s
-            
-            INFORMATIONS ENFANT:
-            Nom: %s %s
-            Âge: %d ans
-            École: %s
-            
-            DÉTAILS DU PAIEMENT:
-            Montant: %.0f FCFA
-            Méthode: %s
-            Statut: %s
-            Date de paiement: %s
-            Code de confirmation: %s
-            
-            ORGANISATION:
-            %s
-            %s, %s
-            
-            =====================================
-            Merci pour votre contribution à l'éducation !
-            =====================================
-            """,
-                LocalDate.now().format(dateFormatter),
-                paiement.getTransactionId() != null ? paiement.getTransactionId() : "N/A",
-                paiement.getParrain().getNom(),
-                paiement.getParrain().getPrenom(),
-                paiement.getParrain().getEmail(),
-                paiement.getParrain().getTelephone(),
-                paiement.getParrainage().getEnfant().getNom(),
-                paiement.getParrainage().getEnfant().getPrenom(),
-                paiement.getParrainage().getEnfant().getAge(),
-                paiement.getParrainage().getEnfant().getEcole(),
-                paiement.getMontant(),
-                paiement.getMethode(),
-                paiement.getStatut(),
-                paiement.getDatePaiement().format(dateFormatter),
-                paiement.getCodeConfirmation() != null ? paiement.getCodeConfirmation() : "N/A",
-                paiement.getParrainage().getEnfant().getOrganisation().getNom(),
-                paiement.getParrainage().getEnfant().getOrganisation().getVille(),
-                paiement.getParrainage().getEnfant().getOrganisation().getPays()
-        );
+    public void genererRapportMensuelOrganisation(Organisation organisation, LocalDate mois,
+                                                  List<Paiement> paiements, List<Enfant> enfants,
+                                                  OutputStream sortie) throws IOException {
+        String periode = mois.format(moisFormatter);
+
+        generer(sortie, "Rapport mensuel - " + periode, document -> {
+            document.add(new Paragraph("RAPPORT MENSUEL - " + periode.toUpperCase(), TITRE));
+
+            document.add(titreSection("Organisation"));
+            document.add(informations(
+                    "Nom", organisation.getNom(),
+                    "Représentant", organisation.getNomRepresentant() + " " + organisation.getPrenomRepresentant()
+                            + " (" + organisation.getFonctionRepresentant() + ")",
+                    "Localisation", organisation.getVille() + ", " + organisation.getPays(),
+                    "Email", organisation.getEmail(),
+                    "Téléphone", organisation.getTelephone()));
+
+            document.add(titreSection("Statistiques"));
+            document.add(informations(
+                    "Période", periode,
+                    "Nombre d'enfants", String.valueOf(enfants.size()),
+                    "Nombre de paiements", String.valueOf(paiements.size()),
+                    "Montant total reçu", montant(total(paiements))));
+
+            document.add(titreSection("Détail des paiements"));
+            tableauPaiements(document, paiements.iterator());
+
+            document.add(titreSection("Liste des enfants"));
+            tableauEnfants(document, enfants);
+        });
+
+        log.info("Rapport mensuel généré pour l'organisation: {}", organisation.getNom());
     }
 
     /**
-     * Génère le contenu du rapport mensuel d'organisation
+     * Écrit le rapport d'un parrainage dans le flux
      */
-    private String genererContenuRapportMensuel(Organisation organisation, LocalDate mois,
-                                                List<Paiement> paiements, List<Enfant> enfants) {
-        BigDecimal montantTotal = paiements.stream()
-                .map(Paiement::getMontant)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void genererRapportParrainage(Parrainage parrainage, List<Paiement> paiements,
+                                         OutputStream sortie) throws IOException {
+        Parrain parrain = parrainage.getParrain();
+        Enfant enfant = parrainage.getEnfant();
+
+        generer(sortie, "Rapport de parrainage", document -> {
+            document.add(new Paragraph("RAPPORT DE PARRAINAGE", TITRE));
+
+            document.add(titreSection("Parrain"));
+            document.add(informations(
+                    "Nom", parrain.getNom() + " " + parrain.getPrenom(),
+                    "Email", parrain.getEmail(),
+                    "Téléphone", parrain.getTelephone(),
+                    "Pays", parrain.getPays()));
+
+            document.add(titreSection("Enfant parrainé"));
+            document.add(informations(
+                    "Nom", enfant.getNom() + " " + enfant.getPrenom(),
+                    "Âge", enfant.getAge() + " ans",
+                    "École", nomEcole(enfant),
+                    "Organisation", enfant.getOrganisation().getNom()));
 
-        return String.format("""
-            =====================================
-                RAPPORT MENSUEL - %s
-            =====================================
-            
-            ORGANISATION: %s
-            Représentant: %s %s (%s)
-            Localisation: %s, %s
-            Email: %s
-            Téléphone: %s
-            
-            PÉRIODE: %s
-            
-            STATISTIQUES:
-            - Nombre d'enfants: %d
-            - Nombre de paiements: %d
-            - Montant total reçu: %.0f FCFA
-            
-            DÉTAIL DES PAIEMENTS:
-            %s
-            
-            LISTE DES ENFANTS:
-            %s
-            
-            =====================================
-            Rapport généré le %s
-            =====================================
-            """,
-                mois.format(DateTimeFormatter.ofPattern("MMMM yyyy")),
-                organisation.getNom(),
-                organisation.getNomRepresentant(),
-                organisation.getPrenomRepresentant(),
-                organisation.getFonctionRepresentant(),
-                organisation.getVille(),
-                organisation.getPays(),
-                organisation.getEmail(),
-                organisation.getTelephone(),
-                mois.format(DateTimeFormatter.ofPattern("MMMM yyyy")),
-                enfants.size(),
-                paiements.size(),
-                montantTotal,
-                genererDetailPaiements(paiements),
-                genererListeEnfants(enfants),
-                LocalDate.now().format(dateFormatter)
-        );
+            document.add(titreSection("Parrainage"));
+            document.add(informations(
+                    "Date de début", parrainage.getDateDebut().format(dateFormatter),
+                    "Statut", String.valueOf(parrainage.getStatut()),
+                    "Montant mensuel", montant(parrainage.getMontantTotal())));
+
+            document.add(titreSection("Historique des paiements"));
+            document.add(informations(
+                    "Nombre total", String.valueOf(paiements.size()),
+                    "Montant total", montant(total(paiements))));
+            tableauPaiements(document, paiements.iterator());
+        });
+
+        log.info("Rapport de parrainage généré pour le parrainage ID: {}", parrainage.getId());
     }
 
     /**
-     * Génère le contenu du rapport de parrainage
+     * Écrit le rapport administratif global dans le flux
+     * Les paiements sont lus au fil de l'écriture (flux d'une requête en base) : le rapport n'en garde aucun en mémoire
      */
-    private String genererContenuRapportParrainage(Parrainage parrainage, List<Paiement> paiements) {
-        BigDecimal montantTotal = paiements.stream()
-                .map(Paiement::getMontant)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void genererRapportAdministratif(LocalDate dateDebut, LocalDate dateFin,
+                                            List<Organisation> organisations, Stream<Paiement> paiements,
+                                            long nombrePaiements, BigDecimal montantTotal,
+                                            OutputStream sortie) throws IOException {
+        generer(sortie, "Rapport administratif", document -> {
+            document.add(new Paragraph("RAPPORT ADMINISTRATIF", TITRE));
+            document.add(informations(
+                    "Période", dateDebut.format(dateFormatter) + " - " + dateFin.format(dateFormatter)));
 
-        return String.format("""
-            =====================================
-                RAPPORT DE PARRAINAGE
-            =====================================
-            
-            PARRAIN:
-            Nom: %s %s
-            Email: %s
-            Téléphone: %s
-            Pays: %s
-            
-            ENFANT PARRAINÉ:
-            Nom: %s %s
-            Âge: %d ans
-            École: %s
-            Organisation: %s
-            
-            PARRAINAGE:
-            Date de début: %s
-            Statut: %s
-            Montant mensuel: %.0f FCFA
-            
-            HISTORIQUE DES PAIEMENTS:
-            Nombre total: %d
-            Montant total: %.0f FCFA
-            
-            %s
-            
-            =====================================
-            Rapport généré le %s
-            =====================================
-            """,
-                parrainage.getParrain().getNom(),
-                parrainage.getParrain().getPrenom(),
-                parrainage.getParrain().getEmail(),
-                parrainage.getParrain().getTelephone(),
-                parrainage.getParrain().getPays(),
-                parrainage.getEnfant().getNom(),
-                parrainage.getEnfant().getPrenom(),
-                parrainage.getEnfant().getAge(),
-                parrainage.getEnfant().getEcole(),
-                parrainage.getEnfant().getOrganisation().getNom(),
-                parrainage.getDateDebut().format(dateFormatter),
-                parrainage.getStatut(),
-                parrainage.getMontantTotal(),
-                paiements.size(),
-                montantTotal,
-                genererDetailPaiements(paiements),
-                LocalDate.now().format(dateFormatter)
-        );
+            document.add(titreSection("Statistiques globales"));
+            document.add(informations(
+                    "Nombre d'organisations", String.valueOf(organisations.size()),
+                    "Nombre de paiements", String.valueOf(nombrePaiements),
+                    "Montant total", montant(montantTotal)));
+
+            document.add(titreSection("Répartition par organisation"));
+            tableauOrganisations(document, organisations);
+
+            document.add(titreSection("Détail des paiements"));
+            tableauPaiements(document, paiements.iterator());
+        });
+
+        log.info("Rapport administratif généré pour la période: {} - {}", dateDebut, dateFin);
     }
 
     /**
-     * Génère le contenu du rapport administratif
+     * Ouvre le document sur le flux, le rédige puis le termine
      */
-    private String genererContenuRapportAdministratif(LocalDate dateDebut, LocalDate dateFin,
-                                                      List<Organisation> organisations, List<Paiement> paiements,
-                                                      BigDecimal montantTotal) {
-        return String.format("""
-            =====================================
-                RAPPORT ADMINISTRATIF
-            =====================================
-            
-            PÉRIODE: %s - %s
-            
-            STATISTIQUES GLOBALES:
-            - Nombre d'organisations: %d
-            - Nombre de paiements: %d
-            - Montant total: %.0f FCFA
-            
-            RÉPARTITION PAR ORGANISATION:
-            %s
-            
-            DÉTAIL DES PAIEMENTS:
-            %s
-            
-            =====================================
-            Rapport généré le %s
-            =====================================
-            """,
-                dateDebut.format(dateFormatter),
-                dateFin.format(dateFormatter),
-                organisations.size(),
-                paiements.size(),
-                montantTotal,
-                genererRepartitionOrganisations(organisations),
-                genererDetailPaiements(paiements),
-                LocalDate.now().format(dateFormatter)
-        );
+    private void generer(OutputStream sortie, String titre, Redaction redaction) throws IOException {
+        OutputStream tampon = new BufferedOutputStream(sortie, 16 * 1024);
+        Document document = nouveauDocument();
+        PdfWriter writer = PdfWriter.getInstance(document, tampon);
+        writer.setCloseStream(false);
+        writer.setFullCompression();
+        writer.setPageEvent(new CadrePage(titre, LocalDate.now().format(dateFormatter)));
+
+        document.open();
+        redaction.rediger(document);
+        document.close();
+        tampon.flush();
     }
 
-    /**
-     * Génère le détail des paiements
-     */
-    private String genererDetailPaiements(List<Paiement> paiements) {
-        if (paiements.isEmpty()) {
-            return "Aucun paiement pour cette période.";
+    private void tableauPaiements(Document document, Iterator<Paiement> paiements) {
+        if (!paiements.hasNext()) {
+            document.add(new Paragraph("Aucun paiement pour cette période.", TEXTE));
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        for (Paiement p : paiements) {
-            sb.append(String.format("- %s: %.0f FCFA (%s) - %s\n",
+        PdfPTable table = PAIEMENTS.nouveauTableau();
+        int rang = 0;
+        while (paiements.hasNext()) {
+            Paiement p = paiements.next();
+            PAIEMENTS.ajouterLigne(table, rang,
                     p.getDatePaiement().format(dateFormatter),
-                    p.getMontant(),
-                    p.getMethode(),
-                    p.getStatut()
-            ));
+                    p.getTransactionId(),
+                    String.valueOf(p.getMethode()),
+                    String.valueOf(p.getStatut()),
+                    montant(p.getMontant()));
+            vider(document, table, ++rang);
         }
-        return sb.toString();
+        terminer(document, table);
     }
 
-    /**
-     * Génère la liste des enfants
-     */
-    private String genererListeEnfants(List<Enfant> enfants) {
+    private void tableauEnfants(Document document, List<Enfant> enfants) {
         if (enfants.isEmpty()) {
-            return "Aucun enfant enregistré.";
+            document.add(new Paragraph("Aucun enfant enregistré.", TEXTE));
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
+        PdfPTable table = ENFANTS.nouveauTableau();
+        int rang = 0;
         for (Enfant e : enfants) {
-            sb.append(String.format("- %s %s (%d ans) - %s\n",
-                    e.getNom(),
-                    e.getPrenom(),
-                    e.getAge(),
-                    e.getEcole()
-            ));
+            ENFANTS.ajouterLigne(table, rang, e.getNom(), e.getPrenom(), String.valueOf(e.getAge()), nomEcole(e));
+            vider(document, table, ++rang);
         }
-        return sb.toString();
+        terminer(document, table);
     }
 
-    /**
-     * Génère la répartition par organisations
-     */
-    private String genererRepartitionOrganisations(List<Organisation> organisations) {
+    private void tableauOrganisations(Document document, List<Organisation> organisations) {
         if (organisations.isEmpty()) {
-            return "Aucune organisation.";
+            document.add(new Paragraph("Aucune organisation.", TEXTE));
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
+        PdfPTable table = ORGANISATIONS.nouveauTableau();
+        int rang = 0;
         for (Organisation o : organisations) {
-            sb.append(String.format("- %s (%s, %s)\n",
-                    o.getNom(),
-                    o.getVille(),
-                    o.getPays()
-            ));
+            ORGANISATIONS.ajouterLigne(table, rang, o.getNom(), o.getVille(), o.getPays());
+            vider(document, table, ++rang);
         }
-        return sb.toString();
+        terminer(document, table);
+    }
+
+    /**
+     * Met en page les lignes accumulées : les pages remplies partent dans le flux et leurs lignes sont libérées
+     */
+    private static void vider(Document document, PdfPTable table, int lignes) {
+        if (lignes % LIGNES_PAR_VIDAGE == 0) {
+            document.add(table);
+        }
+    }
+
+    private static void terminer(Document document, PdfPTable table) {
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    private static BigDecimal total(List<Paiement> paiements) {
+        return paiements.stream()
+                .map(Paiement::getMontant)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static String nomEcole(Enfant enfant) {
+        return enfant.getEcole() != null ? enfant.getEcole().getNom() : null;
+    }
+
+    private static String montant(BigDecimal montant) {
+        return String.format("%.0f FCFA", montant);
+    }
+
+    @FunctionalInterface
+    private interface Redaction {
+        void rediger(Document document) throws IOException;
     }
 }
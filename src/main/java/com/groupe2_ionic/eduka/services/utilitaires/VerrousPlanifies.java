@@ -0,0 +1,65 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import com.groupe2_ionic.eduka.repository.VerrouPlanifieRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Verrous des tâches planifiées entre les instances de l'application, dans la table verrou_planifie ({@link
+ * com.groupe2_ionic.eduka.models.VerrouPlanifie})
+ *
+ * Un verrou est pris pour une durée bornée : si l'instance qui le détient s'arrête sans le libérer, il expire
+ * et une autre instance peut le prendre. La durée doit donc dépasser celle de la tâche.
+ */
+@Component
+public class VerrousPlanifies {
+
+    private final VerrouPlanifieRepository verrouRepository;
+    private final TransactionTemplate transaction;
+    private final String detenteur = UUID.randomUUID().toString();
+
+    public VerrousPlanifies(VerrouPlanifieRepository verrouRepository, PlatformTransactionManager transactionManager) {
+        this.verrouRepository = verrouRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Prend le verrou s'il est libre, expiré ou déjà détenu par cette instance
+     *
+     * @return false si une autre instance le détient
+     */
+    public boolean prendre(String nom, Duration duree) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Integer pris = transaction.execute(status ->
+                verrouRepository.prendre(nom, detenteur, maintenant, maintenant.plus(duree)));
+        if (pris != null && pris > 0) {
+            return true;
+        }
+        if (verrouRepository.existsById(nom)) {
+            return false;
+        }
+        try {
+            // Premier usage du verrou : une seule des instances concurrentes réussit l'insertion
+            transaction.executeWithoutResult(status ->
+                    verrouRepository.creer(nom, detenteur, maintenant.plus(duree)));
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Libère le verrou s'il est encore détenu par cette instance
+     */
+    public void liberer(String nom) {
+        transaction.executeWithoutResult(status -> verrouRepository.liberer(nom, detenteur, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.groupe2_ionic.eduka;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Contexte réduit aux entités et repositories JPA sur une base H2, pour les tests et benchmarks
+ * qui ont besoin des vraies requêtes sans démarrer toute l'application.
+ * Annoté {@link TestConfiguration} pour que le scan de composants de {@code @SpringBootTest} l'ignore.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class})
+@AutoConfigurationPackage(basePackageClasses = EdukaApplication.class)
+public class BaseH2 {
+
+    /**
+     * Démarre le contexte sur l'URL H2 donnée, schéma créé au démarrage et supprimé à la fermeture
+     * @param url URL JDBC H2, le mode MySQL est ajouté
+     */
+    public static ConfigurableApplicationContext demarrer(String url) {
+        return new SpringApplicationBuilder(BaseH2.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url + ";MODE=MySQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+}
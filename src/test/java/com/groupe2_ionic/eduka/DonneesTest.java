@@ -0,0 +1,144 @@
+package com.groupe2_ionic.eduka;
+
+import com.groupe2_ionic.eduka.models.Ecole;
+import com.groupe2_ionic.eduka.models.Enfant;
+import com.groupe2_ionic.eduka.models.Organisation;
+import com.groupe2_ionic.eduka.models.Paiement;
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.Parrainage;
+import com.groupe2_ionic.eduka.models.Utilisateur;
+import com.groupe2_ionic.eduka.models.enums.Genre;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.models.enums.StatutParrainage;
+import com.groupe2_ionic.eduka.models.enums.StatutValidation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entités de test partagées par les tests et benchmarks. Les entités renvoyées ne sont pas enregistrées :
+ * chaque test les persiste avec son propre EntityManager et peut les modifier avant.
+ */
+public final class DonneesTest {
+
+    private static final AtomicInteger COMPTEUR = new AtomicInteger();
+
+    private DonneesTest() {
+    }
+
+    /**
+     * Organisation validée « Association Espoir », avec un compte actif à l'email unique
+     */
+    public static Organisation organisation() {
+        Organisation organisation = new Organisation();
+        organisation.setNom("Association Espoir");
+        organisation.setNomRepresentant("Keita");
+        organisation.setPrenomRepresentant("Fatoumata");
+        organisation.setFonctionRepresentant("Présidente");
+        organisation.setStatutValidation(StatutValidation.VALIDEE);
+        remplirUtilisateur(organisation, RoleUser.ROLE_ORGANISATION);
+        return organisation;
+    }
+
+    /**
+     * Parrain « Moussa Diarra », avec un compte actif à l'email unique
+     */
+    public static Parrain parrain() {
+        Parrain parrain = new Parrain();
+        parrain.setNom("Diarra");
+        parrain.setPrenom("Moussa");
+        remplirUtilisateur(parrain, RoleUser.ROLE_PARRAIN);
+        return parrain;
+    }
+
+    /**
+     * Enfant parrainé « Awa Traoré » de l'organisation, solde nul
+     */
+    public static Enfant enfant(Organisation organisation) {
+        Enfant enfant = new Enfant();
+        enfant.setNom("Traoré");
+        enfant.setPrenom("Awa");
+        enfant.setGenre(Genre.FEMININ);
+        enfant.setDateNaissance(LocalDate.now().minusYears(10));
+        enfant.setNiveauScolaire("CM1");
+        enfant.setStatutParrainage(true);
+        enfant.setSolde(BigDecimal.ZERO);
+        enfant.setOrganisation(organisation);
+        return enfant;
+    }
+
+    /**
+     * Parrainage actif depuis six mois
+     * @param montantTotal montant engagé par le parrain
+     */
+    public static Parrainage parrainage(Parrain parrain, Enfant enfant, String montantTotal) {
+        Parrainage parrainage = new Parrainage();
+        parrainage.setStatut(StatutParrainage.ACTIF);
+        parrainage.setDateDebut(LocalDate.now().minusMonths(6));
+        parrainage.setMontantTotal(new BigDecimal(montantTotal));
+        parrainage.setParrain(parrain);
+        parrainage.setEnfant(enfant);
+        return parrainage;
+    }
+
+    /**
+     * Organisation « Association Avenir » de Bamako, sans compte, pour les documents PDF
+     */
+    public static Organisation organisationRecu() {
+        Organisation organisation = new Organisation();
+        organisation.setNom("Association Avenir");
+        organisation.setVille("Bamako");
+        organisation.setPays("Mali");
+        return organisation;
+    }
+
+    /**
+     * Paiement réussi de 5000 FCFA pour « Aminata Traoré » de l'École Fraternité, parrainée par Moussa Diallo,
+     * avec toutes les associations lues par le reçu
+     * @param i identifiant du paiement, repris dans la référence « TX-i » et la date
+     */
+    public static Paiement paiementRecu(Organisation organisation, int i) {
+        Ecole ecole = new Ecole();
+        ecole.setNom("École Fraternité");
+
+        Enfant enfant = new Enfant();
+        enfant.setNom("Traoré");
+        enfant.setPrenom("Aminata");
+        enfant.setDateNaissance(LocalDate.of(2015, 3, 1));
+        enfant.setEcole(ecole);
+        enfant.setOrganisation(organisation);
+
+        Parrain parrain = new Parrain();
+        parrain.setNom("Diallo");
+        parrain.setPrenom("Moussa");
+        parrain.setEmail("moussa.diallo@example.com");
+        parrain.setTelephone("+22370000000");
+
+        Parrainage parrainage = new Parrainage();
+        parrainage.setEnfant(enfant);
+        parrainage.setParrain(parrain);
+
+        Paiement paiement = new Paiement();
+        paiement.setId(i);
+        paiement.setMontant(new BigDecimal("5000"));
+        paiement.setMethode(MethodePaiement.ORANGE_MONEY);
+        paiement.setStatut(StatutPaiement.REUSSI);
+        paiement.setDatePaiement(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+        paiement.setTransactionId("TX-" + i);
+        paiement.setParrain(parrain);
+        paiement.setParrainage(parrainage);
+        paiement.setOrganisation(organisation);
+        return paiement;
+    }
+
+    private static void remplirUtilisateur(Utilisateur utilisateur, RoleUser role) {
+        utilisateur.setEmail("utilisateur" + COMPTEUR.getAndIncrement() + "@eduka.test");
+        utilisateur.setPassword("password");
+        utilisateur.setRole(role);
+        utilisateur.setDateInscription(LocalDate.now());
+        utilisateur.setActif(true);
+    }
+}
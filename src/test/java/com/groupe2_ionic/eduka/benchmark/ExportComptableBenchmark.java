@@ -0,0 +1,147 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.BaseH2;
+import com.groupe2_ionic.eduka.services.rapports.ExportComptable;
+import com.groupe2_ionic.eduka.services.rapports.FormatExport;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Débit de l'export comptable d'une année (200 000 paiements, 50 000 dépenses, 50 000 transferts)
+ * en CSV, CSV compressé et XLSX, en lignes par seconde (compteur auxiliaire "lignes") ; la sortie est ignorée.
+ * La base H2 est sur disque et la JVM limitée à 96 Mo de tas pour vérifier que la mémoire ne dépend pas
+ * du nombre de lignes ; le pic de tas de chaque itération est affiché.
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx96m", "-Xms96m"})
+public class ExportComptableBenchmark {
+
+    private static final int NOMBRE_PAIEMENTS = 200_000;
+    private static final int NOMBRE_DEPENSES = 50_000;
+    private static final int NOMBRE_TRANSFERTS = 50_000;
+    private static final LocalDate DEBUT = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 12, 31);
+
+    @Param({"CSV", "CSV_GZIP", "XLSX"})
+    public String sortie;
+
+    private Path dossier;
+    private ConfigurableApplicationContext context;
+    private ExportComptable exportComptable;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Lignes {
+        public long lignes;
+
+        @Setup(Level.Iteration)
+        public void reinitialiser() {
+            lignes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        dossier = Files.createTempDirectory("export-comptable");
+        context = BaseH2.demarrer("jdbc:h2:file:" + dossier.resolve("eduka") + ";CACHE_SIZE=8192");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        inserer(jdbcTemplate, "INSERT INTO paiement (methode, montant, statut, date_paiement, transaction_id, " +
+                "traitement_en_attente) VALUES (?, ?, ?, ?, ?, false)", NOMBRE_PAIEMENTS, i -> new Object[]{
+                i % 2 == 0 ? "ORANGE_MONEY" : "MOOV_MONEY", BigDecimal.valueOf(5_000 + i % 50 * 500),
+                i % 10 == 0 ? "ECHEC" : "REUSSI", DEBUT.plusDays(i % 365),
+                "OM_" + Long.toString(1_000_000_000L + i, 36).toUpperCase()});
+        inserer(jdbcTemplate, "INSERT INTO depense (type_depense, montant, date_enregistrement) VALUES (?, ?, ?)",
+                NOMBRE_DEPENSES, i -> new Object[]{"SCOLARITE", BigDecimal.valueOf(10_000 + i % 20 * 250), DEBUT.plusDays(i % 365)});
+        inserer(jdbcTemplate, "INSERT INTO transfert_fond (motif, montant, statut, date_demande) VALUES (?, ?, ?, ?)",
+                NOMBRE_TRANSFERTS, i -> new Object[]{"ABANDON", BigDecimal.valueOf(3_000 + i % 10 * 100), "VALIDE", DEBUT.plusDays(i % 365)});
+
+        exportComptable = new ExportComptable(jdbcTemplate, 1000);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (var fichiers = Files.walk(dossier)) {
+            fichiers.sorted((a, b) -> b.compareTo(a)).forEach(fichier -> fichier.toFile().delete());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reinitialiserPicTas() {
+        System.gc();
+        tas().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void afficherPicTas() {
+        long pic = tas().stream().mapToLong(zone -> zone.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n  pic de tas: %.1f Mo%n", pic / 1_048_576.0);
+    }
+
+    @Benchmark
+    public void exportAnnuel(Lignes compteur) throws IOException {
+        OutputStream ignoree = OutputStream.nullOutputStream();
+        switch (sortie) {
+            case "CSV" -> compteur.lignes += exportComptable.exporter(DEBUT, FIN, FormatExport.CSV, ignoree);
+            case "CSV_GZIP" -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(ignoree, 64 * 1024);
+                compteur.lignes += exportComptable.exporter(DEBUT, FIN, FormatExport.CSV, gzip);
+                gzip.finish();
+            }
+            default -> compteur.lignes += exportComptable.exporter(DEBUT, FIN, FormatExport.XLSX, ignoree);
+        }
+    }
+
+    private static void inserer(JdbcTemplate jdbcTemplate, String sql, int nombre, Ligne ligne) {
+        List<Object[]> lot = new ArrayList<>(5_000);
+        for (int i = 0; i < nombre; i++) {
+            lot.add(ligne.valeurs(i));
+            if (lot.size() == 5_000 || i == nombre - 1) {
+                jdbcTemplate.batchUpdate(sql, lot);
+                lot.clear();
+            }
+        }
+    }
+
+    private static List<MemoryPoolMXBean> tas() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(zone -> zone.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface Ligne {
+        Object[] valeurs(int i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExportComptableBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.BaseH2;
+import com.groupe2_ionic.eduka.models.Notification;
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.repository.NotificationRepository;
+import com.groupe2_ionic.eduka.repository.ParrainRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la pagination OFFSET + COUNT et la pagination par curseur du flux des notifications
+ * à la page 1 et à la page 1000 (base H2 en mémoire, 25 000 notifications pour un même parrain).
+ * Les flux des paiements et des rapports utilisent la même forme de requête.
+ * Le curseur doit garder un coût constant en profondeur : s'il croît avec la page, vérifier avec EXPLAIN
+ * que la page suivante lit l'index du flux borné par la date du curseur, et non le seul index du destinataire.
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FluxPaginationBenchmark {
+
+    private static final int NOMBRE_NOTIFICATIONS = 25_000;
+    private static final int TAILLE_PAGE = 20;
+
+    @Param({"1", "1000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private NotificationRepository notificationRepository;
+    private Parrain parrain;
+    private Notification dernierePagePrecedente;
+
+    @Setup
+    public void setup() {
+        context = BaseH2.demarrer("jdbc:h2:mem:flux;DB_CLOSE_DELAY=-1");
+
+        notificationRepository = context.getBean(NotificationRepository.class);
+
+        Parrain nouveau = new Parrain();
+        nouveau.setNom("Diarra");
+        nouveau.setPrenom("Moussa");
+        nouveau.setEmail("parrain@eduka.test");
+        nouveau.setPassword("password");
+        nouveau.setRole(RoleUser.ROLE_PARRAIN);
+        nouveau.setDateInscription(LocalDate.now());
+        nouveau.setActif(true);
+        parrain = context.getBean(ParrainRepository.class).save(nouveau);
+
+        List<Object[]> lignes = new ArrayList<>(NOMBRE_NOTIFICATIONS);
+        LocalDate aujourdhui = LocalDate.now();
+        for (int i = 0; i < NOMBRE_NOTIFICATIONS; i++) {
+            lignes.add(new Object[]{"Sujet " + i, "Message " + i, Date.valueOf(aujourdhui.minusDays(i / 50)), parrain.getId()});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO notification (sujet, message, date, lu, id_destinataire) VALUES (?, ?, ?, false, ?)", lignes);
+
+        // Position du curseur à la fin de la page précédente, obtenue en parcourant le flux
+        List<Notification> serie = notificationRepository.findFluxByDestinataireId(parrain.getId(), PageRequest.of(0, TAILLE_PAGE));
+        for (int i = 1; i < page - 1; i++) {
+            Notification derniere = serie.get(serie.size() - 1);
+            serie = notificationRepository.findFluxByDestinataireIdApres(
+                    parrain.getId(), derniere.getDate(), derniere.getId(), PageRequest.of(0, TAILLE_PAGE));
+        }
+        dernierePagePrecedente = page > 1 ? serie.get(serie.size() - 1) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Notification> paginationOffset() {
+        return notificationRepository.findByDestinataireOrderByDateDesc(parrain, PageRequest.of(page - 1, TAILLE_PAGE));
+    }
+
+    @Benchmark
+    public List<Notification> paginationCurseur() {
+        if (dernierePagePrecedente == null) {
+            return notificationRepository.findFluxByDestinataireId(parrain.getId(), PageRequest.of(0, TAILLE_PAGE + 1));
+        }
+        return notificationRepository.findFluxByDestinataireIdApres(parrain.getId(),
+                dernierePagePrecedente.getDate(), dernierePagePrecedente.getId(), PageRequest.of(0, TAILLE_PAGE + 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FluxPaginationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
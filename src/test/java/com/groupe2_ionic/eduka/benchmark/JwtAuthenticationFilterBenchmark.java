@@ -0,0 +1,118 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.security.CustomUserDetailsService;
+import com.groupe2_ionic.eduka.security.JwtAuthenticationFilter;
+import com.groupe2_ionic.eduka.security.JwtUtil;
+import com.groupe2_ionic.eduka.security.UserAccessStore;
+import com.groupe2_ionic.eduka.security.VerifiedTokenCache;
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Compare le débit des requêtes authentifiées avec et sans rechargement de l'utilisateur en base.
+ * La latence MySQL est simulée par le paramètre {@code dbLatencyMicros}.
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"0", "250"})
+    public long dbLatencyMicros;
+
+    private JwtAuthenticationFilter statelessFilter;
+    private JwtAuthenticationFilter databaseFilter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        Parrain parrain = new Parrain();
+        parrain.setId(1);
+        parrain.setEmail("parrain@eduka.test");
+        parrain.setPassword("password");
+        parrain.setRole(RoleUser.ROLE_PARRAIN);
+        parrain.setDateInscription(LocalDate.now());
+        parrain.setActif(true);
+
+        UtilisateurRepository repository = Mockito.mock(UtilisateurRepository.class);
+        Mockito.when(repository.findByEmailOrTelephone(anyString(), anyString())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            return Optional.of(parrain);
+        });
+        Mockito.when(repository.findActifById(anyInt())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            return Optional.of(true);
+        });
+
+        JwtProperties statelessProperties = new JwtProperties();
+        JwtProperties databaseProperties = new JwtProperties();
+        databaseProperties.setStateless(false);
+
+        JwtUtil jwtUtil = new JwtUtil(statelessProperties);
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(repository);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(statelessProperties);
+        UserAccessStore userAccessStore = new UserAccessStore(repository, statelessProperties, verifiedTokenCache);
+
+        statelessFilter = new JwtAuthenticationFilter(
+                jwtUtil, userDetailsService, userAccessStore, verifiedTokenCache, statelessProperties);
+        databaseFilter = new JwtAuthenticationFilter(
+                jwtUtil, userDetailsService, userAccessStore, verifiedTokenCache, databaseProperties);
+
+        String token = jwtUtil.generateAccessToken(
+                User.withUsername(parrain.getEmail()).password("").authorities("ROLE_PARRAIN").build(),
+                parrain.getId(), parrain.getRole().name());
+        authorizationHeader = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Object authentificationSansEtat() throws Exception {
+        return authenticate(statelessFilter);
+    }
+
+    @Benchmark
+    public Object authentificationAvecBase() throws Exception {
+        return authenticate(databaseFilter);
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/parrain/filleuls");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
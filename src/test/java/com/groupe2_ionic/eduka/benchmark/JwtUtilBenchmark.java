@@ -0,0 +1,79 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.security.JwtClaims;
+import com.groupe2_ionic.eduka.security.JwtUtil;
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le nombre de tokens vérifiés par seconde :
+ * <ul>
+ *     <li>avant : nouvelle clé et nouveau parser à chaque claim, trois analyses par requête
+ *     (nom d'utilisateur, expiration puis validation)</li>
+ *     <li>après : clé et parser mis en cache, une seule analyse via {@link JwtUtil#parseToken(String)}</li>
+ * </ul>
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtProperties jwtProperties;
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtProperties = new JwtProperties();
+        jwtUtil = new JwtUtil(jwtProperties);
+        token = jwtUtil.generateAccessToken(
+                User.withUsername("parrain@eduka.test").password("").authorities("ROLE_PARRAIN").build(),
+                1, "ROLE_PARRAIN");
+    }
+
+    @Benchmark
+    public boolean avantTroisAnalysesSansCache() {
+        String username = legacyClaims().getSubject();
+        Date expiration = legacyClaims().getExpiration();
+        String subject = legacyClaims().getSubject();
+        return username.equals(subject) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean apresAnalyseUnique() {
+        JwtClaims claims = jwtUtil.parseToken(token);
+        return claims.username() != null && !claims.isExpired();
+    }
+
+    /**
+     * Reproduit l'ancien comportement de JwtUtil.extractAllClaims
+     */
+    private Claims legacyClaims() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import com.lowagie.text.pdf.PdfReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Débit de génération du rapport administratif (10 000 paiements lus en flux, sortie ignorée)
+ * et du reçu de paiement, en pages par seconde (compteur auxiliaire "pages").
+ * La JVM du benchmark est limitée à 64 Mo de tas ; le pic de tas de chaque itération est affiché
+ * (somme des pics des zones du tas, remis à zéro avant l'itération).
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx64m", "-Xms64m"})
+public class PdfServiceBenchmark {
+
+    private static final int NOMBRE_PAIEMENTS = 10_000;
+    private static final LocalDate DEBUT = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 12, 31);
+
+    private final PdfService pdfService = new PdfService();
+    private Organisation organisation;
+    private Paiement recu;
+    private int pagesRapport;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Pages {
+        public long pages;
+
+        @Setup(Level.Iteration)
+        public void reinitialiser() {
+            pages = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        organisation = DonneesTest.organisationRecu();
+        recu = paiement(1);
+
+        ByteArrayOutputStream rapport = new ByteArrayOutputStream();
+        genererRapport(rapport);
+        pagesRapport = new PdfReader(rapport.toByteArray()).getNumberOfPages();
+    }
+
+    @Setup(Level.Iteration)
+    public void reinitialiserPicTas() {
+        System.gc();
+        tas().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void afficherPicTas() {
+        long pic = tas().stream().mapToLong(zone -> zone.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n  pic de tas: %.1f Mo (%d pages par rapport)%n", pic / 1_048_576.0, pagesRapport);
+    }
+
+    @Benchmark
+    public void rapportAdministratif(Pages compteur) throws IOException {
+        genererRapport(OutputStream.nullOutputStream());
+        compteur.pages += pagesRapport;
+    }
+
+    @Benchmark
+    public void recuPaiement(Pages compteur) throws IOException {
+        pdfService.genererRecuPaiement(recu, OutputStream.nullOutputStream());
+        compteur.pages++;
+    }
+
+    private void genererRapport(OutputStream sortie) throws IOException {
+        pdfService.genererRapportAdministratif(DEBUT, FIN, List.of(organisation),
+                IntStream.rangeClosed(1, NOMBRE_PAIEMENTS).mapToObj(this::paiement),
+                NOMBRE_PAIEMENTS, new BigDecimal("50000000"), sortie);
+    }
+
+    private Paiement paiement(int i) {
+        Paiement paiement = DonneesTest.paiementRecu(organisation, i);
+        paiement.setMontant(BigDecimal.valueOf(5_000 + i % 50 * 500));
+        paiement.setMethode(MethodePaiement.values()[i % MethodePaiement.values().length]);
+        paiement.setDatePaiement(DEBUT.plusDays(i % 365));
+        paiement.setTransactionId("OM_" + Long.toString(1_000_000_000L + i, 36).toUpperCase());
+        return paiement;
+    }
+
+    private static List<MemoryPoolMXBean> tas() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(zone -> zone.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PdfServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
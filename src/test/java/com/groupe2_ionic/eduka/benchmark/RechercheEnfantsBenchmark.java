@@ -0,0 +1,98 @@
+package com.groupe2_ionic.eduka.benchmark;
+
+import com.groupe2_ionic.eduka.dto.EnfantIndexeDto;
+import com.groupe2_ionic.eduka.services.recherche.IndexEnfants;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence de l'index de recherche des enfants disponibles sur 100 000 enfants générés
+ * (30 villes, 200 organisations, 12 niveaux, histoires de 40 mots tirés d'un vocabulaire de 2 000 mots).
+ * Mesure la recherche seule, sans le chargement des résultats en base.
+ *
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RechercheEnfantsBenchmark {
+
+    private static final int NOMBRE_ENFANTS = 100_000;
+    private static final String[] VILLES = {"Bamako", "Ségou", "Sikasso", "Mopti", "Kayes", "Koutiala", "Gao",
+            "Tombouctou", "Kati", "Koulikoro", "San", "Bougouni", "Kita", "Nioro", "Djenné", "Bandiagara",
+            "Kidal", "Ménaka", "Douentza", "Diéma", "Yanfolila", "Kolondiéba", "Bla", "Macina", "Niono",
+            "Markala", "Dioïla", "Fana", "Kangaba", "Nara"};
+    private static final String[] NIVEAUX = {"CP1", "CP2", "CE1", "CE2", "CM1", "CM2", "6ème", "5ème", "4ème",
+            "3ème", "Seconde", "Terminale"};
+    private static final String[] NOMS = {"Traoré", "Keita", "Diallo", "Coulibaly", "Konaté", "Sangaré",
+            "Touré", "Cissé", "Diarra", "Sidibé", "Maïga", "Dembélé"};
+    private static final String[] PRENOMS = {"Awa", "Moussa", "Fanta", "Issa", "Aminata", "Oumar", "Mariam",
+            "Seydou", "Kadiatou", "Bakary", "Fatoumata", "Modibo"};
+
+    private IndexEnfants index;
+
+    @Setup
+    public void setup() {
+        Random aleatoire = new Random(42);
+        String[] vocabulaire = new String[2000];
+        for (int i = 0; i < vocabulaire.length; i++) {
+            vocabulaire[i] = "mot" + Integer.toString(i, 36) + (i % 7 == 0 ? "ecole" : "");
+        }
+
+        index = new IndexEnfants();
+        for (int id = 1; id <= NOMBRE_ENFANTS; id++) {
+            StringJoiner histoire = new StringJoiner(" ");
+            for (int m = 0; m < 40; m++) {
+                // Distribution biaisée vers les premiers mots, comme un texte naturel
+                histoire.add(vocabulaire[(int) (vocabulaire.length * Math.pow(aleatoire.nextDouble(), 3))]);
+            }
+            index.indexer(new EnfantIndexeDto(id,
+                    NOMS[aleatoire.nextInt(NOMS.length)],
+                    PRENOMS[aleatoire.nextInt(PRENOMS.length)],
+                    NIVEAUX[aleatoire.nextInt(NIVEAUX.length)],
+                    histoire.toString(),
+                    "Association " + aleatoire.nextInt(200),
+                    VILLES[aleatoire.nextInt(VILLES.length)]));
+        }
+    }
+
+    @Benchmark
+    public IndexEnfants.Resultat navigationSansTexte() {
+        return index.rechercher(null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public IndexEnfants.Resultat navigationParFacettes() {
+        return index.rechercher(null, "Bamako", "CM1", 0, 20);
+    }
+
+    @Benchmark
+    public IndexEnfants.Resultat termeFrequent() {
+        return index.rechercher("traore", null, null, 0, 20);
+    }
+
+    @Benchmark
+    public IndexEnfants.Resultat plusieursTermesAvecFiltre() {
+        return index.rechercher("awa traore segou", null, "CM1", 0, 20);
+    }
+
+    @Benchmark
+    public IndexEnfants.Resultat prefixeEnCoursDeSaisie() {
+        return index.rechercher("fatoumata mo", null, null, 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RechercheEnfantsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
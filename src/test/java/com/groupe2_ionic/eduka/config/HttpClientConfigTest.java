@@ -0,0 +1,117 @@
+package com.groupe2_ionic.eduka.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pool de connexions sortant : limite par hôte (et sa liaison depuis les propriétés), réutilisation des connexions
+ * et métriques d'occupation
+ */
+class HttpClientConfigTest {
+
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final AtomicInteger maxSimultanes = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer serveur;
+    private PoolingHttpClientConnectionManager connexions;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serveur.createContext("/sms", echange -> {
+            maxSimultanes.accumulateAndGet(enCours.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                byte[] corps = "OK".getBytes(StandardCharsets.UTF_8);
+                echange.sendResponseHeaders(200, corps.length);
+                echange.getResponseBody().write(corps);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                enCours.decrementAndGet();
+                echange.close();
+            }
+        });
+        serveur.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        serveur.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        serveur.stop(0);
+    }
+
+    @Test
+    void limiteParHoteEtConnexionsReutilisees() throws Exception {
+        String base = "http://127.0.0.1:" + serveur.getAddress().getPort();
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setConnexionsParHote(Map.of(base, 3));
+        RestTemplate restTemplate = restTemplate(properties);
+
+        List<Future<String>> reponses = new ArrayList<>();
+        try (ExecutorService appelants = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 30; i++) {
+                reponses.add(appelants.submit(() -> restTemplate.postForObject(base + "/sms", "message", String.class)));
+            }
+            for (Future<String> reponse : reponses) {
+                assertThat(reponse.get(30, TimeUnit.SECONDS)).isEqualTo("OK");
+            }
+        }
+
+        assertThat(maxSimultanes.get()).isEqualTo(3);
+        // Les trois connexions restent ouvertes pour les envois suivants
+        assertThat(connexions.getTotalStats().getAvailable()).isEqualTo(3);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value())
+                .isEqualTo(properties.getConnexionsParHoteDefaut());
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void limiteParHoteLieeDepuisUnFichierDeProprietes() throws Exception {
+        Properties fichier = new Properties();
+        fichier.load(new StringReader("http.client.connexions-par-hote[https\\://api.twilio.com]=50\n"
+                + "http.client.connexions-par-hote[http\\://127.0.0.1\\:8081]=5\n"));
+
+        HttpClientProperties properties = new Binder(new MapConfigurationPropertySource(fichier))
+                .bind("http.client", HttpClientProperties.class).get();
+
+        assertThat(properties.getConnexionsParHote())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("https://api.twilio.com", 50, "http://127.0.0.1:8081", 5));
+        restTemplate(properties);
+        assertThat(connexions.getMaxPerRoute(HttpClientConfig.route("https://api.twilio.com"))).isEqualTo(50);
+    }
+
+    private RestTemplate restTemplate(HttpClientProperties properties) {
+        HttpClientConfig config = new HttpClientConfig();
+        connexions = config.connexionsHttp(properties, meterRegistry);
+        httpClient = config.httpClient(connexions, properties);
+        return new AppConfig().restTemplate(config.clientHttpRequestFactory(httpClient));
+    }
+}
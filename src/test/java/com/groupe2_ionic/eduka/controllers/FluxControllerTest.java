@@ -0,0 +1,87 @@
+package com.groupe2_ionic.eduka.controllers;
+
+import com.groupe2_ionic.eduka.dto.NotificationResponseDto;
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
+import com.groupe2_ionic.eduka.dto.PaiementHistoriqueDto;
+import com.groupe2_ionic.eduka.dto.RapportResponseDto;
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.services.NotificationService;
+import com.groupe2_ionic.eduka.services.PaiementService;
+import com.groupe2_ionic.eduka.services.RapportService;
+import com.groupe2_ionic.eduka.services.payment.IngestionRappelsPaiement;
+import com.groupe2_ionic.eduka.services.payment.PayPalPaymentService;
+import com.groupe2_ionic.eduka.services.payment.StripePaymentService;
+import com.groupe2_ionic.eduka.services.payment.WavePaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Points d'accès /feed des notifications, paiements et rapports : curseur et taille transmis au service,
+ * curseur invalide refusé (400), cible inconnue (404)
+ */
+class FluxControllerTest {
+
+    @Test
+    void fluxDesNotifications() throws Exception {
+        NotificationService service = mock(NotificationService.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new NotificationController(service, mock(UtilisateurRepository.class))).build();
+        NotificationResponseDto notification = new NotificationResponseDto();
+        notification.setId(9);
+        when(service.getFluxNotifications(1, null, 20))
+                .thenReturn(new PageCurseurDto<>(List.of(notification), "c2", true, 1));
+        when(service.getFluxNotifications(1, "mauvais", 20)).thenThrow(new IllegalArgumentException("Curseur"));
+        when(service.getFluxNotifications(2, null, 20)).thenThrow(new RuntimeException("Utilisateur non trouvé"));
+
+        mockMvc.perform(get("/api/v1/notifications/user/1/feed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu[0].id").value(9))
+                .andExpect(jsonPath("$.curseurSuivant").value("c2"))
+                .andExpect(jsonPath("$.suivant").value(true));
+        mockMvc.perform(get("/api/v1/notifications/user/1/feed").param("cursor", "mauvais"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/notifications/user/2/feed")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void fluxDeLHistoriqueDesPaiements() throws Exception {
+        PaiementService service = mock(PaiementService.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PaiementController(service,
+                mock(StripePaymentService.class), mock(PayPalPaymentService.class), mock(WavePaymentService.class),
+                mock(IngestionRappelsPaiement.class))).build();
+        when(service.getFluxHistoriquePaiements(3, "c1", 50))
+                .thenReturn(new PageCurseurDto<>(List.of(new PaiementHistoriqueDto()), null, false, 1));
+        when(service.getFluxHistoriquePaiements(3, "mauvais", 20)).thenThrow(new IllegalArgumentException("Curseur"));
+
+        mockMvc.perform(get("/api/v1/payments/historique/3/feed").param("cursor", "c1").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taille").value(1))
+                .andExpect(jsonPath("$.suivant").value(false));
+        mockMvc.perform(get("/api/v1/payments/historique/3/feed").param("cursor", "mauvais"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void fluxDesRapportsDUneOrganisation() throws Exception {
+        RapportService service = mock(RapportService.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new RapportController(service)).build();
+        when(service.getFluxRapportsParOrganisation(4, null, 10))
+                .thenReturn(new PageCurseurDto<>(List.of(new RapportResponseDto()), "c2", true, 1));
+        when(service.getFluxRapportsParOrganisation(4, "mauvais", 20)).thenThrow(new IllegalArgumentException("Curseur"));
+
+        mockMvc.perform(get("/api/v1/rapports/organisation/4/feed").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.curseurSuivant").value("c2"));
+        mockMvc.perform(get("/api/v1/rapports/organisation/4/feed").param("cursor", "mauvais"))
+                .andExpect(status().isBadRequest());
+        verify(service).getFluxRapportsParOrganisation(4, null, 10);
+    }
+}
@@ -0,0 +1,49 @@
+package com.groupe2_ionic.eduka.security;
+
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Révocation en mémoire des tokens d'accès, à la milliseconde près de leur émission
+ */
+class UserAccessStoreTest {
+
+    private final JwtProperties jwtProperties = new JwtProperties();
+    private final JwtUtil jwtUtil = new JwtUtil(jwtProperties);
+    private final UserAccessStore store = new UserAccessStore(mock(UtilisateurRepository.class), jwtProperties,
+            new VerifiedTokenCache(jwtProperties));
+    private final UserDetails utilisateur = User.withUsername("parrain@eduka.test").password("password")
+            .roles("PARRAIN").build();
+
+    @Test
+    void tokenEmisApresLaRevocationResteValideDansLaMemeSeconde() throws InterruptedException {
+        JwtClaims avant = jwtUtil.parseToken(jwtUtil.generateAccessToken(utilisateur, 1, "ROLE_PARRAIN"));
+        Thread.sleep(2);
+        store.revokeTokens(1);
+        Thread.sleep(2);
+        // Connexion juste après une réinitialisation du mot de passe
+        JwtClaims apres = jwtUtil.parseToken(jwtUtil.generateAccessToken(utilisateur, 1, "ROLE_PARRAIN"));
+
+        assertThat(store.isRevoked(1, avant.issuedAt())).isTrue();
+        assertThat(store.isRevoked(1, apres.issuedAt())).isFalse();
+        assertThat(store.isRevoked(2, avant.issuedAt())).isFalse();
+    }
+
+    @Test
+    void tokenSansDateALaMillisecondeRevoqueDansLaSecondeDeLaRevocation() {
+        long seconde = (System.currentTimeMillis() / 1000) * 1000;
+        store.revokeTokens(1);
+
+        assertThat(store.isRevoked(1, new Date(seconde))).isTrue();
+        assertThat(store.isRevoked(1, new Date(seconde + 2000))).isFalse();
+        assertThat(store.isRevoked(1, null)).isTrue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.groupe2_ionic.eduka.security;
+
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Cache des tokens vérifiés : expiration avec le token, éviction LRU, invalidation par utilisateur
+ */
+class VerifiedTokenCacheTest {
+
+    @Test
+    void entreeExpireAvecLeToken() {
+        VerifiedTokenCache cache = cache(100, 4);
+        cache.put("court", claims(1, "ROLE_PARRAIN", System.currentTimeMillis() + 200));
+        cache.put("deja-expire", claims(1, "ROLE_PARRAIN", System.currentTimeMillis() - 1));
+
+        assertThat(cache.get("court")).isNotNull();
+        assertThat(cache.get("deja-expire")).isNull();
+        await().atMost(5, SECONDS).until(() -> cache.get("court") == null);
+        assertThat(cache.getStats().expiredEvictions()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void moinsRecemmentUtiliseEvinceAuDelaDeLaCapacite() {
+        VerifiedTokenCache cache = cache(2, 1);
+        cache.put("a", claims(1, "ROLE_PARRAIN", dans1h()));
+        cache.put("b", claims(2, "ROLE_PARRAIN", dans1h()));
+        cache.get("a");
+        cache.put("c", claims(3, "ROLE_PARRAIN", dans1h()));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getStats().sizeEvictions()).isEqualTo(1);
+
+        // L'entrée évincée ne figure plus dans l'index de son utilisateur
+        cache.invalidateUser(2);
+        assertThat(cache.getStats().invalidations()).isZero();
+    }
+
+    @Test
+    void invalidationDesTokensDUnUtilisateurSaufTuteur() {
+        VerifiedTokenCache cache = cache(100, 4);
+        cache.put("parrain-web", claims(1, "ROLE_PARRAIN", dans1h()));
+        cache.put("parrain-mobile", claims(1, "ROLE_PARRAIN", dans1h()));
+        cache.put("autre", claims(2, "ROLE_PARRAIN", dans1h()));
+        // Même identifiant numérique, mais pris dans la table des tuteurs
+        cache.put("tuteur", claims(1, "TUTEUR", dans1h()));
+
+        cache.invalidateUser(1);
+
+        assertThat(cache.get("parrain-web")).isNull();
+        assertThat(cache.get("parrain-mobile")).isNull();
+        assertThat(cache.get("autre")).isNotNull();
+        assertThat(cache.get("tuteur")).isNotNull();
+        assertThat(cache.getStats().invalidations()).isEqualTo(2);
+
+        // Un token remis en cache après l'invalidation est de nouveau indexé
+        cache.put("parrain-web", claims(1, "ROLE_PARRAIN", dans1h()));
+        cache.invalidateUser(1);
+        assertThat(cache.get("parrain-web")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private static VerifiedTokenCache cache(int maxSize, int stripes) {
+        JwtProperties properties = new JwtProperties();
+        properties.getTokenCache().setMaxSize(maxSize);
+        properties.getTokenCache().setStripes(stripes);
+        return new VerifiedTokenCache(properties);
+    }
+
+    private static JwtClaims claims(int userId, String role, long expiration) {
+        return new JwtClaims("utilisateur" + userId + "@eduka.test", userId, role, "ACCESS",
+                new Date(), new Date(expiration));
+    }
+
+    private static long dans1h() {
+        return System.currentTimeMillis() + 3_600_000;
+    }
+}
@@ -0,0 +1,160 @@
+package com.groupe2_ionic.eduka.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.dto.OrganisationDashboardDto;
+import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.*;
+import com.groupe2_ionic.eduka.repository.*;
+import com.groupe2_ionic.eduka.services.organisation.TableauDeBordCache;
+import com.groupe2_ionic.eduka.services.organisation.TableauDeBordProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tableau de bord des organisations : agrégats en une requête, servis depuis le cache jusqu'à invalidation
+ * (base H2 en mémoire, cache local uniquement)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrganisationServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private EnfantRepository enfantRepository;
+
+    @Autowired
+    private DepenseRepository depenseRepository;
+
+    @Autowired
+    private RapportRepository rapportRepository;
+
+    private TableauDeBordCache cache;
+    private OrganisationService organisationService;
+    private Organisation organisation;
+    private Enfant enfant;
+    private int compteur;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TableauDeBordCache(new TableauDeBordProperties(), null, null,
+                new ObjectMapper(), new SimpleMeterRegistry());
+        organisationService = new OrganisationService(organisationRepository, enfantRepository,
+                mock(BesoinRepository.class), depenseRepository, rapportRepository, mock(TransfertFondRepository.class),
+                mock(NotificationService.class), mock(ApplicationEventPublisher.class), cache);
+
+        organisation = DonneesTest.organisation();
+        entityManager.persist(organisation);
+
+        enfant = creerEnfant(true);
+        creerEnfant(false);
+        creerEnfant(false);
+        creerRapport();
+        creerRapport();
+        creerDepense("1000");
+        creerDepense("500");
+    }
+
+    @Test
+    void agregatsEnUneRequetePuisDepuisLeCache() {
+        long requetes = compterRequetes(() -> {
+            OrganisationDashboardDto tableau = organisationService.obtenirTableauDeBord(organisation.getId());
+            assertThat(tableau.getNombreEnfants()).isEqualTo(3);
+            assertThat(tableau.getNombreEnfantsParraines()).isEqualTo(1);
+            assertThat(tableau.getNombreRapports()).isEqualTo(2);
+            assertThat(tableau.getNombreDepenses()).isEqualTo(2);
+            assertThat(tableau.getMontantTotalDepenses()).isEqualByComparingTo("1500");
+        });
+        assertThat(requetes).isEqualTo(1);
+
+        assertThat(compterRequetes(() -> organisationService.obtenirTableauDeBord(organisation.getId()))).isZero();
+    }
+
+    @Test
+    void modificationInvalideLeTableauDeBord() {
+        organisationService.obtenirTableauDeBord(organisation.getId());
+
+        creerDepense("250");
+        cache.onDonneesOrganisationModifiees(
+                new OrganisationService.DonneesOrganisationModifieesEvent(organisation.getId()));
+        assertThat(organisationService.obtenirTableauDeBord(organisation.getId()).getMontantTotalDepenses())
+                .isEqualByComparingTo("1750");
+
+        enfant.setStatutParrainage(false);
+        entityManager.flush();
+        cache.onEnfantModifie(new EnfantService.EnfantModifieEvent(enfant));
+        assertThat(organisationService.obtenirTableauDeBord(organisation.getId()).getNombreEnfantsParraines()).isZero();
+    }
+
+    @Test
+    void organisationInconnueNonMiseEnCache() {
+        assertThatThrownBy(() -> organisationService.obtenirTableauDeBord(-1))
+                .hasMessage("Organisation non trouvée");
+        assertThat(compterRequetes(() -> assertThatThrownBy(() -> organisationService.obtenirTableauDeBord(-1))))
+                .isEqualTo(1);
+    }
+
+    private long compterRequetes(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+        action.run();
+        return statistiques.getPrepareStatementCount();
+    }
+
+    private Enfant creerEnfant(boolean parraine) {
+        Enfant nouveau = DonneesTest.enfant(organisation);
+        nouveau.setPrenom("Awa" + compteur++);
+        nouveau.setStatutParrainage(parraine);
+        entityManager.persist(nouveau);
+        return nouveau;
+    }
+
+    private void creerRapport() {
+        Rapport rapport = new Rapport();
+        rapport.setTitre("Bulletin");
+        rapport.setTypeRapport("SCOLAIRE");
+        rapport.setPeriode("Trimestre");
+        rapport.setDate(LocalDate.now());
+        rapport.setEnfant(enfant);
+        rapport.setOrganisation(organisation);
+        entityManager.persist(rapport);
+    }
+
+    private void creerDepense(String montant) {
+        Depense depense = new Depense();
+        depense.setTypeDepense(TypeDepense.FOURNITURE_SCOLAIRE);
+        depense.setMontant(new BigDecimal(montant));
+        depense.setDateEnregistrement(LocalDate.now());
+        depense.setOrganisation(organisation);
+        depense.setEnfant(enfant);
+        entityManager.persist(depense);
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,131 @@
+package com.groupe2_ionic.eduka.services;
+
+import com.groupe2_ionic.eduka.dto.auth.OtpRequestDto;
+import com.groupe2_ionic.eduka.dto.auth.OtpVerificationDto;
+import com.groupe2_ionic.eduka.dto.auth.TuteurAuthResponseDto;
+import com.groupe2_ionic.eduka.models.Tuteur;
+import com.groupe2_ionic.eduka.repository.TuteurRepository;
+import com.groupe2_ionic.eduka.security.JwtUtil;
+import com.groupe2_ionic.eduka.security.properties.JwtProperties;
+import com.groupe2_ionic.eduka.security.properties.OtpProperties;
+import com.groupe2_ionic.eduka.services.otp.InMemoryOtpStore;
+import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import com.groupe2_ionic.eduka.services.utilitaires.InstantanesStatistiques;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du parcours OTP des tuteurs avec le stockage en mémoire (sans Redis ni MySQL)
+ */
+class OtpServiceTest {
+
+    private static final String TELEPHONE = "+22370000000";
+
+    private TuteurRepository tuteurRepository;
+    private EmailService emailService;
+    private OtpService otpService;
+
+    @BeforeEach
+    void setUp() {
+        tuteurRepository = mock(TuteurRepository.class);
+        emailService = mock(EmailService.class);
+
+        Tuteur tuteur = new Tuteur(7, "Traoré", "Awa", TELEPHONE);
+        when(tuteurRepository.findByTelephone(TELEPHONE)).thenReturn(Optional.of(tuteur));
+
+        JwtProperties jwtProperties = new JwtProperties();
+        otpService = new OtpService(new InMemoryOtpStore(), tuteurRepository, emailService,
+                new JwtUtil(jwtProperties), new OtpProperties(), jwtProperties, new InstantanesStatistiques(false));
+    }
+
+    @Test
+    void loginCompletNeConsulteLaBaseQuUneSeuleFois() {
+        for (int i = 0; i < 2; i++) {
+            String code = demanderCode();
+            TuteurAuthResponseDto response = otpService.verifyOtpAndAuthenticate(verification(code));
+
+            assertThat(response.getAccessToken()).isNotBlank();
+            assertThat(response.getTuteur().getId()).isEqualTo(7);
+        }
+
+        verify(tuteurRepository, times(1)).findByTelephone(TELEPHONE);
+    }
+
+    @Test
+    void nouveauCodeRemplaceLePrecedent() {
+        String ancienCode = demanderCode();
+        String nouveauCode = demanderCode();
+
+        if (!ancienCode.equals(nouveauCode)) {
+            assertThatThrownBy(() -> otpService.verifyOtpAndAuthenticate(verification(ancienCode)))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        assertThat(otpService.verifyOtpAndAuthenticate(verification(nouveauCode)).getAccessToken()).isNotBlank();
+    }
+
+    @Test
+    void statistiquesDesCodesEmisActifsEtConsommes() {
+        demanderCode();
+        String code = demanderCode();
+        assertThat(otpService.getOtpStats()).isEqualTo(new OtpService.OtpStats(2, 1, 1));
+
+        otpService.verifyOtpAndAuthenticate(verification(code));
+        assertThat(otpService.getOtpStats()).isEqualTo(new OtpService.OtpStats(2, 0, 2));
+    }
+
+    @Test
+    void tentativesEpuiseesInvalidentLeCode() {
+        String code = demanderCode();
+        String mauvaisCode = code.equals("000000") ? "111111" : "000000";
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> otpService.verifyOtpAndAuthenticate(verification(mauvaisCode)))
+                    .hasMessage("Code OTP incorrect");
+        }
+        assertThatThrownBy(() -> otpService.verifyOtpAndAuthenticate(verification(code)))
+                .hasMessage("Nombre maximum de tentatives atteint");
+        assertThatThrownBy(() -> otpService.verifyOtpAndAuthenticate(verification(code)))
+                .hasMessage("Code OTP expiré ou invalide");
+    }
+
+    @Test
+    void demandesLimiteesSurLaFenetreGlissante() {
+        for (int i = 0; i < 5; i++) {
+            demanderCode();
+        }
+
+        assertThatThrownBy(this::demanderCode)
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("Trop de tentatives");
+    }
+
+    private String demanderCode() {
+        OtpRequestDto request = new OtpRequestDto();
+        request.setTelephone(TELEPHONE);
+        otpService.generateAndSendOtp(request);
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(emailService, atLeastOnce()).envoyerEmail(anyString(), anyString(), message.capture());
+        Matcher matcher = Pattern.compile("est : (\\d{6})").matcher(message.getValue());
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+
+    private OtpVerificationDto verification(String code) {
+        OtpVerificationDto request = new OtpVerificationDto();
+        request.setTelephone(TELEPHONE);
+        request.setOtpCode(code);
+        return request;
+    }
+}
@@ -0,0 +1,220 @@
+package com.groupe2_ionic.eduka.services;
+
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.dto.PaiementEspeceDto;
+import com.groupe2_ionic.eduka.dto.PaiementRequestDto;
+import com.groupe2_ionic.eduka.dto.PaiementResponseDto;
+import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.*;
+import com.groupe2_ionic.eduka.repository.*;
+import com.groupe2_ionic.eduka.services.payment.*;
+import com.groupe2_ionic.eduka.services.statistiques.AgregatsPaiementService;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Statistiques de paiement lues dans les agrégats tenus à jour à chaque changement de statut,
+ * et réparation des agrégats depuis l'historique (base H2 en mémoire)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PaiementServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PaiementReposiroty paiementRepository;
+
+    @Autowired
+    private ParrainageRepository parrainageRepository;
+
+    @Autowired
+    private ParrainRepository parrainRepository;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private AgregatPaiementRepository agregatRepository;
+
+    private AgregatsPaiementService agregatsPaiementService;
+    private FournisseurSimule orangeMoney;
+    private PaiementService paiementService;
+    private Organisation organisation;
+    private Parrain parrain;
+    private Parrainage parrainage;
+
+    @BeforeEach
+    void setUp() {
+        agregatsPaiementService = new AgregatsPaiementService(agregatRepository, paiementRepository,
+                transactionManager);
+
+        orangeMoney = new FournisseurSimule(MethodePaiement.ORANGE_MONEY, 0, 0.0);
+        PasserellePaiementProperties proprietes = new PasserellePaiementProperties();
+        proprietes.getDefaut().setDelaiMs(200);
+        PasserellePaiement passerellePaiement = new PasserellePaiement(List.of(orangeMoney),
+                proprietes, new SimpleMeterRegistry());
+        paiementService = new PaiementService(paiementRepository, parrainageRepository, parrainRepository,
+                organisationRepository, mock(ApplicationEventPublisher.class), agregatsPaiementService,
+                passerellePaiement, new GenerateurIdentifiantsTransaction(0), new TransactionTemplate(transactionManager),
+                new PdfService());
+
+        organisation = DonneesTest.organisation();
+        entityManager.persist(organisation);
+        parrain = DonneesTest.parrain();
+        entityManager.persist(parrain);
+        Enfant enfant = DonneesTest.enfant(organisation);
+        entityManager.persist(enfant);
+        parrainage = DonneesTest.parrainage(parrain, enfant, "120000");
+        entityManager.persist(parrainage);
+        entityManager.flush();
+    }
+
+    @Test
+    void statistiquesTenuesAJourParLesChangementsDeStatut() {
+        String reussi = initierOrangeMoney("10000");
+        String confirmeDeuxFois = initierOrangeMoney("5000");
+        String echoue = initierOrangeMoney("7000");
+        initierOrangeMoney("3000");
+        paiementService.confirmerPaiement(reussi, StatutPaiement.REUSSI, "C1");
+        paiementService.confirmerPaiement(confirmeDeuxFois, StatutPaiement.REUSSI, "C2");
+        paiementService.confirmerPaiement(confirmeDeuxFois, StatutPaiement.REUSSI, "C2");
+        paiementService.confirmerPaiement(echoue, StatutPaiement.ECHEC, null);
+        paiementService.enregistrerPaiementEspece(new PaiementEspeceDto(new BigDecimal("20000"),
+                parrainage.getId(), organisation.getId(), LocalDate.now().minusDays(3), "REC-1", null, null, null));
+
+        Map<String, Object> statistiques = statistiques();
+
+        assertThat(statistiques.get("nombreTotalPaiements")).isEqualTo(5L);
+        assertThat(statistiques.get("nombrePaiementsReussis")).isEqualTo(3L);
+        assertThat(statistiques.get("montantTotalPaye")).isEqualTo(35000.0);
+        assertThat(statistiques.get("repartitionParMethode"))
+                .isEqualTo(Map.of(MethodePaiement.ORANGE_MONEY, 2L, MethodePaiement.ESPECE, 1L));
+        assertThat(statistiques.get("dernierPaiementDate")).isEqualTo(LocalDate.now());
+        // Le montant versé est suivi dans les agrégats, le montant promis du parrainage ne change pas
+        assertThat(agregatsPaiementService.montantReussi(PorteeAgregat.PARRAINAGE, parrainage.getId()))
+                .isEqualByComparingTo("35000");
+        assertThat(parrainageRepository.findById(parrainage.getId()).orElseThrow().getMontantTotal())
+                .isEqualByComparingTo("120000");
+        assertThat(paiementService.getStatistiquesPaiementsOrganisation(organisation.getId()).get("montantTotalPaye"))
+                .isEqualTo(20000.0);
+
+        // Statuts définitifs : un échec ou un retour en attente reçu après le succès est ignoré
+        paiementService.confirmerPaiement(reussi, StatutPaiement.ECHEC, null);
+        paiementService.confirmerPaiement(reussi, StatutPaiement.INITE, null);
+        assertThat(statistiques().get("montantTotalPaye")).isEqualTo(35000.0);
+        assertThat(paiementRepository.findByTransactionId(reussi).orElseThrow().getStatut())
+                .isEqualTo(StatutPaiement.REUSSI);
+    }
+
+    @Test
+    void paiementSansReponseDansLeDelaiAttendSonRappel() {
+        orangeMoney.regler(1_000, 0.0);
+        PaiementResponseDto reponse = paiementService.initierPaiement(requete("8000"));
+
+        assertThat(reponse.getStatut()).isEqualTo(StatutPaiement.INITE);
+        assertThat(reponse.getTransactionId()).startsWith("OM_");
+        // Le rappel arrivé après le délai retrouve le paiement par son identifiant enregistré avant l'appel
+        paiementService.confirmerPaiement(reponse.getTransactionId(), StatutPaiement.REUSSI, "C1");
+        assertThat(statistiques().get("montantTotalPaye")).isEqualTo(8000.0);
+    }
+
+    @Test
+    void lectureEnNombreDeRequetesConstant() {
+        for (int i = 0; i < 30; i++) {
+            paiementService.confirmerPaiement(initierOrangeMoney("1000"), StatutPaiement.REUSSI, "C" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+        assertThat(paiementService.getStatistiquesPaiements(parrain.getId()).get("montantTotalPaye")).isEqualTo(30000.0);
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistiques.getEntityLoadCount()).isLessThanOrEqualTo(MethodePaiement.values().length);
+    }
+
+    @Test
+    void reparationDepuisLHistorique() {
+        paiementService.confirmerPaiement(initierOrangeMoney("10000"), StatutPaiement.REUSSI, "C1");
+        initierOrangeMoney("4000");
+
+        // Paiements écrits sans passer par le service (import, correction manuelle) et agrégat faussé
+        Paiement importe = new Paiement();
+        importe.setMontant(new BigDecimal("6000"));
+        importe.setMethode(MethodePaiement.WAVE);
+        importe.setStatut(StatutPaiement.REUSSI);
+        importe.setDatePaiement(LocalDate.now().minusDays(1));
+        importe.setParrain(parrain);
+        importe.setParrainage(parrainage);
+        entityManager.persist(importe);
+        entityManager.flush();
+        agregatRepository.findByPorteeAndCibleId(PorteeAgregat.PARRAIN, parrain.getId())
+                .forEach(agregat -> agregat.setMontantReussi(new BigDecimal("999")));
+        entityManager.flush();
+
+        assertThat(agregatsPaiementService.reparer()).isGreaterThanOrEqualTo(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, Object> statistiques = statistiques();
+        assertThat(statistiques.get("nombreTotalPaiements")).isEqualTo(3L);
+        assertThat(statistiques.get("montantTotalPaye")).isEqualTo(16000.0);
+        assertThat(statistiques.get("repartitionParMethode"))
+                .isEqualTo(Map.of(MethodePaiement.ORANGE_MONEY, 1L, MethodePaiement.WAVE, 1L));
+        assertThat(agregatsPaiementService.montantReussi(PorteeAgregat.PARRAINAGE, parrainage.getId()))
+                .isEqualByComparingTo("16000");
+        assertThat(parrainageRepository.findById(parrainage.getId()).orElseThrow().getMontantTotal())
+                .isEqualByComparingTo("120000");
+        assertThat(agregatsPaiementService.reparer()).isZero();
+    }
+
+    private Map<String, Object> statistiques() {
+        entityManager.flush();
+        entityManager.clear();
+        return paiementService.getStatistiquesPaiements(parrain.getId());
+    }
+
+    private String initierOrangeMoney(String montant) {
+        String transactionId = paiementService.initierPaiement(requete(montant)).getTransactionId();
+        entityManager.flush();
+        return transactionId;
+    }
+
+    private PaiementRequestDto requete(String montant) {
+        PaiementRequestDto requete = new PaiementRequestDto();
+        requete.setMontant(new BigDecimal(montant));
+        requete.setMethodePaiement(MethodePaiement.ORANGE_MONEY);
+        requete.setParrainageId(parrainage.getId());
+        requete.setNumeroTelephone("+22370000000");
+        return requete;
+    }
+}
@@ -0,0 +1,206 @@
+package com.groupe2_ionic.eduka.services;
+
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.dto.EnfantResponseDto;
+import com.groupe2_ionic.eduka.dto.FilleulDetailDto;
+import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.*;
+import com.groupe2_ionic.eduka.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Vérifie que le détail des filleuls d'un parrain est construit avec un nombre de requêtes
+ * indépendant du nombre de filleuls, et que les listes d'enfants sont projetées sans charger
+ * d'entité (base H2 en mémoire)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ParrainServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ParrainRepository parrainRepository;
+
+    @Autowired
+    private EnfantRepository enfantRepository;
+
+    @Autowired
+    private ParrainageRepository parrainageRepository;
+
+    @Autowired
+    private RapportRepository rapportRepository;
+
+    @Autowired
+    private PaiementReposiroty paiementRepository;
+
+    @Autowired
+    private BesoinRepository besoinRepository;
+
+    private ParrainService parrainService;
+    private Organisation organisation;
+    private int compteur;
+
+    @BeforeEach
+    void setUp() {
+        parrainService = new ParrainService(parrainRepository, enfantRepository, parrainageRepository,
+                rapportRepository, paiementRepository, mock(NotificationService.class), besoinRepository,
+                mock(ApplicationEventPublisher.class));
+
+        organisation = DonneesTest.organisation();
+        entityManager.persist(organisation);
+    }
+
+    @Test
+    void nombreDeRequetesIndependantDuNombreDeFilleuls() {
+        Parrain petit = creerParrainAvecFilleuls(2);
+        Parrain grand = creerParrainAvecFilleuls(12);
+
+        long requetesPetit = compterRequetes(petit, 2);
+        long requetesGrand = compterRequetes(grand, 12);
+
+        assertThat(requetesGrand).isEqualTo(requetesPetit);
+        assertThat(requetesPetit).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void detailsAgregesEnSql() {
+        Parrain parrain = creerParrainAvecFilleuls(1);
+        entityManager.flush();
+        entityManager.clear();
+
+        FilleulDetailDto filleul = parrainService.obtenirFilleulsAvecDetails(parrain.getId()).get(0);
+
+        assertThat(filleul.getMontantPaye()).isEqualByComparingTo("20000");
+        assertThat(filleul.getMontantRestant()).isEqualByComparingTo("100000");
+        assertThat(filleul.getNombrePaiementsEffectues()).isEqualTo(2);
+        assertThat(filleul.getDateDernierPaiement()).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(filleul.getNombreRapportsRecus()).isEqualTo(2);
+        assertThat(filleul.getDernierRapport().getTitre()).isEqualTo("Bulletin récent");
+        assertThat(filleul.getBesoinsActuels()).hasSize(5);
+        assertThat(filleul.getTuteurNom()).isEqualTo("Coulibaly Issa");
+        assertThat(filleul.getOrganisationNom()).isEqualTo("Association Espoir");
+    }
+
+    @Test
+    void enfantsDisponiblesProjetesSansChargerDEntite() {
+        creerParrainAvecFilleuls(3);
+        entityManager.flush();
+        entityManager.clear();
+        enfantRepository.findAll().forEach(enfant -> enfant.setStatutParrainage(false));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+
+        Page<EnfantResponseDto> enfants = parrainService.parcourirEnfantsDisponibles(
+                "Espoir", null, "CM", PageRequest.of(0, 2, Sort.by("dateNaissance").descending()));
+
+        assertThat(enfants.getTotalElements()).isEqualTo(3);
+        assertThat(enfants.getContent()).hasSize(2);
+        EnfantResponseDto enfant = enfants.getContent().get(0);
+        assertThat(enfant.getNombreParrainages()).isEqualTo(1);
+        assertThat(enfant.getNombreRapports()).isEqualTo(2);
+        assertThat(enfant.getAge()).isEqualTo(10);
+        assertThat(enfant.getTuteurNom()).isEqualTo("Coulibaly Issa");
+        assertThat(enfant.getEcoleNom()).isEqualTo("École de Bamako");
+        assertThat(statistiques.getEntityLoadCount()).isZero();
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private long compterRequetes(Parrain parrain, int filleulsAttendus) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+
+        List<FilleulDetailDto> filleuls = parrainService.obtenirFilleulsAvecDetails(parrain.getId());
+
+        assertThat(filleuls).hasSize(filleulsAttendus);
+        return statistiques.getPrepareStatementCount();
+    }
+
+    private Parrain creerParrainAvecFilleuls(int nombre) {
+        Parrain parrain = DonneesTest.parrain();
+        entityManager.persist(parrain);
+
+        for (int i = 0; i < nombre; i++) {
+            Tuteur tuteur = new Tuteur();
+            tuteur.setNom("Coulibaly");
+            tuteur.setPrenom("Issa");
+            tuteur.setTelephone("+2236" + (compteur++));
+            entityManager.persist(tuteur);
+
+            Ecole ecole = new Ecole();
+            ecole.setNom("École de Bamako");
+            entityManager.persist(ecole);
+
+            Enfant enfant = DonneesTest.enfant(organisation);
+            enfant.setTuteur(tuteur);
+            enfant.setEcole(ecole);
+            entityManager.persist(enfant);
+
+            Parrainage parrainage = DonneesTest.parrainage(parrain, enfant, "120000");
+            entityManager.persist(parrainage);
+
+            for (int j = 1; j <= 3; j++) {
+                Paiement paiement = new Paiement();
+                paiement.setMontant(new BigDecimal("10000"));
+                paiement.setStatut(j < 3 ? StatutPaiement.REUSSI : StatutPaiement.ECHEC);
+                paiement.setDatePaiement(LocalDate.now().minusDays(j));
+                paiement.setParrain(parrain);
+                paiement.setParrainage(parrainage);
+                entityManager.persist(paiement);
+            }
+
+            for (int j = 0; j < 7; j++) {
+                Besoin besoin = new Besoin();
+                besoin.setType("Fournitures " + j);
+                besoin.setMontant(new BigDecimal("5000"));
+                besoin.setEnfant(enfant);
+                entityManager.persist(besoin);
+            }
+
+            creerRapport(enfant, "Bulletin ancien", LocalDate.now().minusDays(120));
+            creerRapport(enfant, "Bulletin récent", LocalDate.now().minusDays(10));
+        }
+        return parrain;
+    }
+
+    private void creerRapport(Enfant enfant, String titre, LocalDate date) {
+        Rapport rapport = new Rapport();
+        rapport.setTitre(titre);
+        rapport.setTypeRapport("SCOLAIRE");
+        rapport.setPeriode("Trimestre");
+        rapport.setDate(date);
+        rapport.setEnfant(enfant);
+        rapport.setOrganisation(organisation);
+        entityManager.persist(rapport);
+    }
+}
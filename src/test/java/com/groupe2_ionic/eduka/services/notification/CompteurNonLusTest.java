@@ -0,0 +1,73 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.dto.NotificationResponseDto;
+import com.groupe2_ionic.eduka.repository.NotificationRepository;
+import com.groupe2_ionic.eduka.services.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compteur des notifications non lues : chargement unique, ajustements après commit et publication sur les flux
+ */
+class CompteurNonLusTest {
+
+    private NotificationRepository notificationRepository;
+    private NotificationStream notificationStream;
+    private CompteurNonLus compteur;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        notificationStream = mock(NotificationStream.class);
+        compteur = new CompteurNonLus(notificationRepository, notificationStream);
+    }
+
+    @Test
+    void chargeUneFoisPuisAjusteSansRequete() {
+        when(notificationRepository.countNonLuesByDestinataireId(1)).thenReturn(3L);
+
+        assertThat(compteur.estEnCache(1)).isFalse();
+        assertThat(compteur.get(1)).isEqualTo(3);
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.creee(1, new NotificationResponseDto()));
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.variation(1, -2));
+        compteur.diffusionEcrite(List.of(1));
+
+        assertThat(compteur.get(1)).isEqualTo(3);
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.variation(1, -10));
+        assertThat(compteur.get(1)).isZero();
+        verify(notificationRepository, times(1)).countNonLuesByDestinataireId(1);
+    }
+
+    @Test
+    void variationSansEntreeLaisseLaBaseFaireFoi() {
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.variation(2, 1));
+        assertThat(compteur.estEnCache(2)).isFalse();
+
+        when(notificationRepository.countNonLuesByDestinataireId(2)).thenReturn(7L);
+        assertThat(compteur.get(2)).isEqualTo(7);
+
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.reinitialisation(2));
+        assertThat(compteur.get(2)).isZero();
+        verify(notificationRepository, times(1)).countNonLuesByDestinataireId(2);
+    }
+
+    @Test
+    void publieNotificationEtCompteurAuxAbonnes() {
+        when(notificationRepository.countNonLuesByDestinataireId(1)).thenReturn(2L);
+        when(notificationStream.estAbonne(1)).thenReturn(true);
+        NotificationResponseDto notification = new NotificationResponseDto();
+
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.creee(1, notification));
+        compteur.onNotificationModifiee(NotificationService.NotificationEvent.creee(3, notification));
+
+        verify(notificationStream).publierNotification(1, notification);
+        verify(notificationStream).publierCompteur(1, 2);
+        verify(notificationStream, never()).publierNotification(eq(3), any());
+        verify(notificationStream, never()).publierCompteur(eq(3), anyLong());
+    }
+}
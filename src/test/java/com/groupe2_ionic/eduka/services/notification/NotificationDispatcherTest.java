@@ -0,0 +1,91 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.models.EnvoiNotification;
+import com.groupe2_ionic.eduka.models.enums.CanalNotification;
+import com.groupe2_ionic.eduka.models.enums.StatutEnvoi;
+import com.groupe2_ionic.eduka.repository.EnvoiNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la livraison par lots : succès, nouvelle tentative différée et abandon
+ */
+class NotificationDispatcherTest {
+
+    private EnvoiNotificationRepository repository;
+    private ExpediteurNotification expediteur;
+    private NotificationProperties properties;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(EnvoiNotificationRepository.class);
+        expediteur = mock(ExpediteurNotification.class);
+        when(expediteur.canal()).thenReturn(CanalNotification.SMS);
+
+        properties = new NotificationProperties();
+        properties.setMaxTentatives(2);
+        dispatcher = new NotificationDispatcher(repository, properties, List.of(expediteur), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.arreter();
+    }
+
+    @Test
+    void lotLivreEtEchecsReplanifies() {
+        EnvoiNotification livre = envoi(1L, 0);
+        EnvoiNotification enEchec = envoi(2L, 0);
+        EnvoiNotification abandonne = envoi(3L, 1);
+
+        when(repository.findIdsPrets(eq(CanalNotification.SMS), eq(StatutEnvoi.EN_ATTENTE), any(), any()))
+                .thenReturn(List.of(1L, 2L, 3L), List.of());
+        when(repository.findByJeton(anyString())).thenReturn(List.of(livre, enEchec, abandonne));
+        when(expediteur.envoyer(anyList())).thenReturn(Map.of(2L, "timeout", 3L, "timeout"));
+
+        dispatcher.demanderReleve();
+
+        verify(repository, timeout(2000)).marquerEnvoyes(eq(List.of(1L)), eq(StatutEnvoi.ENVOYE), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EnvoiNotification>> echecs = ArgumentCaptor.forClass(List.class);
+        verify(repository, timeout(2000)).saveAll(echecs.capture());
+
+        assertThat(echecs.getValue()).containsExactly(enEchec, abandonne);
+        assertThat(enEchec.getStatut()).isEqualTo(StatutEnvoi.EN_ATTENTE);
+        assertThat(enEchec.getTentatives()).isEqualTo(1);
+        assertThat(enEchec.getProchaineTentative()).isAfter(LocalDateTime.now().plusSeconds(20));
+        assertThat(abandonne.getStatut()).isEqualTo(StatutEnvoi.ECHEC);
+    }
+
+    @Test
+    void delaiExponentielPlafonne() {
+        assertThat(dispatcher.delaiAvantTentative(1)).isBetween(Duration.ofSeconds(27), Duration.ofSeconds(33));
+        assertThat(dispatcher.delaiAvantTentative(3)).isBetween(Duration.ofSeconds(108), Duration.ofSeconds(132));
+        assertThat(dispatcher.delaiAvantTentative(30)).isLessThanOrEqualTo(Duration.ofSeconds(3960));
+    }
+
+    private EnvoiNotification envoi(Long id, int tentatives) {
+        EnvoiNotification envoi = new EnvoiNotification();
+        envoi.setId(id);
+        envoi.setCanal(CanalNotification.SMS);
+        envoi.setDestinataire("+22370000000");
+        envoi.setContenu("message");
+        envoi.setTentatives(tentatives);
+        envoi.setDateCreation(LocalDateTime.now());
+        envoi.setProchaineTentative(LocalDateTime.now());
+        return envoi;
+    }
+}
@@ -0,0 +1,118 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import com.groupe2_ionic.eduka.dto.DestinataireDto;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.repository.UtilisateurRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la diffusion par pages : une transaction et deux insertions groupées par page, pages en échec retentées
+ */
+class NotificationFanoutTest {
+
+    @Test
+    void diffusionParPagesAvecInsertionsGroupees() {
+        UtilisateurRepository repository = mock(UtilisateurRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+        CompteurNonLus compteurNonLus = mock(CompteurNonLus.class);
+
+        NotificationProperties properties = new NotificationProperties();
+        properties.setTaillePageDiffusion(3);
+
+        when(repository.findDestinatairesActifs(eq(RoleUser.ROLE_PARRAIN), anyInt(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    int apresId = invocation.getArgument(1);
+                    return IntStream.rangeClosed(apresId + 1, Math.min(apresId + 3, 7))
+                            .mapToObj(id -> new DestinataireDto(id, "parrain" + id + "@eduka.test", null))
+                            .toList();
+                });
+
+        NotificationFanout fanout = new NotificationFanout(repository, jdbcTemplate,
+                new TransactionTemplate(transactionManager), dispatcher, properties,
+                mock(ApplicationEventPublisher.class), compteurNonLus);
+
+        long total = fanout.executer(new NotificationFanout.DiffusionDemandeeEvent(
+                RoleUser.ROLE_PARRAIN, "Sujet", "Message", true, false, true));
+
+        assertThat(total).isEqualTo(7);
+        verify(repository).findDestinatairesActifs(eq(RoleUser.ROLE_PARRAIN), eq(0), any(Pageable.class));
+        verify(repository).findDestinatairesActifs(eq(RoleUser.ROLE_PARRAIN), eq(3), any(Pageable.class));
+        verify(repository).findDestinatairesActifs(eq(RoleUser.ROLE_PARRAIN), eq(6), any(Pageable.class));
+        verify(transactionManager, times(3)).commit(any());
+        // Notifications + envois email (pas de téléphone donc pas de SMS) pour chacune des 3 pages
+        verify(jdbcTemplate, times(6)).batchUpdate(anyString(), anyList());
+        // Format de l'email repris de la demande de diffusion
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO envoi_notification"),
+                argThat((List<Object[]> envois) -> envois.stream().allMatch(envoi -> Boolean.FALSE.equals(envoi[4]))));
+        verify(dispatcher, times(3)).demanderReleve();
+        verify(compteurNonLus).diffusionEcrite(List.of(7));
+    }
+
+    @Test
+    void pageEnEchecRetenteeSansPerdreLaSuite() {
+        UtilisateurRepository repository = mock(UtilisateurRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        CompteurNonLus compteurNonLus = mock(CompteurNonLus.class);
+
+        NotificationProperties properties = new NotificationProperties();
+        properties.setTaillePageDiffusion(3);
+        properties.setAttentePageDiffusionMs(1);
+
+        when(repository.findDestinatairesActifs(eq(RoleUser.ROLE_PARRAIN), anyInt(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    int apresId = invocation.getArgument(1);
+                    return IntStream.rangeClosed(apresId + 1, Math.min(apresId + 3, 7))
+                            .mapToObj(id -> new DestinataireDto(id, null, null))
+                            .toList();
+                });
+        // La deuxième page échoue deux fois (base momentanément indisponible) puis passe
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[0])
+                .thenThrow(new QueryTimeoutException("timeout"), new QueryTimeoutException("timeout"))
+                .thenReturn(new int[0]);
+
+        NotificationFanout fanout = new NotificationFanout(repository, jdbcTemplate,
+                new TransactionTemplate(transactionManager), mock(NotificationDispatcher.class), properties,
+                mock(ApplicationEventPublisher.class), compteurNonLus);
+
+        long total = fanout.executer(new NotificationFanout.DiffusionDemandeeEvent(
+                RoleUser.ROLE_PARRAIN, "Sujet", "Message", false, false, false));
+
+        assertThat(total).isEqualTo(7);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(compteurNonLus).diffusionEcrite(List.of(4, 5, 6));
+        verify(compteurNonLus).diffusionEcrite(List.of(7));
+    }
+
+    @Test
+    void aucunDestinataire() {
+        UtilisateurRepository repository = mock(UtilisateurRepository.class);
+        when(repository.findDestinatairesActifs(any(), anyInt(), any(Pageable.class))).thenReturn(List.of());
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        NotificationFanout fanout = new NotificationFanout(repository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(NotificationDispatcher.class),
+                new NotificationProperties(), mock(ApplicationEventPublisher.class), mock(CompteurNonLus.class));
+
+        assertThat(fanout.executer(new NotificationFanout.DiffusionDemandeeEvent(
+                RoleUser.ROLE_ADMIN, "Sujet", "Message", true, false, false))).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,53 @@
+package com.groupe2_ionic.eduka.services.notification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Abonnements aux flux de notifications : limite de connexions par utilisateur et éviction des plus anciennes
+ */
+class NotificationStreamTest {
+
+    private final NotificationStream stream = new NotificationStream();
+
+    @Test
+    void lesPlusAnciennesConnexionsSontFermeesAuDelaDeLaLimite() {
+        List<SseEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            emitters.add(stream.abonner(1, 0));
+        }
+
+        assertThat(stream.nombreConnexions()).isEqualTo(5);
+        // Les deux premières ouvertes sont fermées, les cinq plus récentes restent ouvertes
+        for (SseEmitter ferme : emitters.subList(0, 2)) {
+            assertThatThrownBy(() -> ferme.send("ping")).isInstanceOf(IllegalStateException.class);
+        }
+        for (SseEmitter ouvert : emitters.subList(2, 7)) {
+            assertThatCode(() -> ouvert.send("ping")).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void connexionsCompteesParUtilisateur() {
+        for (int i = 0; i < 5; i++) {
+            stream.abonner(1, 0);
+        }
+        SseEmitter autre = stream.abonner(2, 3);
+
+        assertThat(stream.nombreConnexions()).isEqualTo(6);
+        assertThat(stream.estAbonne(2)).isTrue();
+        assertThat(stream.estAbonne(3)).isFalse();
+
+        autre.complete();
+        stream.publierCompteur(2, 4);
+        assertThat(stream.estAbonne(2)).isFalse();
+        assertThat(stream.nombreConnexions()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,64 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fournisseur local pour les tests et les essais de charge hors ligne : latence et taux d'échec réglables,
+ * suivi du nombre d'appels simultanés
+ */
+public class FournisseurSimule implements FournisseurPaiement {
+
+    private final MethodePaiement methode;
+    private volatile long latenceMs;
+    private volatile double tauxEchec;
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final AtomicInteger maxSimultanes = new AtomicInteger();
+    private final AtomicInteger appels = new AtomicInteger();
+
+    public FournisseurSimule(MethodePaiement methode, long latenceMs, double tauxEchec) {
+        this.methode = methode;
+        this.latenceMs = latenceMs;
+        this.tauxEchec = tauxEchec;
+    }
+
+    @Override
+    public MethodePaiement methode() {
+        return methode;
+    }
+
+    @Override
+    public Reponse initier(Demande demande) {
+        appels.incrementAndGet();
+        maxSimultanes.accumulateAndGet(enCours.incrementAndGet(), Math::max);
+        try {
+            if (latenceMs > 0) {
+                Thread.sleep(latenceMs);
+            }
+            if (tauxEchec > 0 && ThreadLocalRandom.current().nextDouble() < tauxEchec) {
+                throw new IllegalStateException("Fournisseur " + methode + " en erreur");
+            }
+            return new Reponse(null, null, "SIM_" + methode + "_" + demande.paiementId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Appel interrompu", e);
+        } finally {
+            enCours.decrementAndGet();
+        }
+    }
+
+    public void regler(long latenceMs, double tauxEchec) {
+        this.latenceMs = latenceMs;
+        this.tauxEchec = tauxEchec;
+    }
+
+    public int maxSimultanes() {
+        return maxSimultanes.get();
+    }
+
+    public int appels() {
+        return appels.get();
+    }
+}
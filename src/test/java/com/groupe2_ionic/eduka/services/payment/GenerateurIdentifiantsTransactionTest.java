@@ -0,0 +1,111 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unicité et ordre des identifiants de transaction sous concurrence et avec une horloge irrégulière
+ */
+class GenerateurIdentifiantsTransactionTest {
+
+    private static final int THREADS = 32;
+    private static final int PAR_THREAD = 125_000;
+
+    @Test
+    void quatreMillionsDIdentifiantsSansDoublon() throws Exception {
+        GenerateurIdentifiantsTransaction generateur = new GenerateurIdentifiantsTransaction(7);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<long[]>> resultats = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                resultats.add(executor.submit(() -> {
+                    long[] ids = new long[PAR_THREAD];
+                    depart.await();
+                    for (int i = 0; i < PAR_THREAD; i++) {
+                        ids[i] = generateur.suivant();
+                    }
+                    return ids;
+                }));
+            }
+            depart.countDown();
+
+            long[] tous = new long[THREADS * PAR_THREAD];
+            int position = 0;
+            for (Future<long[]> resultat : resultats) {
+                long[] ids = resultat.get(60, TimeUnit.SECONDS);
+                // Croissants dans chaque thread
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, tous, position, ids.length);
+                position += ids.length;
+            }
+
+            Arrays.sort(tous);
+            int doublons = 0;
+            for (int i = 1; i < tous.length; i++) {
+                if (tous[i] == tous[i - 1]) {
+                    doublons++;
+                }
+            }
+            assertThat(doublons).isZero();
+        }
+    }
+
+    @Test
+    void croissantsMalgreUnRetourEnArriereDeLHorloge() {
+        AtomicLong horloge = new AtomicLong(GenerateurIdentifiantsTransaction.EPOQUE + 1_000_000);
+        GenerateurIdentifiantsTransaction generateur = new GenerateurIdentifiantsTransaction(1, horloge::get);
+
+        long avant = generateur.suivant();
+        horloge.addAndGet(-5_000);
+        long pendant = generateur.suivant();
+        horloge.addAndGet(10_000);
+        long apres = generateur.suivant();
+
+        assertThat(pendant).isGreaterThan(avant);
+        assertThat(apres).isGreaterThan(pendant);
+    }
+
+    @Test
+    void sequenceEpuiseeContinueSurLaMillisecondeSuivante() {
+        GenerateurIdentifiantsTransaction generateur =
+                new GenerateurIdentifiantsTransaction(1, () -> GenerateurIdentifiantsTransaction.EPOQUE + 42);
+
+        long precedent = generateur.suivant();
+        for (int i = 0; i < 3 * (1 << GenerateurIdentifiantsTransaction.BITS_SEQUENCE); i++) {
+            long id = generateur.suivant();
+            assertThat(id).isGreaterThan(precedent);
+            precedent = id;
+        }
+    }
+
+    @Test
+    void noeudsDistinctsEtFormeTextuelleOrdonnee() {
+        long instant = GenerateurIdentifiantsTransaction.EPOQUE + 123_456;
+        GenerateurIdentifiantsTransaction noeudA = new GenerateurIdentifiantsTransaction(1, () -> instant);
+        GenerateurIdentifiantsTransaction noeudB = new GenerateurIdentifiantsTransaction(2, () -> instant);
+        assertThat(noeudA.suivant()).isNotEqualTo(noeudB.suivant());
+
+        GenerateurIdentifiantsTransaction generateur = new GenerateurIdentifiantsTransaction(3);
+        String premier = generateur.nouvelIdentifiant("OM_");
+        String second = generateur.nouvelIdentifiant("OM_");
+        assertThat(premier).startsWith("OM_").hasSameSizeAs(second).isLessThan(second);
+
+        assertThatThrownBy(() -> new GenerateurIdentifiantsTransaction(GenerateurIdentifiantsTransaction.NOEUD_MAX + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
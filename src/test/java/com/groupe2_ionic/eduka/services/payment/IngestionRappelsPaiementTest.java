@@ -0,0 +1,242 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.StatutPaiement;
+import com.groupe2_ionic.eduka.services.PaiementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Rejeu de rappels de fournisseurs avec renvois : accusé immédiat, doublons écartés,
+ * transitions appliquées dans l'ordre et jamais en parallèle pour une même transaction
+ */
+class IngestionRappelsPaiementTest {
+
+    private static final int TRANSACTIONS = 4_000;
+    private static final int PRODUCTEURS = 16;
+
+    private final PaiementService paiementService = mock(PaiementService.class);
+    private final Map<String, StatutPaiement> statuts = new ConcurrentHashMap<>();
+    private final Set<String> enCours = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger chevauchements = new AtomicInteger();
+    private final AtomicInteger desordres = new AtomicInteger();
+    private final AtomicInteger applications = new AtomicInteger();
+    private IngestionRappelsPaiement ingestion;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestion.arreter();
+    }
+
+    @Test
+    void rejeuDeDixMilleRappelsAvecRenvois() throws Exception {
+        doAnswer(invocation -> {
+            String transactionId = invocation.getArgument(0);
+            if (!enCours.add(transactionId)) {
+                chevauchements.incrementAndGet();
+            }
+            try {
+                StatutPaiement precedent = statuts.put(transactionId, invocation.getArgument(1));
+                // Un succès n'est jamais suivi du statut en attente qui le précédait chez le fournisseur
+                if (precedent == StatutPaiement.REUSSI) {
+                    desordres.incrementAndGet();
+                }
+                applications.incrementAndGet();
+            } finally {
+                enCours.remove(transactionId);
+            }
+            return null;
+        }).when(paiementService).confirmerPaiement(anyString(), any(), any());
+        ingestion = nouvelleIngestion(4, 10_000);
+
+        // Chaque transaction : en attente puis réussi, et un renvoi du succès sur une transaction sur deux
+        List<List<IngestionRappelsPaiement.RappelPaiement>> parProducteur = new ArrayList<>();
+        for (int p = 0; p < PRODUCTEURS; p++) {
+            parProducteur.add(new ArrayList<>());
+        }
+        int total = 0;
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            String transactionId = "WAVE_" + t;
+            List<IngestionRappelsPaiement.RappelPaiement> rappels = parProducteur.get(t % PRODUCTEURS);
+            rappels.add(rappel(transactionId + ":en-attente", transactionId, StatutPaiement.INITE));
+            rappels.add(rappel(transactionId + ":reussi", transactionId, StatutPaiement.REUSSI));
+            total += 2;
+            if (t % 2 == 0) {
+                rappels.add(rappel(transactionId + ":reussi", transactionId, StatutPaiement.REUSSI));
+                total++;
+            }
+        }
+        assertThat(total).isEqualTo(10_000);
+
+        Map<IngestionRappelsPaiement.Accuse, AtomicInteger> accuses = new ConcurrentHashMap<>();
+        long[] durees = new long[total];
+        AtomicInteger rang = new AtomicInteger();
+        try (ExecutorService producteurs = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> envois = new ArrayList<>();
+            for (List<IngestionRappelsPaiement.RappelPaiement> rappels : parProducteur) {
+                envois.add(producteurs.submit(() -> rappels.forEach(rappel -> {
+                    long debut = System.nanoTime();
+                    IngestionRappelsPaiement.Accuse accuse = ingestion.soumettre(rappel);
+                    durees[rang.getAndIncrement()] = System.nanoTime() - debut;
+                    accuses.computeIfAbsent(accuse, a -> new AtomicInteger()).incrementAndGet();
+                })));
+            }
+            for (Future<?> envoi : envois) {
+                envoi.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(accuses.get(IngestionRappelsPaiement.Accuse.ACCEPTE)).hasValue(2 * TRANSACTIONS);
+        assertThat(accuses.get(IngestionRappelsPaiement.Accuse.DOUBLON)).hasValue(TRANSACTIONS / 2);
+        assertThat(accuses).doesNotContainKey(IngestionRappelsPaiement.Accuse.SATURE);
+        // L'accusé ne dépend pas de l'application : pas d'attente sur la base
+        Arrays.sort(durees);
+        assertThat(durees[total * 99 / 100]).isLessThan(TimeUnit.MILLISECONDS.toNanos(5));
+
+        attendreFilesVides();
+        assertThat(chevauchements).hasValue(0);
+        assertThat(desordres).hasValue(0);
+        assertThat(statuts).hasSize(TRANSACTIONS);
+        assertThat(statuts.values()).containsOnly(StatutPaiement.REUSSI);
+        // Les rappels d'une transaction présents dans le même lot sont fusionnés
+        assertThat(applications.get()).isBetween(TRANSACTIONS, 2 * TRANSACTIONS);
+    }
+
+    @Test
+    void fileSatureeRefuseSansMemoriserLEvenement() throws Exception {
+        CountDownLatch bloquant = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            bloquant.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(paiementService).confirmerPaiement(anyString(), any(), any());
+        ingestion = nouvelleIngestion(1, 1);
+
+        assertThat(ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+        verify(paiementService, timeout(1_000)).confirmerPaiement(anyString(), any(), any());
+        assertThat(ingestion.soumettre(rappel("e2", "T2", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+        assertThat(ingestion.soumettre(rappel("e3", "T3", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.SATURE);
+
+        bloquant.countDown();
+        attendreFilesVides();
+        // Le renvoi de l'événement refusé est accepté
+        assertThat(ingestion.soumettre(rappel("e3", "T3", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+    }
+
+    @Test
+    void erreurDeBaseRejoueeAutresErreursIgnorees() {
+        doThrow(new CannotAcquireLockException("verrou"))
+                .doNothing()
+                .when(paiementService).confirmerPaiement(eq("T1"), any(), any());
+        doThrow(new IllegalArgumentException("Statut invalide"))
+                .when(paiementService).confirmerPaiement(eq("INVALIDE"), any(), any());
+        ingestion = nouvelleIngestion(2, 100);
+
+        ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI));
+        ingestion.soumettre(rappel("e2", "INVALIDE", StatutPaiement.REUSSI));
+
+        verify(paiementService, timeout(2_000).times(2)).confirmerPaiement(eq("T1"), any(), any());
+        verify(paiementService, timeout(2_000).times(1)).confirmerPaiement(eq("INVALIDE"), any(), any());
+        attendreFilesVides();
+        assertThat(ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.DOUBLON);
+        assertThat(ingestion.soumettre(rappel("e2", "INVALIDE", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+    }
+
+    @Test
+    void rappelEnAvanceSurLaTransactionRetenteEnsuiteOublie() {
+        doThrow(new PaiementService.PaiementInconnuException("T1"))
+                .doThrow(new PaiementService.PaiementInconnuException("T1"))
+                .doNothing()
+                .when(paiementService).confirmerPaiement(eq("T1"), any(), any());
+        doThrow(new PaiementService.PaiementInconnuException("INCONNU"))
+                .when(paiementService).confirmerPaiement(eq("INCONNU"), any(), any());
+        doThrow(new CannotAcquireLockException("verrou"))
+                .when(paiementService).confirmerPaiement(eq("VERROU"), any(), any());
+        ingestion = nouvelleIngestion(2, 100);
+
+        ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI));
+        ingestion.soumettre(rappel("e2", "INCONNU", StatutPaiement.REUSSI));
+        ingestion.soumettre(rappel("e3", "VERROU", StatutPaiement.REUSSI));
+        attendreFilesVides();
+
+        verify(paiementService, times(3)).confirmerPaiement(eq("T1"), any(), any());
+        verify(paiementService, atLeast(2)).confirmerPaiement(eq("INCONNU"), any(), any());
+        verify(paiementService, times(3)).confirmerPaiement(eq("VERROU"), any(), any());
+        // Seuls les rappels non appliqués sont acceptés de nouveau au renvoi
+        assertThat(ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.DOUBLON);
+        assertThat(ingestion.soumettre(rappel("e2", "INCONNU", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+        assertThat(ingestion.soumettre(rappel("e3", "VERROU", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+    }
+
+    @Test
+    void premierStatutDefinitifDuLotConserve() throws Exception {
+        CountDownLatch bloquant = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            bloquant.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(paiementService).confirmerPaiement(eq("T0"), any(), any());
+        ingestion = nouvelleIngestion(1, 100);
+
+        // Le thread de la partition est occupé : les deux rappels suivants forment un même lot
+        ingestion.soumettre(rappel("e0", "T0", StatutPaiement.REUSSI));
+        verify(paiementService, timeout(1_000)).confirmerPaiement(eq("T0"), any(), any());
+        ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI));
+        ingestion.soumettre(rappel("e2", "T1", StatutPaiement.ECHEC));
+        bloquant.countDown();
+        attendreFilesVides();
+
+        verify(paiementService).confirmerPaiement("T1", StatutPaiement.REUSSI, null);
+        verify(paiementService, never()).confirmerPaiement("T1", StatutPaiement.ECHEC, null);
+        // Le rappel écarté n'a pas été appliqué : son renvoi est accepté
+        assertThat(ingestion.soumettre(rappel("e1", "T1", StatutPaiement.REUSSI)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.DOUBLON);
+        assertThat(ingestion.soumettre(rappel("e2", "T1", StatutPaiement.ECHEC)))
+                .isEqualTo(IngestionRappelsPaiement.Accuse.ACCEPTE);
+    }
+
+    private IngestionRappelsPaiement nouvelleIngestion(int partitions, int capacite) {
+        RappelsPaiementProperties properties = new RappelsPaiementProperties();
+        properties.setPartitions(partitions);
+        properties.setCapacitePartition(capacite);
+        properties.setAttentePaiementInconnuMs(300);
+        return new IngestionRappelsPaiement(paiementService, properties, new SimpleMeterRegistry());
+    }
+
+    private void attendreFilesVides() {
+        // enAttente compte aussi le lot en cours d'application
+        await().atMost(30, TimeUnit.SECONDS).until(() -> ingestion.enAttente() == 0);
+    }
+
+    private static IngestionRappelsPaiement.RappelPaiement rappel(String evenementId, String transactionId,
+                                                                 StatutPaiement statut) {
+        return new IngestionRappelsPaiement.RappelPaiement(evenementId, transactionId, statut, null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.models.enums.MethodePaiement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compartiments, délais et disjoncteurs des appels aux fournisseurs, avec des fournisseurs simulés
+ */
+class PasserellePaiementTest {
+
+    private final FournisseurSimule orange = new FournisseurSimule(MethodePaiement.ORANGE_MONEY, 0, 0.0);
+    private final FournisseurSimule wave = new FournisseurSimule(MethodePaiement.WAVE, 0, 0.0);
+    private PasserellePaiement passerelle;
+
+    @AfterEach
+    void tearDown() {
+        if (passerelle != null) {
+            passerelle.arreter();
+        }
+    }
+
+    @Test
+    void fournisseurLentContenuDansSonCompartiment() {
+        PasserellePaiementProperties.Reglages reglages = new PasserellePaiementProperties.Reglages();
+        reglages.setAppelsSimultanes(10);
+        reglages.setFenetreDisjoncteur(1_000);
+        PasserellePaiementProperties.Reglages reglagesWave = new PasserellePaiementProperties.Reglages();
+        reglagesWave.setAppelsSimultanes(200);
+        passerelle = nouvellePasserelle(Map.of(MethodePaiement.ORANGE_MONEY, reglages, MethodePaiement.WAVE, reglagesWave));
+        orange.regler(100, 0.0);
+        wave.regler(5, 0.0);
+
+        List<CompletableFuture<FournisseurPaiement.Reponse>> appelsOrange = new ArrayList<>();
+        List<CompletableFuture<FournisseurPaiement.Reponse>> appelsWave = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            appelsOrange.add(passerelle.initier(MethodePaiement.ORANGE_MONEY, demande(i)));
+            appelsWave.add(passerelle.initier(MethodePaiement.WAVE, demande(i)));
+        }
+
+        Map<String, AtomicInteger> resultatsOrange = attendre(appelsOrange);
+        assertThat(orange.maxSimultanes()).isLessThanOrEqualTo(10);
+        assertThat(resultatsOrange.get("succes")).hasValue(orange.appels());
+        assertThat(resultatsOrange.get(PasserellePaiement.FournisseurIndisponibleException.class.getSimpleName()))
+                .hasValue(200 - orange.appels());
+        // Le fournisseur lent n'a pas consommé la capacité de l'autre
+        assertThat(attendre(appelsWave).get("succes")).hasValue(200);
+    }
+
+    @Test
+    void delaiDepasseSansAttendreLeFournisseur() {
+        PasserellePaiementProperties.Reglages reglages = new PasserellePaiementProperties.Reglages();
+        reglages.setDelaiMs(50);
+        passerelle = nouvellePasserelle(Map.of(MethodePaiement.ORANGE_MONEY, reglages));
+        orange.regler(2_000, 0.0);
+
+        long debut = System.nanoTime();
+        Map<String, AtomicInteger> resultats = attendre(List.of(passerelle.initier(MethodePaiement.ORANGE_MONEY, demande(1))));
+
+        assertThat(resultats.get(TimeoutException.class.getSimpleName())).hasValue(1);
+        assertThat(System.nanoTime() - debut).isLessThan(1_000_000_000L);
+    }
+
+    @Test
+    void disjoncteurOuvertApresUnTauxDEchecEleve() {
+        PasserellePaiementProperties.Reglages reglages = new PasserellePaiementProperties.Reglages();
+        reglages.setFenetreDisjoncteur(10);
+        reglages.setSeuilEchecPourcent(50);
+        passerelle = nouvellePasserelle(Map.of(MethodePaiement.ORANGE_MONEY, reglages));
+        orange.regler(0, 1.0);
+
+        for (int i = 0; i < 10; i++) {
+            attendre(List.of(passerelle.initier(MethodePaiement.ORANGE_MONEY, demande(i))));
+        }
+        assertThat(passerelle.etat(MethodePaiement.ORANGE_MONEY)).isEqualTo(Disjoncteur.Etat.OUVERT);
+
+        Map<String, AtomicInteger> resultats = attendre(List.of(passerelle.initier(MethodePaiement.ORANGE_MONEY, demande(11))));
+        assertThat(resultats.get(PasserellePaiement.FournisseurIndisponibleException.class.getSimpleName())).hasValue(1);
+        assertThat(orange.appels()).isEqualTo(10);
+        assertThat(passerelle.etat(MethodePaiement.WAVE)).isEqualTo(Disjoncteur.Etat.FERME);
+    }
+
+    @Test
+    void disjoncteurSemiOuvertPuisReferme() {
+        AtomicLong horloge = new AtomicLong();
+        Disjoncteur disjoncteur = new Disjoncteur(4, 50, 1_000, horloge::get);
+        for (int i = 0; i < 4; i++) {
+            assertThat(disjoncteur.autoriser()).isTrue();
+            disjoncteur.enregistrer(i % 2 == 0);
+        }
+        assertThat(disjoncteur.etat()).isEqualTo(Disjoncteur.Etat.OUVERT);
+        assertThat(disjoncteur.autoriser()).isFalse();
+
+        horloge.addAndGet(1_000);
+        // Un seul appel d'essai ; son échec rouvre le disjoncteur
+        assertThat(disjoncteur.autoriser()).isTrue();
+        assertThat(disjoncteur.autoriser()).isFalse();
+        disjoncteur.enregistrer(false);
+        assertThat(disjoncteur.etat()).isEqualTo(Disjoncteur.Etat.OUVERT);
+
+        horloge.addAndGet(1_000);
+        assertThat(disjoncteur.autoriser()).isTrue();
+        disjoncteur.enregistrer(true);
+        assertThat(disjoncteur.etat()).isEqualTo(Disjoncteur.Etat.FERME);
+        assertThat(disjoncteur.autoriser()).isTrue();
+    }
+
+    private PasserellePaiement nouvellePasserelle(Map<MethodePaiement, PasserellePaiementProperties.Reglages> methodes) {
+        PasserellePaiementProperties properties = new PasserellePaiementProperties();
+        properties.getMethodes().putAll(methodes);
+        return new PasserellePaiement(List.of(orange, wave), properties, new SimpleMeterRegistry());
+    }
+
+    private static Map<String, AtomicInteger> attendre(List<CompletableFuture<FournisseurPaiement.Reponse>> appels) {
+        Map<String, AtomicInteger> resultats = new ConcurrentHashMap<>();
+        for (CompletableFuture<FournisseurPaiement.Reponse> appel : appels) {
+            String resultat = appel.handle((reponse, erreur) -> erreur == null ? "succes"
+                    : (erreur.getCause() != null ? erreur.getCause() : erreur).getClass().getSimpleName()).join();
+            resultats.computeIfAbsent(resultat, r -> new AtomicInteger()).incrementAndGet();
+        }
+        return resultats;
+    }
+
+    private static FournisseurPaiement.Demande demande(int paiementId) {
+        return new FournisseurPaiement.Demande(paiementId, "SIM_" + paiementId, new BigDecimal("5000"), "+22370000000", 1, 1);
+    }
+}
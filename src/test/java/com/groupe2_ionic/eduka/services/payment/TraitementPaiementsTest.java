@@ -0,0 +1,130 @@
+package com.groupe2_ionic.eduka.services.payment;
+
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.models.*;
+import com.groupe2_ionic.eduka.models.enums.*;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import com.groupe2_ionic.eduka.services.NotificationService;
+import com.groupe2_ionic.eduka.services.utilitaires.EmailService;
+import com.groupe2_ionic.eduka.services.utilitaires.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Traitement par lots des paiements confirmés : soldes crédités une seule fois, reçus et notifications envoyés
+ * (base H2 en mémoire)
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class TraitementPaiementsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PaiementReposiroty paiementRepository;
+
+    @Autowired
+    private EnfantRepository enfantRepository;
+
+    private final PdfService pdfService = mock(PdfService.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+
+    private TraitementPaiements traitementPaiements;
+    private Parrain parrain;
+    private Parrainage parrainage;
+    private Enfant enfant;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(pdfService.genererRecuPaiement(any())).thenReturn(new byte[]{1});
+        // Lots de deux paiements pour parcourir plusieurs lots
+        traitementPaiements = new TraitementPaiements(paiementRepository, enfantRepository, pdfService, emailService,
+                notificationService, new TransactionTemplate(transactionManager), 2, new SimpleMeterRegistry());
+
+        Organisation organisation = DonneesTest.organisation();
+        entityManager.persist(organisation);
+
+        parrain = DonneesTest.parrain();
+        parrain.setEmail("parrain@eduka.test");
+        entityManager.persist(parrain);
+
+        enfant = DonneesTest.enfant(organisation);
+        enfant.setSolde(new BigDecimal("1000"));
+        entityManager.persist(enfant);
+
+        parrainage = DonneesTest.parrainage(parrain, enfant, "0");
+        entityManager.persist(parrainage);
+    }
+
+    @Test
+    void soldesCreditesUneSeuleFoisPuisRecusEtNotifications() {
+        creerPaiement("5000", true);
+        creerPaiement("3000", true);
+        creerPaiement("2000", true);
+        // Paiement antérieur au traitement en arrière-plan : jamais repris
+        creerPaiement("9000", false);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(traitementPaiements.traiterEnAttente()).isEqualTo(3);
+        assertThat(traitementPaiements.traiterEnAttente()).isZero();
+        entityManager.clear();
+
+        assertThat(enfantRepository.findById(enfant.getId()).orElseThrow().getSolde()).isEqualByComparingTo("11000");
+        assertThat(paiementRepository.findIdsTraitementEnAttente(Pageable.unpaged())).isEmpty();
+        verify(emailService, times(3)).envoyerEmailHtml(eq("parrain@eduka.test"), anyString(), anyString(), anyList());
+        verify(notificationService, times(3)).envoyerNotification(any(Parrain.class), eq("Paiement confirmé"),
+                anyString(), eq(false), eq(true));
+    }
+
+    @Test
+    void echecDuRecuSansEffetSurLeCreditNiLaNotification() {
+        when(emailService.envoyerEmailHtml(anyString(), anyString(), anyString(), anyList()))
+                .thenThrow(new IllegalStateException("SMTP indisponible"));
+        creerPaiement("5000", true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(traitementPaiements.traiterEnAttente()).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(enfantRepository.findById(enfant.getId()).orElseThrow().getSolde()).isEqualByComparingTo("6000");
+        // La notification est envoyée malgré l'échec du reçu
+        verify(notificationService).envoyerNotification(any(Parrain.class), eq("Paiement confirmé"), anyString(),
+                eq(false), eq(true));
+    }
+
+    private void creerPaiement(String montant, boolean enAttente) {
+        Paiement paiement = new Paiement();
+        paiement.setMontant(new BigDecimal(montant));
+        paiement.setMethode(MethodePaiement.ORANGE_MONEY);
+        paiement.setStatut(StatutPaiement.REUSSI);
+        paiement.setDatePaiement(LocalDate.now());
+        paiement.setParrain(parrain);
+        paiement.setParrainage(parrainage);
+        paiement.setTraitementEnAttente(enAttente);
+        entityManager.persist(paiement);
+    }
+}
@@ -0,0 +1,131 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import com.groupe2_ionic.eduka.BaseH2;
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.models.Enfant;
+import com.groupe2_ionic.eduka.models.Organisation;
+import com.groupe2_ionic.eduka.models.Parrainage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export comptable sur le schéma réel (base H2 en mémoire créée par Hibernate) : requêtes des trois tables,
+ * encodage CSV (compressé) et XLSX
+ */
+class ExportComptableTest {
+
+    private static final LocalDate DEBUT = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 12, 31);
+
+    private static ConfigurableApplicationContext context;
+    private static ExportComptable exportComptable;
+
+    @BeforeAll
+    static void setUp() {
+        context = BaseH2.demarrer("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1");
+
+        EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        entityManager.getTransaction().begin();
+        Organisation organisation = DonneesTest.organisation();
+        // Le séparateur dans le nom vérifie l'échappement des cellules CSV
+        organisation.setNom("Association Avenir; Bamako");
+        entityManager.persist(organisation);
+        Enfant enfant = DonneesTest.enfant(organisation);
+        entityManager.persist(enfant);
+        Parrainage parrainage = DonneesTest.parrainage(null, enfant, "15000");
+        entityManager.persist(parrainage);
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        int[] ids = {organisation.getId(), enfant.getId(), parrainage.getId()};
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.batchUpdate("INSERT INTO paiement (methode, montant, statut, date_paiement, transaction_id, " +
+                "traitement_en_attente, id_parrainage) VALUES (?, ?, ?, ?, ?, false, ?)", List.of(
+                new Object[]{"ORANGE_MONEY", new BigDecimal("5000.00"), "REUSSI", LocalDate.of(2025, 2, 1), "OM_1", ids[2]},
+                new Object[]{"MOOV_MONEY", new BigDecimal("5000.00"), "ECHEC", LocalDate.of(2025, 3, 1), "MM \"2\"", ids[2]},
+                new Object[]{"ORANGE_MONEY", new BigDecimal("7500.50"), "REUSSI", LocalDate.of(2025, 4, 1), "=1+2", ids[2]},
+                new Object[]{"ORANGE_MONEY", new BigDecimal("5000.00"), "REUSSI", LocalDate.of(2024, 12, 31), "OM_0", ids[2]}));
+        jdbcTemplate.batchUpdate("INSERT INTO depense (type_depense, montant, date_enregistrement, id_organisation, " +
+                "id_enfant) VALUES (?, ?, ?, ?, ?)", List.of(
+                new Object[]{"SCOLARITE", new BigDecimal("10000.00"), LocalDate.of(2025, 2, 10), ids[0], ids[1]},
+                new Object[]{"FOURNITURE_SCOLAIRE", new BigDecimal("2500.00"), LocalDate.of(2025, 2, 11), ids[0], null}));
+        jdbcTemplate.update("INSERT INTO transfert_fond (motif, montant, statut, date_demande, id_enfant_source, " +
+                "id_organisation) VALUES ('ABANDON', 3000.00, 'EN_ATTENTE', ?, ?, ?)", LocalDate.of(2025, 6, 1), ids[1], ids[0]);
+
+        exportComptable = new ExportComptable(jdbcTemplate, 100);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void csvCompresseAvecLesTroisTables() throws IOException {
+        ByteArrayOutputStream compresse = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(compresse);
+        long lignes = exportComptable.exporter(DEBUT, FIN, FormatExport.CSV, gzip);
+        gzip.finish();
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(compresse.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        List<String> contenu = csv.lines().toList();
+
+        assertThat(lignes).isEqualTo(6).isEqualTo(exportComptable.compter(DEBUT, FIN));
+        assertThat(contenu).hasSize(7);
+        assertThat(contenu.get(0)).isEqualTo("\uFEFFType;ID;Date;Catégorie;Statut;Référence;Organisation;Enfant;Montant");
+        assertThat(contenu.get(1)).matches("PAIEMENT;\\d+;2025-02-01;ORANGE_MONEY;REUSSI;OM_1;\"Association Avenir; Bamako\";\\d+;5000.00");
+        assertThat(contenu.get(2)).contains(";\"MM \"\"2\"\"\";");
+        assertThat(contenu.get(3)).contains(";'=1+2;");
+        assertThat(contenu.get(5)).matches("DEPENSE;\\d+;2025-02-11;FOURNITURE_SCOLAIRE;;;\"Association Avenir; Bamako\";;2500.00");
+        assertThat(contenu.get(6)).startsWith("TRANSFERT;").endsWith(";3000.00");
+    }
+
+    @Test
+    void xlsxUneFeuilleParTableSansFermerLaSortie() throws IOException {
+        AtomicBoolean fermee = new AtomicBoolean();
+        ByteArrayOutputStream classeur = new ByteArrayOutputStream();
+        List<Long> avancement = new ArrayList<>();
+        exportComptable.exporter(DEBUT, FIN, FormatExport.XLSX, new FilterOutputStream(classeur) {
+            @Override
+            public void close() {
+                fermee.set(true);
+            }
+        }, avancement::add);
+
+        assertThat(fermee).isFalse();
+        assertThat(avancement).containsExactly(6L);
+        try (XSSFWorkbook lu = new XSSFWorkbook(new ByteArrayInputStream(classeur.toByteArray()))) {
+            assertThat(lu.getNumberOfSheets()).isEqualTo(3);
+            Sheet paiements = lu.getSheet("Paiements");
+            assertThat(paiements.getLastRowNum()).isEqualTo(3);
+            assertThat(paiements.getRow(3).getCell(2).getLocalDateTimeCellValue().toLocalDate())
+                    .isEqualTo(LocalDate.of(2025, 4, 1));
+            assertThat(paiements.getRow(3).getCell(8).getNumericCellValue()).isEqualTo(7500.50);
+            assertThat(lu.getSheet("Dépenses").getLastRowNum()).isEqualTo(2);
+            assertThat(lu.getSheet("Transferts").getRow(1).getCell(0).getStringCellValue()).isEqualTo("TRANSFERT");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.groupe2_ionic.eduka.services.rapports;
+
+import com.groupe2_ionic.eduka.dto.TacheRapportDto;
+import com.groupe2_ionic.eduka.services.utilitaires.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tâches de rapport : équité entre demandeurs, regroupement des demandes identiques, progression,
+ * échec et expiration des résultats
+ */
+class TachesRapportTest {
+
+    @TempDir
+    Path stockage;
+
+    private final HorlogeReglable horloge = new HorlogeReglable();
+    private final CountDownLatch liberation = new CountDownLatch(1);
+    private TachesRapport taches;
+
+    @AfterEach
+    void tearDown() {
+        liberation.countDown();
+        if (taches != null) {
+            taches.arreter();
+        }
+    }
+
+    @Test
+    void lesDemandeursSontServisATourDeRole() throws Exception {
+        taches = nouvellesTaches(1, 10);
+        List<String> ordre = new CopyOnWriteArrayList<>();
+
+        taches.soumettre(demande("organisation-1", "A0", (sortie, progression) -> {
+            attendreLiberation();
+            ordre.add("A0");
+        }));
+        for (int i = 1; i <= 4; i++) {
+            String nom = "A" + i;
+            taches.soumettre(demande("organisation-1", nom, (sortie, progression) -> ordre.add(nom)));
+        }
+        TacheRapportDto derniere = taches.soumettre(demande("organisation-2", "B0",
+                (sortie, progression) -> ordre.add("B0")));
+
+        liberation.countDown();
+        attendre(derniere.getId(), TachesRapport.Statut.TERMINEE);
+
+        // Le second demandeur passe au plus après une tâche de plus du premier, pas après toute sa file
+        assertThat(ordre.indexOf("B0")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void demandesIdentiquesRegroupeesEnUneTache() throws Exception {
+        taches = nouvellesTaches(2, 10);
+        AtomicInteger executions = new AtomicInteger();
+        TachesRapport.Travail travail = (sortie, progression) -> {
+            executions.incrementAndGet();
+            attendreLiberation();
+            sortie.write("rapport".getBytes(StandardCharsets.UTF_8));
+        };
+
+        TacheRapportDto premiere = taches.soumettre(demande("administration", "RAPPORT:2025-01", travail));
+        TacheRapportDto seconde = taches.soumettre(demande("administration", "RAPPORT:2025-01", travail));
+        assertThat(seconde.getId()).isEqualTo(premiere.getId());
+
+        liberation.countDown();
+        attendre(premiere.getId(), TachesRapport.Statut.TERMINEE);
+        assertThat(executions.get()).isEqualTo(1);
+
+        // Une fois terminée, la même demande produit un nouveau rapport
+        TacheRapportDto suivante = taches.soumettre(demande("administration", "RAPPORT:2025-01", travail));
+        assertThat(suivante.getId()).isNotEqualTo(premiere.getId());
+    }
+
+    @Test
+    void progressionPuisFichierDisponible() throws Exception {
+        taches = nouvellesTaches(1, 10);
+        CountDownLatch aMiChemin = new CountDownLatch(1);
+
+        TacheRapportDto tache = taches.soumettre(demande("administration", "RAPPORT", (sortie, progression) -> {
+            sortie.write("debut;".getBytes(StandardCharsets.UTF_8));
+            progression.avancer(50, 100);
+            aMiChemin.countDown();
+            attendreLiberation();
+            sortie.write("fin".getBytes(StandardCharsets.UTF_8));
+        }));
+
+        assertThat(aMiChemin.await(5, TimeUnit.SECONDS)).isTrue();
+        TacheRapportDto enCours = taches.etat(tache.getId()).orElseThrow();
+        assertThat(enCours.getStatut()).isEqualTo("EN_COURS");
+        assertThat(enCours.getProgression()).isEqualTo(50);
+        assertThat(taches.fichier(tache.getId())).isEmpty();
+
+        liberation.countDown();
+        TacheRapportDto terminee = attendre(tache.getId(), TachesRapport.Statut.TERMINEE);
+        assertThat(terminee.getProgression()).isEqualTo(100);
+        assertThat(terminee.getTaille()).isEqualTo(9);
+        assertThat(terminee.getDateExpiration()).isEqualTo(terminee.getDateFin().plusMinutes(120));
+        Path fichier = taches.fichier(tache.getId()).orElseThrow();
+        assertThat(Files.readString(fichier)).isEqualTo("debut;fin");
+    }
+
+    @Test
+    void echecConserveLeMessageSansFichier() throws Exception {
+        taches = nouvellesTaches(1, 10);
+
+        TacheRapportDto tache = taches.soumettre(demande("administration", "RAPPORT", (sortie, progression) -> {
+            sortie.write("partiel".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Base indisponible");
+        }));
+
+        TacheRapportDto echec = attendre(tache.getId(), TachesRapport.Statut.ECHEC);
+        assertThat(echec.getMessage()).isEqualTo("Base indisponible");
+        assertThat(echec.getUrl()).isNull();
+        // Le fichier temporaire de la tentative est supprimé
+        assertThat(Files.list(stockage.resolve("rapports"))).isEmpty();
+    }
+
+    @Test
+    void resultatsSupprimesApresLaDureeDeConservation() throws Exception {
+        taches = nouvellesTaches(1, 10);
+        TacheRapportDto tache = taches.soumettre(demande("administration", "RAPPORT",
+                (sortie, progression) -> sortie.write(new byte[1024])));
+        attendre(tache.getId(), TachesRapport.Statut.TERMINEE);
+        Path fichier = taches.fichier(tache.getId()).orElseThrow();
+
+        horloge.avancer(Duration.ofMinutes(119));
+        taches.nettoyer();
+        assertThat(taches.etat(tache.getId())).isPresent();
+
+        horloge.avancer(Duration.ofMinutes(2));
+        taches.nettoyer();
+        assertThat(taches.etat(tache.getId())).isEmpty();
+        assertThat(fichier).doesNotExist();
+    }
+
+    @Test
+    void fileSatureeParDemandeur() throws Exception {
+        taches = nouvellesTaches(1, 2);
+        CountDownLatch demarree = new CountDownLatch(1);
+        taches.soumettre(demande("organisation-1", "R0", (sortie, progression) -> {
+            demarree.countDown();
+            attendreLiberation();
+        }));
+        assertThat(demarree.await(5, TimeUnit.SECONDS)).isTrue();
+
+        taches.soumettre(demande("organisation-1", "R1", (sortie, progression) -> {
+        }));
+        taches.soumettre(demande("organisation-1", "R2", (sortie, progression) -> {
+        }));
+        assertThatThrownBy(() -> taches.soumettre(demande("organisation-1", "R3", (sortie, progression) -> {
+        }))).isInstanceOf(TachesRapport.FileSatureeException.class);
+
+        // Les autres demandeurs ne sont pas concernés
+        assertThat(taches.soumettre(demande("organisation-2", "R3", (sortie, progression) -> {
+        })).getStatut()).isEqualTo("EN_ATTENTE");
+        assertThat(taches.enAttente()).isEqualTo(3);
+    }
+
+    private TachesRapport nouvellesTaches(int travailleurs, int attenteMax) throws IOException {
+        TachesRapportProperties properties = new TachesRapportProperties();
+        properties.setTravailleurs(travailleurs);
+        properties.setAttenteMaxParLocataire(attenteMax);
+        return new TachesRapport(new FileStorageService(stockage.toString(), true), properties,
+                new SimpleMeterRegistry(), horloge);
+    }
+
+    private static TachesRapport.Demande demande(String locataire, String cle, TachesRapport.Travail travail) {
+        return new TachesRapport.Demande(locataire, "TEST", cle, cle + ".txt", "text/plain", travail);
+    }
+
+    private TacheRapportDto attendre(String tacheId, TachesRapport.Statut statut) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            TacheRapportDto etat = taches.etat(tacheId).orElseThrow();
+            if (etat.getStatut().equals(statut.name())) {
+                return etat;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Tâche " + tacheId + " toujours " + taches.etat(tacheId).orElseThrow().getStatut());
+    }
+
+    private void attendreLiberation() throws IOException {
+        try {
+            liberation.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static final class HorlogeReglable extends Clock {
+
+        private volatile Instant maintenant = Instant.now();
+
+        void avancer(Duration duree) {
+            maintenant = maintenant.plus(duree);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return maintenant;
+        }
+    }
+}
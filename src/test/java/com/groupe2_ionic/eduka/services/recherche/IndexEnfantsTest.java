@@ -0,0 +1,79 @@
+package com.groupe2_ionic.eduka.services.recherche;
+
+import com.groupe2_ionic.eduka.dto.EnfantIndexeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du classement, des préfixes, des facettes et des mises à jour de l'index des enfants disponibles
+ */
+class IndexEnfantsTest {
+
+    private IndexEnfants index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IndexEnfants();
+        index.indexer(new EnfantIndexeDto(1, "Traoré", "Awa", "CM1",
+                "Awa aime la lecture et veut devenir médecin", "Association Espoir", "Bamako"));
+        index.indexer(new EnfantIndexeDto(2, "Keita", "Moussa", "CE2",
+                "Moussa habite près de Traoré, le marché de Ségou", "Enfance Solidaire", "Ségou"));
+        index.indexer(new EnfantIndexeDto(3, "Diallo", "Fanta", "CM1",
+                "Fanta rêve d'être institutrice", "Association Espoir", "Bamako"));
+    }
+
+    @Test
+    void nomClasseAvantHistoireSansTenirCompteDesAccents() {
+        IndexEnfants.Resultat resultat = index.rechercher("TRAORE", null, null, 0, 10);
+
+        assertThat(resultat.enfantIds()).containsExactly(1, 2);
+        assertThat(resultat.total()).isEqualTo(2);
+    }
+
+    @Test
+    void tousLesTermesDoiventCorrespondreEtLeDernierParPrefixe() {
+        assertThat(index.rechercher("espoir bam", null, null, 0, 10).enfantIds()).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.rechercher("espoir segou", null, null, 0, 10).enfantIds()).isEmpty();
+        assertThat(index.rechercher("institu", null, null, 0, 10).enfantIds()).containsExactly(3);
+    }
+
+    @Test
+    void facettesCompteesSansLeurPropreFiltre() {
+        IndexEnfants.Resultat resultat = index.rechercher(null, "bamako", "cm1", 0, 10);
+
+        assertThat(resultat.enfantIds()).containsExactly(3, 1);
+        assertThat(resultat.facettesVilles()).containsEntry("Bamako", 2L).doesNotContainKey("Ségou");
+        assertThat(resultat.facettesNiveaux()).containsEntry("CM1", 2L).doesNotContainKey("CE2");
+
+        IndexEnfants.Resultat parNiveau = index.rechercher(null, null, "ce2", 0, 10);
+        assertThat(parNiveau.facettesNiveaux()).containsEntry("CM1", 2L).containsEntry("CE2", 1L);
+        assertThat(parNiveau.facettesVilles()).containsOnlyKeys("Ségou");
+    }
+
+    @Test
+    void paginationSurLeClassement() {
+        assertThat(index.rechercher(null, null, null, 0, 2).enfantIds()).containsExactly(3, 2);
+        assertThat(index.rechercher(null, null, null, 2, 2).enfantIds()).containsExactly(1);
+        assertThat(index.rechercher(null, null, null, 2, 2).total()).isEqualTo(3);
+        // Page très lointaine : aucune allocation proportionnelle à la page, total et facettes conservés
+        IndexEnfants.Resultat lointaine = index.rechercher(null, null, null, Integer.MAX_VALUE - 1, 100);
+        assertThat(lointaine.enfantIds()).isEmpty();
+        assertThat(lointaine.total()).isEqualTo(3);
+    }
+
+    @Test
+    void miseAJourEtSuppression() {
+        index.indexer(new EnfantIndexeDto(1, "Traoré", "Awa", "6ème", "Awa est entrée au collège",
+                "Association Espoir", "Kayes"));
+        index.supprimer(2);
+
+        assertThat(index.rechercher("lecture", null, null, 0, 10).enfantIds()).isEmpty();
+        assertThat(index.rechercher("college", null, null, 0, 10).enfantIds()).containsExactly(1);
+        assertThat(index.rechercher("traore", null, null, 0, 10).enfantIds()).containsExactly(1);
+        assertThat(index.rechercher(null, null, null, 0, 10).facettesVilles())
+                .containsEntry("Kayes", 1L).containsEntry("Bamako", 1L).doesNotContainKey("Ségou");
+        assertThat(index.taille()).isEqualTo(2);
+    }
+}
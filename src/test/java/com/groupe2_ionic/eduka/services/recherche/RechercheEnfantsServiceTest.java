@@ -0,0 +1,40 @@
+package com.groupe2_ionic.eduka.services.recherche;
+
+import com.groupe2_ionic.eduka.dto.EnfantResponseDto;
+import com.groupe2_ionic.eduka.dto.RechercheEnfantsDto;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Recherche servie par la base tant que l'index n'est pas construit
+ */
+class RechercheEnfantsServiceTest {
+
+    private final EnfantRepository enfantRepository = mock(EnfantRepository.class);
+    private final RechercheEnfantsService service = new RechercheEnfantsService(enfantRepository,
+            new SimpleMeterRegistry());
+
+    @Test
+    void rechercheEnBaseAvantLaConstructionDeLIndex() {
+        EnfantResponseDto enfant = new EnfantResponseDto();
+        enfant.setId(1);
+        when(enfantRepository.findEnfantsDisponiblesDto(null, "Bamako", "CM1", PageRequest.of(1, 20)))
+                .thenReturn(new PageImpl<>(List.of(enfant), PageRequest.of(1, 20), 21));
+
+        RechercheEnfantsDto resultat = service.rechercher("awa", "Bamako", "CM1", 1, 20);
+
+        assertThat(resultat.getResultats()).containsExactly(enfant);
+        assertThat(resultat.getTotal()).isEqualTo(21);
+        assertThat(resultat.getPage()).isEqualTo(1);
+        assertThat(resultat.getFacettesVilles()).isEmpty();
+        verify(enfantRepository, never()).findEnfantsDisponiblesDtoByIds(anyList());
+    }
+}
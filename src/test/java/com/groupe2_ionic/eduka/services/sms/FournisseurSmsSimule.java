@@ -0,0 +1,84 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fournisseur SMS local pour les tests et les essais de charge hors ligne : latence, panne, destinataires
+ * par requête et préfixes desservis réglables, suivi des requêtes et des messages reçus
+ */
+public class FournisseurSmsSimule implements FournisseurSms {
+
+    private final String nom;
+    private final int destinatairesParRequete;
+    private volatile long latenceMs;
+    private volatile boolean enPanne;
+    private volatile String prefixeDesservi = "";
+    private final AtomicInteger requetes = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+
+    public FournisseurSmsSimule(String nom, int destinatairesParRequete) {
+        this.nom = nom;
+        this.destinatairesParRequete = destinatairesParRequete;
+    }
+
+    @Override
+    public String nom() {
+        return nom;
+    }
+
+    @Override
+    public boolean configure() {
+        return true;
+    }
+
+    @Override
+    public int destinatairesParRequete() {
+        return destinatairesParRequete;
+    }
+
+    @Override
+    public Map<String, String> envoyer(List<String> destinataires, String message) {
+        requetes.incrementAndGet();
+        try {
+            if (latenceMs > 0) {
+                Thread.sleep(latenceMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envoi interrompu", e);
+        }
+        if (enPanne) {
+            throw new IllegalStateException("Fournisseur " + nom + " en panne");
+        }
+
+        Map<String, String> refus = new HashMap<>();
+        for (String destinataire : destinataires) {
+            if (destinataire.startsWith(prefixeDesservi)) {
+                messages.incrementAndGet();
+            } else {
+                refus.put(destinataire, "numéro non desservi");
+            }
+        }
+        return refus;
+    }
+
+    public void regler(long latenceMs, boolean enPanne) {
+        this.latenceMs = latenceMs;
+        this.enPanne = enPanne;
+    }
+
+    public void desservir(String prefixe) {
+        this.prefixeDesservi = prefixe;
+    }
+
+    public int requetes() {
+        return requetes.get();
+    }
+
+    public int messages() {
+        return messages.get();
+    }
+}
@@ -0,0 +1,189 @@
+package com.groupe2_ionic.eduka.services.sms;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routage SMS avec des fournisseurs simulés : bascule, quarantaine, quotas et envois groupés
+ */
+class RoutageSmsTest {
+
+    private final FournisseurSmsSimule principal = new FournisseurSmsSimule("PRINCIPAL", 1);
+    private final FournisseurSmsSimule secours = new FournisseurSmsSimule("SECOURS", 50);
+    private final AtomicLong horloge = new AtomicLong();
+
+    @Test
+    void basculeEtQuarantaineDuFournisseurEnPanne() {
+        RoutageSms routage = nouveauRoutage(reglages(0, 0), System::nanoTime);
+        principal.regler(0, true);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(routage.envoyer(numero(i), "Code: 1234")).isTrue();
+        }
+
+        // Trois échecs consécutifs puis plus aucune requête au fournisseur en quarantaine
+        assertThat(principal.requetes()).isEqualTo(3);
+        assertThat(secours.messages()).isEqualTo(20);
+        assertThat(routage.disponible("PRINCIPAL")).isFalse();
+    }
+
+    @Test
+    void requeteDEssaiRetablitLeFournisseur() {
+        RoutageSms routage = nouveauRoutage(reglages(0, 0), horloge::get);
+        principal.regler(0, true);
+        for (int i = 0; i < 3; i++) {
+            routage.envoyer(numero(i), "Rappel");
+        }
+        assertThat(routage.disponible("PRINCIPAL")).isFalse();
+
+        principal.regler(0, false);
+        horloge.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(routage.envoyer(numero(4), "Rappel")).isTrue();
+
+        assertThat(routage.disponible("PRINCIPAL")).isTrue();
+        assertThat(principal.messages()).isEqualTo(1);
+    }
+
+    @Test
+    void fournisseurTropLentMisEnQuarantaine() {
+        RoutageSmsProperties.Reglages reglages = reglages(0, 0);
+        reglages.setLatenceMaxMs(20);
+        RoutageSms routage = nouveauRoutage(reglages, System::nanoTime);
+        principal.regler(100, false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(routage.envoyer(numero(i), "Rappel")).isTrue();
+        }
+
+        assertThat(principal.messages()).isEqualTo(1);
+        assertThat(secours.messages()).isEqualTo(9);
+    }
+
+    @Test
+    void numerosNonDesservisProposesAuSuivant() {
+        RoutageSms routage = nouveauRoutage(reglages(0, 0), System::nanoTime);
+        principal.desservir("+223");
+
+        Map<String, String> erreurs = routage.envoyer(List.of("+22370000001", "+33600000001"), "Bienvenue");
+
+        assertThat(erreurs).isEmpty();
+        assertThat(principal.messages()).isEqualTo(1);
+        assertThat(secours.messages()).isEqualTo(1);
+        assertThat(routage.disponible("PRINCIPAL")).isTrue();
+    }
+
+    @Test
+    void quotaRespecteEtDebordementVersLeSuivant() throws Exception {
+        RoutageSmsProperties.Reglages reglages = reglages(200, 20);
+        reglages.setAttenteMaxMs(0);
+        RoutageSms routage = nouveauRoutage(reglages, horloge::get);
+
+        List<Future<Boolean>> envois = new ArrayList<>();
+        try (ExecutorService appelants = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                String numero = numero(i);
+                envois.add(appelants.submit(() -> routage.envoyer(numero, "Diffusion")));
+            }
+            for (Future<Boolean> envoi : envois) {
+                assertThat(envoi.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+
+        // L'horloge est figée : seule la rafale part chez le fournisseur principal
+        assertThat(principal.messages()).isEqualTo(20);
+        assertThat(secours.messages()).isEqualTo(80);
+    }
+
+    @Test
+    void debitEspaceAuQuotaDuFournisseur() {
+        RoutageSmsProperties.Reglages reglages = reglages(100, 10);
+        RoutageSms routage = nouveauRoutage(reglages, System::nanoTime);
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < 60; i++) {
+            assertThat(routage.envoyer(numero(i), "Rappel")).isTrue();
+        }
+
+        // 10 messages en rafale puis 50 au rythme de 100 par seconde
+        assertThat(System.nanoTime() - debut).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(450));
+        assertThat(principal.messages()).isEqualTo(60);
+        assertThat(secours.messages()).isZero();
+    }
+
+    @Test
+    void diffusionGroupeeParRequete() {
+        RoutageSms routage = nouveauRoutage(reglages(0, 0), System::nanoTime);
+        principal.regler(0, true);
+        List<String> destinataires = IntStream.range(0, 1_000).mapToObj(RoutageSmsTest::numero).toList();
+
+        Map<String, String> erreurs = routage.envoyer(destinataires, "Réunion des parrains samedi");
+
+        assertThat(erreurs).isEmpty();
+        assertThat(secours.messages()).isEqualTo(1_000);
+        assertThat(secours.requetes()).isEqualTo(20);
+    }
+
+    @Test
+    void diffusionGroupeeEspaceeParLotsDeLaRafale() {
+        FournisseurSmsSimule groupe = new FournisseurSmsSimule("PRINCIPAL", 100);
+        RoutageSmsProperties.Reglages reglages = reglages(100, 20);
+        reglages.setAttenteMaxMs(500);
+        RoutageSmsProperties properties = new RoutageSmsProperties();
+        properties.setOrdre(List.of("PRINCIPAL", "SECOURS"));
+        properties.getFournisseurs().put("PRINCIPAL", reglages);
+        RoutageSms routage = new RoutageSms(List.of(groupe, secours), properties, new SimpleMeterRegistry(), System::nanoTime);
+        List<String> destinataires = IntStream.range(0, 100).mapToObj(RoutageSmsTest::numero).toList();
+
+        long debut = System.nanoTime();
+        assertThat(routage.envoyer(destinataires, "Réunion des parrains samedi")).isEmpty();
+
+        // Cinq requêtes de 20 (la rafale) espacées au quota, chacune dans l'attente maximale
+        assertThat(System.nanoTime() - debut).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(750));
+        assertThat(groupe.messages()).isEqualTo(100);
+        assertThat(groupe.requetes()).isEqualTo(5);
+        assertThat(secours.messages()).isZero();
+    }
+
+    @Test
+    void destinatairesNonServisQuandTousLesFournisseursEchouent() {
+        RoutageSms routage = nouveauRoutage(reglages(0, 0), System::nanoTime);
+        principal.regler(0, true);
+        secours.regler(0, true);
+
+        Map<String, String> erreurs = routage.envoyer(List.of(numero(1)), "Code: 1234");
+
+        assertThat(erreurs).containsEntry(numero(1), "SECOURS: Fournisseur SECOURS en panne");
+    }
+
+    private RoutageSms nouveauRoutage(RoutageSmsProperties.Reglages reglages, LongSupplier horloge) {
+        RoutageSmsProperties properties = new RoutageSmsProperties();
+        properties.setOrdre(List.of("PRINCIPAL", "SECOURS"));
+        properties.getFournisseurs().put("PRINCIPAL", reglages);
+        properties.getDefaut().setMessagesParSeconde(0);
+        return new RoutageSms(List.of(principal, secours), properties, new SimpleMeterRegistry(), horloge);
+    }
+
+    private static RoutageSmsProperties.Reglages reglages(int messagesParSeconde, int rafale) {
+        RoutageSmsProperties.Reglages reglages = new RoutageSmsProperties.Reglages();
+        reglages.setMessagesParSeconde(messagesParSeconde);
+        reglages.setRafale(rafale);
+        return reglages;
+    }
+
+    private static String numero(int i) {
+        return String.format("+2237%07d", i);
+    }
+}
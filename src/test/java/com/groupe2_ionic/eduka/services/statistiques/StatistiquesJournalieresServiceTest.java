@@ -0,0 +1,209 @@
+package com.groupe2_ionic.eduka.services.statistiques;
+
+import com.groupe2_ionic.eduka.BaseH2;
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.dto.RapportGlobalDto;
+import com.groupe2_ionic.eduka.models.Enfant;
+import com.groupe2_ionic.eduka.models.Organisation;
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.Parrainage;
+import com.groupe2_ionic.eduka.repository.CurseurStatistiquesRepository;
+import com.groupe2_ionic.eduka.repository.DepenseRepository;
+import com.groupe2_ionic.eduka.repository.EnfantRepository;
+import com.groupe2_ionic.eduka.repository.OrganisationRepository;
+import com.groupe2_ionic.eduka.repository.PaiementReposiroty;
+import com.groupe2_ionic.eduka.repository.ParrainRepository;
+import com.groupe2_ionic.eduka.repository.ParrainageRepository;
+import com.groupe2_ionic.eduka.repository.StatistiqueJournaliereRepository;
+import com.groupe2_ionic.eduka.repository.VerrouPlanifieRepository;
+import com.groupe2_ionic.eduka.services.utilitaires.VerrousPlanifies;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Statistiques journalières sur le schéma réel (base H2 en mémoire créée par Hibernate) : cumuls par jour,
+ * par pays et par organisation, passages incrémentaux et reconstruction
+ */
+class StatistiquesJournalieresServiceTest {
+
+    private static final int FENETRE_JOURS = 3;
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbcTemplate;
+    private static StatistiquesJournalieresService statistiques;
+    private static int[] organisations;
+    private static int[] parrainages;
+
+    @BeforeAll
+    static void setUp() {
+        context = BaseH2.demarrer("jdbc:h2:mem:statistiques;DB_CLOSE_DELAY=-1");
+
+        EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        entityManager.getTransaction().begin();
+        Organisation bamako = organisation(entityManager, "Association Avenir", "Bamako", "Mali");
+        Organisation dakar = organisation(entityManager, "Espoir Dakar", "Dakar", "Sénégal");
+        Organisation sansPays = organisation(entityManager, "Sans pays", null, null);
+        Enfant enfantBamako = enfant(entityManager, bamako, LocalDate.of(2025, 1, 10));
+        Enfant enfantDakar = enfant(entityManager, dakar, LocalDate.of(2025, 1, 10));
+        enfant(entityManager, sansPays, LocalDate.of(2025, 2, 1));
+
+        Parrain parrain = DonneesTest.parrain();
+        parrain.setDateInscription(LocalDate.of(2025, 1, 5));
+        entityManager.persist(parrain);
+
+        Parrainage parrainageBamako = parrainage(entityManager, enfantBamako, LocalDate.of(2025, 1, 15));
+        Parrainage parrainageDakar = parrainage(entityManager, enfantDakar, LocalDate.of(2025, 1, 20));
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        organisations = new int[]{bamako.getId(), dakar.getId(), sansPays.getId()};
+        parrainages = new int[]{parrainageBamako.getId(), parrainageDakar.getId()};
+
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        paiement("REUSSI", "5000.00", LocalDate.of(2025, 1, 15), parrainages[0], null);
+        paiement("ECHEC", "5000.00", LocalDate.of(2025, 1, 16), parrainages[0], null);
+        paiement("REUSSI", "20000.00", LocalDate.of(2025, 2, 15), parrainages[1], null);
+        // Paiement en espèces enregistré par l'organisation, sans parrainage
+        paiement("REUSSI", "1000.00", LocalDate.of(2025, 3, 1), null, organisations[0]);
+        jdbcTemplate.update("INSERT INTO depense (type_depense, montant, date_enregistrement, id_organisation) " +
+                "VALUES ('SCOLARITE', 2500.00, ?, ?)", LocalDate.of(2025, 2, 10), organisations[0]);
+
+        statistiques = new StatistiquesJournalieresService(
+                context.getBean(StatistiqueJournaliereRepository.class),
+                context.getBean(CurseurStatistiquesRepository.class),
+                context.getBean(PaiementReposiroty.class),
+                context.getBean(ParrainageRepository.class),
+                context.getBean(EnfantRepository.class),
+                context.getBean(ParrainRepository.class),
+                context.getBean(DepenseRepository.class),
+                context.getBean(OrganisationRepository.class),
+                verrous(),
+                context.getBean(PlatformTransactionManager.class),
+                FENETRE_JOURS, 60);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void rapportDUnePeriodeDepuisLesCumuls() {
+        statistiques.cumuler();
+
+        StatistiquesJournalieresService.Totaux annee = statistiques.totaux(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        assertThat(annee.nombrePaiements()).isEqualTo(4);
+        assertThat(annee.montantReussi()).isEqualByComparingTo("26000");
+        assertThat(annee.nombreEnfants()).isEqualTo(3);
+        assertThat(annee.nombreParrains()).isEqualTo(1);
+        assertThat(annee.nombreParrainages()).isEqualTo(2);
+        assertThat(annee.nombreDepenses()).isEqualTo(1);
+        assertThat(annee.montantDepenses()).isEqualByComparingTo("2500");
+
+        StatistiquesJournalieresService.Totaux fevrier = statistiques.totaux(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+        assertThat(fevrier.nombrePaiements()).isEqualTo(1);
+        assertThat(fevrier.montantReussi()).isEqualByComparingTo("20000");
+        assertThat(fevrier.nombreEnfants()).isEqualTo(1);
+
+        assertThat(statistiques.parPays(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)))
+                .extracting(RapportGlobalDto.StatistiqueParPaysDto::getPays,
+                        RapportGlobalDto.StatistiqueParPaysDto::getNombreOrganisations,
+                        RapportGlobalDto.StatistiqueParPaysDto::getNombreEnfants,
+                        pays -> pays.getMontantTotal().intValue())
+                .containsExactly(tuple("Sénégal", 1L, 1L, 20000), tuple("Mali", 1L, 1L, 6000));
+
+        assertThat(statistiques.topOrganisations(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), 2))
+                .extracting(RapportGlobalDto.StatistiqueParOrganisationDto::getNomOrganisation,
+                        organisation -> organisation.getMontantTotal().intValue(),
+                        RapportGlobalDto.StatistiqueParOrganisationDto::getVille)
+                .containsExactly(tuple("Espoir Dakar", 20000, "Dakar"), tuple("Association Avenir", 6000, "Bamako"));
+    }
+
+    @Test
+    void nouvellesLignesCumuleesEtChangementsAnciensRattrapesParLaReconstruction() {
+        LocalDate debut = LocalDate.of(2023, 1, 1);
+        LocalDate fin = LocalDate.of(2023, 12, 31);
+        statistiques.cumuler();
+        // Rien de nouveau : seuls les derniers jours sont recalculés
+        assertThat(statistiques.cumuler()).isEqualTo(FENETRE_JOURS);
+
+        // Paiements saisis après coup pour une date ancienne
+        paiement("REUSSI", "3000.00", LocalDate.of(2023, 6, 1), parrainages[0], null);
+        paiement("INITE", "4000.00", LocalDate.of(2023, 6, 2), parrainages[0], null);
+        assertThat(statistiques.cumuler()).isEqualTo(FENETRE_JOURS + 2);
+        assertThat(statistiques.totaux(debut, fin).nombrePaiements()).isEqualTo(2);
+        assertThat(statistiques.totaux(debut, fin).montantReussi()).isEqualByComparingTo("3000");
+
+        // Un changement de statut hors des derniers jours n'est vu que par la reconstruction
+        jdbcTemplate.update("UPDATE paiement SET statut = 'REUSSI' WHERE date_paiement = ?", LocalDate.of(2023, 6, 2));
+        statistiques.cumuler();
+        assertThat(statistiques.totaux(debut, fin).montantReussi()).isEqualByComparingTo("3000");
+
+        assertThat(statistiques.reconstruire()).isGreaterThan(FENETRE_JOURS);
+        assertThat(statistiques.totaux(debut, fin).montantReussi()).isEqualByComparingTo("7000");
+        assertThat(statistiques.totaux(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)).montantReussi())
+                .isEqualByComparingTo("26000");
+    }
+
+    @Test
+    void passageReserveAUneSeuleInstance() {
+        statistiques.cumuler();
+        // Une autre instance détient le verrou
+        VerrousPlanifies autreInstance = verrous();
+        assertThat(autreInstance.prendre("statistiques-journalieres", Duration.ofMinutes(5))).isTrue();
+        assertThat(statistiques.cumuler()).isZero();
+        assertThat(statistiques.reconstruire()).isZero();
+
+        autreInstance.liberer("statistiques-journalieres");
+        assertThat(statistiques.cumuler()).isEqualTo(FENETRE_JOURS);
+    }
+
+    private static VerrousPlanifies verrous() {
+        return new VerrousPlanifies(context.getBean(VerrouPlanifieRepository.class),
+                context.getBean(PlatformTransactionManager.class));
+    }
+
+    private static Organisation organisation(EntityManager entityManager, String nom, String ville, String pays) {
+        Organisation organisation = DonneesTest.organisation();
+        organisation.setNom(nom);
+        organisation.setVille(ville);
+        organisation.setPays(pays);
+        organisation.setDateInscription(LocalDate.of(2024, 12, 1));
+        entityManager.persist(organisation);
+        return organisation;
+    }
+
+    private static Enfant enfant(EntityManager entityManager, Organisation organisation, LocalDate dateInscription) {
+        Enfant enfant = DonneesTest.enfant(organisation);
+        enfant.setStatutParrainage(false);
+        enfant.setDateInscription(dateInscription);
+        entityManager.persist(enfant);
+        return enfant;
+    }
+
+    private static Parrainage parrainage(EntityManager entityManager, Enfant enfant, LocalDate dateDebut) {
+        Parrainage parrainage = DonneesTest.parrainage(null, enfant, "0");
+        parrainage.setDateDebut(dateDebut);
+        entityManager.persist(parrainage);
+        return parrainage;
+    }
+
+    private static void paiement(String statut, String montant, LocalDate date, Integer parrainageId,
+                                 Integer organisationId) {
+        jdbcTemplate.update("INSERT INTO paiement (methode, montant, statut, date_paiement, traitement_en_attente, " +
+                "id_parrainage, id_organisation) VALUES ('ORANGE_MONEY', ?, ?, ?, false, ?, ?)",
+                new BigDecimal(montant), statut, date, parrainageId, organisationId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import com.groupe2_ionic.eduka.BaseH2;
+import com.groupe2_ionic.eduka.dto.PageCurseurDto;
+import com.groupe2_ionic.eduka.models.Notification;
+import com.groupe2_ionic.eduka.models.Parrain;
+import com.groupe2_ionic.eduka.models.enums.RoleUser;
+import com.groupe2_ionic.eduka.repository.NotificationRepository;
+import com.groupe2_ionic.eduka.repository.ParrainRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pagination par curseur : taille bornée, curseur opaque, et parcours complet d'un flux réel (base H2)
+ * sans doublon ni omission lorsque plusieurs éléments partagent la même date
+ */
+class CurseurPaginationTest {
+
+    @Test
+    void tailleBorneeEtCurseurReversible() {
+        assertThat(CurseurPagination.taille(null)).isEqualTo(CurseurPagination.TAILLE_PAR_DEFAUT);
+        assertThat(CurseurPagination.taille(0)).isEqualTo(CurseurPagination.TAILLE_PAR_DEFAUT);
+        assertThat(CurseurPagination.taille(1_000)).isEqualTo(CurseurPagination.TAILLE_MAX);
+
+        CurseurPagination.Position position = new CurseurPagination.Position(LocalDate.of(2025, 3, 1), 42);
+        assertThat(CurseurPagination.decoder(CurseurPagination.encoder(position))).isEqualTo(position);
+        assertThat(CurseurPagination.decoder(" ")).isNull();
+        assertThatThrownBy(() -> CurseurPagination.decoder("pas-un-curseur"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void elementSupplementaireSignaleLaPageSuivante() {
+        List<Integer> lus = List.of(5, 4, 3);
+        PageCurseurDto<String> page = CurseurPagination.page(lus, 2,
+                id -> new CurseurPagination.Position(LocalDate.of(2025, 1, 1), id), String::valueOf);
+
+        assertThat(page.getContenu()).containsExactly("5", "4");
+        assertThat(page.isSuivant()).isTrue();
+        assertThat(CurseurPagination.decoder(page.getCurseurSuivant()).id()).isEqualTo(4);
+
+        PageCurseurDto<String> derniere = CurseurPagination.page(lus.subList(0, 2), 2,
+                id -> new CurseurPagination.Position(LocalDate.of(2025, 1, 1), id), String::valueOf);
+        assertThat(derniere.isSuivant()).isFalse();
+        assertThat(derniere.getCurseurSuivant()).isNull();
+    }
+
+    @Test
+    void parcoursCompletDuFluxDesNotifications() {
+        try (ConfigurableApplicationContext context = BaseH2.demarrer("jdbc:h2:mem:curseur;DB_CLOSE_DELAY=-1")) {
+            NotificationRepository notifications = context.getBean(NotificationRepository.class);
+            Parrain parrain = new Parrain();
+            parrain.setNom("Diarra");
+            parrain.setPrenom("Moussa");
+            parrain.setEmail("parrain@eduka.test");
+            parrain.setPassword("password");
+            parrain.setRole(RoleUser.ROLE_PARRAIN);
+            parrain.setDateInscription(LocalDate.now());
+            parrain.setActif(true);
+            int parrainId = context.getBean(ParrainRepository.class).save(parrain).getId();
+
+            // 7 notifications par jour : les pages de 5 coupent au milieu d'une même date
+            List<Object[]> lignes = new ArrayList<>();
+            for (int i = 0; i < 49; i++) {
+                lignes.add(new Object[]{"Sujet " + i, Date.valueOf(LocalDate.of(2025, 1, 1).plusDays(i % 7)), parrainId});
+            }
+            context.getBean(JdbcTemplate.class).batchUpdate(
+                    "INSERT INTO notification (sujet, message, date, lu, id_destinataire) VALUES (?, 'Message', ?, false, ?)",
+                    lignes);
+
+            List<Integer> parcourus = new ArrayList<>();
+            String curseur = null;
+            do {
+                CurseurPagination.Position position = CurseurPagination.decoder(curseur);
+                PageRequest limite = PageRequest.of(0, 6);
+                List<Notification> lus = position == null
+                        ? notifications.findFluxByDestinataireId(parrainId, limite)
+                        : notifications.findFluxByDestinataireIdApres(parrainId, position.date(), position.id(), limite);
+                PageCurseurDto<Integer> page = CurseurPagination.page(lus, 5,
+                        n -> new CurseurPagination.Position(n.getDate(), n.getId()), Notification::getId);
+                parcourus.addAll(page.getContenu());
+                curseur = page.getCurseurSuivant();
+            } while (curseur != null);
+
+            List<Integer> attendus = notifications.findFluxByDestinataireId(parrainId, PageRequest.of(0, 100))
+                    .stream().map(Notification::getId).toList();
+            assertThat(attendus).hasSize(49);
+            assertThat(parcourus).containsExactlyElementsOf(attendus);
+        }
+    }
+}
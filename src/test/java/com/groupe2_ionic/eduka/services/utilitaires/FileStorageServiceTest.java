@@ -0,0 +1,132 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stockage adressé par contenu : empreinte calculée à la réception, dédoublonnage, arborescence par empreinte
+ * et suppression des contenus qui ne sont plus référencés
+ */
+class FileStorageServiceTest {
+
+    // SHA-256 de "bulletin du premier trimestre"
+    private static final String EMPREINTE = "f82fea42e7d11c17144023e10b8e5c010a70bf6d2b9116b6114983f501e2bc66";
+
+    @TempDir
+    Path stockage;
+
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        fileStorageService = new FileStorageService(stockage.toString(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void memeContenuStockeUneSeuleFoisSousSonEmpreinte() throws IOException {
+        FileStorageService.StoredFile premier = fileStorageService.store(fichier("bulletin.pdf", "bulletin du premier trimestre"), "bulletins");
+        FileStorageService.StoredFile second = fileStorageService.store(fichier("copie.PDF", "bulletin du premier trimestre"), "autres");
+        FileStorageService.StoredFile autre = fileStorageService.store(fichier("bulletin.pdf", "bulletin du second trimestre"), "bulletins");
+
+        String empreinte = premier.sha256();
+        assertThat(empreinte).isEqualTo(EMPREINTE);
+        assertThat(second.sha256()).isEqualTo(empreinte);
+        assertThat(second.absolutePath()).isEqualTo(premier.absolutePath());
+        assertThat(autre.sha256()).isNotEqualTo(empreinte);
+
+        Path attendu = stockage.resolve("contenus").resolve(empreinte.substring(0, 2)).resolve(empreinte.substring(2, 4))
+                .resolve(empreinte + ".pdf");
+        assertThat(Path.of(premier.absolutePath())).isEqualTo(attendu.toAbsolutePath());
+        assertThat(premier.url()).endsWith("/uploads/contenus/" + empreinte.substring(0, 2) + "/"
+                + empreinte.substring(2, 4) + "/" + empreinte + ".pdf");
+        assertThat(Files.readString(attendu)).isEqualTo("bulletin du premier trimestre");
+        assertThat(fichiers()).hasSize(2);
+    }
+
+    @Test
+    void contenuLibereSupprimeApresLeDelaiDeGrace() throws IOException {
+        FileStorageService.StoredFile stocke = fileStorageService.store(fichier("photo.jpg", "photo"), "photos-activites");
+        Path fichier = Path.of(stocke.absolutePath());
+
+        // Réutilisé à l'instant : un envoi du même contenu peut être en cours
+        assertThat(fileStorageService.releaseContent(stocke.sha256(), Duration.ofMinutes(10))).isFalse();
+        assertThat(fichier).exists();
+
+        Files.setLastModifiedTime(fichier, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+        assertThat(fileStorageService.releaseContent(stocke.sha256(), Duration.ofMinutes(10))).isTrue();
+        assertThat(fichier).doesNotExist();
+    }
+
+    @Test
+    void purgeDesContenusNonReferences() throws IOException {
+        FileStorageService.StoredFile retenu = fileStorageService.store(fichier("a.png", "retenu"), "autres");
+        FileStorageService.StoredFile orphelin = fileStorageService.store(fichier("b.png", "orphelin"), "autres");
+        FileStorageService.StoredFile recent = fileStorageService.store(fichier("c.png", "recent"), "autres");
+        Path abandon = Files.createFile(stockage.resolve("contenus").resolve(".reception-1.tmp"));
+        for (Path ancien : new Path[]{Path.of(retenu.absolutePath()), Path.of(orphelin.absolutePath()), abandon}) {
+            Files.setLastModifiedTime(ancien, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        }
+
+        int supprimes = fileStorageService.purgeUnreferencedContents(Duration.ofHours(1),
+                empreintes -> empreintes.contains(retenu.sha256()) ? Set.of(retenu.sha256()) : Set.of());
+
+        assertThat(supprimes).isEqualTo(2);
+        assertThat(fichiers()).containsExactlyInAnyOrder(Path.of(retenu.absolutePath()), Path.of(recent.absolutePath()));
+    }
+
+    @Test
+    void contenuReutilisePendantLaPurgeConserve() throws IOException {
+        FileStorageService.StoredFile stocke = fileStorageService.store(fichier("a.png", "repris"), "autres");
+        Path fichier = Path.of(stocke.absolutePath());
+        Files.setLastModifiedTime(fichier, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        // Le même contenu est envoyé de nouveau entre le parcours de la purge et la suppression
+        int supprimes = fileStorageService.purgeUnreferencedContents(Duration.ofHours(1), empreintes -> {
+            try {
+                fileStorageService.store(fichier("b.png", "repris"), "autres");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Set.of();
+        });
+
+        assertThat(supprimes).isZero();
+        assertThat(fichier).exists();
+    }
+
+    private static MockMultipartFile fichier(String nom, String contenu) {
+        return new MockMultipartFile("file", nom, "application/octet-stream", contenu.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> fichiers() throws IOException {
+        try (Stream<Path> tous = Files.walk(stockage.resolve("contenus"))) {
+            return tous.filter(Files::isRegularFile).map(Path::toAbsolutePath).toList();
+        }
+    }
+}
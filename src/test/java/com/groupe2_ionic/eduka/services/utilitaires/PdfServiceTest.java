@@ -0,0 +1,65 @@
+package com.groupe2_ionic.eduka.services.utilitaires;
+
+import com.groupe2_ionic.eduka.DonneesTest;
+import com.groupe2_ionic.eduka.models.*;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Documents PDF : contenu du reçu et écriture en flux du rapport administratif
+ */
+class PdfServiceTest {
+
+    private final PdfService pdfService = new PdfService();
+
+    @Test
+    void recuDePaiementLisible() throws Exception {
+        byte[] recu = pdfService.genererRecuPaiement(paiement(1));
+
+        PdfReader lecteur = new PdfReader(recu);
+        String texte = new PdfTextExtractor(lecteur).getTextFromPage(1);
+        assertThat(lecteur.getNumberOfPages()).isEqualTo(1);
+        assertThat(texte).contains("REÇU DE PAIEMENT", "TX-1", "Aminata", "École Fraternité", "5000 FCFA");
+    }
+
+    @Test
+    void rapportAdministratifEcritAuFilDeLEau() throws Exception {
+        int nombre = 10_000;
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        AtomicInteger octetsAMiParcours = new AtomicInteger();
+        Stream<Paiement> paiements = IntStream.rangeClosed(1, nombre)
+                .peek(i -> {
+                    if (i == nombre / 2) {
+                        octetsAMiParcours.set(sortie.size());
+                    }
+                })
+                .mapToObj(PdfServiceTest::paiement);
+
+        pdfService.genererRapportAdministratif(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                List.of(paiement(0).getOrganisation()), paiements, nombre, new BigDecimal("50000000"), sortie);
+
+        // La moitié des pages est déjà partie avant la lecture de la seconde moitié des paiements
+        assertThat(octetsAMiParcours.get()).isGreaterThan(sortie.size() / 3);
+        PdfReader lecteur = new PdfReader(sortie.toByteArray());
+        int pages = lecteur.getNumberOfPages();
+        assertThat(pages).isGreaterThan(100);
+        PdfTextExtractor extracteur = new PdfTextExtractor(lecteur);
+        assertThat(extracteur.getTextFromPage(pages)).contains("TX-10000", "Page " + pages + " / " + pages);
+        assertThat(extracteur.getTextFromPage(2)).contains("Référence", "Montant");
+    }
+
+    static Paiement paiement(int i) {
+        return DonneesTest.paiementRecu(DonneesTest.organisationRecu(), i);
+    }
+}